@@ -0,0 +1,12 @@
+package com.navam.app.cache;
+
+import lombok.Data;
+
+@Data
+public class CacheStats {
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final int size;
+    private final int maxEntries;
+}
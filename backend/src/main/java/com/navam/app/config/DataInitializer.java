@@ -2,9 +2,15 @@ package com.navam.app.config;
 
 import com.navam.app.model.User;
 import com.navam.app.repository.UserRepository;
+import com.navam.app.security.TokenVersionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 import org.slf4j.Logger;
@@ -24,6 +30,12 @@ public class DataInitializer implements CommandLineRunner {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private TokenVersionService tokenVersionService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
     @Value("${app.admin.username}")
     private String adminUsername;
 
@@ -35,6 +47,9 @@ public class DataInitializer implements CommandLineRunner {
 
     @Override
     public void run(String... args) throws Exception {
+        normalizeStoredEmails();
+        String adminEmail = User.normalizeEmail(this.adminEmail);
+
         // Check if admin exists by username OR email
         if (userRepository.existsByUsername(adminUsername) || userRepository.existsByEmail(adminEmail)) {
             // Update existing admin to ensure roles are correct
@@ -46,11 +61,15 @@ public class DataInitializer implements CommandLineRunner {
             if (roles == null) {
                 roles = new HashSet<>();
             }
-            roles.add("ROLE_ADMIN");
-            roles.add("ROLE_USER");
+            boolean rolesChanged = roles.add("ROLE_ADMIN");
+            rolesChanged |= roles.add("ROLE_USER");
             admin.setPassword(passwordEncoder.encode(adminPassword)); // Always update password
             admin.setRoles(roles);
             userRepository.save(admin);
+            if (rolesChanged) {
+                // Tokens issued with the old roles must not keep working
+                tokenVersionService.bump(admin.getId());
+            }
             logger.info("Admin roles and password updated.");
         } else {
             // Create new admin
@@ -88,4 +107,24 @@ public class DataInitializer implements CommandLineRunner {
             logger.info("Test Client created: testclient");
         }
     }
+
+    // Emails stored before they were normalized; of two accounts differing only in case, the second keeps its own
+    private void normalizeStoredEmails() {
+        Query query = new Query(Criteria.where("email").regex("[A-Z]|^\\s|\\s$"));
+        query.fields().include("email");
+        int normalized = 0;
+        for (User user : mongoTemplate.find(query, User.class)) {
+            try {
+                mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(user.getId())),
+                        Update.update("email", User.normalizeEmail(user.getEmail())), User.class);
+                normalized++;
+            } catch (DuplicateKeyException e) {
+                logger.warn("User {} keeps email {}: another account already uses it in lowercase", user.getId(),
+                        user.getEmail());
+            }
+        }
+        if (normalized > 0) {
+            logger.info("Normalized the email of {} users", normalized);
+        }
+    }
 }
@@ -1,9 +1,13 @@
 package com.navam.app.config;
 
+import com.navam.app.security.BoundedPasswordEncoder;
 import com.navam.app.security.UserDetailsServiceImpl;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -12,7 +16,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -28,9 +31,38 @@ public class SecurityConfig {
     @Autowired
     UserDetailsServiceImpl userDetailsService;
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${navam.app.cors.allowedOrigins}")
+    private String[] allowedOrigins;
+
+    // 0 = calibrate at startup against bcrypt.targetMs, never below the cost calibrated before
+    @Value("${navam.app.bcrypt.strength:0}")
+    private int bcryptStrength;
+
+    @Value("${navam.app.bcrypt.targetMs:250}")
+    private long bcryptTargetMs;
+
+    // 0 = half the available processors, so hashing leaves CPU for serving requests
+    @Value("${navam.app.bcrypt.poolSize:0}")
+    private int bcryptPoolSize;
+
+    @Value("${navam.app.bcrypt.queueCapacity:32}")
+    private int bcryptQueueCapacity;
+
+    @Value("${navam.app.bcrypt.timeoutMs:10000}")
+    private long bcryptTimeoutMs;
+
+    @Bean(destroyMethod = "shutdown")
+    public BoundedPasswordEncoder passwordEncoder() {
+        int strength = bcryptStrength > 0 ? bcryptStrength
+                : BoundedPasswordEncoder.settleStrength(mongoTemplate,
+                        BoundedPasswordEncoder.calibrateStrength(bcryptTargetMs));
+        int poolSize = bcryptPoolSize > 0 ? bcryptPoolSize
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), poolSize, bcryptQueueCapacity,
+                bcryptTimeoutMs);
     }
 
     @Bean
@@ -39,6 +71,8 @@ public class SecurityConfig {
 
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        // Rehashes a stored password on successful login when its cost is below the current one
+        authProvider.setUserDetailsPasswordService(userDetailsService);
 
         return authProvider;
     }
@@ -53,15 +87,25 @@ public class SecurityConfig {
         return new com.navam.app.security.AuthTokenFilter();
     }
 
+    @Bean
+    public com.navam.app.security.RateLimitFilter rateLimitFilter() {
+        return new com.navam.app.security.RateLimitFilter();
+    }
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http.csrf(csrf -> csrf.disable())
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-                .authorizeHttpRequests(auth -> auth.requestMatchers("/api/auth/**").permitAll()
+                .authorizeHttpRequests(auth -> auth
+                        // Re-dispatches of streamed responses; the original request was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/contact/**").permitAll()
                         .requestMatchers(org.springframework.http.HttpMethod.OPTIONS, "/**").permitAll()
                         .requestMatchers("/api/requests/submit").permitAll()
+                        // Authenticated by TokenHandshakeInterceptor from the ?token= parameter
+                        .requestMatchers("/ws/**").permitAll()
                         .requestMatchers("/api/mcp/**").authenticated() // Require login for MCP
                         .anyRequest().authenticated());
 
@@ -69,6 +113,9 @@ public class SecurityConfig {
 
         http.addFilterBefore(authenticationJwtTokenFilter(),
                 org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter.class);
+        // After the JWT filter, so signed-in callers are limited per user rather than per IP
+        http.addFilterAfter(rateLimitFilter(),
+                org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
@@ -76,10 +123,7 @@ public class SecurityConfig {
     @Bean
     public UrlBasedCorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
-        configuration.setAllowedOriginPatterns(Arrays.asList(
-                "https://navam.onrender.com",
-                "http://localhost:5173"
-        ));// Frontend URL
+        configuration.setAllowedOriginPatterns(Arrays.asList(allowedOrigins)); // Frontend URLs
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type"));
         configuration.setAllowCredentials(true);
@@ -0,0 +1,59 @@
+package com.navam.app.config;
+
+import com.navam.app.realtime.MessageHub;
+import com.navam.app.realtime.MessageWebSocketHandler;
+import com.navam.app.realtime.TokenHandshakeInterceptor;
+import com.navam.app.security.TokenAuthenticationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    @Autowired
+    private MessageHub messageHub;
+
+    @Autowired
+    private TokenAuthenticationService tokenAuthenticationService;
+
+    // Frames queued per connection before it is considered too slow and closed
+    @Value("${navam.app.ws.sendQueueCapacity:64}")
+    private int sendQueueCapacity;
+
+    @Value("${navam.app.ws.senderThreads:4}")
+    private int senderThreads;
+
+    // Same list as the HTTP CORS configuration; browsers send Origin on the handshake
+    @Value("${navam.app.cors.allowedOrigins}")
+    private String[] allowedOrigins;
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService webSocketSender() {
+        return Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "ws-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Bean
+    public MessageWebSocketHandler messageWebSocketHandler() {
+        return new MessageWebSocketHandler(messageHub, webSocketSender(), sendQueueCapacity);
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(messageWebSocketHandler(), "/ws/messages")
+                .addInterceptors(new TokenHandshakeInterceptor(tokenAuthenticationService))
+                .setAllowedOriginPatterns(allowedOrigins);
+    }
+}
@@ -0,0 +1,60 @@
+package com.navam.app.controller;
+
+import com.navam.app.dto.AnalyticsReport;
+import com.navam.app.model.AnalyticsBackfillJob;
+import com.navam.app.service.AnalyticsBackfillService;
+import com.navam.app.service.AnalyticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private AnalyticsBackfillService analyticsBackfillService;
+
+    /**
+     * Service requests by type and status, projects started and completed, and tasks completed
+     * per day, week or month. Defaults to the last year by week. Read from the daily buckets.
+     */
+    @GetMapping("/rollups")
+    @PreAuthorize("hasRole('ADMIN')")
+    public AnalyticsReport getRollups(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "week") String granularity) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusYears(1).plusDays(1);
+        return analyticsService.report(start, end, AnalyticsReport.Granularity.valueOf(granularity.toUpperCase()));
+    }
+
+    @GetMapping("/backfill")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<AnalyticsBackfillJob> getBackfill() {
+        return ResponseEntity.of(analyticsBackfillService.getJob());
+    }
+
+    /**
+     * Rebuilds every daily bucket from the source collections in the background.
+     */
+    @PostMapping("/backfill")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<AnalyticsBackfillJob> startBackfill() {
+        return ResponseEntity.accepted().body(analyticsBackfillService.start());
+    }
+}
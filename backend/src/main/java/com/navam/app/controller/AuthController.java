@@ -4,6 +4,11 @@ import com.navam.app.dto.JwtResponse;
 import com.navam.app.dto.LoginRequest;
 import com.navam.app.dto.MessageResponse;
 import com.navam.app.dto.SignupRequest;
+import com.navam.app.exception.ServiceBusyException;
+import com.navam.app.security.JwtUtils;
+import com.navam.app.security.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
 import com.navam.app.service.AuthService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,11 +26,19 @@ public class AuthController {
     @Autowired
     AuthService authService;
 
+    @Autowired
+    JwtUtils jwtUtils;
+
+    @Autowired
+    TokenRevocationService tokenRevocationService;
+
     @PostMapping("/login")
     public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
         try {
             JwtResponse jwtResponse = authService.authenticateUser(loginRequest);
             return ResponseEntity.ok(jwtResponse);
+        } catch (ServiceBusyException e) {
+            throw e; // 503 with Retry-After from GlobalExceptionHandler, not a failed login
         } catch (Exception e) {
             logger.error("Authentication failed for user {}: {}", loginRequest.getUsername(), e.getMessage());
             return ResponseEntity.status(401).body(new MessageResponse("Login failed: " + e.getMessage()));
@@ -37,8 +50,23 @@ public class AuthController {
         try {
             MessageResponse response = authService.registerUser(signUpRequest);
             return ResponseEntity.ok(response);
+        } catch (ServiceBusyException e) {
+            throw e;
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
         }
     }
+
+    @PostMapping("/logout")
+    public ResponseEntity<?> logoutUser(HttpServletRequest request) {
+        String headerAuth = request.getHeader("Authorization");
+        if (headerAuth != null && headerAuth.startsWith("Bearer ")) {
+            Claims claims = jwtUtils.parseValidatedClaims(headerAuth.substring(7));
+            if (claims != null) {
+                tokenRevocationService.revoke(claims.getId(), claims.get(JwtUtils.CLAIM_USER_ID, String.class),
+                        claims.getExpiration());
+            }
+        }
+        return ResponseEntity.ok(new MessageResponse("Logged out successfully!"));
+    }
 }
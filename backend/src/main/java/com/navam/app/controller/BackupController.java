@@ -0,0 +1,64 @@
+package com.navam.app.controller;
+
+import com.navam.app.model.ImportCheckpoint;
+import com.navam.app.service.BackupService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/admin")
+public class BackupController {
+
+    @Autowired
+    private BackupService backupService;
+
+    /**
+     * Streams the selected collections (all by default) as gzip NDJSON. Password hashes are
+     * left out of users unless includePasswords=true.
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(required = false) List<String> collections,
+            @RequestParam(defaultValue = "false") boolean includePasswords) {
+        List<String> selected = collections == null || collections.isEmpty() ? BackupService.COLLECTIONS : collections;
+        for (String collection : selected) {
+            if (!BackupService.COLLECTIONS.contains(collection)) {
+                throw new IllegalArgumentException("Unknown collection: " + collection);
+            }
+        }
+
+        StreamingResponseBody body = out -> {
+            GZIPOutputStream gzip = new GZIPOutputStream(out, 64 * 1024);
+            backupService.export(gzip, selected, includePasswords);
+            gzip.finish();
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"navam-export-" + LocalDate.now() + ".ndjson.gz\"")
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .body(body);
+    }
+
+    /**
+     * Imports an export file sent as the raw request body (gzip or plain NDJSON). Pass the
+     * same importId again to resume an interrupted import.
+     */
+    @PostMapping("/import")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ImportCheckpoint importData(HttpServletRequest request,
+            @RequestParam(required = false) String importId) throws IOException {
+        return backupService.importStream(request.getInputStream(), importId);
+    }
+}
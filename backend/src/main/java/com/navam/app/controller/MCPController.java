@@ -1,10 +1,12 @@
 package com.navam.app.controller;
 
+import com.navam.app.event.ProjectChangedEvent;
 import com.navam.app.model.Project;
 import com.navam.app.model.ProjectTask;
 import com.navam.app.repository.ProjectRepository;
 import com.navam.app.service.GeminiService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -30,6 +32,9 @@ public class MCPController {
     @Autowired
     private GeminiService geminiService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // 1. List Available Tools
     @GetMapping("/tools")
     public ResponseEntity<List<Map<String, Object>>> listTools() {
@@ -139,31 +144,22 @@ public class MCPController {
             String projectId = (String) args.get("projectId");
             String taskDescription = (String) args.get("taskDescription");
 
-            Optional<Project> projectOpt = projectRepository.findById(projectId);
-            if (projectOpt.isPresent()) {
-                Project project = projectOpt.get();
-                if (!isAdmin && !project.getClientId().equals(currentUserId)) {
-                    return ResponseEntity.status(403).body("Access denied to this project");
-                }
-
-                List<ProjectTask> tasks = project.getTasks();
-                if (tasks == null) {
-                    tasks = new ArrayList<>();
-                }
-
-                ProjectTask newTask = new ProjectTask();
-                newTask.setId(UUID.randomUUID().toString());
-                newTask.setTitle(taskDescription);
-                newTask.setStatus("Pending");
-                newTask.setAssignee("Admin");
-                newTask.setCompleted(false);
-                newTask.setDueDate(java.time.LocalDateTime.now().plusDays(7));
-
-                tasks.add(newTask);
-                project.setTasks(tasks);
-                projectRepository.save(project);
-
+            ProjectTask newTask = new ProjectTask();
+            newTask.setId(UUID.randomUUID().toString());
+            newTask.setTitle(taskDescription);
+            newTask.setStatus("Pending");
+            newTask.setAssignee("Admin");
+            newTask.setCompleted(false);
+            newTask.setDueDate(java.time.LocalDateTime.now().plusDays(7));
+
+            // Clients may only add to their own projects; the ownership check is part of the update
+            Project updated = projectRepository.pushTask(projectId, isAdmin ? null : currentUserId, newTask);
+            if (updated != null) {
+                eventPublisher.publishEvent(new ProjectChangedEvent(projectId, updated.getClientId(),
+                        ProjectChangedEvent.Type.TASKS_CHANGED, newTask));
                 return ResponseEntity.ok(Map.of("message", "Task added successfully", "task", newTask));
+            } else if (projectRepository.existsById(projectId)) {
+                return ResponseEntity.status(403).body("Access denied to this project");
             } else {
                 return ResponseEntity.status(404).body("Project not found");
             }
@@ -174,17 +170,15 @@ public class MCPController {
             String projectId = (String) args.get("projectId");
             String status = (String) args.get("status");
 
-            Optional<Project> projectOpt = projectRepository.findById(projectId);
-            if (projectOpt.isPresent()) {
-                Project project = projectOpt.get();
-                if (!isAdmin && !project.getClientId().equals(currentUserId)) {
-                    return ResponseEntity.status(403).body("Access denied to this project");
-                }
-
-                project.setStatus(status);
-                projectRepository.save(project);
+            // In place, like create_task: tasks written meanwhile are kept and the version moves on
+            Project previous = projectRepository.updateStatus(projectId, isAdmin ? null : currentUserId, status);
+            if (previous != null) {
+                eventPublisher.publishEvent(new ProjectChangedEvent(projectId, previous.getClientId(),
+                        ProjectChangedEvent.Type.UPDATED, previous.getStatus(), status, previous.getServiceType()));
 
                 return ResponseEntity.ok(Map.of("message", "Project status updated successfully", "status", status));
+            } else if (projectRepository.existsById(projectId)) {
+                return ResponseEntity.status(403).body("Access denied to this project");
             } else {
                 return ResponseEntity.status(404).body("Project not found");
             }
@@ -1,10 +1,21 @@
 package com.navam.app.controller;
 
+import com.navam.app.dto.InboxEntry;
+import com.navam.app.dto.MessagePage;
+import com.navam.app.dto.MessageSearchHit;
+import com.navam.app.dto.MessageSearchPage;
+import com.navam.app.dto.MessageSendResult;
 import com.navam.app.model.Message;
 import com.navam.app.model.User;
+import com.navam.app.repository.MessageCursor;
 import com.navam.app.repository.MessageRepository;
 import com.navam.app.repository.UserRepository;
 import com.navam.app.security.UserDetailsImpl;
+import com.navam.app.service.MessageCommitter;
+import com.navam.app.service.MessageHighlighter;
+import com.navam.app.service.MessageSearchIndex;
+import com.navam.app.service.UnreadCounterService;
+import com.navam.app.service.UserDirectory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -13,8 +24,11 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -22,42 +36,171 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/messages")
 public class MessageController {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_INBOX_SIZE = 500;
+    private static final int MAX_SEARCH_PAGE_SIZE = 50;
+    private static final int SNIPPET_LENGTH = 160;
+
     @Autowired
     private MessageRepository messageRepository;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private MessageCommitter messageCommitter;
+
+    @Autowired
+    private UnreadCounterService unreadCounterService;
+
+    @Autowired
+    private UserDirectory userDirectory;
+
+    @Autowired
+    private MessageSearchIndex messageSearchIndex;
+
     @PostMapping("/send")
     @PreAuthorize("hasRole('USER') or hasRole('CLIENT') or hasRole('ADMIN')")
     public ResponseEntity<?> sendMessage(@RequestBody Message message) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
 
+        message.setId(null); // Always a new message; never overwrite an existing one
         message.setSenderId(userDetails.getId());
-        message.setCreatedAt(LocalDateTime.now());
+        message.setCreatedAt(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS)); // Mongo dates keep millis
         message.setRead(false);
 
-        System.out.println("Sending message from: " + message.getSenderId() + " to: " + message.getReceiverId()
-                + " Subject: " + message.getSubject() + " Priority: " + message.getPriority()
-                + " Content: " + message.getContent());
-
-        messageRepository.save(message);
-        return ResponseEntity.ok("Message sent successfully");
+        MessageCommitter.Sent sent = messageCommitter.send(message);
+        return ResponseEntity.ok(new MessageSendResult(sent.message().getId(), sent.stored() ? "stored" : "queued"));
     }
 
     @GetMapping("/conversation/{userId}")
     @PreAuthorize("hasRole('USER') or hasRole('CLIENT') or hasRole('ADMIN')")
     public List<Message> getConversation(@PathVariable String userId) {
+        return getConversationPage(userId, null, null, DEFAULT_PAGE_SIZE).getMessages();
+    }
+
+    @GetMapping("/conversation/{userId}/page")
+    @PreAuthorize("hasRole('USER') or hasRole('CLIENT') or hasRole('ADMIN')")
+    public MessagePage getConversationPage(@PathVariable String userId,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int limit) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        // The repository adds one row past the page when another page exists
+        List<Message> messages = messageRepository.findConversationPage(userDetails.getId(), userId,
+                MessageCursor.decode(before), MessageCursor.decode(after), pageSize);
+        boolean hasMore = messages.size() > pageSize;
+        if (hasMore) {
+            messages = messages.subList(0, pageSize);
+        }
+        // Paging continues the way it started: on from the newest row of an "after" page, else the oldest
+        boolean forward = after != null && before == null;
+        String nextCursor = hasMore
+                ? MessageCursor.of(messages.get(forward ? 0 : messages.size() - 1)).encode()
+                : null;
+        return new MessagePage(messages, nextCursor, hasMore);
+    }
+
+    /**
+     * Word search over the subject and content of the caller's messages, newest first, served
+     * by the in-memory search index and keyset-paged with "before".
+     */
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('USER') or hasRole('CLIENT') or hasRole('ADMIN')")
+    public MessageSearchPage searchMessages(@RequestParam String q,
+            @RequestParam(required = false) String before,
+            @RequestParam(defaultValue = "20") int limit) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        if (q.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be empty");
+        }
+        Set<String> terms = MessageHighlighter.terms(q);
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Search query needs at least one word to look for");
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_SEARCH_PAGE_SIZE));
+
+        List<MessageCursor> found = messageSearchIndex.search(userDetails.getId(), terms,
+                MessageHighlighter.excludedTerms(q), MessageCursor.decode(before), pageSize + 1);
+        boolean hasMore = found.size() > pageSize;
+        if (hasMore) {
+            found = found.subList(0, pageSize);
+        }
+        // One query for the page; a message deleted since it was indexed is left out
+        Map<String, Message> byId = messageRepository.findAllById(found.stream().map(MessageCursor::getId).toList())
+                .stream()
+                .collect(Collectors.toMap(Message::getId, message -> message));
+
+        List<MessageSearchHit> hits = found.stream().map(position -> byId.get(position.getId()))
+                .filter(Objects::nonNull)
+                .map(message -> {
+                    MessageHighlighter.Snippet snippet = MessageHighlighter.snippet(message.getContent(), terms,
+                            SNIPPET_LENGTH);
+                    return new MessageSearchHit(message, MessageHighlighter.find(message.getSubject(), terms),
+                            snippet.text(), snippet.highlights());
+                }).collect(Collectors.toList());
+        String nextCursor = hasMore ? found.get(found.size() - 1).encode() : null;
+        return new MessageSearchPage(hits, nextCursor, hasMore);
+    }
+
+    /**
+     * One row per counterpart with the latest message preview and unread count, newest first.
+     */
+    @GetMapping("/inbox")
+    @PreAuthorize("hasRole('USER') or hasRole('CLIENT') or hasRole('ADMIN')")
+    public List<InboxEntry> getInbox(@RequestParam(defaultValue = "100") int limit) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+
+        List<InboxEntry> inbox = messageRepository.findInbox(userDetails.getId(),
+                Math.max(1, Math.min(limit, MAX_INBOX_SIZE)));
+        inbox.removeIf(entry -> entry.getCounterpartId() == null);
+        if (inbox.isEmpty()) {
+            return inbox;
+        }
+
+        Map<String, String> names = userRepository.findSummariesByIdIn(inbox.stream()
+                        .map(InboxEntry::getCounterpartId).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(User::getId,
+                        user -> user.getFullName() != null ? user.getFullName() : user.getUsername()));
+        Map<String, Long> unread = unreadCounterService.getCounts(userDetails.getId());
+        for (InboxEntry entry : inbox) {
+            entry.setCounterpartName(names.get(entry.getCounterpartId()));
+            entry.setUnreadCount(unread.getOrDefault(entry.getCounterpartId(), 0L));
+        }
+        return inbox;
+    }
+
+    @GetMapping("/unread")
+    @PreAuthorize("hasRole('USER') or hasRole('CLIENT') or hasRole('ADMIN')")
+    public Map<String, Object> getUnreadCounts() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
-        String currentUserId = userDetails.getId();
 
-        System.out.println("Fetching conversation between: " + currentUserId + " and " + userId);
+        Map<String, Long> counts = unreadCounterService.getCounts(userDetails.getId());
+        long total = counts.values().stream().mapToLong(Long::longValue).sum();
+        return Map.of("counts", counts, "total", total);
+    }
+
+    /**
+     * Marks the conversation read up to the "upTo" cursor (inclusive), or entirely when omitted.
+     */
+    @PostMapping("/conversation/{userId}/read")
+    @PreAuthorize("hasRole('USER') or hasRole('CLIENT') or hasRole('ADMIN')")
+    public Map<String, Object> markConversationRead(@PathVariable String userId,
+            @RequestParam(required = false) String upTo) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
 
-        List<Message> messages = messageRepository.findConversation(currentUserId, userId);
-        System.out.println("Found " + messages.size() + " messages.");
-        return messages;
+        long marked = unreadCounterService.markRead(userDetails.getId(), userId, MessageCursor.decode(upTo));
+        return Map.of("marked", marked);
     }
 
     @GetMapping("/contacts")
@@ -71,16 +214,10 @@ public class MessageController {
 
         if (roles.contains("ROLE_ADMIN")) {
             // Admin sees all clients
-            return userRepository.findAll().stream()
-                    .filter(user -> user.getRoles() != null &&
-                            (user.getRoles().contains("ROLE_CLIENT") || user.getRoles().contains("client")))
-                    .collect(Collectors.toList());
+            return userDirectory.getClients();
         } else {
             // Client sees Admins
-            return userRepository.findAll().stream()
-                    .filter(user -> user.getRoles() != null &&
-                            (user.getRoles().contains("ROLE_ADMIN") || user.getRoles().contains("admin")))
-                    .collect(Collectors.toList());
+            return userDirectory.getAdmins();
         }
     }
 }
@@ -1,56 +1,138 @@
 package com.navam.app.controller;
 
+import com.navam.app.dto.ClientStats;
+import com.navam.app.dto.ErrorResponse;
+import com.navam.app.dto.ListPage;
+import com.navam.app.dto.ProjectDetail;
+import com.navam.app.dto.TaskBatchRequest;
+import com.navam.app.dto.TaskBatchResult;
+import com.navam.app.dto.TaskOperation;
+import com.navam.app.dto.TaskPage;
+import com.navam.app.event.ProjectChangedEvent;
 import com.navam.app.model.Project;
+import com.navam.app.model.ProjectTask;
+import com.navam.app.realtime.EmitterSubscriber;
+import com.navam.app.realtime.ProjectEventHub;
+import com.navam.app.repository.ListQueryExecutor;
+import com.navam.app.repository.ListSpec;
+import com.navam.app.repository.ListStamp;
 import com.navam.app.repository.ProjectRepository;
 import com.navam.app.security.UserDetailsImpl;
+import com.navam.app.service.ClientStatsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
 @RequestMapping("/api/projects")
 public class ProjectController {
 
+    private static final int MAX_TASK_PAGE_SIZE = 200;
+
+    // Browsers keep the response but revalidate it with If-None-Match on every use
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    // Description and tasks stay out of list pages unless asked for; tasks are paged separately
+    static final ListSpec<Project> PROJECT_LIST = ListSpec.of(Project.class)
+            .filter("status").filter("serviceType").filter("priority").filter("clientId")
+            .range("createdAt").range("endDate")
+            .sort("createdAt").sort("name")
+            .fields("id", "name", "description", "status", "serviceType", "clientId", "update", "progress",
+                    "priority", "startDate", "endDate", "createdAt", "updatedAt", "version")
+            .defaultFields("id", "name", "status", "serviceType", "clientId", "progress", "priority",
+                    "startDate", "endDate", "createdAt", "updatedAt")
+            .lastModified("updatedAt")
+            .build();
+
     @Autowired
     private ProjectRepository projectRepository;
 
+    @Autowired
+    private ListQueryExecutor listQueryExecutor;
+
+    @Autowired
+    private ClientStatsService clientStatsService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ProjectEventHub projectEventHub;
+
+    // Streams share the WebSocket sender pool: frames are queued per subscriber and written there
+    @Autowired
+    @Qualifier("webSocketSender")
+    private ExecutorService eventSender;
+
+    @Value("${navam.app.projectEvents.timeoutMs:1800000}")
+    private long eventStreamTimeoutMs;
+
+    @Value("${navam.app.projectEvents.sendQueueCapacity:64}")
+    private int eventSendQueueCapacity;
+
+    @Value("${navam.app.tasks.batchMax:100}")
+    private int taskBatchMax;
+
     @GetMapping("/my-projects")
     @PreAuthorize("hasRole('CLIENT')")
-    public List<Project> getMyProjects() {
+    public ResponseEntity<List<Project>> getMyProjects(WebRequest request) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
-        return projectRepository.findByClientId(userDetails.getId());
+        String clientId = userDetails.getId();
+
+        // Only a conditional request needs the probe; otherwise the tag comes from the rows themselves
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            ListStamp stamp = listQueryExecutor.stamp(Project.class, Criteria.where("clientId").is(clientId),
+                    "updatedAt");
+            if (request.checkNotModified(listETag(stamp, "my-projects", clientId))) {
+                return null;
+            }
+        }
+        List<Project> projects = projectRepository.findByClientId(clientId);
+        return ResponseEntity.ok().eTag(listETag(stampOf(projects), "my-projects", clientId))
+                .cacheControl(REVALIDATE)
+                .body(projects);
     }
 
     @GetMapping("/stats")
     @PreAuthorize("hasRole('CLIENT')")
-    public ResponseEntity<?> getClientStats() {
+    public ClientStats getClientStats() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
-        String clientId = userDetails.getId();
-
-        long activeProjects = projectRepository.countByClientIdAndStatus(clientId, "Active");
-        long completedProjects = projectRepository.countByClientIdAndStatus(clientId, "Completed");
-        long pendingTasks = projectRepository.countByClientIdAndStatus(clientId, "Pending"); // Assuming pending
-                                                                                             // projects count as tasks
-                                                                                             // for now
-
-        Map<String, Object> stats = new HashMap<>();
-        stats.put("activeProjects", activeProjects);
-        stats.put("completedProjects", completedProjects);
-        stats.put("pendingTasks", pendingTasks);
-        stats.put("needsReview", 0); // Placeholder
-
-        return ResponseEntity.ok(stats);
+        return clientStatsService.getStats(userDetails.getId());
     }
 
     @PostMapping("/create")
@@ -58,6 +140,9 @@ public class ProjectController {
     public ResponseEntity<?> createProject(@RequestBody Project project) {
         project.setCreatedAt(LocalDateTime.now());
         project.setUpdatedAt(LocalDateTime.now());
+        if ("Completed".equals(project.getStatus())) {
+            project.setCompletedAt(project.getCreatedAt());
+        }
         if (project.getTasks() == null) {
             project.setTasks(new java.util.ArrayList<>());
         }
@@ -65,62 +150,286 @@ public class ProjectController {
             project.setPriority("Medium");
         }
         projectRepository.save(project);
+        eventPublisher.publishEvent(new ProjectChangedEvent(project.getId(), project.getClientId(),
+                ProjectChangedEvent.Type.CREATED, null, project.getStatus(), project.getServiceType()));
         return ResponseEntity.ok("Project created successfully!");
     }
 
+    /**
+     * Appends a task in place. Responds with the new task, or with the whole project when
+     * view=project.
+     */
     @PostMapping("/{projectId}/tasks")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> addTask(@PathVariable String projectId,
-            @RequestBody com.navam.app.model.ProjectTask task) {
-        return projectRepository.findById(projectId).map(project -> {
-            if (project.getTasks() == null) {
-                project.setTasks(new java.util.ArrayList<>());
-            }
-            task.setId(java.util.UUID.randomUUID().toString());
-            project.getTasks().add(task);
-            project.setUpdatedAt(LocalDateTime.now());
-            projectRepository.save(project);
-            return ResponseEntity.ok(project);
-        }).orElse(ResponseEntity.notFound().build());
+            @RequestBody ProjectTask task,
+            @RequestParam(defaultValue = "task") String view) {
+        task.setId(UUID.randomUUID().toString());
+        task.setCompletedAt(task.isCompleted() || "Completed".equals(task.getStatus()) ? LocalDateTime.now() : null);
+        Project project = projectRepository.pushTask(projectId, null, task);
+        if (project == null) {
+            return ResponseEntity.notFound().build();
+        }
+        eventPublisher.publishEvent(new ProjectChangedEvent(projectId, project.getClientId(),
+                ProjectChangedEvent.Type.TASKS_CHANGED, task));
+        return taskResponse(projectId, task, view);
     }
 
     @PutMapping("/{projectId}/tasks/{taskId}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('CLIENT')")
     public ResponseEntity<?> updateTask(@PathVariable String projectId, @PathVariable String taskId,
-            @RequestBody com.navam.app.model.ProjectTask taskUpdate) {
-        return projectRepository.findById(projectId).map(project -> {
-            boolean found = false;
-            if (project.getTasks() != null) {
-                for (com.navam.app.model.ProjectTask task : project.getTasks()) {
-                    if (task.getId().equals(taskId)) {
-                        task.setStatus(taskUpdate.getStatus());
-                        task.setCompleted(taskUpdate.isCompleted());
-                        found = true;
-                        break;
-                    }
+            @RequestBody ProjectTask taskUpdate,
+            @RequestParam(defaultValue = "task") String view) {
+        Project project = projectRepository.updateTaskStatus(projectId, taskId, taskUpdate.getStatus(),
+                taskUpdate.isCompleted());
+        if (project == null) {
+            return ResponseEntity.notFound().build();
+        }
+        ProjectTask task = project.getTasks().get(0);
+        eventPublisher.publishEvent(new ProjectChangedEvent(projectId, project.getClientId(),
+                ProjectChangedEvent.Type.TASKS_CHANGED, task));
+        return taskResponse(projectId, task, view);
+    }
+
+    /**
+     * Creates, updates and deletes tasks in one atomic write. With a version, the batch applies
+     * only if the project is still at it and otherwise fails with 409 and nothing written.
+     * Responds with the new version and one result per operation, in request order.
+     */
+    @PostMapping("/{projectId}/tasks/batch")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> applyTaskBatch(@PathVariable String projectId, @RequestBody TaskBatchRequest request) {
+        List<TaskOperation> operations = request.getOperations();
+        validateTaskBatch(operations);
+        for (TaskOperation op : operations) {
+            if (TaskOperation.CREATE.equals(op.getOp())) {
+                op.setTaskId(UUID.randomUUID().toString());
+                if (op.getStatus() == null) {
+                    op.setStatus("Pending");
                 }
             }
-            if (found) {
-                project.setUpdatedAt(LocalDateTime.now());
-                projectRepository.save(project);
-                return ResponseEntity.ok(project);
-            } else {
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Project before = projectRepository.applyTaskBatch(projectId, request.getVersion(), operations, now);
+        if (before == null) {
+            Project current = projectRepository.findVersion(projectId);
+            if (current == null) {
                 return ResponseEntity.notFound().build();
             }
-        }).orElse(ResponseEntity.notFound().build());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorResponse(HttpStatus.CONFLICT.value(),
+                    "Project changed since version " + request.getVersion() + ", now at " + current.getVersion(),
+                    now));
+        }
+
+        Map<String, ProjectTask> existing = (before.getTasks() != null ? before.getTasks() : List.<ProjectTask>of())
+                .stream().collect(Collectors.toMap(ProjectTask::getId, Function.identity(), (a, b) -> a));
+        List<TaskBatchResult.Outcome> outcomes = new ArrayList<>();
+        List<ProjectTask> changed = new ArrayList<>();
+        boolean deleted = false;
+        for (int i = 0; i < operations.size(); i++) {
+            TaskOperation op = operations.get(i);
+            ProjectTask old = existing.get(op.getTaskId());
+            String result;
+            if (TaskOperation.CREATE.equals(op.getOp())) {
+                changed.add(new ProjectTask(op.getTaskId(), op.getTitle(), op.getStatus(), op.getAssignee(),
+                        op.getDueDate(), op.completes(), op.completes() ? now : null));
+                result = "created";
+            } else if (old == null) {
+                result = "not_found";
+            } else if (TaskOperation.UPDATE.equals(op.getOp())) {
+                changed.add(applied(old, op, now));
+                result = "updated";
+            } else {
+                deleted = true;
+                result = "deleted";
+            }
+            outcomes.add(new TaskBatchResult.Outcome(i, op.getOp(), op.getTaskId(), result));
+        }
+
+        for (ProjectTask task : changed) {
+            eventPublisher.publishEvent(new ProjectChangedEvent(projectId, before.getClientId(),
+                    ProjectChangedEvent.Type.TASKS_CHANGED, task));
+        }
+        if (deleted) {
+            eventPublisher.publishEvent(new ProjectChangedEvent(projectId, before.getClientId(),
+                    ProjectChangedEvent.Type.TASKS_CHANGED));
+        }
+        return ResponseEntity.ok(new TaskBatchResult(before.getVersion() + 1, outcomes));
+    }
+
+    private void validateTaskBatch(List<TaskOperation> operations) {
+        if (operations == null || operations.isEmpty()) {
+            throw new IllegalArgumentException("No operations given");
+        }
+        if (operations.size() > taskBatchMax) {
+            throw new IllegalArgumentException("At most " + taskBatchMax + " operations per batch");
+        }
+        Set<String> targets = new HashSet<>();
+        for (int i = 0; i < operations.size(); i++) {
+            TaskOperation op = operations.get(i);
+            if (TaskOperation.CREATE.equals(op.getOp())) {
+                if (op.getTitle() == null || op.getTitle().isBlank()) {
+                    throw new IllegalArgumentException("Operation " + i + ": create needs a title");
+                }
+            } else if (TaskOperation.UPDATE.equals(op.getOp()) || TaskOperation.DELETE.equals(op.getOp())) {
+                if (op.getTaskId() == null) {
+                    throw new IllegalArgumentException("Operation " + i + ": " + op.getOp() + " needs a taskId");
+                }
+                // Each task is touched once, so the outcome of a batch does not depend on its order
+                if (!targets.add(op.getTaskId())) {
+                    throw new IllegalArgumentException("Operation " + i + ": task " + op.getTaskId()
+                            + " appears more than once");
+                }
+            } else {
+                throw new IllegalArgumentException("Operation " + i + ": unknown op " + op.getOp());
+            }
+        }
+    }
+
+    // The task as the batch left it, mirroring the merge done in the database
+    private static ProjectTask applied(ProjectTask old, TaskOperation op, LocalDateTime now) {
+        return new ProjectTask(old.getId(),
+                op.getTitle() != null ? op.getTitle() : old.getTitle(),
+                op.getStatus() != null ? op.getStatus() : old.getStatus(),
+                op.getAssignee() != null ? op.getAssignee() : old.getAssignee(),
+                op.getDueDate() != null ? op.getDueDate() : old.getDueDate(),
+                op.getCompleted() != null ? op.getCompleted() : old.isCompleted(),
+                old.getCompletedAt() != null || !op.completes() ? old.getCompletedAt() : now);
+    }
+
+    private ResponseEntity<?> taskResponse(String projectId, ProjectTask task, String view) {
+        if ("project".equals(view)) {
+            return projectRepository.findById(projectId)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        }
+        return ResponseEntity.ok(task);
     }
 
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN')")
-    public List<Project> getAllProjects() {
-        return projectRepository.findAll();
+    public ResponseEntity<ListPage<Project>> getAllProjects(@RequestParam Map<String, String> params,
+            WebRequest request) {
+        String etag = listETag(listQueryExecutor.stamp(PROJECT_LIST, params), "all", new TreeMap<>(params));
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE)
+                .body(listQueryExecutor.find(PROJECT_LIST, params));
     }
 
+    /**
+     * The project with task counts only; include=tasks returns the full embedded task list as well.
+     * A conditional request is answered from the project's version alone when nothing changed.
+     */
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('CLIENT')")
-    public ResponseEntity<?> getProjectById(@PathVariable String id) {
-        return projectRepository.findById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<?> getProjectById(@PathVariable String id,
+            @RequestParam(required = false) String include,
+            WebRequest request) {
+        boolean withTasks = "tasks".equals(include);
+        String variant = withTasks ? "tasks" : "detail";
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Project version = projectRepository.findVersion(id);
+            if (version == null) {
+                return ResponseEntity.notFound().build();
+            }
+            if (request.checkNotModified(projectETag(version, variant))) {
+                return null;
+            }
+        }
+
+        if (withTasks) {
+            return projectRepository.findById(id)
+                    .map(project -> ResponseEntity.ok().eTag(projectETag(project, variant)).cacheControl(REVALIDATE)
+                            .body(project))
+                    .orElse(ResponseEntity.notFound().build());
+        }
+        Project project = projectRepository.findWithoutTasks(id);
+        if (project == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok().eTag(projectETag(project, variant)).cacheControl(REVALIDATE)
+                .body(new ProjectDetail(project, projectRepository.summarizeTasks(id)));
+    }
+
+    @GetMapping("/{id}/tasks")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('CLIENT')")
+    public ResponseEntity<TaskPage> getTasks(@PathVariable String id,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String assignee,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "50") int limit) {
+        TaskPage page = projectRepository.findTasks(id, status, assignee, Math.max(0, offset),
+                Math.max(1, Math.min(limit, MAX_TASK_PAGE_SIZE)));
+        return page != null ? ResponseEntity.ok(page) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Server-sent events with the project's task and status changes. Clients see only their
+     * own projects. A reconnect with Last-Event-ID replays what it missed from a bounded buffer,
+     * or sends a reset event when that is no longer possible.
+     */
+    @GetMapping("/{id}/events")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('CLIENT')")
+    public ResponseEntity<ResponseBodyEmitter> streamEvents(@PathVariable String id,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        boolean isAdmin = userDetails.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+
+        Project project = projectRepository.findVersion(id);
+        if (project == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!isAdmin && !userDetails.getId().equals(project.getClientId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(eventStreamTimeoutMs);
+        // Room for a full replay on top of the live queue
+        int capacity = projectEventHub.getBufferSize() + eventSendQueueCapacity;
+        projectEventHub.subscribe(id, lastEventId, new EmitterSubscriber(emitter, capacity, eventSender,
+                projectEventHub, id));
+        return ResponseEntity.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .cacheControl(CacheControl.noStore())
+                .header("X-Accel-Buffering", "no") // Keeps reverse proxies from buffering the stream
+                .body(emitter);
+    }
+
+    // Weak tags: the same state always renders the same JSON, but not necessarily the same bytes
+    // once compressed. Every project write refreshes updatedAt; in-place task edits bump version.
+    static String projectETag(Project project, String variant) {
+        return "W/\"" + project.getId() + "-" + project.getVersion() + "-" + millis(project.getUpdatedAt()) + "-"
+                + variant + "\"";
+    }
+
+    static String listETag(ListStamp stamp, Object... scope) {
+        Object latest = stamp.latest() instanceof Date date ? date.getTime() : stamp.latest();
+        String key = List.of(scope) + "|" + stamp.count() + "|" + latest;
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return "W/\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // The same stamp the probe would compute, taken from a complete result instead of a second query.
+    // Stored dates are read back in the system zone, so the latest one converts back the same way.
+    static ListStamp stampOf(List<Project> projects) {
+        Date latest = projects.stream()
+                .map(Project::getUpdatedAt)
+                .filter(updatedAt -> updatedAt != null)
+                .max(LocalDateTime::compareTo)
+                .map(updatedAt -> Date.from(updatedAt.atZone(ZoneId.systemDefault()).toInstant()))
+                .orElse(null);
+        return new ListStamp(projects.size(), latest);
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time != null ? time.toInstant(ZoneOffset.UTC).toEpochMilli() : 0;
     }
 }
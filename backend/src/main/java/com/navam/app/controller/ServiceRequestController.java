@@ -1,5 +1,6 @@
 package com.navam.app.controller;
 
+import com.navam.app.dto.ListPage;
 import com.navam.app.model.ServiceRequest;
 import com.navam.app.model.enums.RequestStatus;
 import com.navam.app.security.UserDetailsImpl;
@@ -30,8 +31,8 @@ public class ServiceRequestController {
 
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN')")
-    public List<ServiceRequest> getAllRequests() {
-        return serviceRequestService.getAllRequests();
+    public ListPage<ServiceRequest> getAllRequests(@RequestParam Map<String, String> params) {
+        return serviceRequestService.getRequests(params);
     }
 
     @GetMapping("/my-requests")
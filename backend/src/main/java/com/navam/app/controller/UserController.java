@@ -1,19 +1,36 @@
 package com.navam.app.controller;
 
+import com.navam.app.event.UserChangedEvent;
 import com.navam.app.model.User;
+import com.navam.app.model.UserDeletionJob;
+import com.navam.app.repository.ListQueryExecutor;
+import com.navam.app.repository.ListSpec;
 import com.navam.app.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.ResponseEntity;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
+import com.navam.app.dto.BulkImportResult;
+import com.navam.app.dto.ListPage;
 import com.navam.app.dto.ChangePasswordRequest;
+import com.navam.app.dto.JwtResponse;
 import com.navam.app.dto.UpdateProfileRequest;
 import com.navam.app.dto.MessageResponse;
+import com.navam.app.security.JwtUtils;
+import com.navam.app.security.TokenVersionService;
 import com.navam.app.security.UserDetailsImpl;
+import com.navam.app.service.BulkUserImportService;
+import com.navam.app.service.UserDeletionService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -23,41 +40,96 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 @RequestMapping("/api/users")
 public class UserController {
 
+    static final ListSpec<User> CLIENT_LIST = ListSpec.of(User.class)
+            .scope(Criteria.where("roles").in("ROLE_CLIENT", "client"))
+            .filter("username").filter("email").filter("companyName")
+            .sort("username").defaultSort("username")
+            .fields("id", "username", "fullName", "companyName", "email", "roles")
+            .build();
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
     private PasswordEncoder encoder;
 
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private TokenVersionService tokenVersionService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private BulkUserImportService bulkUserImportService;
+
+    @Autowired
+    private ListQueryExecutor listQueryExecutor;
+
+    @Autowired
+    private UserDeletionService userDeletionService;
+
     @GetMapping("/clients")
     @PreAuthorize("hasRole('ADMIN')")
-    public List<User> getClients() {
-        // Fetch all users and filter for ROLE_CLIENT
-        List<User> allUsers = userRepository.findAll();
-        System.out.println("Total users found: " + allUsers.size());
-
-        List<User> clients = allUsers.stream()
-                .filter(user -> {
-                    return user.getRoles() != null
-                            && (user.getRoles().contains("ROLE_CLIENT") || user.getRoles().contains("client"));
-                })
-                .collect(Collectors.toList());
+    public ListPage<User> getClients(@RequestParam Map<String, String> params) {
+        return listQueryExecutor.find(CLIENT_LIST, params);
+    }
 
-        System.out.println("Filtered clients count: " + clients.size());
-        return clients;
+    /**
+     * Creates client accounts from a CSV upload (header: username,email,password,fullName,companyName)
+     * or NDJSON of the same fields. Rows without a password get a temporary one in the report.
+     */
+    @PostMapping(value = "/bulk-import", consumes = { "text/csv", "application/x-ndjson" })
+    @PreAuthorize("hasRole('ADMIN')")
+    public BulkImportResult bulkImportClients(HttpServletRequest request) throws IOException {
+        boolean ndjson = request.getContentType() != null && request.getContentType().startsWith("application/x-ndjson");
+        return bulkUserImportService.importClients(request.getInputStream(), ndjson);
     }
 
+    /**
+     * Deletes the account right away and hands its projects, service requests and messages to a
+     * background cleanup job whose progress is served by GET /{id}/deletion.
+     */
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> deleteUser(@PathVariable String id) {
-        if (userRepository.existsById(id)) {
+        Optional<User> user = userRepository.findById(id);
+        if (user.isPresent()) {
             userRepository.deleteById(id);
-            return ResponseEntity.ok("User deleted successfully");
+            tokenVersionService.userDeleted(id);
+            eventPublisher.publishEvent(
+                    new UserChangedEvent(id, null, null, UserChangedEvent.Type.DELETED, user.get().getRoles()));
+            return ResponseEntity.accepted().body(userDeletionService.start(user.get()));
         } else {
             return ResponseEntity.notFound().build();
         }
     }
 
+    @GetMapping("/{id}/deletion")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<UserDeletionJob> getDeletionJob(@PathVariable String id) {
+        return ResponseEntity.of(userDeletionService.getJob(id));
+    }
+
+    @PostMapping("/{id}/deletion/retry")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<UserDeletionJob> retryDeletionJob(@PathVariable String id) {
+        return ResponseEntity.of(userDeletionService.retry(id));
+    }
+
+    @PostMapping("/{id}/revoke-sessions")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> revokeSessions(@PathVariable String id) {
+        if (!userRepository.existsById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        // Every token carries the version it was issued with, so bumping it signs the user out everywhere
+        tokenVersionService.bump(id);
+        return ResponseEntity.ok(new MessageResponse("All sessions revoked for user", id));
+    }
+
     @PutMapping("/profile")
     @PreAuthorize("hasRole('USER') or hasRole('CLIENT') or hasRole('ADMIN')")
     public ResponseEntity<?> updateProfile(@RequestBody UpdateProfileRequest updateRequest) {
@@ -70,11 +142,19 @@ public class UserController {
         if (updateRequest.getFullName() != null) {
             user.setFullName(updateRequest.getFullName());
         }
-        if (updateRequest.getEmail() != null) {
-            user.setEmail(updateRequest.getEmail());
+        String email = User.normalizeEmail(updateRequest.getEmail());
+        if (email != null && !email.equals(user.getEmail())) {
+            // Neither another user's email nor another user's username, which is also a login
+            if (userRepository.existsByEmail(email)
+                    || (!email.equals(user.getUsername()) && userRepository.existsByUsername(email))) {
+                return ResponseEntity.badRequest().body(new MessageResponse("Error: Email is already in use!"));
+            }
+            user.setEmail(email);
         }
 
         userRepository.save(user);
+        eventPublisher.publishEvent(
+                new UserChangedEvent(user.getId(), user.getUsername(), user.getEmail(), UserChangedEvent.Type.UPDATED));
         return ResponseEntity.ok(user);
     }
 
@@ -94,6 +174,20 @@ public class UserController {
         user.setPassword(encoder.encode(passwordRequest.getNewPassword()));
         userRepository.save(user);
 
-        return ResponseEntity.ok(new MessageResponse("Password changed successfully!"));
+        // Revoke every other session and hand the caller a token for the new version
+        user.setTokenVersion(tokenVersionService.bump(user.getId()));
+        eventPublisher.publishEvent(
+                new UserChangedEvent(user.getId(), user.getUsername(), user.getEmail(), UserChangedEvent.Type.UPDATED));
+        UserDetailsImpl refreshed = UserDetailsImpl.build(user);
+        List<String> roles = refreshed.getAuthorities().stream()
+                .map(item -> item.getAuthority())
+                .collect(Collectors.toList());
+
+        return ResponseEntity.ok(new JwtResponse(jwtUtils.generateJwtToken(refreshed),
+                refreshed.getId(),
+                refreshed.getUsername(),
+                refreshed.getEmail(),
+                refreshed.getFullName(),
+                roles));
     }
 }
@@ -0,0 +1,35 @@
+package com.navam.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsReport {
+
+    public enum Granularity {
+        DAY, WEEK, MONTH
+    }
+
+    private LocalDate from;
+    private LocalDate to;
+    private Granularity granularity;
+    private List<Period> periods; // Every period of the range in order, empty ones included
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Period {
+        private LocalDate start; // Weeks start on Monday, months on the 1st
+        private Map<String, Map<String, Long>> requests; // Service type -> status -> count
+        private long projectsStarted;
+        private long projectsCompleted;
+        private long tasksCompleted; // Completion velocity
+    }
+}
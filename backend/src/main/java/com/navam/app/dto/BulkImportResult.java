@@ -0,0 +1,18 @@
+package com.navam.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BulkImportResult {
+    private int total;
+    private int created;
+    private int duplicates;
+    private int invalid;
+    private int failed;
+    private long elapsedMs;
+    private List<BulkImportRow> rows;
+}
@@ -0,0 +1,21 @@
+package com.navam.app.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkImportRow {
+    public enum Status { CREATED, DUPLICATE, INVALID, FAILED }
+
+    private int row; // 1-based data row, not counting a CSV header
+    private String username;
+    private Status status;
+    private String message;
+    private String userId;
+    private String temporaryPassword; // Only when the row had no password; shown once
+}
@@ -0,0 +1,22 @@
+package com.navam.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClientStats {
+    private long totalProjects;
+    private long activeProjects;
+    private long pendingProjects;
+    private long completedProjects;
+    private Map<String, Long> projectsByStatus;
+    private long pendingTasks; // Not completed, across all of the client's projects
+    private long completedTasks;
+    private long overdueTasks; // Pending with a due date in the past
+    private long needsReview; // Placeholder
+}
@@ -0,0 +1,25 @@
+package com.navam.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of the inbox: a counterpart and the latest message exchanged with them.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InboxEntry {
+    private String counterpartId;
+    private String counterpartName;
+    private String lastMessageId;
+    private String lastSenderId;
+    private String subject;
+    private String preview; // First characters of the latest message
+    private String priority;
+    private LocalDateTime lastMessageAt;
+    private long unreadCount;
+}
@@ -0,0 +1,14 @@
+package com.navam.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ListPage<T> {
+    private List<T> items;
+    private String nextCursor; // Pass as "cursor" to fetch the next page; null when there is none
+    private boolean hasMore;
+}
@@ -0,0 +1,15 @@
+package com.navam.app.dto;
+
+import com.navam.app.model.Message;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class MessagePage {
+    private List<Message> messages; // Newest first
+    private String nextCursor; // Pass as "before" for older messages, or as "after" if this page was; null at the end
+    private boolean hasMore;
+}
@@ -0,0 +1,16 @@
+package com.navam.app.dto;
+
+import com.navam.app.model.Message;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class MessageSearchHit {
+    private Message message;
+    private List<int[]> subjectHighlights; // [start, end) offsets in message.subject
+    private String snippet; // Part of the content around the first match
+    private List<int[]> snippetHighlights; // [start, end) offsets in snippet
+}
@@ -0,0 +1,14 @@
+package com.navam.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class MessageSearchPage {
+    private List<MessageSearchHit> hits; // Newest first
+    private String nextCursor; // Pass as "before" for the next page; null when there are none
+    private boolean hasMore;
+}
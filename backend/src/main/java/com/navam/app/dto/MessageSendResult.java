@@ -0,0 +1,13 @@
+package com.navam.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageSendResult {
+    private String id;
+    private String status; // stored, or queued: written later under this id, so it must not be resent
+}
@@ -0,0 +1,18 @@
+package com.navam.app.dto;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.navam.app.model.Project;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A project without its task list, plus task counts; the tasks themselves are paged
+ * through GET /api/projects/{id}/tasks.
+ */
+@Data
+@AllArgsConstructor
+public class ProjectDetail {
+    @JsonUnwrapped
+    private Project project;
+    private TaskSummary taskSummary;
+}
@@ -0,0 +1,15 @@
+package com.navam.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskBatchRequest {
+    private Long version; // Applied only if the project is still at this version; optional
+    private List<TaskOperation> operations;
+}
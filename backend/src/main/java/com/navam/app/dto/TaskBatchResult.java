@@ -0,0 +1,25 @@
+package com.navam.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskBatchResult {
+    private long version; // The project's version after the batch
+    private List<Outcome> results; // One per operation, in request order
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Outcome {
+        private int index;
+        private String op;
+        private String taskId;
+        private String result; // created, updated, deleted or not_found
+    }
+}
@@ -0,0 +1,32 @@
+package com.navam.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One step of a task batch. create uses the task fields (taskId is assigned by the server),
+ * update sets the fields that are present on taskId, delete removes taskId.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskOperation {
+    public static final String CREATE = "create";
+    public static final String UPDATE = "update";
+    public static final String DELETE = "delete";
+
+    private String op;
+    private String taskId;
+    private String title;
+    private String status;
+    private String assignee;
+    private LocalDateTime dueDate;
+    private Boolean completed;
+
+    public boolean completes() {
+        return Boolean.TRUE.equals(completed) || "Completed".equals(status);
+    }
+}
@@ -0,0 +1,19 @@
+package com.navam.app.dto;
+
+import com.navam.app.model.ProjectTask;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskPage {
+    private List<ProjectTask> tasks; // In the order they were added
+    private long total; // Tasks matching the filters, across all pages
+    private int offset;
+    private int limit;
+    private boolean hasMore;
+}
@@ -0,0 +1,42 @@
+package com.navam.app.event;
+
+import com.navam.app.model.ProjectTask;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published after a project or one of its tasks is written so per-client views of projects
+ * can be refreshed. A null clientId means the owner is unknown and every client is affected.
+ * Status fields carry the change for running totals: CREATED sets status and serviceType,
+ * UPDATED sets previousStatus and status. TASKS_CHANGED carries the added or updated task
+ * when there is exactly one. DELETED covers projects removed in bulk, whose statuses are not known.
+ */
+@Getter
+@AllArgsConstructor
+public class ProjectChangedEvent {
+
+    public enum Type {
+        CREATED, UPDATED, TASKS_CHANGED, DELETED
+    }
+
+    private final String projectId;
+    private final String clientId;
+    private final Type type;
+    private final String previousStatus;
+    private final String status;
+    private final String serviceType;
+    private final ProjectTask task;
+
+    public ProjectChangedEvent(String projectId, String clientId, Type type) {
+        this(projectId, clientId, type, null, null, null, null);
+    }
+
+    public ProjectChangedEvent(String projectId, String clientId, Type type, ProjectTask task) {
+        this(projectId, clientId, type, null, null, null, task);
+    }
+
+    public ProjectChangedEvent(String projectId, String clientId, Type type, String previousStatus, String status,
+            String serviceType) {
+        this(projectId, clientId, type, previousStatus, status, serviceType, null);
+    }
+}
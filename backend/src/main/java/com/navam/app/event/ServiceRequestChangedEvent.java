@@ -0,0 +1,29 @@
+package com.navam.app.event;
+
+import com.navam.app.model.enums.RequestStatus;
+import com.navam.app.model.enums.ServiceType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published after a service request is submitted or its status changes. previousStatus is
+ * null for a new request; serviceType and createdAt place it in time-bucketed analytics.
+ */
+@Getter
+@AllArgsConstructor
+public class ServiceRequestChangedEvent {
+
+    public enum Type {
+        CREATED, UPDATED
+    }
+
+    private final String requestId;
+    private final String clientId;
+    private final Type type;
+    private final RequestStatus previousStatus;
+    private final RequestStatus status;
+    private final ServiceType serviceType;
+    private final LocalDateTime createdAt;
+}
@@ -0,0 +1,29 @@
+package com.navam.app.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Set;
+
+/**
+ * Published after a user document is created, updated or deleted so in-memory
+ * views of users can be refreshed.
+ */
+@Getter
+@AllArgsConstructor
+public class UserChangedEvent {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final String userId;
+    private final String username;
+    private final String email;
+    private final Type type;
+    private final Set<String> roles; // Roles of the created or deleted user; null when unchanged
+
+    public UserChangedEvent(String userId, String username, String email, Type type) {
+        this(userId, username, email, type, null);
+    }
+}
@@ -3,6 +3,7 @@ package com.navam.app.exception;
 import com.navam.app.dto.ErrorResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -28,6 +29,18 @@ public class GlobalExceptionHandler {
                 return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
         }
 
+        @ExceptionHandler(ServiceBusyException.class)
+        public ResponseEntity<ErrorResponse> handleServiceBusyException(ServiceBusyException ex) {
+                logger.warn("Rejected, service busy: {}", ex.getMessage());
+                ErrorResponse error = new ErrorResponse(
+                                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                                ex.getMessage(),
+                                LocalDateTime.now());
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                                .body(error);
+        }
+
         @ExceptionHandler(UsernameNotFoundException.class)
         public ResponseEntity<ErrorResponse> handleUsernameNotFoundException(UsernameNotFoundException ex) {
                 logger.error("User not found: {}", ex.getMessage());
@@ -51,6 +64,16 @@ public class GlobalExceptionHandler {
                 return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
         }
 
+        @ExceptionHandler(IllegalArgumentException.class)
+        public ResponseEntity<ErrorResponse> handleIllegalArgumentException(IllegalArgumentException ex) {
+                logger.error("Bad request: {}", ex.getMessage());
+                ErrorResponse error = new ErrorResponse(
+                                HttpStatus.BAD_REQUEST.value(),
+                                ex.getMessage(),
+                                LocalDateTime.now());
+                return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        }
+
         @ExceptionHandler(org.springframework.http.converter.HttpMessageNotReadableException.class)
         public ResponseEntity<ErrorResponse> handleHttpMessageNotReadableException(
                         org.springframework.http.converter.HttpMessageNotReadableException ex) {
@@ -0,0 +1,36 @@
+package com.navam.app.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Materialized admin dashboard figures, a single document kept current with $inc on every
+ * write and rebuilt from the source collections by a periodic reconciliation.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "admin_stats")
+public class AdminStats {
+    public static final String ID = "global";
+
+    @Id
+    private String id;
+    private long totalUsers;
+    private long totalClients; // Users holding a client role
+    private Map<String, Long> usersByRole;
+    private long totalProjects;
+    private Map<String, Long> projectsByStatus;
+    private Map<String, Long> projectsByServiceType;
+    private long totalRequests;
+    private Map<String, Long> requestsByStatus;
+    private long overdueTasks; // Time dependent, so only refreshed by reconciliation
+    private LocalDateTime reconciledAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,38 @@
+package com.navam.app.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Rebuild of the daily analytics buckets from the source collections, oldest day first. Every
+ * window of days is recomputed and replaced as a whole, so an interrupted job resumes at "next".
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "analytics_backfill_jobs")
+public class AnalyticsBackfillJob {
+    public static final String ID = "daily";
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    @Id
+    private String id;
+    private Status status;
+    private LocalDate from;
+    private LocalDate to;
+    private LocalDate next; // First day not rebuilt yet
+    private long daysDone;
+    private int attempts;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,28 @@
+package com.navam.app.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * One day of analytics counters, keyed by the ISO date so ids sort by day. Reports read these
+ * instead of the source collections: a year is at most 366 small documents.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "analytics_daily")
+public class AnalyticsBucket {
+    @Id
+    private String id; // yyyy-MM-dd
+    private Map<String, Map<String, Long>> requests; // Service type -> current status -> count, by day submitted
+    private long projectsStarted; // Created that day
+    private long projectsCompleted; // First completed that day
+    private long tasksCompleted; // First completed that day
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,27 @@
+package com.navam.app.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of an NDJSON import: every line up to committedLines has been written, so a
+ * retried import with the same id skips straight past them.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "import_checkpoints")
+public class ImportCheckpoint {
+    @Id
+    private String id;
+    private long committedLines;
+    private long inserted;
+    private long skipped;
+    private boolean completed;
+    private LocalDateTime updatedAt;
+}
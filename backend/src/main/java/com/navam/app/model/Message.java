@@ -1,6 +1,8 @@
 package com.navam.app.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -11,6 +13,13 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "messages")
+@CompoundIndexes({
+        // Serves both directions of a conversation ($or of two equality branches) sorted by time
+        @CompoundIndex(name = "conversation_idx", def = "{ 'senderId': 1, 'receiverId': 1, 'createdAt': -1, '_id': -1 }"),
+        // Inbox aggregation: everything a user sent or received, newest first
+        @CompoundIndex(name = "sent_idx", def = "{ 'senderId': 1, 'createdAt': -1, '_id': -1 }"),
+        @CompoundIndex(name = "received_idx", def = "{ 'receiverId': 1, 'createdAt': -1, '_id': -1 }")
+})
 public class Message {
     @Id
     private String id;
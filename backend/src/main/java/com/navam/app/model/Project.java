@@ -4,6 +4,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDateTime;
 
@@ -11,6 +13,19 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "projects")
+@CompoundIndexes({
+        // Admin list: newest first, optionally narrowed to one status or client
+        @CompoundIndex(name = "created_idx", def = "{ 'createdAt': -1, '_id': -1 }"),
+        @CompoundIndex(name = "status_created_idx", def = "{ 'status': 1, 'createdAt': -1, '_id': -1 }"),
+        @CompoundIndex(name = "client_created_idx", def = "{ 'clientId': 1, 'createdAt': -1, '_id': -1 }"),
+        @CompoundIndex(name = "name_idx", def = "{ 'name': 1, '_id': 1 }"),
+        // List ETag probe: count and latest updatedAt of a client's or a status's projects from the index alone
+        @CompoundIndex(name = "client_updated_idx", def = "{ 'clientId': 1, 'updatedAt': -1 }"),
+        @CompoundIndex(name = "status_updated_idx", def = "{ 'status': 1, 'updatedAt': -1 }"),
+        // Analytics rollups: completions of a day
+        @CompoundIndex(name = "completed_idx", def = "{ 'completedAt': 1 }"),
+        @CompoundIndex(name = "task_completed_idx", def = "{ 'tasks.completedAt': 1 }")
+})
 public class Project {
     @Id
     private String id;
@@ -28,4 +43,6 @@ public class Project {
 
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private LocalDateTime completedAt; // First time the status became "Completed"
+    private long version; // Incremented by every in-place task update
 }
@@ -15,4 +15,5 @@ public class ProjectTask {
     private String assignee; // "Client" or "Admin"
     private LocalDateTime dueDate;
     private boolean completed;
+    private LocalDateTime completedAt; // First completion; kept if the task is reopened
 }
@@ -0,0 +1,24 @@
+package com.navam.app.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "revoked_tokens")
+public class RevokedToken {
+    @Id
+    private String id; // The token's jti claim
+    private String userId;
+    @Indexed
+    private LocalDateTime revokedAt;
+    @Indexed(expireAfterSeconds = 0) // Mongo drops the entry once the token would have expired anyway
+    private LocalDateTime expiresAt;
+}
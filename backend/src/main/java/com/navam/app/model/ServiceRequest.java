@@ -6,6 +6,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDateTime;
 
@@ -13,6 +15,14 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "service_requests")
+@CompoundIndexes({
+        // Admin list: newest first, optionally narrowed to one status or client
+        @CompoundIndex(name = "created_idx", def = "{ 'createdAt': -1, '_id': -1 }"),
+        @CompoundIndex(name = "status_created_idx", def = "{ 'status': 1, 'createdAt': -1, '_id': -1 }"),
+        @CompoundIndex(name = "client_created_idx", def = "{ 'clientId': 1, 'createdAt': -1, '_id': -1 }"),
+        // User deletion: requests sent under the user's email; anonymized ones drop out of the index
+        @CompoundIndex(name = "email_idx", def = "{ 'email': 1 }", sparse = true)
+})
 public class ServiceRequest {
     @Id
     private String id;
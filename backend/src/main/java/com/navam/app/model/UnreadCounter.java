@@ -0,0 +1,24 @@
+package com.navam.app.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Unread message counts of one user, keyed by the sender (counterpart) id.
+ * Maintained incrementally by UnreadCounterService rather than counted on read.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "unread_counters")
+public class UnreadCounter {
+    @Id
+    private String userId;
+    private Map<String, Long> counts = new HashMap<>();
+}
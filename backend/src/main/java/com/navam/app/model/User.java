@@ -1,25 +1,33 @@
 package com.navam.app.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import java.util.Locale;
 import java.util.Set;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "users")
+@CompoundIndex(name = "roles_username_idx", def = "{ 'roles': 1, 'username': 1, '_id': 1 }") // Client list by name
 public class User {
     @Id
     private String id;
+    @Indexed(unique = true) // Login and duplicate checks look users up by username or email
     private String username;
+    @Indexed(unique = true) // Holds normalized emails only, so it is unique regardless of case
     private String email;
     private String password;
     private String fullName;
     private String companyName;
+    @Indexed
     private Set<String> roles;
+    private long tokenVersion; // Bumped to invalidate all outstanding JWTs for this user
 
     public User(String username, String email, String password, String fullName, String companyName) {
         this.username = username;
@@ -28,4 +36,11 @@ public class User {
         this.fullName = fullName;
         this.companyName = companyName;
     }
+
+    /**
+     * The one form emails are stored, compared and looked up in: trimmed and lowercased.
+     */
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
 }
@@ -0,0 +1,42 @@
+package com.navam.app.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cleanup of a deleted user's data, keyed by the user's id. Every step selects only what is
+ * still left to do, so a job interrupted by a restart simply runs again from its phase.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "user_deletion_jobs")
+public class UserDeletionJob {
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    public enum Phase {
+        PROJECTS, SERVICE_REQUESTS, MESSAGES, COUNTERS, DONE
+    }
+
+    @Id
+    private String id;
+    private String username;
+    private String email;
+    private Status status;
+    private Phase phase;
+    private long projectsDeleted;
+    private long requestsAnonymized;
+    private long messagesDeleted;
+    private int attempts;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,44 @@
+package com.navam.app.realtime;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executor;
+
+/**
+ * Writes pre-formatted server-sent event frames to an async response. The request thread is
+ * released once the stream is open; frames are written from the shared sender pool.
+ */
+public class EmitterSubscriber extends QueuedSubscriber {
+
+    private static final MediaType TEXT_UTF8 = new MediaType("text", "plain", StandardCharsets.UTF_8);
+
+    private final ResponseBodyEmitter emitter;
+    private final ProjectEventHub hub;
+    private final String projectId;
+
+    public EmitterSubscriber(ResponseBodyEmitter emitter, int capacity, Executor sender, ProjectEventHub hub,
+            String projectId) {
+        super(capacity, sender);
+        this.emitter = emitter;
+        this.hub = hub;
+        this.projectId = projectId;
+        emitter.onCompletion(this::close);
+        emitter.onTimeout(this::close);
+        emitter.onError(error -> close());
+    }
+
+    @Override
+    protected void deliver(String payload) throws IOException {
+        // Only the single drain task writes to the emitter, so no extra locking is needed
+        emitter.send(payload, TEXT_UTF8);
+    }
+
+    @Override
+    protected void onClose() {
+        hub.unsubscribe(projectId, this);
+        emitter.complete();
+    }
+}
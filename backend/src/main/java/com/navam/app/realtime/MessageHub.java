@@ -0,0 +1,92 @@
+package com.navam.app.realtime;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process fan-out of real-time events to the open connections of a user. Publishing
+ * reads the registry without locks and only enqueues; slow connections are dropped.
+ */
+@Component
+public class MessageHub {
+    private static final Logger logger = LoggerFactory.getLogger(MessageHub.class);
+
+    private final Map<String, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicLong connections = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public void subscribe(String userId, Subscriber subscriber) {
+        subscribers.compute(userId, (key, list) -> {
+            List<Subscriber> target = list != null ? list : new CopyOnWriteArrayList<>();
+            target.add(subscriber);
+            return target;
+        });
+        connections.incrementAndGet();
+    }
+
+    public void unsubscribe(String userId, Subscriber subscriber) {
+        subscribers.computeIfPresent(userId, (key, list) -> {
+            if (list.remove(subscriber)) {
+                connections.decrementAndGet();
+            }
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    /**
+     * Serializes the event once and queues it on every connection of the user.
+     * Returns the number of connections it was queued on.
+     */
+    public int publish(String userId, String type, Object data) {
+        List<Subscriber> targets = subscribers.get(userId);
+        if (targets == null) {
+            return 0;
+        }
+
+        String payload;
+        try {
+            Map<String, Object> event = new LinkedHashMap<>();
+            event.put("type", type);
+            event.put("data", data);
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            logger.error("Cannot serialize {} event: {}", type, e.getMessage());
+            return 0;
+        }
+
+        int delivered = 0;
+        for (Subscriber subscriber : targets) {
+            if (subscriber.offer(payload)) {
+                delivered++;
+            } else {
+                unsubscribe(userId, subscriber);
+                subscriber.close();
+                dropped.incrementAndGet();
+                logger.warn("Dropped slow or closed connection of user {}", userId);
+            }
+        }
+        return delivered;
+    }
+
+    public long getConnectionCount() {
+        return connections.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+}
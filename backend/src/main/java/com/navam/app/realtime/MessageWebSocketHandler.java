@@ -0,0 +1,85 @@
+package com.navam.app.realtime;
+
+import com.navam.app.security.UserDetailsImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Push-only socket: each authenticated connection is registered with the MessageHub under
+ * its user id and receives that user's events as JSON text frames.
+ */
+public class MessageWebSocketHandler extends TextWebSocketHandler {
+    private static final Logger logger = LoggerFactory.getLogger(MessageWebSocketHandler.class);
+
+    static final String PRINCIPAL_ATTRIBUTE = "principal";
+    private static final String SUBSCRIBER_ATTRIBUTE = "subscriber";
+
+    private final MessageHub messageHub;
+    private final ExecutorService sender;
+    private final int sendQueueCapacity;
+
+    public MessageWebSocketHandler(MessageHub messageHub, ExecutorService sender, int sendQueueCapacity) {
+        this.messageHub = messageHub;
+        this.sender = sender;
+        this.sendQueueCapacity = sendQueueCapacity;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        UserDetailsImpl principal = (UserDetailsImpl) session.getAttributes().get(PRINCIPAL_ATTRIBUTE);
+        SessionSubscriber subscriber = new SessionSubscriber(session, principal.getId());
+        session.getAttributes().put(SUBSCRIBER_ATTRIBUTE, subscriber);
+        messageHub.subscribe(principal.getId(), subscriber);
+        logger.debug("WebSocket opened for user {}", principal.getId());
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        SessionSubscriber subscriber = (SessionSubscriber) session.getAttributes().get(SUBSCRIBER_ATTRIBUTE);
+        if (subscriber != null) {
+            subscriber.close();
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        logger.debug("WebSocket transport error: {}", exception.getMessage());
+        afterConnectionClosed(session, CloseStatus.SERVER_ERROR);
+    }
+
+    private class SessionSubscriber extends QueuedSubscriber {
+        private final WebSocketSession session;
+        private final String userId;
+
+        SessionSubscriber(WebSocketSession session, String userId) {
+            super(sendQueueCapacity, sender);
+            this.session = session;
+            this.userId = userId;
+        }
+
+        @Override
+        protected void deliver(String payload) throws IOException {
+            // Only the single drain task writes to the session, so no extra locking is needed
+            session.sendMessage(new TextMessage(payload));
+        }
+
+        @Override
+        protected void onClose() {
+            messageHub.unsubscribe(userId, this);
+            if (session.isOpen()) {
+                try {
+                    session.close(CloseStatus.SESSION_NOT_RELIABLE);
+                } catch (IOException e) {
+                    logger.debug("Error closing WebSocket: {}", e.getMessage());
+                }
+            }
+        }
+    }
+}
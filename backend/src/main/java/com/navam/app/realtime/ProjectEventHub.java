@@ -0,0 +1,227 @@
+package com.navam.app.realtime;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.navam.app.event.ProjectChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-project change feed for server-sent event streams. Each watched project keeps a ring of
+ * its most recent frames so a reconnecting stream resumes after its Last-Event-ID; a stream
+ * that fell further behind, or whose id predates a restart, gets a reset frame and reloads.
+ * Frames are formatted once and queued on every subscriber, as in {@link MessageHub}.
+ */
+@Component
+public class ProjectEventHub {
+    private static final Logger logger = LoggerFactory.getLogger(ProjectEventHub.class);
+
+    static final String KEEPALIVE = ": keepalive\n\n";
+
+    // Ids are "<stream>-<seq>": a new stream per start, so ids from an earlier process never resolve
+    private final String stream = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+    private final AtomicLong dropped = new AtomicLong();
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${navam.app.projectEvents.bufferSize:100}")
+    private int bufferSize;
+
+    @Value("${navam.app.projectEvents.retentionMs:600000}")
+    private long retentionMs;
+
+    private record Frame(long seq, String text) {
+    }
+
+    // Only touched inside the map's compute functions, which serialize access per project
+    private static final class Channel {
+        final Deque<Frame> recent = new ArrayDeque<>();
+        final List<Subscriber> subscribers = new ArrayList<>();
+        // Every event of the project after this sequence number is still in "recent"
+        long horizon;
+        long idleSince;
+
+        Channel(long horizon) {
+            this.horizon = horizon;
+        }
+    }
+
+    /**
+     * Registers the subscriber and queues what it missed since lastEventId, a reset frame if
+     * that cannot be told, or a ready frame carrying the current position for a fresh stream.
+     */
+    public void subscribe(String projectId, String lastEventId, Subscriber subscriber) {
+        boolean[] accepted = new boolean[1];
+        channels.compute(projectId, (key, channel) -> {
+            // A new channel starts past every id handed out so far, which then all resolve to a reset
+            Channel target = channel != null ? channel : new Channel(sequence.incrementAndGet());
+            accepted[0] = replay(target, lastEventId, subscriber);
+            if (accepted[0]) {
+                target.subscribers.add(subscriber);
+            }
+            return target;
+        });
+        if (!accepted[0]) {
+            subscriber.close();
+        }
+    }
+
+    public void unsubscribe(String projectId, Subscriber subscriber) {
+        channels.computeIfPresent(projectId, (key, channel) -> {
+            if (channel.subscribers.remove(subscriber) && channel.subscribers.isEmpty()) {
+                channel.idleSince = System.currentTimeMillis();
+            }
+            return channel;
+        });
+    }
+
+    /**
+     * Appends an event to the project's ring and queues it on its subscribers. Projects nobody
+     * watches are skipped entirely. Returns the number of subscribers it was queued on.
+     */
+    public int publish(String projectId, String event, Object data) {
+        if (projectId == null || !channels.containsKey(projectId)) {
+            return 0;
+        }
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            logger.error("Cannot serialize {} event of project {}: {}", event, projectId, e.getMessage());
+            return 0;
+        }
+
+        List<Subscriber> slow = new ArrayList<>();
+        int[] delivered = new int[1];
+        channels.computeIfPresent(projectId, (key, channel) -> {
+            long seq = sequence.incrementAndGet();
+            Frame frame = new Frame(seq, "id: " + stream + "-" + seq + "\nevent: " + event + "\ndata: " + json + "\n\n");
+            channel.recent.addLast(frame);
+            if (channel.recent.size() > bufferSize) {
+                channel.horizon = channel.recent.removeFirst().seq();
+            }
+            delivered[0] = offerAll(channel, frame.text(), slow);
+            return channel;
+        });
+        closeSlow(projectId, slow);
+        return delivered[0];
+    }
+
+    @EventListener
+    public void onProjectChanged(ProjectChangedEvent event) {
+        if (event.getType() == ProjectChangedEvent.Type.TASKS_CHANGED) {
+            // Without a task the change (a removal, say) cannot be merged client-side
+            if (event.getTask() != null) {
+                publish(event.getProjectId(), "task", event.getTask());
+            } else {
+                publish(event.getProjectId(), "reload", Map.of());
+            }
+        } else if (event.getType() == ProjectChangedEvent.Type.UPDATED && event.getStatus() != null) {
+            publish(event.getProjectId(), "status", Map.of("status", event.getStatus()));
+        }
+    }
+
+    /**
+     * Keeps idle streams from being cut by proxies and forgets projects nobody has watched
+     * for the retention period.
+     */
+    @Scheduled(fixedDelayString = "${navam.app.projectEvents.heartbeatMs:25000}")
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        for (String projectId : channels.keySet()) {
+            List<Subscriber> slow = new ArrayList<>();
+            channels.computeIfPresent(projectId, (key, channel) -> {
+                if (channel.subscribers.isEmpty()) {
+                    return now - channel.idleSince >= retentionMs ? null : channel;
+                }
+                offerAll(channel, KEEPALIVE, slow);
+                return channel;
+            });
+            closeSlow(projectId, slow);
+        }
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public long getSubscriberCount() {
+        return channels.values().stream().mapToLong(channel -> channel.subscribers.size()).sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private boolean replay(Channel channel, String lastEventId, Subscriber subscriber) {
+        // Both carry the current position: after (re)loading the project the client is up to date there
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return subscriber.offer("id: " + stream + "-" + sequence.get() + "\nevent: ready\ndata: {}\n\n");
+        }
+        long seq = parseSeq(lastEventId);
+        if (seq < channel.horizon || seq > sequence.get()) {
+            return subscriber.offer("id: " + stream + "-" + sequence.get() + "\nevent: reset\ndata: {}\n\n");
+        }
+        for (Frame frame : channel.recent) {
+            if (frame.seq() > seq && !subscriber.offer(frame.text())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long parseSeq(String eventId) {
+        int dash = eventId.lastIndexOf('-');
+        if (dash < 0 || !stream.equals(eventId.substring(0, dash))) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private int offerAll(Channel channel, String frame, List<Subscriber> slow) {
+        int delivered = 0;
+        for (Subscriber subscriber : channel.subscribers) {
+            if (subscriber.offer(frame)) {
+                delivered++;
+            } else {
+                slow.add(subscriber);
+            }
+        }
+        if (!slow.isEmpty()) {
+            channel.subscribers.removeAll(slow);
+            if (channel.subscribers.isEmpty()) {
+                channel.idleSince = System.currentTimeMillis();
+            }
+        }
+        return delivered;
+    }
+
+    // Outside compute: closing calls back into unsubscribe, which must not nest in the same key
+    private void closeSlow(String projectId, List<Subscriber> slow) {
+        for (Subscriber subscriber : slow) {
+            subscriber.close();
+            dropped.incrementAndGet();
+            logger.warn("Dropped slow or closed event stream of project {}", projectId);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.navam.app.realtime;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Subscriber with a bounded send queue drained on a shared executor, so publishers never
+ * block on a slow socket. At most one drain runs per connection at a time.
+ */
+public abstract class QueuedSubscriber implements Subscriber {
+
+    private final BlockingQueue<String> queue;
+    private final Executor sender;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    protected QueuedSubscriber(int capacity, Executor sender) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.sender = sender;
+    }
+
+    protected abstract void deliver(String payload) throws IOException;
+
+    protected abstract void onClose();
+
+    @Override
+    public boolean offer(String payload) {
+        if (closed.get() || !queue.offer(payload)) {
+            return false;
+        }
+        scheduleDrain();
+        return true;
+    }
+
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            queue.clear();
+            onClose();
+        }
+    }
+
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            sender.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            String payload;
+            while (!closed.get() && (payload = queue.poll()) != null) {
+                deliver(payload);
+            }
+        } catch (IOException | RuntimeException e) {
+            close();
+        } finally {
+            draining.set(false);
+        }
+        // A payload may have been queued after the last poll but before the flag was cleared
+        if (!closed.get() && !queue.isEmpty()) {
+            scheduleDrain();
+        }
+    }
+}
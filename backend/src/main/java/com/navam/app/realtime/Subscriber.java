@@ -0,0 +1,15 @@
+package com.navam.app.realtime;
+
+/**
+ * One open connection registered with the MessageHub.
+ */
+public interface Subscriber {
+
+    /**
+     * Queues a payload for delivery without blocking. Returns false if the connection
+     * cannot keep up (or is closed), in which case the hub drops it.
+     */
+    boolean offer(String payload);
+
+    void close();
+}
@@ -0,0 +1,49 @@
+package com.navam.app.realtime;
+
+import com.navam.app.security.TokenAuthenticationService;
+import com.navam.app.security.UserDetailsImpl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Map;
+
+/**
+ * Browsers cannot set an Authorization header on a WebSocket, so the JWT is passed as
+ * the "token" query parameter and checked once during the handshake.
+ */
+public class TokenHandshakeInterceptor implements HandshakeInterceptor {
+
+    private final TokenAuthenticationService tokenAuthenticationService;
+
+    public TokenHandshakeInterceptor(TokenAuthenticationService tokenAuthenticationService) {
+        this.tokenAuthenticationService = tokenAuthenticationService;
+    }
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        String token = UriComponentsBuilder.fromUri(request.getURI()).build()
+                .getQueryParams().getFirst("token");
+        UserDetailsImpl principal = null;
+        try {
+            principal = token != null ? tokenAuthenticationService.authenticate(token) : null;
+        } catch (RuntimeException e) {
+            // Unknown user and similar lookup failures are treated as an invalid token
+        }
+        if (principal == null) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+        attributes.put(MessageWebSocketHandler.PRINCIPAL_ATTRIBUTE, principal);
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+}
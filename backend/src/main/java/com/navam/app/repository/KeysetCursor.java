@@ -0,0 +1,45 @@
+package com.navam.app.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position in a sorted list: the sort value and id of the last item returned, encoded
+ * as an opaque token. The value is kept as text and typed again by the query that decodes it.
+ */
+public class KeysetCursor {
+    private final String value; // null when the last item had no value for the sort field
+    private final String id;
+
+    public KeysetCursor(String value, String id) {
+        this.value = value;
+        this.id = id;
+    }
+
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            String value = raw.charAt(0) == 'n' ? null : raw.substring(1, separator);
+            return new KeysetCursor(value, raw.substring(separator + 1));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+
+    public String encode() {
+        String raw = (value == null ? "n" : "v" + value) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public String getId() {
+        return id;
+    }
+}
@@ -0,0 +1,228 @@
+package com.navam.app.repository;
+
+import com.navam.app.dto.ListPage;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Runs a list request against a {@link ListSpec}: whitelisted filters, one indexed sort field
+ * with the id as tie-breaker, a keyset cursor instead of an offset and a projection of the
+ * requested fields. Work per request is bounded by the page size, not the collection size.
+ * <p>
+ * Request parameters: limit, cursor, sort (field, "-field" for descending), fields (comma
+ * separated), any allowed filter (comma separated values match any of them) and
+ * {@code <dateField>From} (inclusive) / {@code <dateField>To} (exclusive) for ranges.
+ */
+@Component
+public class ListQueryExecutor {
+
+    private static final Set<String> CONTROL_PARAMS = Set.of("limit", "cursor", "sort", "fields");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    public <T> ListPage<T> find(ListSpec<T> spec, Map<String, String> params) {
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(spec.getType());
+
+        String sort = params.getOrDefault("sort", spec.getDefaultSort());
+        boolean descending = sort.startsWith("-");
+        String sortField = descending ? sort.substring(1) : sort;
+        if (!spec.getSorts().contains(sortField)) {
+            throw new IllegalArgumentException("Cannot sort by " + sortField + "; allowed: " + spec.getSorts());
+        }
+        MongoPersistentProperty sortProperty = entity.getRequiredPersistentProperty(sortField);
+        int limit = parseLimit(params.get("limit"), spec);
+
+        List<Criteria> criteria = matching(spec, params);
+        KeysetCursor cursor = KeysetCursor.decode(params.get("cursor"));
+        if (cursor != null) {
+            criteria.add(after(sortField, typed(sortProperty, cursor.getValue()), cursor.getId(), descending));
+        }
+
+        Query query = new Query(criteria.isEmpty() ? new Criteria() : new Criteria().andOperator(criteria));
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        query.with(Sort.by(direction, sortField).and(Sort.by(direction, "id")));
+        query.limit(limit + 1); // One extra row tells whether another page exists
+        for (String field : fields(spec, params.get("fields"), sortField)) {
+            query.fields().include(field);
+        }
+
+        List<T> items = mongoTemplate.find(query, spec.getType());
+        boolean hasMore = items.size() > limit;
+        if (hasMore) {
+            items = items.subList(0, limit);
+        }
+        String nextCursor = null;
+        if (hasMore) {
+            PersistentPropertyAccessor<T> accessor = entity.getPropertyAccessor(items.get(items.size() - 1));
+            Object value = accessor.getProperty(sortProperty);
+            Object id = accessor.getProperty(entity.getRequiredIdProperty());
+            nextCursor = new KeysetCursor(value != null ? value.toString() : null, String.valueOf(id)).encode();
+        }
+        return new ListPage<>(items, nextCursor, hasMore);
+    }
+
+    /**
+     * Count and latest last-modified value of everything the request's filters match, across
+     * all pages. Cheap enough to run before a list to decide whether it changed at all.
+     */
+    public <T> ListStamp stamp(ListSpec<T> spec, Map<String, String> params) {
+        if (spec.getLastModifiedField() == null) {
+            throw new IllegalStateException(spec.getType().getSimpleName() + " list has no last-modified field");
+        }
+        List<Criteria> criteria = matching(spec, params);
+        return stamp(spec.getType(), criteria.isEmpty() ? new Criteria() : new Criteria().andOperator(criteria),
+                spec.getLastModifiedField());
+    }
+
+    public ListStamp stamp(Class<?> type, Criteria criteria, String lastModifiedField) {
+        TypedAggregation<?> aggregation = Aggregation.newAggregation(type,
+                Aggregation.match(criteria),
+                Aggregation.group().count().as("count").max(lastModifiedField).as("latest"));
+        Document row = mongoTemplate.aggregate(aggregation, Document.class).getUniqueMappedResult();
+        if (row == null) {
+            return new ListStamp(0, null);
+        }
+        return new ListStamp(((Number) row.get("count")).longValue(), row.get("latest"));
+    }
+
+    private static List<Criteria> matching(ListSpec<?> spec, Map<String, String> params) {
+        List<Criteria> criteria = new ArrayList<>();
+        if (spec.getScope() != null) {
+            criteria.add(spec.getScope());
+        }
+        criteria.addAll(filters(spec, params));
+        return criteria;
+    }
+
+    private static int parseLimit(String limit, ListSpec<?> spec) {
+        if (limit == null) {
+            return spec.getDefaultLimit();
+        }
+        try {
+            return Math.max(1, Math.min(Integer.parseInt(limit), spec.getMaxLimit()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid limit: " + limit);
+        }
+    }
+
+    private static List<Criteria> filters(ListSpec<?> spec, Map<String, String> params) {
+        List<Criteria> criteria = new ArrayList<>();
+        for (Map.Entry<String, String> param : params.entrySet()) {
+            String name = param.getKey();
+            String value = param.getValue();
+            if (CONTROL_PARAMS.contains(name) || value == null || value.isBlank()) {
+                continue;
+            }
+            Function<String, Object> converter = spec.getFilters().get(name);
+            if (converter != null) {
+                List<Object> values = Arrays.stream(value.split(","))
+                        .map(String::trim)
+                        .map(converter)
+                        .collect(Collectors.toList());
+                criteria.add(values.size() == 1 ? Criteria.where(name).is(values.get(0))
+                        : Criteria.where(name).in(values));
+            } else if (name.endsWith("From") && spec.getRanges().contains(rangeField(name, "From"))) {
+                criteria.add(Criteria.where(rangeField(name, "From")).gte(parseDate(value)));
+            } else if (name.endsWith("To") && spec.getRanges().contains(rangeField(name, "To"))) {
+                criteria.add(Criteria.where(rangeField(name, "To")).lt(parseDate(value)));
+            } else {
+                throw new IllegalArgumentException("Unknown filter: " + name);
+            }
+        }
+        return criteria;
+    }
+
+    private static String rangeField(String param, String suffix) {
+        return param.substring(0, param.length() - suffix.length());
+    }
+
+    // Accepts a date (start of that day) or a full local date-time
+    private static LocalDateTime parseDate(String value) {
+        try {
+            return value.length() == 10 ? LocalDate.parse(value).atStartOfDay() : LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date: " + value);
+        }
+    }
+
+    private static Set<String> fields(ListSpec<?> spec, String requested, String sortField) {
+        Set<String> fields = new LinkedHashSet<>();
+        if (requested == null || requested.isBlank()) {
+            fields.addAll(spec.getDefaultFields());
+        } else {
+            for (String field : requested.split(",")) {
+                String name = field.trim();
+                if (!spec.getFields().contains(name)) {
+                    throw new IllegalArgumentException("Unknown field: " + name);
+                }
+                fields.add(name);
+            }
+        }
+        fields.add("id");
+        fields.add(sortField); // Needed to build the next cursor
+        return fields;
+    }
+
+    private static Object typed(MongoPersistentProperty property, String value) {
+        if (value == null) {
+            return null;
+        }
+        Class<?> type = property.getType();
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.parse(value);
+        } else if (type == int.class || type == Integer.class) {
+            return Integer.parseInt(value);
+        } else if (type == long.class || type == Long.class) {
+            return Long.parseLong(value);
+        }
+        return value;
+    }
+
+    /**
+     * Everything strictly after (value, id) in the sort order. Mongo sorts missing values
+     * first ascending and last descending, and range operators never match them, so a null
+     * on either side needs its own branch.
+     */
+    static Criteria after(String field, Object value, String id, boolean descending) {
+        if (value == null) {
+            Criteria sameValue = Criteria.where(field).is(null);
+            if (descending) {
+                return sameValue.and("id").lt(id);
+            }
+            return new Criteria().orOperator(Criteria.where(field).ne(null), sameValue.and("id").gt(id));
+        }
+        if (descending) {
+            return new Criteria().orOperator(
+                    Criteria.where(field).lt(value),
+                    Criteria.where(field).is(value).and("id").lt(id),
+                    Criteria.where(field).is(null));
+        }
+        return new Criteria().orOperator(
+                Criteria.where(field).gt(value),
+                Criteria.where(field).is(value).and("id").gt(id));
+    }
+}
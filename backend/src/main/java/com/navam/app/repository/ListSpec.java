@@ -0,0 +1,184 @@
+package com.navam.app.repository;
+
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * What a list endpoint lets callers do: which fields can be filtered on (equality, or a
+ * "From"/"To" range for dates), which indexed fields can be sorted on and which fields can be
+ * requested. Anything else in the request is rejected, so every query stays on an index.
+ */
+public final class ListSpec<T> {
+    private final Class<T> type;
+    private final Criteria scope;
+    private final Map<String, Function<String, Object>> filters;
+    private final Set<String> ranges;
+    private final Set<String> sorts;
+    private final String defaultSort;
+    private final Set<String> fields;
+    private final List<String> defaultFields;
+    private final int defaultLimit;
+    private final int maxLimit;
+    private final String lastModifiedField;
+
+    private ListSpec(Builder<T> builder) {
+        this.type = builder.type;
+        this.scope = builder.scope;
+        this.filters = Map.copyOf(builder.filters);
+        this.ranges = Set.copyOf(builder.ranges);
+        this.sorts = Set.copyOf(builder.sorts);
+        this.defaultSort = builder.defaultSort;
+        this.fields = Set.copyOf(builder.fields);
+        this.defaultFields = builder.defaultFields != null ? builder.defaultFields : List.copyOf(builder.fields);
+        this.defaultLimit = builder.defaultLimit;
+        this.maxLimit = builder.maxLimit;
+        this.lastModifiedField = builder.lastModifiedField;
+    }
+
+    public static <T> Builder<T> of(Class<T> type) {
+        return new Builder<>(type);
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    public Criteria getScope() {
+        return scope;
+    }
+
+    public Map<String, Function<String, Object>> getFilters() {
+        return filters;
+    }
+
+    public Set<String> getRanges() {
+        return ranges;
+    }
+
+    public Set<String> getSorts() {
+        return sorts;
+    }
+
+    public String getDefaultSort() {
+        return defaultSort;
+    }
+
+    public Set<String> getFields() {
+        return fields;
+    }
+
+    public List<String> getDefaultFields() {
+        return defaultFields;
+    }
+
+    public int getDefaultLimit() {
+        return defaultLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public String getLastModifiedField() {
+        return lastModifiedField;
+    }
+
+    public static final class Builder<T> {
+        private final Class<T> type;
+        private Criteria scope;
+        private final Map<String, Function<String, Object>> filters = new LinkedHashMap<>();
+        private final Set<String> ranges = new LinkedHashSet<>();
+        private final Set<String> sorts = new LinkedHashSet<>();
+        private String defaultSort;
+        private final Set<String> fields = new LinkedHashSet<>();
+        private List<String> defaultFields;
+        private int defaultLimit = 50;
+        private int maxLimit = 200;
+        private String lastModifiedField;
+
+        private Builder(Class<T> type) {
+            this.type = type;
+        }
+
+        /**
+         * Criteria applied to every query, e.g. restricting users to clients.
+         */
+        public Builder<T> scope(Criteria scope) {
+            this.scope = scope;
+            return this;
+        }
+
+        public Builder<T> filter(String field) {
+            return filter(field, value -> value);
+        }
+
+        /**
+         * Equality filter whose request value is converted first, e.g. to an enum constant.
+         */
+        public Builder<T> filter(String field, Function<String, Object> converter) {
+            filters.put(field, converter);
+            return this;
+        }
+
+        public Builder<T> range(String dateField) {
+            ranges.add(dateField);
+            return this;
+        }
+
+        /**
+         * Sortable field; the first one becomes the default, newest/highest first.
+         */
+        public Builder<T> sort(String field) {
+            if (defaultSort == null) {
+                defaultSort = "-" + field;
+            }
+            sorts.add(field);
+            return this;
+        }
+
+        public Builder<T> defaultSort(String sort) {
+            this.defaultSort = sort;
+            return this;
+        }
+
+        public Builder<T> fields(String... names) {
+            fields.addAll(List.of(names));
+            return this;
+        }
+
+        /**
+         * Fields returned when the request names none; all allowed fields otherwise.
+         */
+        public Builder<T> defaultFields(String... names) {
+            this.defaultFields = List.of(names);
+            return this;
+        }
+
+        public Builder<T> limits(int defaultLimit, int maxLimit) {
+            this.defaultLimit = defaultLimit;
+            this.maxLimit = maxLimit;
+            return this;
+        }
+
+        /**
+         * Field every write refreshes, so its maximum plus a count tells whether a list changed.
+         */
+        public Builder<T> lastModified(String field) {
+            this.lastModifiedField = field;
+            return this;
+        }
+
+        public ListSpec<T> build() {
+            if (sorts.isEmpty()) {
+                throw new IllegalStateException("A list needs at least one sort field");
+            }
+            return new ListSpec<>(this);
+        }
+    }
+}
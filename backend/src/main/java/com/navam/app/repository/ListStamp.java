@@ -0,0 +1,8 @@
+package com.navam.app.repository;
+
+/**
+ * How many documents a list query matches and the latest last-modified value among them.
+ * Any insert, delete or write that refreshes the last-modified field changes one of the two.
+ */
+public record ListStamp(long count, Object latest) {
+}
@@ -0,0 +1,23 @@
+package com.navam.app.repository;
+
+import com.navam.app.dto.InboxEntry;
+import com.navam.app.model.Message;
+
+import java.util.List;
+
+public interface MessageRepositoryCustom {
+
+    /**
+     * One page of the conversation between two users, newest first. Pass "before" to page
+     * back in time or "after" to fetch messages newer than a known one. Up to pageSize messages
+     * nearest the cursor are returned, followed by one more when the page is not the last.
+     */
+    List<Message> findConversationPage(String user1, String user2, MessageCursor before, MessageCursor after,
+            int pageSize);
+
+    /**
+     * Latest message per counterpart of the user, most recent conversation first.
+     * Names and unread counts are left for the caller to fill in.
+     */
+    List<InboxEntry> findInbox(String userId, int limit);
+}
@@ -0,0 +1,111 @@
+package com.navam.app.repository;
+
+import com.navam.app.dto.InboxEntry;
+import com.navam.app.model.Message;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.StringOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+public class MessageRepositoryImpl implements MessageRepositoryCustom {
+
+    private static final int PREVIEW_LENGTH = 140;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Message> findConversationPage(String user1, String user2, MessageCursor before, MessageCursor after,
+            int pageSize) {
+        List<Criteria> criteria = new ArrayList<>();
+        criteria.add(participants(user1, user2));
+        if (before != null) {
+            criteria.add(new Criteria().orOperator(
+                    Criteria.where("createdAt").lt(before.getCreatedAt()),
+                    Criteria.where("createdAt").is(before.getCreatedAt()).and("id").lt(before.getId())));
+        }
+        if (after != null) {
+            criteria.add(new Criteria().orOperator(
+                    Criteria.where("createdAt").gt(after.getCreatedAt()),
+                    Criteria.where("createdAt").is(after.getCreatedAt()).and("id").gt(after.getId())));
+        }
+
+        // Newer-than pages read forward from the cursor, then flip to newest first
+        Sort.Direction direction = after != null && before == null ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Query query = new Query(new Criteria().andOperator(criteria.toArray(new Criteria[0])))
+                .with(Sort.by(direction, "createdAt", "id"))
+                .limit(pageSize + 1);
+
+        List<Message> messages = new ArrayList<>(mongoTemplate.find(query, Message.class));
+        if (direction == Sort.Direction.ASC) {
+            // The extra row is the one furthest from the cursor; it stays last after the flip
+            Message beyond = messages.size() > pageSize ? messages.remove(pageSize) : null;
+            Collections.reverse(messages);
+            if (beyond != null) {
+                messages.add(beyond);
+            }
+        }
+        return messages;
+    }
+
+    @Override
+    public List<InboxEntry> findInbox(String userId, int limit) {
+        // Both $or branches are served by the sent_idx / received_idx indexes in createdAt order
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(new Criteria().orOperator(
+                        Criteria.where("senderId").is(userId),
+                        Criteria.where("receiverId").is(userId))),
+                Aggregation.sort(Sort.by(Sort.Direction.DESC, "createdAt", "id")),
+                Aggregation.project("id", "senderId", "subject", "priority", "createdAt")
+                        .and(ConditionalOperators.when(ComparisonOperators.Eq.valueOf("senderId").equalToValue(userId))
+                                .thenValueOf("receiverId")
+                                .otherwiseValueOf("senderId")).as("counterpartId")
+                        .and(StringOperators.valueOf("content").substringCP(0, PREVIEW_LENGTH)).as("preview"),
+                Aggregation.group("counterpartId")
+                        .first("id").as("lastMessageId")
+                        .first("senderId").as("lastSenderId")
+                        .first("subject").as("subject")
+                        .first("preview").as("preview")
+                        .first("priority").as("priority")
+                        .first("createdAt").as("lastMessageAt"),
+                Aggregation.sort(Sort.by(Sort.Direction.DESC, "lastMessageAt")),
+                Aggregation.limit(limit));
+
+        List<InboxEntry> inbox = new ArrayList<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, Message.class, Document.class)) {
+            Object lastMessageId = row.get("lastMessageId");
+            Date lastMessageAt = row.getDate("lastMessageAt");
+            inbox.add(new InboxEntry(
+                    row.getString("_id"),
+                    null,
+                    lastMessageId instanceof ObjectId objectId ? objectId.toHexString() : String.valueOf(lastMessageId),
+                    row.getString("lastSenderId"),
+                    row.getString("subject"),
+                    row.getString("preview"),
+                    row.getString("priority"),
+                    lastMessageAt != null ? LocalDateTime.ofInstant(lastMessageAt.toInstant(), ZoneId.systemDefault()) : null,
+                    0));
+        }
+        return inbox;
+    }
+
+    static Criteria participants(String user1, String user2) {
+        return new Criteria().orOperator(
+                Criteria.where("senderId").is(user1).and("receiverId").is(user2),
+                Criteria.where("senderId").is(user2).and("receiverId").is(user1));
+    }
+}
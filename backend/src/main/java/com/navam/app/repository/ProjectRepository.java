@@ -4,8 +4,6 @@ import com.navam.app.model.Project;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import java.util.List;
 
-public interface ProjectRepository extends MongoRepository<Project, String> {
+public interface ProjectRepository extends MongoRepository<Project, String>, ProjectRepositoryCustom {
     List<Project> findByClientId(String clientId);
-
-    long countByClientIdAndStatus(String clientId, String status);
 }
@@ -0,0 +1,75 @@
+package com.navam.app.repository;
+
+import com.navam.app.dto.ClientStats;
+import com.navam.app.dto.TaskPage;
+import com.navam.app.dto.TaskOperation;
+import com.navam.app.dto.TaskSummary;
+import com.navam.app.model.Project;
+import com.navam.app.model.ProjectTask;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+
+public interface ProjectRepositoryCustom {
+
+    /**
+     * Appends a task with $push. When clientId is given the project must also belong to that
+     * client. Returns the project with only its id and clientId loaded, or null when no
+     * project matched.
+     */
+    Project pushTask(String projectId, String clientId, ProjectTask task);
+
+    /**
+     * Sets the project status in place; the first move to "Completed" stamps completedAt. When
+     * clientId is given the project must also belong to that client. Returns the project as it
+     * was before, with only its id, clientId, status and serviceType loaded, or null when no
+     * project matched.
+     */
+    Project updateStatus(String projectId, String clientId, String status);
+
+    /**
+     * Sets status and completed on one embedded task in place, and completedAt the first time it
+     * is completed. Returns the project with only
+     * its id, clientId and that task (as stored) loaded, or null when the project or task does
+     * not exist.
+     */
+    Project updateTaskStatus(String projectId, String taskId, String status, boolean completed);
+
+    /**
+     * Applies task creates (with their ids already assigned), updates and deletes as one
+     * atomic write, optionally only while the project is still at expectedVersion. Returns the
+     * project as it was before, with its id, clientId, version and tasks loaded, or null when
+     * no project matched.
+     */
+    Project applyTaskBatch(String projectId, Long expectedVersion, List<TaskOperation> operations,
+            LocalDateTime now);
+
+    /**
+     * The project with its task list left out, or null when it does not exist.
+     */
+    Project findWithoutTasks(String projectId);
+
+    /**
+     * Only the id, clientId, updatedAt and version of the project, or null when it does not exist.
+     */
+    Project findVersion(String projectId);
+
+    /**
+     * Task counts per status, computed on the server.
+     */
+    TaskSummary summarizeTasks(String projectId);
+
+    /**
+     * Project counts by status and task counts across all of a client's projects, in one
+     * aggregation. Tasks due before "now" that are not completed count as overdue.
+     */
+    ClientStats clientStats(String clientId, Date now);
+
+    /**
+     * One page of the project's tasks, optionally only those with the given status and/or
+     * assignee. Filtering and slicing happen in the projection, so only the page is returned.
+     * Null when the project does not exist.
+     */
+    TaskPage findTasks(String projectId, String status, String assignee, int offset, int limit);
+}
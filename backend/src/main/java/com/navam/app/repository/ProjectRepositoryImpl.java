@@ -0,0 +1,286 @@
+package com.navam.app.repository;
+
+import com.navam.app.dto.ClientStats;
+import com.navam.app.dto.TaskPage;
+import com.navam.app.dto.TaskOperation;
+import com.navam.app.dto.TaskSummary;
+import com.navam.app.model.Project;
+import com.navam.app.model.ProjectTask;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.util.TypeInformation;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.BooleanOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Task edits as single-document updates on the server, so concurrent edits to different tasks
+ * of one project never overwrite each other and the task list is never shipped whole.
+ */
+public class ProjectRepositoryImpl implements ProjectRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public Project pushTask(String projectId, String clientId, ProjectTask task) {
+        Criteria criteria = Criteria.where("id").is(projectId);
+        if (clientId != null) {
+            criteria.and("clientId").is(clientId);
+        }
+        Query query = new Query(criteria);
+        query.fields().include("clientId"); // Callers need the owner, never the task list
+        Update update = touch(new Update().push("tasks", task));
+        return mongoTemplate.findAndModify(query, update, Project.class);
+    }
+
+    @Override
+    public Project updateStatus(String projectId, String clientId, String status) {
+        Criteria criteria = Criteria.where("id").is(projectId);
+        if (clientId != null) {
+            criteria.and("clientId").is(clientId);
+        }
+        Query query = new Query(criteria);
+        query.fields().include("clientId", "status", "serviceType"); // The previous status, for the event
+
+        Update update = touch(new Update().set("status", status));
+        if ("Completed".equals(status)) {
+            update.min("completedAt", LocalDateTime.now());
+        }
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(false),
+                Project.class);
+    }
+
+    @Override
+    public Project updateTaskStatus(String projectId, String taskId, String status, boolean completed) {
+        Query query = new Query(Criteria.where("id").is(projectId).and("tasks._id").is(taskId));
+        query.fields().include("clientId")
+                .elemMatch("tasks", Criteria.where("_id").is(taskId)); // Only the changed task comes back
+
+        // Array filters are passed through unmapped, hence the stored "_id" of the embedded task
+        Update update = touch(new Update()
+                .set("tasks.$[t].status", status)
+                .set("tasks.$[t].completed", completed)
+                .filterArray(Criteria.where("t._id").is(taskId)));
+        if (completed || "Completed".equals(status)) {
+            // $min sets a missing completedAt and keeps an earlier one, so only the first completion counts
+            update.min("tasks.$[t].completedAt", LocalDateTime.now());
+        }
+
+        Project project = mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+                Project.class);
+        return project == null || project.getTasks() == null || project.getTasks().isEmpty() ? null : project;
+    }
+
+    /**
+     * $push, $pull and $set on "tasks.$[t]" conflict within one update, so the batch is a single
+     * pipeline stage instead: $filter drops the deleted tasks, $map merges the updated fields and
+     * $concatArrays appends the new ones. Request values go in as $literal so text starting with
+     * "$" is never read as a field path.
+     */
+    @Override
+    public Project applyTaskBatch(String projectId, Long expectedVersion, List<TaskOperation> operations,
+            LocalDateTime now) {
+        Criteria criteria = Criteria.where("id").is(projectId);
+        if (expectedVersion != null) {
+            // Projects saved before versioning have no version field, which reads as 0
+            criteria = expectedVersion == 0
+                    ? criteria.orOperator(Criteria.where("version").is(0L), Criteria.where("version").exists(false))
+                    : criteria.and("version").is(expectedVersion);
+        }
+        Query query = new Query(criteria);
+        query.fields().include("clientId", "version", "tasks");
+
+        return mongoTemplate.findAndModify(query, taskBatchUpdate(operations, now),
+                FindAndModifyOptions.options().returnNew(false), Project.class);
+    }
+
+    AggregationUpdate taskBatchUpdate(List<TaskOperation> operations, LocalDateTime now) {
+        Object nowValue = mongoTemplate.getConverter().convertToMongoType(now);
+        Set<String> deleted = operations.stream().filter(op -> TaskOperation.DELETE.equals(op.getOp()))
+                .map(TaskOperation::getTaskId).collect(Collectors.toSet());
+        List<Object> created = new ArrayList<>();
+        List<Document> branches = new ArrayList<>();
+        for (TaskOperation op : operations) {
+            if (TaskOperation.CREATE.equals(op.getOp())) {
+                ProjectTask task = new ProjectTask(op.getTaskId(), op.getTitle(), op.getStatus(), op.getAssignee(),
+                        op.getDueDate(), op.completes(), op.completes() ? now : null);
+                created.add(mongoTemplate.getConverter().convertToMongoType(task, TypeInformation.of(ProjectTask.class)));
+            } else if (TaskOperation.UPDATE.equals(op.getOp())) {
+                Document fields = new Document();
+                putIfPresent(fields, "title", op.getTitle());
+                putIfPresent(fields, "status", op.getStatus());
+                putIfPresent(fields, "assignee", op.getAssignee());
+                putIfPresent(fields, "dueDate", op.getDueDate() != null
+                        ? mongoTemplate.getConverter().convertToMongoType(op.getDueDate()) : null);
+                putIfPresent(fields, "completed", op.getCompleted());
+                List<Object> merge = new ArrayList<>(List.of("$$t", literal(fields)));
+                if (op.completes()) {
+                    // Like updateTaskStatus, only the first completion is stamped
+                    merge.add(new Document("completedAt", new Document("$ifNull", List.of("$$t.completedAt",
+                            literal(nowValue)))));
+                }
+                branches.add(new Document("case", new Document("$eq", List.of("$$t._id", literal(op.getTaskId()))))
+                        .append("then", new Document("$mergeObjects", merge)));
+            }
+        }
+
+        Object tasks = new Document("$ifNull", List.of("$tasks", List.of()));
+        if (!deleted.isEmpty()) {
+            tasks = new Document("$filter", new Document("input", tasks).append("as", "t")
+                    .append("cond", new Document("$not", List.of(
+                            new Document("$in", List.of("$$t._id", literal(new ArrayList<>(deleted))))))));
+        }
+        if (!branches.isEmpty()) {
+            tasks = new Document("$map", new Document("input", tasks).append("as", "t")
+                    .append("in", new Document("$switch", new Document("branches", branches).append("default", "$$t"))));
+        }
+        if (!created.isEmpty()) {
+            tasks = new Document("$concatArrays", List.of(tasks, literal(created)));
+        }
+
+        Document set = new Document("tasks", tasks)
+                .append("updatedAt", literal(nowValue))
+                .append("version", new Document("$add", List.of(new Document("$ifNull", List.of("$version", 0L)), 1L)));
+        return AggregationUpdate.from(List.of(context -> new Document("$set", set)));
+    }
+
+    private static void putIfPresent(Document document, String key, Object value) {
+        if (value != null) {
+            document.put(key, value);
+        }
+    }
+
+    private static Document literal(Object value) {
+        return new Document("$literal", value);
+    }
+
+    @Override
+    public Project findWithoutTasks(String projectId) {
+        Query query = new Query(Criteria.where("id").is(projectId));
+        query.fields().exclude("tasks");
+        return mongoTemplate.findOne(query, Project.class);
+    }
+
+    @Override
+    public Project findVersion(String projectId) {
+        Query query = new Query(Criteria.where("id").is(projectId));
+        query.fields().include("clientId", "updatedAt", "version");
+        return mongoTemplate.findOne(query, Project.class);
+    }
+
+    @Override
+    public TaskSummary summarizeTasks(String projectId) {
+        TypedAggregation<Project> aggregation = Aggregation.newAggregation(Project.class,
+                Aggregation.match(Criteria.where("id").is(projectId)),
+                Aggregation.unwind("tasks"),
+                Aggregation.group("tasks.status").count().as("count"));
+
+        Map<String, Long> byStatus = new LinkedHashMap<>();
+        long total = 0;
+        for (Document row : mongoTemplate.aggregate(aggregation, Document.class)) {
+            long count = ((Number) row.get("count")).longValue();
+            byStatus.merge(row.get("_id") != null ? row.get("_id").toString() : "None", count, Long::sum);
+            total += count;
+        }
+        return new TaskSummary(total, byStatus);
+    }
+
+    @Override
+    public TaskPage findTasks(String projectId, String status, String assignee, int offset, int limit) {
+        List<AggregationExpression> conditions = new ArrayList<>();
+        if (status != null) {
+            conditions.add(ComparisonOperators.Eq.valueOf("task.status").equalToValue(status));
+        }
+        if (assignee != null) {
+            conditions.add(ComparisonOperators.Eq.valueOf("task.assignee").equalToValue(assignee));
+        }
+        AggregationExpression tasks = ConditionalOperators.ifNull("tasks").then(Collections.emptyList());
+        AggregationExpression matching = conditions.isEmpty() ? tasks
+                : ArrayOperators.Filter.filter(tasks).as("task")
+                        .by(BooleanOperators.And.and(conditions.toArray()));
+
+        TypedAggregation<Project> aggregation = Aggregation.newAggregation(Project.class,
+                Aggregation.match(Criteria.where("id").is(projectId)),
+                Aggregation.project().and(matching).as("matching"),
+                Aggregation.project()
+                        .and(ArrayOperators.Size.lengthOfArray("matching")).as("total")
+                        .and(ArrayOperators.Slice.sliceArrayOf("matching").offset(offset).itemCount(limit)).as("tasks"));
+
+        Document row = mongoTemplate.aggregate(aggregation, Document.class).getUniqueMappedResult();
+        if (row == null) {
+            return null;
+        }
+        List<ProjectTask> page = new ArrayList<>();
+        for (Document task : row.getList("tasks", Document.class)) {
+            page.add(mongoTemplate.getConverter().read(ProjectTask.class, task));
+        }
+        long total = ((Number) row.get("total")).longValue();
+        return new TaskPage(page, total, offset, limit, offset + page.size() < total);
+    }
+
+    @Override
+    public ClientStats clientStats(String clientId, Date now) {
+        AggregationExpression tasks = ConditionalOperators.ifNull("tasks").then(Collections.emptyList());
+        // A task is done when flagged completed or moved to the "Completed" status
+        AggregationExpression pending = BooleanOperators.And.and(
+                ComparisonOperators.Ne.valueOf("task.completed").notEqualToValue(true),
+                ComparisonOperators.Ne.valueOf("task.status").notEqualToValue("Completed"));
+        AggregationExpression overdue = BooleanOperators.And.and(pending,
+                ComparisonOperators.Gt.valueOf("task.dueDate").greaterThanValue(new Date(0)),
+                ComparisonOperators.Lt.valueOf("task.dueDate").lessThanValue(now));
+
+        TypedAggregation<Project> aggregation = Aggregation.newAggregation(Project.class,
+                Aggregation.match(Criteria.where("clientId").is(clientId)),
+                Aggregation.project("status")
+                        .and(ArrayOperators.Size.lengthOfArray(tasks)).as("tasks")
+                        .and(ArrayOperators.Size.lengthOfArray(
+                                ArrayOperators.Filter.filter(tasks).as("task").by(pending))).as("pending")
+                        .and(ArrayOperators.Size.lengthOfArray(
+                                ArrayOperators.Filter.filter(tasks).as("task").by(overdue))).as("overdue"),
+                Aggregation.group("status").count().as("projects")
+                        .sum("tasks").as("tasks")
+                        .sum("pending").as("pending")
+                        .sum("overdue").as("overdue"));
+
+        Map<String, Long> byStatus = new LinkedHashMap<>();
+        long totalTasks = 0;
+        long pendingTasks = 0;
+        long overdueTasks = 0;
+        for (Document row : mongoTemplate.aggregate(aggregation, Document.class)) {
+            byStatus.merge(row.get("_id") != null ? row.get("_id").toString() : "None",
+                    ((Number) row.get("projects")).longValue(), Long::sum);
+            totalTasks += ((Number) row.get("tasks")).longValue();
+            pendingTasks += ((Number) row.get("pending")).longValue();
+            overdueTasks += ((Number) row.get("overdue")).longValue();
+        }
+        long totalProjects = byStatus.values().stream().mapToLong(Long::longValue).sum();
+        return new ClientStats(totalProjects, byStatus.getOrDefault("Active", 0L),
+                byStatus.getOrDefault("Pending", 0L), byStatus.getOrDefault("Completed", 0L), byStatus,
+                pendingTasks, totalTasks - pendingTasks, overdueTasks, 0);
+    }
+
+    private static Update touch(Update update) {
+        return update.currentDate("updatedAt").inc("version", 1);
+    }
+}
@@ -0,0 +1,7 @@
+package com.navam.app.repository;
+
+import com.navam.app.model.RevokedToken;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface RevokedTokenRepository extends MongoRepository<RevokedToken, String> {
+}
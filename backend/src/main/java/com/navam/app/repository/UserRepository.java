@@ -2,6 +2,9 @@ package com.navam.app.repository;
 
 import com.navam.app.model.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends MongoRepository<User, String> {
@@ -14,4 +17,24 @@ public interface UserRepository extends MongoRepository<User, String> {
     java.util.List<User> findByRolesContaining(String role);
 
     Optional<User> findByEmail(String email);
+
+    // Username or email in one round-trip, for authenticating a request (no password hash);
+    // email is the login in normalized form (User.normalizeEmail)
+    @Query(value = "{ '$or': [ { 'username': ?0 }, { 'email': ?1 } ] }",
+            fields = "{ 'username': 1, 'email': 1, 'fullName': 1, 'roles': 1, 'tokenVersion': 1 }")
+    List<User> findPrincipalsByLogin(String login, String email);
+
+    // The principal of a token, by the user id it was issued to (no password hash)
+    @Query(value = "{ '_id': ?0 }",
+            fields = "{ 'username': 1, 'email': 1, 'fullName': 1, 'roles': 1, 'tokenVersion': 1 }")
+    Optional<User> findPrincipalById(String id);
+
+    // Same lookup for the login form, which needs the password hash
+    @Query(value = "{ '$or': [ { 'username': ?0 }, { 'email': ?1 } ] }",
+            fields = "{ 'username': 1, 'email': 1, 'fullName': 1, 'roles': 1, 'tokenVersion': 1, 'password': 1 }")
+    List<User> findCredentialsByLogin(String login, String email);
+
+    // Display fields only, for labelling lists of users by id
+    @Query(value = "{ '_id': { '$in': ?0 } }", fields = "{ 'username': 1, 'fullName': 1, 'email': 1 }")
+    List<User> findSummariesByIdIn(Collection<String> ids);
 }
@@ -0,0 +1,128 @@
+package com.navam.app.security;
+
+import com.navam.app.exception.ServiceBusyException;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs password hashing on a dedicated, bounded pool so login bursts cannot pin every
+ * request thread on BCrypt. When the pool and its queue are full, callers fail fast
+ * with a ServiceBusyException (HTTP 503) instead of piling up.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+    private static final Logger logger = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+
+    private static final int MIN_STRENGTH = 10; // BCrypt's default; calibration never goes below it
+    private static final int MAX_STRENGTH = 16;
+    private static final String SETTINGS_COLLECTION = "settings";
+    private static final String STRENGTH_SETTING = "bcrypt";
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int poolSize, int queueCapacity, long timeoutMs) {
+        this.delegate = delegate;
+        this.timeoutMs = timeoutMs;
+        BlockingQueue<Runnable> queue = queueCapacity > 0
+                ? new ArrayBlockingQueue<>(queueCapacity)
+                : new SynchronousQueue<>();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, queue, runnable -> {
+            Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceBusyException("Too many password operations in progress, please retry shortly", 1);
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new ServiceBusyException("Password check timed out, please retry shortly", 1);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Password check was interrupted", 1);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Picks the BCrypt cost whose hash time on this machine is closest to targetMs,
+     * but never lower than BCrypt's default of 10.
+     */
+    public static int calibrateStrength(long targetMs) {
+        new BCryptPasswordEncoder(4).encode("warm-up");
+
+        long start = System.nanoTime();
+        new BCryptPasswordEncoder(MIN_STRENGTH).encode("calibration-password");
+        double baseMs = Math.max(0.1, (System.nanoTime() - start) / 1_000_000.0);
+
+        // Each extra cost step doubles the work
+        int strength = MIN_STRENGTH + (int) Math.round(Math.log(targetMs / baseMs) / Math.log(2));
+        strength = Math.max(MIN_STRENGTH, Math.min(MAX_STRENGTH, strength));
+        logger.info("BCrypt cost {} took {} ms; using cost {} for a {} ms target",
+                MIN_STRENGTH, String.format("%.1f", baseMs), strength, targetMs);
+        return strength;
+    }
+
+    /**
+     * The highest cost any instance has calibrated so far, counting this one. Stored with $max,
+     * so the cost only ever goes up and a slow or busy start cannot lower it.
+     */
+    public static int settleStrength(MongoTemplate mongoTemplate, int calibrated) {
+        Document stored = mongoTemplate.findAndModify(
+                new Query(Criteria.where("_id").is(STRENGTH_SETTING)),
+                new Update().max("strength", calibrated),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                Document.class, SETTINGS_COLLECTION);
+        int strength = stored != null ? stored.getInteger("strength", calibrated) : calibrated;
+        if (strength != calibrated) {
+            logger.info("Keeping the stored BCrypt cost {} over the calibrated {}", strength, calibrated);
+        }
+        return strength;
+    }
+}
@@ -1,14 +1,27 @@
 package com.navam.app.security;
 
+import com.navam.app.cache.CacheStats;
+import com.navam.app.cache.ExpiringLruCache;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Component
 public class JwtUtils {
@@ -19,39 +32,145 @@ public class JwtUtils {
     @Value("${navam.app.jwtExpirationMs:86400000}")
     private int jwtExpirationMs;
 
-    private Key key() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    @Value("${navam.app.jwtVerifiedCacheSize:10000}")
+    private int jwtVerifiedCacheSize;
+
+    // When enabled, tokens carry the full principal so AuthTokenFilter can skip the user lookup
+    @Value("${navam.app.jwtEmbedClaims:false}")
+    private boolean jwtEmbedClaims;
+
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_TOKEN_VERSION = "ver";
+    public static final String CLAIM_EMAIL = "email";
+    public static final String CLAIM_FULL_NAME = "name";
+    public static final String CLAIM_ROLES = "roles";
+
+    // Built once: the key and parser are immutable and thread-safe
+    private Key signingKey;
+    private JwtParser jwtParser;
+
+    // SHA-256 digest of a verified token -> its claims, expiring with the token's exp
+    private ExpiringLruCache<String, Claims> verifiedTokens;
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    @PostConstruct
+    public void init() {
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.verifiedTokens = new ExpiringLruCache<>(jwtVerifiedCacheSize, jwtExpirationMs);
     }
 
     public String generateJwtToken(Authentication authentication) {
-        UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
+        return generateJwtToken((UserDetails) authentication.getPrincipal());
+    }
 
-        return Jwts.builder()
+    public String generateJwtToken(UserDetails userPrincipal) {
+        JwtBuilder builder = Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject((userPrincipal.getUsername()))
                 .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(key(), SignatureAlgorithm.HS256)
-                .compact();
+                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs));
+
+        if (userPrincipal instanceof UserDetailsImpl user) {
+            builder.claim(CLAIM_USER_ID, user.getId())
+                    .claim(CLAIM_TOKEN_VERSION, user.getTokenVersion());
+            if (jwtEmbedClaims) {
+                builder.claim(CLAIM_EMAIL, user.getEmail())
+                        .claim(CLAIM_FULL_NAME, user.getFullName())
+                        .claim(CLAIM_ROLES, user.getAuthorities().stream()
+                                .map(GrantedAuthority::getAuthority)
+                                .collect(Collectors.toList()));
+            }
+        }
+
+        return builder.signWith(signingKey, SignatureAlgorithm.HS256).compact();
     }
 
-    public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key()).build()
-                .parseClaimsJws(token).getBody().getSubject();
+    /**
+     * Rebuilds the principal from a token issued with embedded claims, or returns null
+     * if the token only carries the username and the user has to be loaded.
+     */
+    public UserDetailsImpl getEmbeddedPrincipal(Claims claims) {
+        String userId = claims.get(CLAIM_USER_ID, String.class);
+        List<?> roles = claims.get(CLAIM_ROLES, List.class);
+        if (userId == null || roles == null) {
+            return null;
+        }
+
+        List<GrantedAuthority> authorities = roles.stream()
+                .map(role -> new SimpleGrantedAuthority(String.valueOf(role)))
+                .collect(Collectors.toList());
+        return new UserDetailsImpl(userId,
+                claims.getSubject(),
+                claims.get(CLAIM_EMAIL, String.class),
+                claims.get(CLAIM_FULL_NAME, String.class),
+                null,
+                authorities,
+                getTokenVersion(claims));
     }
 
-    public boolean validateJwtToken(String authToken) {
+    public long getTokenVersion(Claims claims) {
+        Number version = claims.get(CLAIM_TOKEN_VERSION, Number.class);
+        return version != null ? version.longValue() : 0L;
+    }
+
+    /**
+     * Verifies the token signature and expiry once and returns its claims, or null if
+     * the token is not valid. Recently verified tokens are served from a bounded cache.
+     */
+    public Claims parseValidatedClaims(String authToken) {
+        if (authToken == null || authToken.isEmpty()) {
+            return null;
+        }
+        String digest = digest(authToken);
+        Claims cached = verifiedTokens.get(digest);
+        if (cached != null) {
+            return cached;
+        }
+
         try {
-            Jwts.parserBuilder().setSigningKey(key()).build().parseClaimsJws(authToken);
-            return true;
+            Claims claims = jwtParser.parseClaimsJws(authToken).getBody();
+            Date expiration = claims.getExpiration();
+            if (expiration != null) {
+                verifiedTokens.put(digest, claims, expiration.getTime());
+            }
+            return claims;
         } catch (MalformedJwtException e) {
             System.err.println("Invalid JWT token: " + e.getMessage());
         } catch (ExpiredJwtException e) {
             System.err.println("JWT token is expired: " + e.getMessage());
         } catch (UnsupportedJwtException e) {
             System.err.println("JWT token is unsupported: " + e.getMessage());
+        } catch (SignatureException e) {
+            System.err.println("Invalid JWT signature: " + e.getMessage());
         } catch (IllegalArgumentException e) {
             System.err.println("JWT claims string is empty: " + e.getMessage());
         }
-        return false;
+        return null;
+    }
+
+    public String getUserNameFromJwtToken(String token) {
+        Claims claims = parseValidatedClaims(token);
+        return claims != null ? claims.getSubject() : null;
+    }
+
+    public boolean validateJwtToken(String authToken) {
+        return parseValidatedClaims(authToken) != null;
+    }
+
+    public CacheStats getVerifiedTokenCacheStats() {
+        return verifiedTokens.stats();
+    }
+
+    private static String digest(String token) {
+        byte[] hash = SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getEncoder().withoutPadding().encodeToString(hash);
     }
 }
@@ -0,0 +1,103 @@
+package com.navam.app.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.navam.app.dto.ErrorResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token-bucket limits for the public write endpoints. Requests are keyed by user id when
+ * authenticated and by client IP otherwise; over-limit calls get 429 with Retry-After.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private static final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Value("${navam.app.ratelimit.enabled:true}")
+    private boolean enabled;
+
+    // Comma-separated path:capacity:periodSeconds
+    @Value("${navam.app.ratelimit.rules:/api/contact/submit:5:60,/api/requests/submit:5:60,/api/auth/register:3:60}")
+    private String rules;
+
+    @Value("${navam.app.ratelimit.maxKeysPerRoute:100000}")
+    private int maxKeysPerRoute;
+
+    // Only enable behind a proxy that overwrites X-Forwarded-For
+    @Value("${navam.app.ratelimit.trustForwardedFor:false}")
+    private boolean trustForwardedFor;
+
+    private final Map<String, RateLimiter> limiters = new HashMap<>();
+
+    @PostConstruct
+    public void init() {
+        for (String rule : rules.split(",")) {
+            String[] parts = rule.trim().split(":");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid rate limit rule: " + rule);
+            }
+            limiters.put(parts[0], new RateLimiter(Integer.parseInt(parts[1]),
+                    TimeUnit.SECONDS.toNanos(Long.parseLong(parts[2])), maxKeysPerRoute));
+        }
+        logger.info("Rate limiting {} route(s): {}", limiters.size(), rules);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !limiters.containsKey(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RateLimiter limiter = limiters.get(request.getServletPath());
+        long waitNanos = limiter.tryAcquire(clientKey(request));
+        if (waitNanos == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(HttpStatus.TOO_MANY_REQUESTS.value(),
+                "Too many requests, please retry in " + retryAfterSeconds + "s", LocalDateTime.now()));
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl user) {
+            return "user:" + user.getId();
+        }
+        if (trustForwardedFor) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (StringUtils.hasText(forwarded)) {
+                int comma = forwarded.indexOf(',');
+                return "ip:" + (comma > 0 ? forwarded.substring(0, comma) : forwarded).trim();
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,68 @@
+package com.navam.app.security;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, one per key, implemented as GCRA: each bucket is a single
+ * AtomicLong holding its "theoretical arrival time" and is updated with CAS.
+ * A bucket whose arrival time is in the past is full, i.e. idle, and can be evicted.
+ */
+public class RateLimiter {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final int maxKeys;
+    private final long sweepIntervalNanos;
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep = new AtomicLong();
+
+    public RateLimiter(int capacity, long periodNanos, int maxKeys) {
+        this.emissionIntervalNanos = periodNanos / capacity;
+        this.burstToleranceNanos = periodNanos - emissionIntervalNanos;
+        this.maxKeys = maxKeys;
+        this.sweepIntervalNanos = Math.max(emissionIntervalNanos, 1_000_000_000L);
+    }
+
+    /**
+     * Takes one token for the key. Returns 0 if the call is allowed, otherwise the
+     * nanoseconds until a token becomes available.
+     */
+    public long tryAcquire(String key) {
+        long now = System.nanoTime();
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys && !evictIdle(now)) {
+                // Every tracked key is active; refuse new ones rather than grow without bound
+                return emissionIntervalNanos;
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+
+        while (true) {
+            long arrival = bucket.get();
+            long base = Math.max(arrival, now);
+            long wait = base - now - burstToleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(arrival, base + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    // Drops full buckets, at most once per sweep interval; returns whether there is room now
+    private boolean evictIdle(long now) {
+        long last = lastSweep.get();
+        if (now - last >= sweepIntervalNanos && lastSweep.compareAndSet(last, now)) {
+            buckets.values().removeIf(bucket -> bucket.get() <= now);
+        }
+        return buckets.size() < maxKeys;
+    }
+}
@@ -0,0 +1,61 @@
+package com.navam.app.security;
+
+import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Turns a bearer token into a principal: signature/expiry, revocation and token version
+ * checks. Shared by the HTTP filter and transports that cannot send headers (WebSocket, SSE).
+ */
+@Service
+public class TokenAuthenticationService {
+    private static final Logger logger = LoggerFactory.getLogger(TokenAuthenticationService.class);
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private TokenVersionService tokenVersionService;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    /**
+     * Returns the principal for a valid, current token, or null.
+     */
+    public UserDetailsImpl authenticate(String jwt) {
+        Claims claims = jwtUtils.parseValidatedClaims(jwt);
+        if (claims == null) {
+            return null;
+        }
+        if (tokenRevocationService.isRevoked(claims.getId())) {
+            logger.debug("Rejected revoked token {}", claims.getId());
+            return null;
+        }
+
+        String userId = claims.get(JwtUtils.CLAIM_USER_ID, String.class);
+        UserDetailsImpl userDetails = jwtUtils.getEmbeddedPrincipal(claims);
+        if (userDetails == null) {
+            userDetails = userId != null
+                    ? userDetailsService.loadPrincipal(userId)
+                    : userDetailsService.loadPrincipalByLogin(claims.getSubject());
+        }
+        // Only ever the user the token was issued to, not one that happens to share its login string
+        if (userId != null && !userId.equals(userDetails.getId())) {
+            logger.warn("Rejected token for user {} resolving to user {}", userId, userDetails.getId());
+            return null;
+        }
+
+        if (!tokenVersionService.isCurrent(userDetails.getId(), jwtUtils.getTokenVersion(claims))) {
+            logger.debug("Rejected token with stale version for user {}", userDetails.getId());
+            return null;
+        }
+        return userDetails;
+    }
+}
@@ -0,0 +1,85 @@
+package com.navam.app.security;
+
+import com.navam.app.cache.BloomFilter;
+import com.navam.app.model.RevokedToken;
+import com.navam.app.repository.RevokedTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Denylist of revoked token ids (jti). Revocations live in a TTL-indexed collection and are
+ * mirrored into an in-memory Bloom filter, so a request only touches Mongo on a filter hit.
+ */
+@Service
+public class TokenRevocationService {
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private static final double FALSE_POSITIVE_RATE = 0.001;
+    private static final int MIN_CAPACITY = 1024;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${navam.app.revocation.capacityHeadroom:2}")
+    private int capacityHeadroom;
+
+    private volatile BloomFilter filter = new BloomFilter(MIN_CAPACITY, FALSE_POSITIVE_RATE);
+
+    public void revoke(String jti, String userId, Date expiresAt) {
+        if (jti == null || expiresAt == null || expiresAt.getTime() <= System.currentTimeMillis()) {
+            return;
+        }
+        LocalDateTime expiry = LocalDateTime.ofInstant(expiresAt.toInstant(), ZoneId.systemDefault());
+        revokedTokenRepository.save(new RevokedToken(jti, userId, LocalDateTime.now(), expiry));
+        filter.add(jti);
+        logger.info("Revoked token {} for user {}", jti, userId);
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null || !filter.mightContain(jti)) {
+            return false;
+        }
+        return revokedTokenRepository.existsById(jti);
+    }
+
+    /**
+     * Rebuilds the filter from the live denylist, dropping bits of expired entries so
+     * the false-positive rate does not creep up over time.
+     */
+    @Scheduled(fixedDelayString = "${navam.app.revocation.rebuildMs:300000}")
+    public void rebuild() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<String> ids = activeIds(new Query(Criteria.where("expiresAt").gt(startedAt)));
+
+        BloomFilter next = new BloomFilter(Math.max(MIN_CAPACITY, ids.size() * capacityHeadroom),
+                FALSE_POSITIVE_RATE);
+        ids.forEach(next::add);
+        filter = next;
+
+        // Catch revocations that landed in the old filter while the snapshot was being read
+        activeIds(new Query(Criteria.where("revokedAt").gte(startedAt.minusSeconds(5)))).forEach(next::add);
+        logger.debug("Rebuilt revocation filter with {} entries", ids.size());
+    }
+
+    private List<String> activeIds(Query query) {
+        query.fields().include("id");
+        return mongoTemplate.find(query, RevokedToken.class).stream()
+                .map(RevokedToken::getId)
+                .toList();
+    }
+}
@@ -0,0 +1,83 @@
+package com.navam.app.security;
+
+import com.navam.app.cache.ExpiringLruCache;
+import com.navam.app.model.User;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+/**
+ * Tracks each user's token version. A JWT is only accepted while its "ver" claim matches
+ * the user's current version, so bumping the version revokes every outstanding token.
+ * Versions are cached in memory; the TTL bounds how long another instance can serve a stale one.
+ */
+@Service
+public class TokenVersionService {
+    private static final Logger logger = LoggerFactory.getLogger(TokenVersionService.class);
+
+    // Cached for users that no longer exist, so their tokens never match
+    private static final long DELETED = -1L;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${navam.app.jwtVersionCacheSize:10000}")
+    private int cacheSize;
+
+    @Value("${navam.app.jwtVersionCacheTtlMs:60000}")
+    private long cacheTtlMs;
+
+    private ExpiringLruCache<String, Long> versions;
+
+    @PostConstruct
+    public void init() {
+        this.versions = new ExpiringLruCache<>(cacheSize, cacheTtlMs);
+    }
+
+    public boolean isCurrent(String userId, long tokenVersion) {
+        if (userId == null) {
+            return false;
+        }
+        return currentVersion(userId) == tokenVersion;
+    }
+
+    public long currentVersion(String userId) {
+        Long cached = versions.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        Query query = Query.query(Criteria.where("id").is(userId));
+        query.fields().include("tokenVersion");
+        User user = mongoTemplate.findOne(query, User.class);
+        long version = user != null ? user.getTokenVersion() : DELETED;
+        versions.put(userId, version);
+        return version;
+    }
+
+    /**
+     * Invalidates all tokens issued to the user and returns the new version.
+     */
+    public long bump(String userId) {
+        Query query = Query.query(Criteria.where("id").is(userId));
+        query.fields().include("tokenVersion");
+        User user = mongoTemplate.findAndModify(query, new Update().inc("tokenVersion", 1),
+                FindAndModifyOptions.options().returnNew(true), User.class);
+        long version = user != null ? user.getTokenVersion() : DELETED;
+        versions.put(userId, version);
+        logger.info("Token version for user {} is now {}", userId, version);
+        return version;
+    }
+
+    public void userDeleted(String userId) {
+        versions.put(userId, DELETED);
+    }
+}
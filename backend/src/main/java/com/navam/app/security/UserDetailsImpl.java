@@ -24,14 +24,22 @@ public class UserDetailsImpl implements UserDetails {
 
     private Collection<? extends GrantedAuthority> authorities;
 
+    private long tokenVersion;
+
     public UserDetailsImpl(String id, String username, String email, String fullName, String password,
             Collection<? extends GrantedAuthority> authorities) {
+        this(id, username, email, fullName, password, authorities, 0L);
+    }
+
+    public UserDetailsImpl(String id, String username, String email, String fullName, String password,
+            Collection<? extends GrantedAuthority> authorities, long tokenVersion) {
         this.id = id;
         this.username = username;
         this.email = email;
         this.fullName = fullName;
         this.password = password;
         this.authorities = authorities;
+        this.tokenVersion = tokenVersion;
     }
 
     public static UserDetailsImpl build(User user) {
@@ -45,7 +53,8 @@ public class UserDetailsImpl implements UserDetails {
                 user.getEmail(),
                 user.getFullName(),
                 user.getPassword(),
-                authorities);
+                authorities,
+                user.getTokenVersion());
     }
 
     @Override
@@ -65,6 +74,10 @@ public class UserDetailsImpl implements UserDetails {
         return fullName;
     }
 
+    public long getTokenVersion() {
+        return tokenVersion;
+    }
+
     @Override
     public String getPassword() {
         return password;
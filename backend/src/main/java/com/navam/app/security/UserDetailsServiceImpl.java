@@ -1,37 +1,120 @@
 package com.navam.app.security;
 
+import com.navam.app.cache.CacheStats;
+import com.navam.app.cache.ExpiringLruCache;
+import com.navam.app.event.UserChangedEvent;
 import com.navam.app.model.User;
 import com.navam.app.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
+
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
     private static final Logger logger = LoggerFactory.getLogger(UserDetailsServiceImpl.class);
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${navam.app.userCacheSize:5000}")
+    private int userCacheSize;
+
+    @Value("${navam.app.userCacheTtlMs:300000}")
+    private long userCacheTtlMs;
+
+    // Keyed by user id; entries never hold the password hash
+    private ExpiringLruCache<String, UserDetailsImpl> principals;
+
+    @PostConstruct
+    public void init() {
+        this.principals = new ExpiringLruCache<>(userCacheSize, userCacheTtlMs);
+    }
+
+    /**
+     * Used by the authentication provider at login, so the password hash is loaded and nothing is cached.
+     */
     @Override
-    @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         logger.debug("Attempting to load user: {}", username);
-        User user = userRepository.findByUsername(username)
-                .orElseGet(() -> {
-                    logger.debug("User not found by username: {}. Attempting to find by email.", username);
-                    return userRepository.findByEmail(username)
-                            .orElseThrow(() -> {
-                                logger.error("User not found by username or email: {}", username);
-                                return new UsernameNotFoundException(
-                                        "User Not Found with username or email: " + username);
-                            });
-                });
-        return UserDetailsImpl.build(user);
+        return UserDetailsImpl.build(pick(userRepository.findCredentialsByLogin(username, User.normalizeEmail(username)),
+                username));
+    }
+
+    /**
+     * Called after a successful login when the stored hash uses an outdated BCrypt cost.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserDetailsImpl principal = (UserDetailsImpl) user;
+        mongoTemplate.updateFirst(Query.query(Criteria.where("id").is(principal.getId())),
+                Update.update("password", newPassword), User.class);
+        logger.info("Rehashed password for user {} with the current work factor", principal.getId());
+        return new UserDetailsImpl(principal.getId(), principal.getUsername(), principal.getEmail(),
+                principal.getFullName(), newPassword, principal.getAuthorities(), principal.getTokenVersion());
+    }
+
+    /**
+     * Resolves the principal of an authenticated request by the user id its token was issued to,
+     * served from the cache when possible.
+     */
+    public UserDetailsImpl loadPrincipal(String userId) throws UsernameNotFoundException {
+        UserDetailsImpl cached = principals.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        User user = userRepository.findPrincipalById(userId).orElseThrow(() -> {
+            logger.error("User not found by id: {}", userId);
+            return new UsernameNotFoundException("User Not Found with id: " + userId);
+        });
+        UserDetailsImpl principal = UserDetailsImpl.build(user);
+        principals.put(userId, principal);
+        return principal;
+    }
+
+    /**
+     * Resolves the principal of a token issued without a user id. Not cached: a login string
+     * is only unambiguous for the lookup that matched it.
+     */
+    public UserDetailsImpl loadPrincipalByLogin(String login) throws UsernameNotFoundException {
+        return UserDetailsImpl.build(pick(userRepository.findPrincipalsByLogin(login, User.normalizeEmail(login)), login));
+    }
+
+    public CacheStats getCacheStats() {
+        return principals.stats();
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        principals.invalidate(event.getUserId());
+    }
+
+    // A username match wins over an email match, as with the old findByUsername-then-findByEmail lookup
+    private User pick(List<User> candidates, String login) {
+        if (candidates.isEmpty()) {
+            logger.error("User not found by username or email: {}", login);
+            throw new UsernameNotFoundException("User Not Found with username or email: " + login);
+        }
+        return candidates.stream()
+                .filter(user -> login.equals(user.getUsername()))
+                .findFirst()
+                .orElse(candidates.get(0));
     }
 }
@@ -0,0 +1,207 @@
+package com.navam.app.service;
+
+import com.navam.app.event.ProjectChangedEvent;
+import com.navam.app.event.ServiceRequestChangedEvent;
+import com.navam.app.event.UserChangedEvent;
+import com.navam.app.model.AdminStats;
+import com.navam.app.model.Project;
+import com.navam.app.model.ServiceRequest;
+import com.navam.app.model.User;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Keeps the admin dashboard figures in one materialized document. Every write that changes a
+ * count is applied as a $inc from the domain event that describes it, so reading the stats is
+ * a single lookup by id however large the collections grow. A periodic reconciliation rebuilds
+ * the document from the source collections, which corrects drift from writes that raced a
+ * rebuild, bulk changes whose delta is unknown, and tasks that became overdue with the clock.
+ */
+@Service
+public class AdminStatsService {
+    private static final Logger logger = LoggerFactory.getLogger(AdminStatsService.class);
+
+    // Older accounts carry the lowercase role name
+    private static final Set<String> CLIENT_ROLES = Set.of("ROLE_CLIENT", "client");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    public AdminStats getStats() {
+        AdminStats stats = mongoTemplate.findById(AdminStats.ID, AdminStats.class);
+        return stats != null ? stats : reconcile();
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.getType() == UserChangedEvent.Type.UPDATED) {
+            return; // Profile and password changes never touch roles
+        }
+        if (event.getRoles() == null) {
+            reconcile();
+            return;
+        }
+        applyUsers(event.getRoles(), event.getType() == UserChangedEvent.Type.CREATED ? 1 : -1);
+    }
+
+    /**
+     * Counts users inserted in bulk, all with the same roles, without an event per user.
+     */
+    public void usersCreated(Set<String> roles, long count) {
+        if (count > 0) {
+            applyUsers(roles, count);
+        }
+    }
+
+    @EventListener
+    public void onProjectChanged(ProjectChangedEvent event) {
+        switch (event.getType()) {
+            case CREATED -> apply(new Update()
+                    .inc("totalProjects", 1)
+                    .inc("projectsByStatus." + key(event.getStatus()), 1)
+                    .inc("projectsByServiceType." + key(event.getServiceType()), 1));
+            case UPDATED -> {
+                if (!Objects.equals(key(event.getPreviousStatus()), key(event.getStatus()))) {
+                    apply(new Update()
+                            .inc("projectsByStatus." + key(event.getPreviousStatus()), -1)
+                            .inc("projectsByStatus." + key(event.getStatus()), 1));
+                }
+            }
+            case DELETED -> reconcile();
+            case TASKS_CHANGED -> {
+                // Overdue tasks depend on the clock and are left to reconciliation
+            }
+        }
+    }
+
+    @EventListener
+    public void onServiceRequestChanged(ServiceRequestChangedEvent event) {
+        if (event.getType() == ServiceRequestChangedEvent.Type.CREATED) {
+            apply(new Update()
+                    .inc("totalRequests", 1)
+                    .inc("requestsByStatus." + key(event.getStatus()), 1));
+        } else if (event.getPreviousStatus() != event.getStatus()) {
+            apply(new Update()
+                    .inc("requestsByStatus." + key(event.getPreviousStatus()), -1)
+                    .inc("requestsByStatus." + key(event.getStatus()), 1));
+        }
+    }
+
+    private void applyUsers(Collection<String> roles, long delta) {
+        Update update = new Update().inc("totalUsers", delta);
+        roles.forEach(role -> update.inc("usersByRole." + key(role), delta));
+        if (roles.stream().anyMatch(CLIENT_ROLES::contains)) {
+            update.inc("totalClients", delta);
+        }
+        apply(update);
+    }
+
+    // Without a document there is nothing to adjust; the next read or reconciliation builds it
+    private void apply(Update update) {
+        mongoTemplate.updateFirst(new Query(Criteria.where("id").is(AdminStats.ID)),
+                update.currentDate("updatedAt"), AdminStats.class);
+    }
+
+    // Startup also picks up users seeded by the initializer and anything written while stopped
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${navam.app.adminStats.reconcileMs:600000}",
+            initialDelayString = "${navam.app.adminStats.reconcileMs:600000}")
+    public void scheduledReconcile() {
+        reconcile();
+    }
+
+    /**
+     * Rebuilds the document from the source collections with one aggregation per collection.
+     */
+    public synchronized AdminStats reconcile() {
+        LocalDateTime now = LocalDateTime.now();
+
+        TypedAggregation<User> users = Aggregation.newAggregation(User.class,
+                Aggregation.facet(Aggregation.count().as("count")).as("total")
+                        .and(Aggregation.match(Criteria.where("roles").in(CLIENT_ROLES)),
+                                Aggregation.count().as("count")).as("clients")
+                        .and(Aggregation.unwind("roles"), Aggregation.group("roles").count().as("count"))
+                        .as("byRole"));
+        Document userCounts = mongoTemplate.aggregate(users, Document.class).getUniqueMappedResult();
+
+        TypedAggregation<Project> projects = Aggregation.newAggregation(Project.class,
+                Aggregation.facet(Aggregation.count().as("count")).as("total")
+                        .and(Aggregation.group("status").count().as("count")).as("byStatus")
+                        .and(Aggregation.group("serviceType").count().as("count")).as("byServiceType")
+                        .and(Aggregation.unwind("tasks"),
+                                Aggregation.match(Criteria.where("tasks.completed").ne(true)
+                                        .and("tasks.status").ne("Completed")
+                                        .and("tasks.dueDate").lt(now)),
+                                Aggregation.count().as("count")).as("overdue"));
+        Document projectCounts = mongoTemplate.aggregate(projects, Document.class).getUniqueMappedResult();
+
+        TypedAggregation<ServiceRequest> requests = Aggregation.newAggregation(ServiceRequest.class,
+                Aggregation.group("status").count().as("count"));
+        Map<String, Long> requestsByStatus = counts(mongoTemplate.aggregate(requests, Document.class)
+                .getMappedResults());
+
+        AdminStats stats = new AdminStats(AdminStats.ID,
+                single(userCounts, "total"), single(userCounts, "clients"), counts(facet(userCounts, "byRole")),
+                single(projectCounts, "total"), counts(facet(projectCounts, "byStatus")),
+                counts(facet(projectCounts, "byServiceType")),
+                requestsByStatus.values().stream().mapToLong(Long::longValue).sum(), requestsByStatus,
+                single(projectCounts, "overdue"), now, now);
+
+        AdminStats previous = mongoTemplate.findById(AdminStats.ID, AdminStats.class);
+        if (previous != null && (previous.getTotalUsers() != stats.getTotalUsers()
+                || previous.getTotalProjects() != stats.getTotalProjects()
+                || previous.getTotalRequests() != stats.getTotalRequests())) {
+            logger.info("Admin stats drifted and were reconciled: users {} -> {}, projects {} -> {}, requests {} -> {}",
+                    previous.getTotalUsers(), stats.getTotalUsers(), previous.getTotalProjects(),
+                    stats.getTotalProjects(), previous.getTotalRequests(), stats.getTotalRequests());
+        }
+        mongoTemplate.save(stats);
+        return stats;
+    }
+
+    private static List<Document> facet(Document result, String name) {
+        return result != null ? result.getList(name, Document.class, List.of()) : List.of();
+    }
+
+    private static long single(Document result, String name) {
+        List<Document> rows = facet(result, name);
+        return rows.isEmpty() ? 0 : ((Number) rows.get(0).get("count")).longValue();
+    }
+
+    private static Map<String, Long> counts(List<Document> rows) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Document row : rows) {
+            counts.merge(key(row.get("_id")), ((Number) row.get("count")).longValue(), Long::sum);
+        }
+        return counts;
+    }
+
+    // Map keys become field names, which may not contain dots or start with $
+    static String key(Object value) {
+        if (value == null || value.toString().isBlank()) {
+            return "None";
+        }
+        String key = value.toString().replace('.', '_');
+        return key.startsWith("$") ? "_" + key.substring(1) : key;
+    }
+}
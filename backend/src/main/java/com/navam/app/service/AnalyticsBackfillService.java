@@ -0,0 +1,176 @@
+package com.navam.app.service;
+
+import com.navam.app.model.AnalyticsBackfillJob;
+import com.navam.app.model.Project;
+import com.navam.app.model.ServiceRequest;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Fills the daily analytics buckets from the source collections, from the oldest createdAt up
+ * to today, one window of days at a time with a pause in between. Progress is saved after
+ * every window; a job interrupted by a restart continues from there on the next start.
+ */
+@Service
+public class AnalyticsBackfillService {
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsBackfillService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Value("${navam.app.analytics.backfillDays:31}")
+    private int windowDays;
+
+    @Value("${navam.app.analytics.throttleMs:100}")
+    private long throttleMs;
+
+    private ExecutorService worker;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicBoolean restartRequested = new AtomicBoolean();
+
+    @PostConstruct
+    public void init() {
+        worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "analytics-backfill");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // An interrupted job stays RUNNING and resumes from its saved day on the next start
+        worker.shutdownNow();
+    }
+
+    public Optional<AnalyticsBackfillJob> getJob() {
+        return Optional.ofNullable(mongoTemplate.findById(AnalyticsBackfillJob.ID, AnalyticsBackfillJob.class));
+    }
+
+    /**
+     * Starts a rebuild of every day. While one is running, it is started over once it finishes,
+     * so data written behind its position (an import, say) is still counted.
+     */
+    public synchronized AnalyticsBackfillJob start() {
+        if (running.get()) {
+            restartRequested.set(true);
+            return getJob().orElseThrow();
+        }
+        LocalDate today = LocalDate.now();
+        LocalDate from = Stream.of(earliest(ServiceRequest.class), earliest(Project.class))
+                .filter(day -> day != null)
+                .min(LocalDate::compareTo)
+                .orElse(today);
+        LocalDateTime now = LocalDateTime.now();
+        AnalyticsBackfillJob job = new AnalyticsBackfillJob(AnalyticsBackfillJob.ID, AnalyticsBackfillJob.Status.QUEUED,
+                from, today, from, 0, 0, null, now, now);
+        mongoTemplate.save(job);
+        schedule();
+        return job;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeOrStart() {
+        Optional<AnalyticsBackfillJob> job = getJob();
+        if (job.isEmpty()) {
+            logger.info("No analytics buckets yet, backfilling them");
+            start();
+        } else if (job.get().getStatus() == AnalyticsBackfillJob.Status.QUEUED
+                || job.get().getStatus() == AnalyticsBackfillJob.Status.RUNNING) {
+            logger.info("Resuming analytics backfill at {}", job.get().getNext());
+            schedule();
+        }
+    }
+
+    private void schedule() {
+        if (running.compareAndSet(false, true)) {
+            worker.execute(() -> {
+                try {
+                    run();
+                } finally {
+                    running.set(false);
+                }
+                if (restartRequested.getAndSet(false)) {
+                    start();
+                }
+            });
+        }
+    }
+
+    void run() {
+        AnalyticsBackfillJob job = getJob().orElse(null);
+        if (job == null || job.getStatus() == AnalyticsBackfillJob.Status.COMPLETED) {
+            return;
+        }
+        job.setStatus(AnalyticsBackfillJob.Status.RUNNING);
+        job.setAttempts(job.getAttempts() + 1);
+        save(job);
+
+        try {
+            while (!job.getNext().isAfter(job.getTo())) {
+                LocalDate end = job.getNext().plusDays(windowDays);
+                if (end.isAfter(job.getTo().plusDays(1))) {
+                    end = job.getTo().plusDays(1);
+                }
+                analyticsService.rebuild(job.getNext(), end);
+                job.setDaysDone(job.getDaysDone() + (end.toEpochDay() - job.getNext().toEpochDay()));
+                job.setNext(end);
+                save(job);
+                if (!job.getNext().isAfter(job.getTo())) {
+                    Thread.sleep(throttleMs);
+                }
+            }
+            job.setStatus(AnalyticsBackfillJob.Status.COMPLETED);
+            save(job);
+            logger.info("Analytics backfill finished: {} days from {} to {}", job.getDaysDone(), job.getFrom(),
+                    job.getTo());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.error("Analytics backfill failed at {}", job.getNext(), e);
+            job.setStatus(AnalyticsBackfillJob.Status.FAILED);
+            job.setError(e.getMessage());
+            save(job);
+        }
+    }
+
+    // Served by the createdAt index of each collection
+    private LocalDate earliest(Class<?> type) {
+        Query query = new Query(Criteria.where("createdAt").ne(null)).with(Sort.by("createdAt")).limit(1);
+        query.fields().include("createdAt");
+        Object first = mongoTemplate.findOne(query, type);
+        if (first instanceof ServiceRequest request) {
+            return request.getCreatedAt().toLocalDate();
+        } else if (first instanceof Project project) {
+            return project.getCreatedAt().toLocalDate();
+        }
+        return null;
+    }
+
+    private void save(AnalyticsBackfillJob job) {
+        job.setUpdatedAt(LocalDateTime.now());
+        mongoTemplate.save(job);
+    }
+}
@@ -0,0 +1,306 @@
+package com.navam.app.service;
+
+import com.navam.app.dto.AnalyticsReport;
+import com.navam.app.event.ProjectChangedEvent;
+import com.navam.app.event.ServiceRequestChangedEvent;
+import com.navam.app.model.AnalyticsBucket;
+import com.navam.app.model.Project;
+import com.navam.app.model.ServiceRequest;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Time-bucketed analytics kept as one document of counters per day. Request counts move with
+ * $inc from the domain events; completions, whose first-time-ness only the stored completedAt
+ * knows, are recounted for the affected day from an index. Reports fold the days of a range
+ * into days, weeks or months. AnalyticsBackfillService rebuilds the days from scratch.
+ */
+@Service
+public class AnalyticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsService.class);
+
+    private static final String COMPLETED = "Completed";
+    private static final int REBUILD_PASSES = 3;
+    private static final int DUPLICATE_KEY = 11000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${navam.app.analytics.maxDays:1830}")
+    private int maxDays;
+
+    // Days are cut in the zone LocalDateTime values are stored from
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    public AnalyticsReport report(LocalDate from, LocalDate to, AnalyticsReport.Granularity granularity) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxDays) {
+            throw new IllegalArgumentException("Range is limited to " + maxDays + " days");
+        }
+
+        Map<LocalDate, AnalyticsReport.Period> periods = new LinkedHashMap<>();
+        for (LocalDate start = periodStart(from, granularity); !start.isAfter(to); start = next(start, granularity)) {
+            periods.put(start, new AnalyticsReport.Period(start, new LinkedHashMap<>(), 0, 0, 0));
+        }
+
+        Query query = new Query(Criteria.where("id").gte(from.toString()).lte(to.toString()))
+                .with(Sort.by("id"));
+        for (AnalyticsBucket bucket : mongoTemplate.find(query, AnalyticsBucket.class)) {
+            AnalyticsReport.Period period = periods.get(periodStart(LocalDate.parse(bucket.getId()), granularity));
+            if (period == null) {
+                continue;
+            }
+            if (bucket.getRequests() != null) {
+                bucket.getRequests().forEach((serviceType, byStatus) -> byStatus.forEach((status, count) ->
+                        period.getRequests().computeIfAbsent(serviceType, key -> new LinkedHashMap<>())
+                                .merge(status, count, Long::sum)));
+            }
+            period.setProjectsStarted(period.getProjectsStarted() + bucket.getProjectsStarted());
+            period.setProjectsCompleted(period.getProjectsCompleted() + bucket.getProjectsCompleted());
+            period.setTasksCompleted(period.getTasksCompleted() + bucket.getTasksCompleted());
+        }
+        return new AnalyticsReport(from, to, granularity, new ArrayList<>(periods.values()));
+    }
+
+    @EventListener
+    public void onServiceRequestChanged(ServiceRequestChangedEvent event) {
+        if (event.getCreatedAt() == null) {
+            return;
+        }
+        // Counted on the day the request came in, under the status it has now
+        String prefix = "requests." + AdminStatsService.key(event.getServiceType()) + ".";
+        if (event.getType() == ServiceRequestChangedEvent.Type.CREATED) {
+            apply(event.getCreatedAt().toLocalDate(), new Update().inc(prefix + AdminStatsService.key(event.getStatus()), 1));
+        } else if (event.getPreviousStatus() != event.getStatus()) {
+            apply(event.getCreatedAt().toLocalDate(), new Update()
+                    .inc(prefix + AdminStatsService.key(event.getPreviousStatus()), -1)
+                    .inc(prefix + AdminStatsService.key(event.getStatus()), 1));
+        }
+    }
+
+    @EventListener
+    public void onProjectChanged(ProjectChangedEvent event) {
+        LocalDate today = LocalDate.now(zone);
+        switch (event.getType()) {
+            case CREATED -> {
+                apply(today, new Update().inc("projectsStarted", 1));
+                if (COMPLETED.equals(event.getStatus())) {
+                    recountCompletions(today);
+                }
+            }
+            case UPDATED -> {
+                if (COMPLETED.equals(event.getStatus()) && !COMPLETED.equals(event.getPreviousStatus())) {
+                    recountCompletions(today);
+                }
+            }
+            case TASKS_CHANGED -> {
+                if (event.getTask() != null && event.getTask().getCompletedAt() != null) {
+                    recountCompletions(event.getTask().getCompletedAt().toLocalDate());
+                }
+            }
+            case DELETED -> {
+                // History stays as it was; a backfill recounts it from what is left
+            }
+        }
+    }
+
+    /**
+     * Recomputes the days from (inclusive) to toExclusive from the source collections and
+     * replaces their buckets, empty days included. A bucket an event wrote to while its day was
+     * being counted is not overwritten; that day is counted again instead.
+     */
+    public void rebuild(LocalDate from, LocalDate toExclusive) {
+        SortedSet<String> days = new TreeSet<>();
+        for (LocalDate day = from; day.isBefore(toExclusive); day = day.plusDays(1)) {
+            days.add(day.toString());
+        }
+        for (int pass = 0; pass < REBUILD_PASSES && !days.isEmpty(); pass++) {
+            days = rebuildDays(days);
+        }
+        if (!days.isEmpty()) {
+            logger.warn("Analytics days still changing after {} rebuild passes: {}", REBUILD_PASSES, days);
+        }
+    }
+
+    // Returns the days whose bucket no longer holds this pass's counts
+    private SortedSet<String> rebuildDays(SortedSet<String> days) {
+        // Read before counting: a replacement only lands if the bucket is still as seen here
+        Query seenQuery = new Query(Criteria.where("id").in(days));
+        seenQuery.fields().include("updatedAt");
+        Map<String, LocalDateTime> seen = new HashMap<>();
+        for (AnalyticsBucket bucket : mongoTemplate.find(seenQuery, AnalyticsBucket.class)) {
+            seen.put(bucket.getId(), bucket.getUpdatedAt());
+        }
+
+        LocalDateTime start = LocalDate.parse(days.first()).atStartOfDay();
+        LocalDateTime end = LocalDate.parse(days.last()).plusDays(1).atStartOfDay();
+        LocalDateTime stamp = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        Map<String, AnalyticsBucket> buckets = new LinkedHashMap<>();
+        for (String day : days) {
+            buckets.put(day, new AnalyticsBucket(day, new HashMap<>(), 0, 0, 0, stamp));
+        }
+
+        for (Document row : mongoTemplate.aggregate(requestsPerDay(start, end), Document.class).getMappedResults()) {
+            Document id = row.get("_id", Document.class);
+            AnalyticsBucket bucket = buckets.get(id.getString("day"));
+            if (bucket != null) {
+                bucket.getRequests().computeIfAbsent(AdminStatsService.key(id.get("serviceType")), key -> new HashMap<>())
+                        .merge(AdminStatsService.key(id.get("status")), count(row), Long::sum);
+            }
+        }
+        projectsPerDay("createdAt", start, end).forEach((day, count) -> {
+            if (buckets.containsKey(day)) {
+                buckets.get(day).setProjectsStarted(count);
+            }
+        });
+        projectsPerDay("completedAt", start, end).forEach((day, count) -> {
+            if (buckets.containsKey(day)) {
+                buckets.get(day).setProjectsCompleted(count);
+            }
+        });
+        tasksCompletedPerDay(start, end).forEach((day, count) -> {
+            if (buckets.containsKey(day)) {
+                buckets.get(day).setTasksCompleted(count);
+            }
+        });
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AnalyticsBucket.class);
+        List<AnalyticsBucket> missing = new ArrayList<>();
+        for (AnalyticsBucket bucket : buckets.values()) {
+            if (seen.containsKey(bucket.getId())) {
+                bulk.replaceOne(new Query(Criteria.where("id").is(bucket.getId())
+                        .and("updatedAt").is(seen.get(bucket.getId()))), bucket, FindAndReplaceOptions.none());
+            } else {
+                missing.add(bucket);
+            }
+        }
+        if (!missing.isEmpty()) {
+            bulk.insert(missing);
+        }
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            // A bucket an event created meanwhile; it is counted again below
+            if (e.getErrors().stream().anyMatch(error -> error.getCode() != DUPLICATE_KEY)) {
+                throw e;
+            }
+        }
+
+        // Skipped replacements and buckets written since both carry another updatedAt
+        Query changedQuery = new Query(Criteria.where("id").in(days).and("updatedAt").ne(stamp));
+        changedQuery.fields().include("id");
+        return mongoTemplate.find(changedQuery, AnalyticsBucket.class).stream()
+                .map(AnalyticsBucket::getId)
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    private void recountCompletions(LocalDate day) {
+        LocalDateTime start = day.atStartOfDay();
+        LocalDateTime end = start.plusDays(1);
+        apply(day, new Update()
+                .set("projectsCompleted", projectsPerDay("completedAt", start, end).getOrDefault(day.toString(), 0L))
+                .set("tasksCompleted", tasksCompletedPerDay(start, end).getOrDefault(day.toString(), 0L)));
+    }
+
+    // Buckets appear with the first write of their day
+    private void apply(LocalDate day, Update update) {
+        mongoTemplate.upsert(new Query(Criteria.where("id").is(day.toString())), update.currentDate("updatedAt"),
+                AnalyticsBucket.class);
+    }
+
+    TypedAggregation<ServiceRequest> requestsPerDay(LocalDateTime start, LocalDateTime end) {
+        return Aggregation.newAggregation(ServiceRequest.class,
+                Aggregation.match(Criteria.where("createdAt").gte(start).lt(end)),
+                Aggregation.project("serviceType", "status").and(day("createdAt")).as("day"),
+                Aggregation.group("day", "serviceType", "status").count().as("count"));
+    }
+
+    private Map<String, Long> projectsPerDay(String dateField, LocalDateTime start, LocalDateTime end) {
+        return perDay(Aggregation.newAggregation(Project.class,
+                Aggregation.match(Criteria.where(dateField).gte(start).lt(end)),
+                Aggregation.project().and(day(dateField)).as("day"),
+                Aggregation.group("day").count().as("count")));
+    }
+
+    TypedAggregation<Project> tasksCompletedPerDayAggregation(LocalDateTime start, LocalDateTime end) {
+        // The first match narrows to projects with such a task through the multikey index
+        return Aggregation.newAggregation(Project.class,
+                Aggregation.match(Criteria.where("tasks.completedAt").gte(start).lt(end)),
+                Aggregation.unwind("tasks"),
+                Aggregation.match(Criteria.where("tasks.completedAt").gte(start).lt(end)),
+                Aggregation.project().and(day("tasks.completedAt")).as("day"),
+                Aggregation.group("day").count().as("count"));
+    }
+
+    private Map<String, Long> tasksCompletedPerDay(LocalDateTime start, LocalDateTime end) {
+        return perDay(tasksCompletedPerDayAggregation(start, end));
+    }
+
+    private Map<String, Long> perDay(TypedAggregation<?> aggregation) {
+        Map<String, Long> counts = new HashMap<>();
+        List<Document> rows = mongoTemplate.aggregate(aggregation, Document.class).getMappedResults();
+        for (Document row : rows) {
+            counts.put(row.getString("_id"), count(row));
+        }
+        return counts;
+    }
+
+    private DateOperators.DateToString day(String field) {
+        return DateOperators.dateOf(field).withTimezone(DateOperators.Timezone.valueOf(zone.getId()))
+                .toString("%Y-%m-%d");
+    }
+
+    private static long count(Document row) {
+        return ((Number) row.get("count")).longValue();
+    }
+
+    static LocalDate periodStart(LocalDate day, AnalyticsReport.Granularity granularity) {
+        return switch (granularity) {
+            case DAY -> day;
+            case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> day.withDayOfMonth(1);
+        };
+    }
+
+    private static LocalDate next(LocalDate start, AnalyticsReport.Granularity granularity) {
+        return switch (granularity) {
+            case DAY -> start.plusDays(1);
+            case WEEK -> start.plusWeeks(1);
+            case MONTH -> start.plusMonths(1);
+        };
+    }
+}
@@ -4,11 +4,14 @@ import com.navam.app.dto.JwtResponse;
 import com.navam.app.dto.LoginRequest;
 import com.navam.app.dto.MessageResponse;
 import com.navam.app.dto.SignupRequest;
+import com.navam.app.event.UserChangedEvent;
 import com.navam.app.model.User;
 import com.navam.app.repository.UserRepository;
 import com.navam.app.security.JwtUtils;
 import com.navam.app.security.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -36,6 +39,9 @@ public class AuthService {
     @Autowired
     JwtUtils jwtUtils;
 
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
     public JwtResponse authenticateUser(LoginRequest loginRequest) {
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()));
@@ -57,17 +63,27 @@ public class AuthService {
     }
 
     public MessageResponse registerUser(SignupRequest signUpRequest) {
+        String email = User.normalizeEmail(signUpRequest.getEmail());
         if (userRepository.existsByUsername(signUpRequest.getUsername())) {
             throw new RuntimeException("Error: Username is already taken!");
         }
 
-        if (userRepository.existsByEmail(signUpRequest.getEmail())) {
+        if (userRepository.existsByEmail(email)) {
+            throw new RuntimeException("Error: Email is already in use!");
+        }
+
+        // Logins are a username or an email, so neither may equal the other kind of another user
+        if (userRepository.existsByEmail(User.normalizeEmail(signUpRequest.getUsername()))) {
+            throw new RuntimeException("Error: Username is already taken!");
+        }
+
+        if (userRepository.existsByUsername(email)) {
             throw new RuntimeException("Error: Email is already in use!");
         }
 
         // Create new user's account
         User user = new User(signUpRequest.getUsername(),
-                signUpRequest.getEmail(),
+                email,
                 encoder.encode(signUpRequest.getPassword()),
                 signUpRequest.getFullName(),
                 signUpRequest.getCompanyName());
@@ -93,7 +109,15 @@ public class AuthService {
         }
 
         user.setRoles(roles);
-        userRepository.save(user);
+        try {
+            userRepository.save(user);
+        } catch (DuplicateKeyException e) {
+            // A concurrent signup took the username or email after the checks above
+            throw new RuntimeException("Error: Username or email is already in use!");
+        }
+        eventPublisher.publishEvent(
+                new UserChangedEvent(user.getId(), user.getUsername(), user.getEmail(), UserChangedEvent.Type.CREATED,
+                        roles));
 
         return new MessageResponse("User registered successfully!", user.getId());
     }
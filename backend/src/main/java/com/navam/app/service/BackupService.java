@@ -0,0 +1,267 @@
+package com.navam.app.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.Projections;
+import com.navam.app.model.ImportCheckpoint;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streams collections to and from NDJSON, one {"c": collection, "d": document} per line.
+ * Documents are written in MongoDB extended JSON ($oid, $date, ...) so an import restores
+ * the same ids and types. Both directions hold one cursor batch or insert batch in memory.
+ */
+@Service
+public class BackupService {
+    private static final Logger logger = LoggerFactory.getLogger(BackupService.class);
+
+    public static final List<String> COLLECTIONS =
+            List.of("users", "projects", "service_requests", "messages", "contacts");
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserDirectory userDirectory;
+
+    @Autowired
+    private ClientStatsService clientStatsService;
+
+    @Autowired
+    private AdminStatsService adminStatsService;
+
+    @Autowired
+    private AnalyticsBackfillService analyticsBackfillService;
+
+    @Autowired
+    private MessageSearchIndex messageSearchIndex;
+
+    @Value("${navam.app.backup.batchSize:1000}")
+    private int batchSize;
+
+    public void export(OutputStream out, List<String> collections, boolean includePasswords) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.setRootValueSeparator(null); // Lines are separated explicitly below
+        for (String collection : collections) {
+            FindIterable<Document> documents = mongoTemplate.getCollection(collection).find().batchSize(batchSize);
+            if ("users".equals(collection) && !includePasswords) {
+                documents = documents.projection(Projections.exclude("password"));
+            }
+
+            long count = 0;
+            try (MongoCursor<Document> cursor = documents.iterator()) {
+                while (cursor.hasNext()) {
+                    generator.writeStartObject();
+                    generator.writeStringField("c", collection);
+                    generator.writeFieldName("d");
+                    writeValue(generator, cursor.next());
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                    if (++count % batchSize == 0) {
+                        generator.flush();
+                    }
+                }
+            }
+            generator.flush();
+            logger.info("Exported {} documents from {}", count, collection);
+        }
+        generator.close();
+    }
+
+    /**
+     * Imports an NDJSON stream (gzip is detected automatically). Documents whose _id already
+     * exists are skipped. With an importId, progress is checkpointed after every batch and
+     * a repeated call resumes after the last committed line.
+     */
+    public ImportCheckpoint importStream(InputStream in, String importId) throws IOException {
+        String id = importId != null && !importId.isBlank() ? importId : UUID.randomUUID().toString();
+        ImportCheckpoint checkpoint = mongoTemplate.findById(id, ImportCheckpoint.class);
+        if (checkpoint == null) {
+            checkpoint = new ImportCheckpoint(id, 0, 0, 0, false, LocalDateTime.now());
+        }
+        long resumeAfter = checkpoint.getCommittedLines();
+        boolean usersTouched = false;
+        boolean projectsTouched = false;
+        boolean messagesTouched = false;
+
+        Map<String, List<Document>> batch = new LinkedHashMap<>();
+        int pending = 0;
+        long line = 0;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(decompress(in), StandardCharsets.UTF_8))) {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (line <= resumeAfter || text.isBlank()) {
+                    continue;
+                }
+                Document envelope;
+                try {
+                    envelope = Document.parse(text);
+                } catch (RuntimeException e) {
+                    throw new IllegalArgumentException("Invalid JSON on line " + line);
+                }
+                String collection = envelope.getString("c");
+                Document document = envelope.get("d", Document.class);
+                if (!COLLECTIONS.contains(collection) || document == null) {
+                    throw new IllegalArgumentException("Unknown collection or missing document on line " + line);
+                }
+                usersTouched |= "users".equals(collection);
+                projectsTouched |= "projects".equals(collection);
+                messagesTouched |= "messages".equals(collection);
+                batch.computeIfAbsent(collection, key -> new ArrayList<>()).add(document);
+                if (++pending >= batchSize) {
+                    flush(batch, checkpoint, line);
+                    pending = 0;
+                }
+            }
+        }
+        flush(batch, checkpoint, line);
+        checkpoint.setCompleted(true);
+        mongoTemplate.save(checkpoint);
+
+        if (usersTouched) {
+            userDirectory.invalidate();
+        }
+        if (projectsTouched) {
+            clientStatsService.invalidateAll();
+        }
+        if (messagesTouched) {
+            messageSearchIndex.rebuild();
+        }
+        if (checkpoint.getInserted() > 0) {
+            adminStatsService.reconcile();
+            analyticsBackfillService.start(); // Imported documents carry their own, possibly old, dates
+        }
+        logger.info("Import {} finished: {} inserted, {} skipped", id, checkpoint.getInserted(),
+                checkpoint.getSkipped());
+        return checkpoint;
+    }
+
+    private void flush(Map<String, List<Document>> batch, ImportCheckpoint checkpoint, long line) {
+        for (Map.Entry<String, List<Document>> entry : batch.entrySet()) {
+            List<Document> documents = entry.getValue();
+            int skipped = 0;
+            try {
+                mongoTemplate.getCollection(entry.getKey())
+                        .insertMany(documents, new InsertManyOptions().ordered(false));
+            } catch (MongoBulkWriteException e) {
+                for (BulkWriteError error : e.getWriteErrors()) {
+                    if (error.getCode() != DUPLICATE_KEY) {
+                        throw e;
+                    }
+                    skipped++;
+                }
+            }
+            checkpoint.setInserted(checkpoint.getInserted() + documents.size() - skipped);
+            checkpoint.setSkipped(checkpoint.getSkipped() + skipped);
+        }
+        batch.clear();
+        checkpoint.setCommittedLines(line);
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        mongoTemplate.save(checkpoint);
+    }
+
+    private static InputStream decompress(InputStream in) throws IOException {
+        PushbackInputStream stream = new PushbackInputStream(in, 2);
+        byte[] magic = stream.readNBytes(2);
+        if (magic.length > 0) {
+            stream.unread(magic);
+        }
+        boolean gzip = magic.length == 2 && (magic[0] & 0xff) == 0x1f && (magic[1] & 0xff) == 0x8b;
+        return gzip ? new GZIPInputStream(stream, 64 * 1024) : stream;
+    }
+
+    // Relaxed extended JSON, the format Document.parse reads back
+    private static void writeValue(JsonGenerator generator, Object value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof Document document) {
+            generator.writeStartObject();
+            for (Map.Entry<String, Object> field : document.entrySet()) {
+                generator.writeFieldName(field.getKey());
+                writeValue(generator, field.getValue());
+            }
+            generator.writeEndObject();
+        } else if (value instanceof List<?> list) {
+            generator.writeStartArray();
+            for (Object item : list) {
+                writeValue(generator, item);
+            }
+            generator.writeEndArray();
+        } else if (value instanceof String string) {
+            generator.writeString(string);
+        } else if (value instanceof Boolean bool) {
+            generator.writeBoolean(bool);
+        } else if (value instanceof Integer number) {
+            generator.writeNumber(number);
+        } else if (value instanceof Long number) {
+            generator.writeStartObject();
+            generator.writeStringField("$numberLong", number.toString());
+            generator.writeEndObject();
+        } else if (value instanceof Double number) {
+            generator.writeNumber(number);
+        } else if (value instanceof ObjectId objectId) {
+            generator.writeStartObject();
+            generator.writeStringField("$oid", objectId.toHexString());
+            generator.writeEndObject();
+        } else if (value instanceof Date date) {
+            generator.writeStartObject();
+            generator.writeFieldName("$date");
+            generator.writeStartObject();
+            generator.writeStringField("$numberLong", Long.toString(date.getTime()));
+            generator.writeEndObject();
+            generator.writeEndObject();
+        } else if (value instanceof Decimal128 decimal) {
+            generator.writeStartObject();
+            generator.writeStringField("$numberDecimal", decimal.toString());
+            generator.writeEndObject();
+        } else if (value instanceof Binary binary) {
+            generator.writeStartObject();
+            generator.writeFieldName("$binary");
+            generator.writeStartObject();
+            generator.writeStringField("base64", Base64.getEncoder().encodeToString(binary.getData()));
+            generator.writeStringField("subType", String.format("%02x", binary.getType()));
+            generator.writeEndObject();
+            generator.writeEndObject();
+        } else {
+            generator.writeString(value.toString());
+        }
+    }
+}
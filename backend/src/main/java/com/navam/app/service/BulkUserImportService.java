@@ -0,0 +1,342 @@
+package com.navam.app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.navam.app.dto.BulkImportResult;
+import com.navam.app.dto.BulkImportRow;
+import com.navam.app.dto.SignupRequest;
+import com.navam.app.model.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Creates client accounts from a CSV (with a header row) or NDJSON upload. Rows are handled
+ * in chunks: one $in query finds existing usernames and emails, passwords are hashed in
+ * parallel, and the new users are written with one unordered bulk insert.
+ * <p>
+ * Passwords are hashed at a low BCrypt cost (~2 ms, against ~250 ms at the calibrated cost)
+ * and rehashed at the normal cost on first login (see UserDetailsServiceImpl.updatePassword),
+ * so 10k rows take seconds rather than most of an hour. Until then a given password is
+ * cheaper to guess from a leaked hash. Rows without a password get a random one, which is
+ * infeasible to guess at any cost.
+ */
+@Service
+public class BulkUserImportService {
+    private static final Logger logger = LoggerFactory.getLogger(BulkUserImportService.class);
+
+    private static final String PASSWORD_ALPHABET =
+            "ABCDEFGHJKLMNPQRSTUVWXYZabcdefghijkmnopqrstuvwxyz23456789";
+    private static final int TEMPORARY_PASSWORD_LENGTH = 16; // ~93 bits
+    private static final int DUPLICATE_KEY = 11000;
+    private static final Set<String> CLIENT_ROLES = Set.of("ROLE_CLIENT");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserDirectory userDirectory;
+
+    @Autowired
+    private AdminStatsService adminStatsService;
+
+    @Value("${navam.app.bulkImport.chunkSize:500}")
+    private int chunkSize;
+
+    // Hashing threads; 0 = half the processors, so logins still get through
+    @Value("${navam.app.bulkImport.hashParallelism:0}")
+    private int hashParallelism;
+
+    @Value("${navam.app.bulkImport.hashStrength:4}")
+    private int hashStrength;
+
+    private final SecureRandom random = new SecureRandom();
+    private ExecutorService hashers;
+    private PasswordEncoder importEncoder;
+
+    private record Candidate(int row, SignupRequest request, boolean generatedPassword) {
+    }
+
+    @PostConstruct
+    public void init() {
+        int threads = hashParallelism > 0 ? hashParallelism
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        hashers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "bulk-import-hash");
+            thread.setDaemon(true);
+            return thread;
+        });
+        importEncoder = new BCryptPasswordEncoder(hashStrength);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashers.shutdownNow();
+    }
+
+    public BulkImportResult importClients(InputStream in, boolean ndjson) throws IOException {
+        long started = System.currentTimeMillis();
+        List<BulkImportRow> report = new ArrayList<>();
+        Set<String> seenUsernames = new HashSet<>();
+        Set<String> seenEmails = new HashSet<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            List<String> header = ndjson ? null : parseCsvLine(reader.readLine());
+            List<Candidate> chunk = new ArrayList<>(chunkSize);
+            int row = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                row++;
+                Candidate candidate = parse(row, line, header, report);
+                if (candidate == null) {
+                    continue;
+                }
+                // Repeats within the upload are caught here; repeats of stored users by the $in query
+                String username = candidate.request().getUsername();
+                String email = candidate.request().getEmail();
+                if (!seenUsernames.add(username) || !seenEmails.add(email)) {
+                    report.add(new BulkImportRow(row, username, BulkImportRow.Status.DUPLICATE,
+                            "Duplicate username or email within the upload", null, null));
+                    continue;
+                }
+                chunk.add(candidate);
+                if (chunk.size() >= chunkSize) {
+                    importChunk(chunk, report);
+                    chunk.clear();
+                }
+            }
+            importChunk(chunk, report);
+        }
+
+        report.sort((a, b) -> Integer.compare(a.getRow(), b.getRow()));
+        Map<BulkImportRow.Status, Long> counts = report.stream()
+                .collect(Collectors.groupingBy(BulkImportRow::getStatus, Collectors.counting()));
+        int created = counts.getOrDefault(BulkImportRow.Status.CREATED, 0L).intValue();
+        if (created > 0) {
+            userDirectory.invalidate();
+            adminStatsService.usersCreated(CLIENT_ROLES, created);
+        }
+        long elapsed = System.currentTimeMillis() - started;
+        logger.info("Bulk import: {} rows, {} created in {} ms", report.size(), created, elapsed);
+        return new BulkImportResult(report.size(), created,
+                counts.getOrDefault(BulkImportRow.Status.DUPLICATE, 0L).intValue(),
+                counts.getOrDefault(BulkImportRow.Status.INVALID, 0L).intValue(),
+                counts.getOrDefault(BulkImportRow.Status.FAILED, 0L).intValue(),
+                elapsed, report);
+    }
+
+    private Candidate parse(int row, String line, List<String> header, List<BulkImportRow> report) {
+        SignupRequest request;
+        try {
+            if (header == null) {
+                request = objectMapper.readValue(line, SignupRequest.class);
+            } else {
+                List<String> values = parseCsvLine(line);
+                Map<String, String> fields = new HashMap<>();
+                for (int i = 0; i < header.size() && i < values.size(); i++) {
+                    fields.put(header.get(i).trim(), values.get(i).trim());
+                }
+                request = new SignupRequest();
+                request.setUsername(fields.get("username"));
+                request.setEmail(fields.get("email"));
+                request.setPassword(fields.get("password"));
+                request.setFullName(fields.get("fullName"));
+                request.setCompanyName(fields.get("companyName"));
+            }
+        } catch (IOException | RuntimeException e) {
+            report.add(new BulkImportRow(row, null, BulkImportRow.Status.INVALID, "Unreadable row", null, null));
+            return null;
+        }
+
+        request.setEmail(User.normalizeEmail(request.getEmail()));
+        boolean generated = request.getPassword() == null || request.getPassword().isBlank();
+        if (generated) {
+            request.setPassword(temporaryPassword());
+        }
+        Set<ConstraintViolation<SignupRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            String message = violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+            report.add(new BulkImportRow(row, request.getUsername(), BulkImportRow.Status.INVALID, message, null, null));
+            return null;
+        }
+        return new Candidate(row, request, generated);
+    }
+
+    private void importChunk(List<Candidate> chunk, List<BulkImportRow> report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        // One round-trip for every username and email in the chunk
+        Set<String> usernames = chunk.stream().map(c -> c.request().getUsername()).collect(Collectors.toSet());
+        Set<String> emails = chunk.stream().map(c -> c.request().getEmail()).collect(Collectors.toSet());
+        Query existingQuery = new Query(new Criteria().orOperator(
+                Criteria.where("username").in(usernames), Criteria.where("email").in(emails)));
+        existingQuery.fields().include("username", "email");
+        Set<String> taken = new HashSet<>();
+        for (User existing : mongoTemplate.find(existingQuery, User.class)) {
+            taken.add(existing.getUsername());
+            taken.add(existing.getEmail());
+        }
+
+        List<Candidate> fresh = new ArrayList<>();
+        for (Candidate candidate : chunk) {
+            if (taken.contains(candidate.request().getUsername())
+                    || taken.contains(candidate.request().getEmail())) {
+                report.add(new BulkImportRow(candidate.row(), candidate.request().getUsername(),
+                        BulkImportRow.Status.DUPLICATE, "Username or email already exists", null, null));
+            } else {
+                fresh.add(candidate);
+            }
+        }
+
+        List<Future<String>> hashes = new ArrayList<>(fresh.size());
+        for (Candidate candidate : fresh) {
+            hashes.add(hashers.submit(() -> hash(candidate)));
+        }
+
+        List<User> users = new ArrayList<>(fresh.size());
+        List<Candidate> inserted = new ArrayList<>(fresh.size());
+        for (int i = 0; i < fresh.size(); i++) {
+            Candidate candidate = fresh.get(i);
+            SignupRequest request = candidate.request();
+            try {
+                User user = new User(request.getUsername(), request.getEmail(), hashes.get(i).get(),
+                        request.getFullName(), request.getCompanyName());
+                user.setId(new ObjectId().toHexString());
+                user.setRoles(CLIENT_ROLES);
+                users.add(user);
+                inserted.add(candidate);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted during bulk import", e);
+            } catch (ExecutionException e) {
+                report.add(new BulkImportRow(candidate.row(), request.getUsername(), BulkImportRow.Status.FAILED,
+                        "Password hashing failed: " + e.getCause().getMessage(), null, null));
+            }
+        }
+        if (users.isEmpty()) {
+            return;
+        }
+
+        Set<Integer> failedIndexes = new HashSet<>();
+        Set<Integer> duplicateIndexes = new HashSet<>();
+        try {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+            bulk.insert(users);
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            // The unique username/email indexes catch what the lookup missed, e.g. a concurrent signup
+            e.getErrors().forEach(error -> (error.getCode() == DUPLICATE_KEY ? duplicateIndexes : failedIndexes)
+                    .add(error.getIndex()));
+        } catch (DataAccessException e) {
+            logger.error("Bulk insert of {} users failed: {}", users.size(), e.getMessage());
+            for (int i = 0; i < users.size(); i++) {
+                failedIndexes.add(i);
+            }
+        }
+
+        for (int i = 0; i < inserted.size(); i++) {
+            Candidate candidate = inserted.get(i);
+            User user = users.get(i);
+            if (duplicateIndexes.contains(i)) {
+                report.add(new BulkImportRow(candidate.row(), user.getUsername(), BulkImportRow.Status.DUPLICATE,
+                        "Username or email already exists", null, null));
+            } else if (failedIndexes.contains(i)) {
+                report.add(new BulkImportRow(candidate.row(), user.getUsername(), BulkImportRow.Status.FAILED,
+                        "Insert failed", null, null));
+            } else {
+                report.add(new BulkImportRow(candidate.row(), user.getUsername(), BulkImportRow.Status.CREATED,
+                        null, user.getId(), candidate.generatedPassword() ? candidate.request().getPassword() : null));
+            }
+        }
+    }
+
+    private String hash(Candidate candidate) {
+        return importEncoder.encode(candidate.request().getPassword());
+    }
+
+    private String temporaryPassword() {
+        StringBuilder password = new StringBuilder(TEMPORARY_PASSWORD_LENGTH);
+        for (int i = 0; i < TEMPORARY_PASSWORD_LENGTH; i++) {
+            password.append(PASSWORD_ALPHABET.charAt(random.nextInt(PASSWORD_ALPHABET.length())));
+        }
+        return password.toString();
+    }
+
+    // RFC 4180 fields: commas inside quotes, "" for a literal quote; no multi-line fields
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        if (line == null) {
+            return fields;
+        }
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,81 @@
+package com.navam.app.service;
+
+import com.navam.app.cache.ExpiringLruCache;
+import com.navam.app.dto.ClientStats;
+import com.navam.app.event.ProjectChangedEvent;
+import com.navam.app.event.UserChangedEvent;
+import com.navam.app.repository.ProjectRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-client snapshot of the dashboard figures. A miss costs one aggregation; project and task
+ * writes drop the owner's snapshot, and the TTL bounds staleness from other instances and from
+ * tasks turning overdue with the clock.
+ */
+@Service
+public class ClientStatsService {
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Value("${navam.app.clientStats.cacheSize:10000}")
+    private int cacheSize;
+
+    @Value("${navam.app.clientStats.ttlMs:60000}")
+    private long ttlMs;
+
+    private ExpiringLruCache<String, ClientStats> snapshots;
+    private final AtomicLong generation = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        this.snapshots = new ExpiringLruCache<>(cacheSize, ttlMs);
+    }
+
+    public ClientStats getStats(String clientId) {
+        ClientStats stats = snapshots.get(clientId);
+        if (stats != null) {
+            return stats;
+        }
+        long loadedGeneration = generation.get();
+        stats = projectRepository.clientStats(clientId, new Date());
+        // Don't cache figures read before a concurrent write; the next call reloads
+        if (generation.get() == loadedGeneration) {
+            snapshots.put(clientId, stats);
+        }
+        return stats;
+    }
+
+    @EventListener
+    public void onProjectChanged(ProjectChangedEvent event) {
+        if (event.getClientId() != null) {
+            invalidate(event.getClientId());
+        } else {
+            invalidateAll();
+        }
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.getType() == UserChangedEvent.Type.DELETED) {
+            invalidate(event.getUserId());
+        }
+    }
+
+    public void invalidate(String clientId) {
+        generation.incrementAndGet();
+        snapshots.invalidate(clientId);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        snapshots.clear();
+    }
+}
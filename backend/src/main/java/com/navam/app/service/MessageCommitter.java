@@ -0,0 +1,246 @@
+package com.navam.app.service;
+
+import com.navam.app.exception.ServiceBusyException;
+import com.navam.app.model.Message;
+import com.navam.app.realtime.MessageHub;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Persists sent messages and then updates unread counters and pushes them to open sockets.
+ * <p>
+ * By default every send is one synchronous insert. With write-behind enabled, messages get
+ * their ObjectId up front, wait in a bounded queue and are written by a single committer
+ * thread with insertMany: each write takes up to batchSize messages that queued while the
+ * previous one was in flight, optionally waiting up to flushMs for more. The
+ * "ack" setting decides whether the caller waits for that flush ("flush") or returns as
+ * soon as the message is queued ("enqueue", which can lose queued messages on a crash).
+ * A flush that outlasts ackTimeoutMs is answered as if queued: the write still happens, so
+ * the caller must not send the message again.
+ */
+@Service
+public class MessageCommitter {
+    private static final Logger logger = LoggerFactory.getLogger(MessageCommitter.class);
+
+    public enum Ack { FLUSH, ENQUEUE }
+
+    /**
+     * A sent message with its id, and whether it is already stored or only queued for the committer.
+     */
+    public record Sent(Message message, boolean stored) {
+    }
+
+    private static final long IDLE_POLL_MS = 100;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private UnreadCounterService unreadCounterService;
+
+    @Autowired
+    private MessageHub messageHub;
+
+    @Autowired
+    private MessageSearchIndex messageSearchIndex;
+
+    @Value("${navam.app.messages.writeBehind:false}")
+    private boolean writeBehind;
+
+    @Value("${navam.app.messages.ack:flush}")
+    private String ack;
+
+    @Value("${navam.app.messages.batchSize:100}")
+    private int batchSize;
+
+    // 0 = write as soon as the committer is free; batches still form while an insert is in flight
+    @Value("${navam.app.messages.flushMs:0}")
+    private long flushMs;
+
+    @Value("${navam.app.messages.queueCapacity:10000}")
+    private int queueCapacity;
+
+    @Value("${navam.app.messages.ackTimeoutMs:5000}")
+    private long ackTimeoutMs;
+
+    private BlockingQueue<Pending> queue;
+    private Thread committer;
+    private volatile boolean running;
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong committed = new AtomicLong();
+
+    private record Pending(Message message, CompletableFuture<Message> done) {
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!writeBehind) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        committer = new Thread(this::run, "message-committer");
+        committer.start();
+        logger.info("Message write-behind enabled: batch {} / {} ms, ack after {}", batchSize, flushMs, ack);
+    }
+
+    /**
+     * Stops accepting messages and writes out everything still queued.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (committer == null) {
+            return;
+        }
+        running = false;
+        try {
+            committer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (committer.isAlive()) {
+            logger.error("Message committer did not drain within 30s; {} messages still queued", queue.size());
+        }
+    }
+
+    public Sent send(Message message) {
+        if (!writeBehind) {
+            Message saved = mongoTemplate.insert(message);
+            afterCommit(List.of(saved));
+            return new Sent(saved, true);
+        }
+
+        message.setId(new ObjectId().toHexString());
+        Pending pending = new Pending(message, new CompletableFuture<>());
+        if (!running || !queue.offer(pending)) {
+            throw new ServiceBusyException("Message queue is full, please retry", 1);
+        }
+        if (getAck() == Ack.ENQUEUE) {
+            return new Sent(message, false);
+        }
+
+        try {
+            return new Sent(pending.done().get(ackTimeoutMs, TimeUnit.MILLISECONDS), true);
+        } catch (TimeoutException e) {
+            // Still queued and written later; a resend would store it twice
+            logger.warn("Message {} not stored within {} ms, acknowledged as queued", message.getId(), ackTimeoutMs);
+            return new Sent(message, false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while sending message", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to store message", e.getCause());
+        }
+    }
+
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    public long getCommittedCount() {
+        return committed.get();
+    }
+
+    private Ack getAck() {
+        return "enqueue".equalsIgnoreCase(ack) ? Ack.ENQUEUE : Ack.FLUSH;
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        // Keep going after shutdown until the queue is empty
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Take what queued up during the previous insert, then linger up to flushMs for more
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                running = false;
+            } catch (RuntimeException e) {
+                logger.error("Message committer error: {}", e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        List<Message> messages = new ArrayList<>(batch.size());
+        batch.forEach(pending -> messages.add(pending.message()));
+        try {
+            mongoTemplate.insert(messages, Message.class);
+        } catch (RuntimeException e) {
+            // Find out which documents failed by retrying them one at a time
+            logger.warn("Batch insert of {} messages failed ({}), retrying individually", messages.size(),
+                    e.getMessage());
+            messages.clear();
+            for (Pending pending : batch) {
+                try {
+                    mongoTemplate.insert(pending.message());
+                    messages.add(pending.message());
+                } catch (DuplicateKeyException stored) {
+                    // The id was assigned here, so the failed batch had already stored this one
+                    messages.add(pending.message());
+                } catch (RuntimeException single) {
+                    logger.error("Failed to store message {}: {}", pending.message().getId(), single.getMessage());
+                    pending.done().completeExceptionally(single);
+                }
+            }
+        }
+
+        batches.incrementAndGet();
+        committed.addAndGet(messages.size());
+        try {
+            afterCommit(messages);
+        } finally {
+            for (Pending pending : batch) {
+                pending.done().complete(pending.message());
+            }
+        }
+    }
+
+    private void afterCommit(List<Message> messages) {
+        unreadCounterService.messagesSent(messages);
+        messageSearchIndex.add(messages);
+        for (Message message : messages) {
+            messageHub.publish(message.getReceiverId(), "message", message);
+            if (!message.getSenderId().equals(message.getReceiverId())) {
+                messageHub.publish(message.getSenderId(), "message", message);
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.navam.app.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Word roots for message search and the matches to highlight. Search matches a word whose
+ * crude root equals a term's ("invoices" finds "invoice"); highlighting also accepts a longer
+ * or shorter inflection. Ranges are [start, end) offsets, leaving markup to the client.
+ */
+public final class MessageHighlighter {
+
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}][\\p{L}\\p{N}']*");
+    private static final String[] SUFFIXES = { "ing", "ed", "s" };
+    private static final int MIN_ROOT = 3;
+    private static final int CONTEXT_BEFORE = 40;
+
+    private MessageHighlighter() {
+    }
+
+    /**
+     * Roots of the positive terms of a query; negated terms ("-draft") are skipped.
+     */
+    public static Set<String> terms(String query) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (query == null) {
+            return terms;
+        }
+        for (String token : query.replace('"', ' ').split("\\s+")) {
+            if (token.isEmpty() || token.startsWith("-")) {
+                continue;
+            }
+            Matcher matcher = WORD.matcher(token);
+            while (matcher.find()) {
+                terms.add(root(matcher.group()));
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Roots of the negated terms of a query ("-draft").
+     */
+    public static Set<String> excludedTerms(String query) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (query == null) {
+            return terms;
+        }
+        for (String token : query.replace('"', ' ').split("\\s+")) {
+            if (token.startsWith("-")) {
+                Matcher matcher = WORD.matcher(token);
+                while (matcher.find()) {
+                    terms.add(root(matcher.group()));
+                }
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Roots of every word of a text, as the search index keeps them.
+     */
+    public static Set<String> roots(String text) {
+        Set<String> roots = new HashSet<>();
+        if (text == null) {
+            return roots;
+        }
+        Matcher matcher = WORD.matcher(text);
+        while (matcher.find()) {
+            roots.add(root(matcher.group()));
+        }
+        return roots;
+    }
+
+    public static List<int[]> find(String text, Set<String> terms) {
+        List<int[]> ranges = new ArrayList<>();
+        if (text == null || terms.isEmpty()) {
+            return ranges;
+        }
+        Matcher matcher = WORD.matcher(text);
+        while (matcher.find()) {
+            String word = root(matcher.group());
+            for (String term : terms) {
+                // Either side may carry the longer inflection ("box" / "boxe" from "boxes")
+                if (word.startsWith(term) || (word.length() > MIN_ROOT && term.startsWith(word))) {
+                    ranges.add(new int[] { matcher.start(), matcher.end() });
+                    break;
+                }
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * Cuts a window of at most maxLength characters around the first match. Returns the
+     * snippet and its ranges shifted to snippet offsets.
+     */
+    public static Snippet snippet(String text, Set<String> terms, int maxLength) {
+        if (text == null) {
+            return new Snippet("", List.of());
+        }
+        List<int[]> ranges = find(text, terms);
+        if (text.length() <= maxLength) {
+            return new Snippet(text, ranges);
+        }
+
+        int start = ranges.isEmpty() ? 0 : Math.max(0, ranges.get(0)[0] - CONTEXT_BEFORE);
+        while (start > 0 && !Character.isWhitespace(text.charAt(start - 1))) {
+            start--; // Don't cut a word in half
+        }
+        start = Math.min(start, text.length() - maxLength);
+        int end = start + maxLength;
+
+        List<int[]> shifted = new ArrayList<>();
+        for (int[] range : ranges) {
+            if (range[0] >= start && range[1] <= end) {
+                shifted.add(new int[] { range[0] - start, range[1] - start });
+            }
+        }
+        return new Snippet(text.substring(start, end), shifted);
+    }
+
+    public record Snippet(String text, List<int[]> highlights) {
+    }
+
+    private static String root(String word) {
+        String lower = word.toLowerCase(Locale.ROOT);
+        for (String suffix : SUFFIXES) {
+            if (lower.length() - suffix.length() >= MIN_ROOT && lower.endsWith(suffix)) {
+                return lower.substring(0, lower.length() - suffix.length());
+            }
+        }
+        return lower;
+    }
+}
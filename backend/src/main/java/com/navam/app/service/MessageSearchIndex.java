@@ -0,0 +1,473 @@
+package com.navam.app.service;
+
+import com.navam.app.exception.ServiceBusyException;
+import com.navam.app.model.Message;
+import com.navam.app.repository.MessageCursor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index for message search. Every word root of a message's subject and
+ * content points at the message, and every user at the messages they sent or received; each
+ * list is kept in (createdAt, id) order. A search walks the cheaper side newest first from the
+ * cursor and stops after a page of hits, however far back they are.
+ * <p>
+ * Messages are added as they are stored. The whole index is loaded from Mongo once the
+ * application is up (searches answer 503 until then) and picks up messages stored by other
+ * instances on a timer. It holds about 40 bytes per message plus 4 per distinct word root in it,
+ * ~140 bytes for a 20-word message.
+ */
+@Service
+public class MessageSearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(MessageSearchIndex.class);
+
+    private static final int LOAD_BATCH = 1000;
+    // Cost of looking a message up in a word list, in steps of merging word lists (measured ~8x)
+    private static final int LOOKUP_COST = 8;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // Catch-ups re-read this far behind the newest indexed message, for slow writes of other instances
+    @Value("${navam.app.messages.searchIndex.catchUpLagMs:60000}")
+    private long catchUpLagMs;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Per message, by the ordinal it was indexed under; the ObjectId is split into 8 + 4 bytes
+    private long[] createdAt = new long[1024];
+    private long[] idHigh = new long[1024];
+    private int[] idLow = new int[1024];
+    private int[] sender = new int[1024];
+    private int[] receiver = new int[1024];
+    private final BitSet deleted = new BitSet();
+    private int size;
+
+    private final Map<String, Integer> userOrdinals = new HashMap<>();
+    private final List<OrdinalList> byUser = new ArrayList<>();
+    private final Map<String, OrdinalList> byTerm = new HashMap<>();
+    private long newestIdMillis;
+
+    private ExecutorService worker;
+    private final AtomicBoolean loading = new AtomicBoolean();
+    private volatile boolean ready;
+
+    @PostConstruct
+    public void init() {
+        worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "message-search-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (loading.compareAndSet(false, true)) {
+            worker.execute(() -> {
+                try {
+                    loadAll();
+                } finally {
+                    loading.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Drops the index and loads it again, for messages written without going through add.
+     */
+    public void rebuild() {
+        ready = false;
+        worker.execute(() -> {
+            clear();
+            loadAll();
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${navam.app.messages.searchIndex.catchUpMs:30000}",
+            initialDelayString = "${navam.app.messages.searchIndex.catchUpMs:30000}")
+    public void catchUp() {
+        if (!ready) {
+            load();
+            return;
+        }
+        long from;
+        lock.readLock().lock();
+        try {
+            from = newestIdMillis - catchUpLagMs;
+        } finally {
+            lock.readLock().unlock();
+        }
+        try {
+            indexAfter(new ObjectId(new Date(Math.max(0, from))));
+        } catch (RuntimeException e) {
+            logger.warn("Message search index catch-up failed: {}", e.getMessage());
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes stored messages. Messages already in the index are skipped.
+     */
+    public void add(Collection<Message> messages) {
+        lock.writeLock().lock();
+        try {
+            for (Message message : messages) {
+                addOne(message);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Forgets the messages a user sent or received, once they were deleted.
+     */
+    public void userDeleted(String userId) {
+        lock.writeLock().lock();
+        try {
+            Integer user = userOrdinals.get(userId);
+            if (user == null) {
+                return;
+            }
+            OrdinalList messages = byUser.get(user);
+            for (int i = 0; i < messages.size; i++) {
+                deleted.set(messages.ordinals[i]);
+            }
+            byUser.set(user, new OrdinalList());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Positions of the user's messages with a word root in terms and none in excluded, newest
+     * first, older than "before" when given, at most limit of them.
+     */
+    public List<MessageCursor> search(String userId, Set<String> terms, Set<String> excluded, MessageCursor before,
+            int limit) {
+        if (!ready) {
+            throw new ServiceBusyException("Message search is starting up, please retry", 5);
+        }
+        Key cursor = before != null ? key(before) : null;
+        lock.readLock().lock();
+        try {
+            Integer user = userOrdinals.get(userId);
+            List<OrdinalList> matching = terms.stream().map(byTerm::get).filter(Objects::nonNull).toList();
+            if (user == null || matching.isEmpty()) {
+                return List.of();
+            }
+            List<OrdinalList> skipped = excluded.stream().map(byTerm::get).filter(Objects::nonNull).toList();
+            OrdinalList mine = byUser.get(user);
+
+            int mineEnd = mine.below(cursor);
+            long termEntries = 0;
+            int[] positions = new int[matching.size()];
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = matching.get(i).below(cursor) - 1;
+                termEntries += positions[i] + 1;
+            }
+
+            // Expected steps to fill the page, taking the user's messages and the matching ones
+            // as spread evenly: merging meets the user's share of the word lists, walking the
+            // user's own messages meets the words' share of all messages
+            double mergeSteps = Math.min(termEntries, (double) limit * size / Math.max(1, mineEnd));
+            double walkSteps = Math.min(mineEnd, (double) limit * size / Math.max(1, termEntries)) * LOOKUP_COST;
+            List<MessageCursor> hits = new ArrayList<>(limit);
+            if (mergeSteps <= walkSteps) {
+                // Merge the word lists newest first; whose message it is costs nothing to check
+                while (hits.size() < limit) {
+                    int newest = -1;
+                    for (int i = 0; i < positions.length; i++) {
+                        if (positions[i] >= 0 && (newest < 0 || compare(matching.get(i).ordinals[positions[i]],
+                                matching.get(newest).ordinals[positions[newest]]) > 0)) {
+                            newest = i;
+                        }
+                    }
+                    if (newest < 0) {
+                        break;
+                    }
+                    int ordinal = matching.get(newest).ordinals[positions[newest]];
+                    for (int i = 0; i < positions.length; i++) {
+                        if (positions[i] >= 0 && matching.get(i).ordinals[positions[i]] == ordinal) {
+                            positions[i]--;
+                        }
+                    }
+                    if ((sender[ordinal] == user || receiver[ordinal] == user) && !deleted.get(ordinal)
+                            && !containsAny(skipped, ordinal)) {
+                        hits.add(cursor(ordinal));
+                    }
+                }
+            } else {
+                // Few messages of the user's own against long word lists: look each one up instead
+                for (int i = mineEnd - 1; i >= 0 && hits.size() < limit; i--) {
+                    int ordinal = mine.ordinals[i];
+                    if (!deleted.get(ordinal) && containsAny(matching, ordinal) && !containsAny(skipped, ordinal)) {
+                        hits.add(cursor(ordinal));
+                    }
+                }
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void loadAll() {
+        long started = System.currentTimeMillis();
+        try {
+            int loaded = indexAfter(null);
+            ready = true;
+            logger.info("Message search index loaded: {} messages, {} word roots in {} ms", loaded, byTerm.size(),
+                    System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            logger.error("Loading the message search index failed, retrying on the next catch-up: {}",
+                    e.getMessage());
+        }
+    }
+
+    // Walks the messages in _id order, one batch per query
+    private int indexAfter(ObjectId after) {
+        int count = 0;
+        Object from = after;
+        while (true) {
+            Criteria criteria = from == null ? new Criteria() : Criteria.where("id").gt(from);
+            Query query = new Query(criteria).with(Sort.by("id")).limit(LOAD_BATCH);
+            query.fields().include("senderId", "receiverId", "subject", "content", "createdAt");
+            List<Message> batch = mongoTemplate.find(query, Message.class);
+            add(batch);
+            count += batch.size();
+            if (batch.size() < LOAD_BATCH) {
+                return count;
+            }
+            from = new ObjectId(batch.get(batch.size() - 1).getId());
+        }
+    }
+
+    private void clear() {
+        lock.writeLock().lock();
+        try {
+            size = 0;
+            deleted.clear();
+            userOrdinals.clear();
+            byUser.clear();
+            byTerm.clear();
+            newestIdMillis = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addOne(Message message) {
+        if (message.getCreatedAt() == null || message.getSenderId() == null || message.getReceiverId() == null
+                || !ObjectId.isValid(message.getId())) {
+            return;
+        }
+        ObjectId objectId = new ObjectId(message.getId());
+        ByteBuffer bytes = ByteBuffer.wrap(objectId.toByteArray());
+        Key key = new Key(millis(message.getCreatedAt()), bytes.getLong(), bytes.getInt());
+        int from = user(message.getSenderId());
+        int to = user(message.getReceiverId());
+        int sentAt = byUser.get(from).insertionPoint(key);
+        if (sentAt < 0) {
+            return; // Already indexed
+        }
+
+        if (size == createdAt.length) {
+            int capacity = size * 2;
+            createdAt = Arrays.copyOf(createdAt, capacity);
+            idHigh = Arrays.copyOf(idHigh, capacity);
+            idLow = Arrays.copyOf(idLow, capacity);
+            sender = Arrays.copyOf(sender, capacity);
+            receiver = Arrays.copyOf(receiver, capacity);
+        }
+        int ordinal = size++;
+        createdAt[ordinal] = key.createdAt();
+        idHigh[ordinal] = key.high();
+        idLow[ordinal] = key.low();
+        sender[ordinal] = from;
+        receiver[ordinal] = to;
+        newestIdMillis = Math.max(newestIdMillis, objectId.getTimestamp() * 1000L);
+
+        byUser.get(from).insert(sentAt, ordinal);
+        if (to != from) {
+            OrdinalList received = byUser.get(to);
+            received.insert(received.insertionPoint(key), ordinal);
+        }
+        Set<String> roots = MessageHighlighter.roots(message.getSubject());
+        roots.addAll(MessageHighlighter.roots(message.getContent()));
+        for (String root : roots) {
+            OrdinalList list = byTerm.computeIfAbsent(root, term -> new OrdinalList());
+            list.insert(list.insertionPoint(key), ordinal);
+        }
+    }
+
+    private int user(String userId) {
+        Integer ordinal = userOrdinals.get(userId);
+        if (ordinal == null) {
+            ordinal = byUser.size();
+            userOrdinals.put(userId, ordinal);
+            byUser.add(new OrdinalList());
+        }
+        return ordinal;
+    }
+
+    private boolean containsAny(List<OrdinalList> lists, int ordinal) {
+        for (OrdinalList list : lists) {
+            if (list.contains(ordinal)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private MessageCursor cursor(int ordinal) {
+        byte[] id = ByteBuffer.allocate(12).putLong(idHigh[ordinal]).putInt(idLow[ordinal]).array();
+        return new MessageCursor(LocalDateTime.ofInstant(Instant.ofEpochMilli(createdAt[ordinal]),
+                ZoneId.systemDefault()), new ObjectId(id).toHexString());
+    }
+
+    private static Key key(MessageCursor cursor) {
+        if (!ObjectId.isValid(cursor.getId())) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(new ObjectId(cursor.getId()).toByteArray());
+        return new Key(millis(cursor.getCreatedAt()), bytes.getLong(), bytes.getInt());
+    }
+
+    // Dates are stored from LocalDateTime in the system zone, so they sort the same way here
+    private static long millis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    // (createdAt, id) order; ObjectIds compare as unsigned bytes, like Mongo does
+    private int compare(int ordinal, Key key) {
+        int byTime = Long.compare(createdAt[ordinal], key.createdAt());
+        if (byTime != 0) {
+            return byTime;
+        }
+        int byHigh = Long.compareUnsigned(idHigh[ordinal], key.high());
+        return byHigh != 0 ? byHigh : Integer.compareUnsigned(idLow[ordinal], key.low());
+    }
+
+    private int compare(int a, int b) {
+        int byTime = Long.compare(createdAt[a], createdAt[b]);
+        if (byTime != 0) {
+            return byTime;
+        }
+        int byHigh = Long.compareUnsigned(idHigh[a], idHigh[b]);
+        return byHigh != 0 ? byHigh : Integer.compareUnsigned(idLow[a], idLow[b]);
+    }
+
+    private record Key(long createdAt, long high, int low) {
+    }
+
+    /**
+     * Message ordinals in (createdAt, id) order. Messages mostly arrive in that order and are
+     * appended; a late one is inserted where it belongs.
+     */
+    private final class OrdinalList {
+        private int[] ordinals = new int[4];
+        private int size;
+
+        // Entries before the key; all of them without one
+        int below(Key key) {
+            if (key == null) {
+                return size;
+            }
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (compare(ordinals[middle], key) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        // Where the key goes, or -1 if it is already here
+        int insertionPoint(Key key) {
+            if (size == 0 || compare(ordinals[size - 1], key) < 0) {
+                return size;
+            }
+            int position = below(key);
+            return position < size && compare(ordinals[position], key) == 0 ? -1 : position;
+        }
+
+        void insert(int position, int ordinal) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ordinals, position, ordinals, position + 1, size - position);
+            ordinals[position] = ordinal;
+            size++;
+        }
+
+        boolean contains(int ordinal) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (compare(ordinals[middle], ordinal) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low < size && ordinals[low] == ordinal;
+        }
+    }
+}
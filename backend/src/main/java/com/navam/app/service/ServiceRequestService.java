@@ -1,24 +1,49 @@
 package com.navam.app.service;
 
+import com.navam.app.dto.ListPage;
+import com.navam.app.event.ServiceRequestChangedEvent;
 import com.navam.app.exception.ResourceNotFoundException;
 import com.navam.app.model.ServiceRequest;
+import com.navam.app.model.User;
 import com.navam.app.model.enums.RequestStatus;
+import com.navam.app.model.enums.ServiceType;
+import com.navam.app.repository.ListQueryExecutor;
+import com.navam.app.repository.ListSpec;
 import com.navam.app.repository.ServiceRequestRepository;
 import com.navam.app.security.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class ServiceRequestService {
 
+    static final ListSpec<ServiceRequest> REQUEST_LIST = ListSpec.of(ServiceRequest.class)
+            .filter("status", RequestStatus::valueOf)
+            .filter("serviceType", ServiceType::fromString)
+            .filter("requestType").filter("priority").filter("clientId")
+            .range("createdAt")
+            .sort("createdAt")
+            .fields("id", "fullName", "email", "companyName", "serviceType", "description", "clientId", "projectId",
+                    "projectName", "priority", "phoneNumber", "budgetRange", "timeline", "referenceLinks",
+                    "requestType", "status", "createdAt")
+            .build();
+
     @Autowired
     private ServiceRequestRepository serviceRequestRepository;
 
+    @Autowired
+    private ListQueryExecutor listQueryExecutor;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public ServiceRequest submitRequest(ServiceRequest request) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
@@ -47,13 +72,18 @@ public class ServiceRequestService {
             request.setProjectId(null);
         }
 
+        request.setEmail(User.normalizeEmail(request.getEmail())); // So deleting the user finds it
         request.setStatus(RequestStatus.PENDING);
         request.setCreatedAt(LocalDateTime.now());
-        return serviceRequestRepository.save(request);
+        ServiceRequest saved = serviceRequestRepository.save(request);
+        eventPublisher.publishEvent(new ServiceRequestChangedEvent(saved.getId(), saved.getClientId(),
+                ServiceRequestChangedEvent.Type.CREATED, null, saved.getStatus(), saved.getServiceType(),
+                saved.getCreatedAt()));
+        return saved;
     }
 
-    public List<ServiceRequest> getAllRequests() {
-        return serviceRequestRepository.findAll();
+    public ListPage<ServiceRequest> getRequests(Map<String, String> params) {
+        return listQueryExecutor.find(REQUEST_LIST, params);
     }
 
     public List<ServiceRequest> getMyRequests(String clientId) {
@@ -63,8 +93,13 @@ public class ServiceRequestService {
     public ServiceRequest updateStatus(String id, RequestStatus status) {
         return serviceRequestRepository.findById(id)
                 .map(request -> {
+                    RequestStatus previousStatus = request.getStatus();
                     request.setStatus(status);
-                    return serviceRequestRepository.save(request);
+                    ServiceRequest saved = serviceRequestRepository.save(request);
+                    eventPublisher.publishEvent(new ServiceRequestChangedEvent(id, saved.getClientId(),
+                            ServiceRequestChangedEvent.Type.UPDATED, previousStatus, status, saved.getServiceType(),
+                            saved.getCreatedAt()));
+                    return saved;
                 })
                 .orElseThrow(() -> new ResourceNotFoundException("Service request not found with id: " + id));
     }
@@ -0,0 +1,166 @@
+package com.navam.app.service;
+
+import com.navam.app.model.Message;
+import com.navam.app.model.UnreadCounter;
+import com.navam.app.repository.MessageCursor;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-user, per-counterpart unread message counters. Sending a message increments the
+ * receiver's counter and marking a conversation read decrements it by the number of
+ * messages actually flipped, so reading all badges is a single document lookup.
+ */
+@Service
+public class UnreadCounterService {
+    private static final Logger logger = LoggerFactory.getLogger(UnreadCounterService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    public void messageSent(Message message) {
+        messagesSent(List.of(message));
+    }
+
+    /**
+     * Counts a batch of sent messages with one $inc per receiver.
+     */
+    public void messagesSent(List<Message> messages) {
+        // Sum per (receiver, sender) first: repeating inc() on one Update replaces the amount
+        Map<String, Map<String, Long>> increments = new LinkedHashMap<>();
+        for (Message message : messages) {
+            if (message.getReceiverId() == null || message.getReceiverId().equals(message.getSenderId())) {
+                continue;
+            }
+            increments.computeIfAbsent(message.getReceiverId(), key -> new HashMap<>())
+                    .merge(message.getSenderId(), 1L, Long::sum);
+        }
+
+        Map<String, Update> updates = new LinkedHashMap<>();
+        increments.forEach((receiverId, bySender) -> {
+            Update update = new Update();
+            bySender.forEach((senderId, count) -> update.inc(countField(senderId), count));
+            updates.put(receiverId, update);
+        });
+        upsertAll(updates);
+    }
+
+    /**
+     * Marks the messages the counterpart sent to the user as read, up to and including the
+     * cursor position (or all of them when the cursor is null), and returns how many changed.
+     */
+    public long markRead(String userId, String counterpartId, MessageCursor upTo) {
+        Criteria criteria = Criteria.where("senderId").is(counterpartId)
+                .and("receiverId").is(userId)
+                .and("isRead").is(false);
+        if (upTo != null) {
+            criteria.orOperator(
+                    Criteria.where("createdAt").lt(upTo.getCreatedAt()),
+                    Criteria.where("createdAt").is(upTo.getCreatedAt()).and("id").lte(upTo.getId()));
+        }
+        UpdateResult result = mongoTemplate.updateMulti(new Query(criteria), Update.update("isRead", true),
+                Message.class);
+
+        long marked = result.getModifiedCount();
+        if (marked > 0) {
+            // Never reset after the decrement: a message can be marked read before its own $inc
+            // lands, and that $inc has to bring the counter back to zero, not to one
+            mongoTemplate.updateFirst(byUser(userId), new Update().inc(countField(counterpartId), -marked),
+                    UnreadCounter.class);
+        }
+        return marked;
+    }
+
+    /**
+     * Counts above zero; a counter briefly below zero (see markRead) reads as nothing unread.
+     */
+    public Map<String, Long> getCounts(String userId) {
+        UnreadCounter counter = mongoTemplate.findById(userId, UnreadCounter.class);
+        Map<String, Long> counts = new HashMap<>();
+        if (counter != null && counter.getCounts() != null) {
+            counter.getCounts().forEach((counterpartId, count) -> {
+                if (count != null && count > 0) {
+                    counts.put(counterpartId, count);
+                }
+            });
+        }
+        return counts;
+    }
+
+    /**
+     * Seeds the counters from existing unread messages the first time the collection is used.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedIfEmpty() {
+        if (mongoTemplate.estimatedCount(UnreadCounter.class) > 0) {
+            return;
+        }
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("isRead").is(false)),
+                Aggregation.group("receiverId", "senderId").count().as("count"));
+        Map<String, Update> updates = new LinkedHashMap<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, Message.class, Document.class)) {
+            Document id = row.get("_id", Document.class);
+            String receiverId = id.getString("receiverId");
+            String senderId = id.getString("senderId");
+            if (receiverId == null || senderId == null || receiverId.equals(senderId)) {
+                continue;
+            }
+            updates.computeIfAbsent(receiverId, key -> new Update())
+                    .inc(countField(senderId), ((Number) row.get("count")).longValue());
+        }
+        upsertAll(updates);
+        if (!updates.isEmpty()) {
+            logger.info("Seeded unread counters for {} users", updates.size());
+        }
+    }
+
+    /**
+     * Drops a deleted user's own counters and their entry in everyone else's.
+     */
+    public void userDeleted(String userId) {
+        mongoTemplate.remove(byUser(userId), UnreadCounter.class);
+        String field = countField(userId);
+        mongoTemplate.updateMulti(new Query(Criteria.where(field).exists(true)), new Update().unset(field),
+                UnreadCounter.class);
+    }
+
+    private void upsertAll(Map<String, Update> updates) {
+        if (updates.isEmpty()) {
+            return;
+        }
+        if (updates.size() == 1) {
+            Map.Entry<String, Update> only = updates.entrySet().iterator().next();
+            mongoTemplate.upsert(byUser(only.getKey()), only.getValue(), UnreadCounter.class);
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UnreadCounter.class);
+        updates.forEach((userId, update) -> bulk.upsert(byUser(userId), update));
+        bulk.execute();
+    }
+
+    private static Query byUser(String userId) {
+        return new Query(Criteria.where("userId").is(userId));
+    }
+
+    private static String countField(String counterpartId) {
+        return "counts." + counterpartId;
+    }
+}
@@ -0,0 +1,235 @@
+package com.navam.app.service;
+
+import com.navam.app.event.ProjectChangedEvent;
+import com.navam.app.model.User;
+import com.navam.app.model.UserDeletionJob;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Cleans up after a deleted user in the background: their projects and messages are removed
+ * and their service requests are anonymized, a bounded batch at a time with a pause between
+ * batches so the cleanup never competes with live traffic for long. Progress is saved after
+ * every batch and unfinished jobs are picked up again on startup.
+ */
+@Service
+public class UserDeletionService {
+    private static final Logger logger = LoggerFactory.getLogger(UserDeletionService.class);
+
+    static final String DELETED_NAME = "Deleted user";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private UnreadCounterService unreadCounterService;
+
+    @Autowired
+    private MessageSearchIndex messageSearchIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${navam.app.deletion.batchSize:500}")
+    private int batchSize;
+
+    @Value("${navam.app.deletion.throttleMs:100}")
+    private long throttleMs;
+
+    private ExecutorService worker;
+    private final Set<String> scheduled = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() {
+        // One job at a time keeps the cleanup's share of the database bounded
+        worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-deletion");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // An interrupted job stays RUNNING and resumes from its saved phase on the next start
+        worker.shutdownNow();
+    }
+
+    public UserDeletionJob start(User user) {
+        LocalDateTime now = LocalDateTime.now();
+        UserDeletionJob job = new UserDeletionJob(user.getId(), user.getUsername(), user.getEmail(),
+                UserDeletionJob.Status.QUEUED, UserDeletionJob.Phase.PROJECTS, 0, 0, 0, 0, null, now, now);
+        mongoTemplate.save(job);
+        schedule(job.getId());
+        return job;
+    }
+
+    public Optional<UserDeletionJob> getJob(String userId) {
+        return Optional.ofNullable(mongoTemplate.findById(userId, UserDeletionJob.class));
+    }
+
+    /**
+     * Re-queues a failed job from the phase it stopped in.
+     */
+    public Optional<UserDeletionJob> retry(String userId) {
+        Optional<UserDeletionJob> job = getJob(userId);
+        job.filter(found -> found.getStatus() == UserDeletionJob.Status.FAILED).ifPresent(found -> {
+            found.setStatus(UserDeletionJob.Status.QUEUED);
+            found.setError(null);
+            save(found);
+            schedule(found.getId());
+        });
+        return job;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePending() {
+        Query pending = new Query(Criteria.where("status")
+                .in(UserDeletionJob.Status.QUEUED, UserDeletionJob.Status.RUNNING));
+        List<UserDeletionJob> jobs = mongoTemplate.find(pending, UserDeletionJob.class);
+        if (!jobs.isEmpty()) {
+            logger.info("Resuming {} unfinished user deletion job(s)", jobs.size());
+        }
+        jobs.forEach(job -> schedule(job.getId()));
+    }
+
+    private void schedule(String jobId) {
+        if (scheduled.add(jobId)) {
+            worker.execute(() -> {
+                try {
+                    run(jobId);
+                } finally {
+                    scheduled.remove(jobId);
+                }
+            });
+        }
+    }
+
+    void run(String jobId) {
+        UserDeletionJob job = mongoTemplate.findById(jobId, UserDeletionJob.class);
+        if (job == null || job.getStatus() == UserDeletionJob.Status.COMPLETED) {
+            return;
+        }
+        job.setStatus(UserDeletionJob.Status.RUNNING);
+        job.setAttempts(job.getAttempts() + 1);
+        save(job);
+
+        try {
+            while (job.getPhase() != UserDeletionJob.Phase.DONE) {
+                runPhase(job);
+                job.setPhase(UserDeletionJob.Phase.values()[job.getPhase().ordinal() + 1]);
+                save(job);
+            }
+            job.setStatus(UserDeletionJob.Status.COMPLETED);
+            save(job);
+            logger.info("Deleted data of user {}: {} projects, {} service requests anonymized, {} messages",
+                    jobId, job.getProjectsDeleted(), job.getRequestsAnonymized(), job.getMessagesDeleted());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.error("User deletion job {} failed in phase {}", jobId, job.getPhase(), e);
+            job.setStatus(UserDeletionJob.Status.FAILED);
+            job.setError(e.getMessage());
+            save(job);
+        }
+    }
+
+    private void runPhase(UserDeletionJob job) throws InterruptedException {
+        String userId = job.getId();
+        switch (job.getPhase()) {
+            case PROJECTS -> {
+                inBatches(job, "projects", Criteria.where("clientId").is(userId), null,
+                        count -> job.setProjectsDeleted(job.getProjectsDeleted() + count));
+                if (job.getProjectsDeleted() > 0) {
+                    eventPublisher.publishEvent(new ProjectChangedEvent(null, userId, ProjectChangedEvent.Type.DELETED));
+                }
+            }
+            case SERVICE_REQUESTS -> {
+                // Requests are kept for the business record, minus who sent them
+                List<Criteria> owner = new ArrayList<>();
+                owner.add(Criteria.where("clientId").is(userId));
+                if (job.getEmail() != null) {
+                    owner.add(Criteria.where("email").is(job.getEmail()));
+                }
+                Update anonymize = new Update()
+                        .set("fullName", DELETED_NAME)
+                        .unset("clientId")
+                        .unset("projectId")
+                        .unset("email")
+                        .unset("phoneNumber")
+                        .unset("companyName");
+                inBatches(job, "service_requests", new Criteria().orOperator(owner), anonymize,
+                        count -> job.setRequestsAnonymized(job.getRequestsAnonymized() + count));
+            }
+            case MESSAGES -> {
+                inBatches(job, "messages",
+                        new Criteria().orOperator(Criteria.where("senderId").is(userId),
+                                Criteria.where("receiverId").is(userId)),
+                        null, count -> job.setMessagesDeleted(job.getMessagesDeleted() + count));
+                messageSearchIndex.userDeleted(userId);
+            }
+            case COUNTERS -> unreadCounterService.userDeleted(userId);
+            case DONE -> {
+            }
+        }
+    }
+
+    /**
+     * Removes (or applies "anonymize" to) everything matching "owned" one batch of ids at a time.
+     * Each batch drops out of the selection once processed, so re-running a phase is safe.
+     */
+    private void inBatches(UserDeletionJob job, String collection, Criteria owned, Update anonymize,
+            LongConsumer progress) throws InterruptedException {
+        while (true) {
+            Query select = new Query(owned).limit(batchSize);
+            select.fields().include("_id");
+            List<Object> ids = mongoTemplate.find(select, Document.class, collection).stream()
+                    .map(document -> document.get("_id"))
+                    .collect(Collectors.toList());
+            if (ids.isEmpty()) {
+                return;
+            }
+
+            Query batch = new Query(Criteria.where("_id").in(ids));
+            long affected = anonymize == null
+                    ? mongoTemplate.remove(batch, collection).getDeletedCount()
+                    : mongoTemplate.updateMulti(batch, anonymize, collection).getModifiedCount();
+            progress.accept(affected);
+            save(job);
+
+            if (ids.size() < batchSize) {
+                return;
+            }
+            Thread.sleep(throttleMs);
+        }
+    }
+
+    private void save(UserDeletionJob job) {
+        job.setUpdatedAt(LocalDateTime.now());
+        mongoTemplate.save(job);
+    }
+}
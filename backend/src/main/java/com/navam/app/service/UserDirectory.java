@@ -0,0 +1,105 @@
+package com.navam.app.service;
+
+import com.navam.app.event.UserChangedEvent;
+import com.navam.app.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory snapshot of clients and admins for contact lists. Loaded with one query on
+ * the roles index, projected to display fields (no password hashes), and dropped whenever
+ * a user is created, updated or deleted. The TTL bounds staleness from other instances.
+ */
+@Service
+public class UserDirectory {
+    private static final Logger logger = LoggerFactory.getLogger(UserDirectory.class);
+
+    // Older accounts carry the lowercase role names
+    private static final Set<String> CLIENT_ROLES = Set.of("ROLE_CLIENT", "client");
+    private static final Set<String> ADMIN_ROLES = Set.of("ROLE_ADMIN", "admin");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${navam.app.directory.ttlMs:60000}")
+    private long ttlMs;
+
+    private record Snapshot(List<User> clients, List<User> admins, long loadedAt) {
+    }
+
+    private volatile Snapshot snapshot;
+    private final AtomicLong generation = new AtomicLong();
+
+    public List<User> getClients() {
+        return current().clients();
+    }
+
+    public List<User> getAdmins() {
+        return current().admins();
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        invalidate();
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null && System.currentTimeMillis() - current.loadedAt() < ttlMs) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current != null && System.currentTimeMillis() - current.loadedAt() < ttlMs) {
+                return current;
+            }
+            long loadedGeneration = generation.get();
+            Snapshot loaded = load();
+            // Don't publish a snapshot read before a concurrent change; the next call reloads
+            if (generation.get() == loadedGeneration) {
+                snapshot = loaded;
+            }
+            return loaded;
+        }
+    }
+
+    private Snapshot load() {
+        List<String> roles = new ArrayList<>(CLIENT_ROLES);
+        roles.addAll(ADMIN_ROLES);
+        Query query = new Query(Criteria.where("roles").in(roles)).with(Sort.by("username"));
+        query.fields().include("username", "fullName", "companyName", "email", "roles");
+
+        List<User> clients = new ArrayList<>();
+        List<User> admins = new ArrayList<>();
+        for (User user : mongoTemplate.find(query, User.class)) {
+            if (user.getRoles().stream().anyMatch(CLIENT_ROLES::contains)) {
+                clients.add(user);
+            }
+            if (user.getRoles().stream().anyMatch(ADMIN_ROLES::contains)) {
+                admins.add(user);
+            }
+        }
+        logger.debug("Loaded user directory: {} clients, {} admins", clients.size(), admins.size());
+        return new Snapshot(Collections.unmodifiableList(clients), Collections.unmodifiableList(admins),
+                System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,79 @@
+package com.navam.app.benchmark;
+
+import com.navam.app.security.JwtUtils;
+import com.navam.app.security.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request JWT verification cost as seen by AuthTokenFilter.
+ * Run with: mvn test-compile, then execute main() from the test classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "navamSecretKeyForJwtTokenGenerationShouldBeLongEnough";
+
+    private JwtUtils cachedJwtUtils;
+    private JwtUtils uncachedJwtUtils;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cachedJwtUtils = newJwtUtils(10000);
+        uncachedJwtUtils = newJwtUtils(0);
+
+        UserDetailsImpl principal = new UserDetailsImpl("1", "bench@navam.com", "bench@navam.com", "Bench User",
+                null, List.of(new SimpleGrantedAuthority("ROLE_CLIENT")));
+        token = cachedJwtUtils.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private static JwtUtils newJwtUtils(int cacheSize) {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 86400000);
+        ReflectionTestUtils.setField(jwtUtils, "jwtVerifiedCacheSize", cacheSize);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+
+    // What AuthTokenFilter used to do: rebuild key + parser and verify twice
+    @Benchmark
+    public String legacyValidateThenGetUsername() {
+        Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes())).build().parseClaimsJws(token);
+        return Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes())).build()
+                .parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @Benchmark
+    public Claims singleParseUncached() {
+        return uncachedJwtUtils.parseValidatedClaims(token);
+    }
+
+    @Benchmark
+    public Claims singleParseCached() {
+        return cachedJwtUtils.parseValidatedClaims(token);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().parent(new CommandLineOptions(args))
+                .include(JwtVerificationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
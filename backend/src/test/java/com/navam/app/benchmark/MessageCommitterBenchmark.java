@@ -0,0 +1,106 @@
+package com.navam.app.benchmark;
+
+import com.navam.app.model.Message;
+import com.navam.app.realtime.MessageHub;
+import com.navam.app.service.MessageCommitter;
+import com.navam.app.service.UnreadCounterService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Send throughput of 16 concurrent senders: one insert per message versus write-behind
+ * group commit acknowledged after the flush. (Acknowledging on enqueue only costs a queue
+ * offer until the queue fills, so it is not measured here.) Mongo is replaced by a stub
+ * that parks for the network round-trip and for a serialized per-request commit, so this
+ * measures how many write requests each mode pays rather than a real server.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class MessageCommitterBenchmark {
+
+    private static final long PER_DOCUMENT_NANOS = 5_000;
+
+    @Param({"sync", "flush"})
+    public String mode;
+
+    // Network time, overlapped across concurrent requests
+    @Param({"500"})
+    public long roundTripMicros;
+
+    // Server time per write request (journal commit), one request at a time
+    @Param({"200"})
+    public long commitMicros;
+
+    private final Object server = new Object();
+    private MessageCommitter committer;
+
+    private void roundTrip(int documents) {
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(roundTripMicros) / 2);
+        synchronized (server) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(commitMicros) + PER_DOCUMENT_NANOS * documents);
+        }
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(roundTripMicros) / 2);
+    }
+
+    @Setup
+    public void setUp() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.insert(any(Message.class))).thenAnswer(invocation -> {
+            roundTrip(1);
+            return invocation.getArgument(0);
+        });
+        when(mongoTemplate.insert(anyCollection(), eq(Message.class))).thenAnswer(invocation -> {
+            roundTrip(((Collection<?>) invocation.getArgument(0)).size());
+            return invocation.getArgument(0);
+        });
+
+        committer = new MessageCommitter();
+        ReflectionTestUtils.setField(committer, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(committer, "unreadCounterService", mock(UnreadCounterService.class));
+        ReflectionTestUtils.setField(committer, "messageHub", mock(MessageHub.class));
+        ReflectionTestUtils.setField(committer, "writeBehind", !"sync".equals(mode));
+        ReflectionTestUtils.setField(committer, "ack", "flush");
+        ReflectionTestUtils.setField(committer, "batchSize", 100);
+        ReflectionTestUtils.setField(committer, "flushMs", 0L);
+        ReflectionTestUtils.setField(committer, "queueCapacity", 100_000);
+        ReflectionTestUtils.setField(committer, "ackTimeoutMs", 5000L);
+        committer.start();
+    }
+
+    @TearDown
+    public void tearDown() {
+        committer.shutdown();
+    }
+
+    @Benchmark
+    public MessageCommitter.Sent send() {
+        Message message = new Message();
+        message.setSenderId("sender");
+        message.setReceiverId("receiver");
+        message.setContent("Benchmark message");
+        message.setCreatedAt(LocalDateTime.now());
+        return committer.send(message);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().parent(new CommandLineOptions(args))
+                .include(MessageCommitterBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,80 @@
+package com.navam.app.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.navam.app.realtime.MessageHub;
+import com.navam.app.realtime.QueuedSubscriber;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MessageHub.publish with 10k open connections: a direct message to one of 10k users,
+ * and a single event fanned out to all 10k connections. Frames are drained inline into
+ * a Blackhole so the numbers cover registry lookup, serialization and queueing only.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessageHubBenchmark {
+
+    private static final int CONNECTIONS = 10_000;
+
+    private MessageHub hub;
+    private Map<String, Object> message;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        hub = new MessageHub();
+        ReflectionTestUtils.setField(hub, "objectMapper", new ObjectMapper());
+        for (int i = 0; i < CONNECTIONS; i++) {
+            hub.subscribe("user" + i, new SinkSubscriber(blackhole));
+            hub.subscribe("everyone", new SinkSubscriber(blackhole));
+        }
+        message = Map.of("id", "65f0c0ffee", "senderId", "user1", "receiverId", "user2",
+                "subject", "Status update", "content", "The draft is ready for review.", "read", false);
+    }
+
+    @Benchmark
+    public int directMessage() {
+        return hub.publish("user" + ThreadLocalRandom.current().nextInt(CONNECTIONS), "message", message);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int fanOutToAll() {
+        return hub.publish("everyone", "message", message);
+    }
+
+    private static class SinkSubscriber extends QueuedSubscriber {
+        private final Blackhole blackhole;
+
+        SinkSubscriber(Blackhole blackhole) {
+            super(64, Runnable::run);
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        protected void deliver(String payload) {
+            blackhole.consume(payload);
+        }
+
+        @Override
+        protected void onClose() {
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().parent(new CommandLineOptions(args))
+                .include(MessageHubBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,146 @@
+package com.navam.app.benchmark;
+
+import com.navam.app.model.Message;
+import com.navam.app.repository.MessageCursor;
+import com.navam.app.service.MessageSearchIndex;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MessageSearchIndex.search on a synthetic corpus of corpusSize messages between 1,000 users
+ * (~4,000 each at 2M), built in-process the way the startup load does. Needs a large heap:
+ * run with -jvmArgs -Xmx3g. Setup prints the build time and the heap the index holds.
+ * <p>
+ * Words are drawn from a Zipf-like vocabulary, so "common" is in ~40% of all messages,
+ * "mid" in ~2,000 and "rare" in a few hundred; all are searched as one user for a
+ * page of 21.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessageSearchBenchmark {
+
+    private static final int USERS = 1_000;
+    private static final int VOCABULARY = 20_000;
+    private static final int WORDS_PER_MESSAGE = 20;
+    private static final int PAGE = 21;
+
+    @Param({"2000000"})
+    public int corpusSize;
+
+    private MessageSearchIndex index;
+    private MessageCursor secondPage;
+
+    @Setup
+    public void setUp() {
+        long heapBefore = usedHeap();
+        long started = System.nanoTime();
+        index = new MessageSearchIndex();
+        seed();
+        ReflectionTestUtils.setField(index, "ready", true);
+        long buildMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        long heap = usedHeap() - heapBefore;
+        System.out.printf("%nIndexed %,d messages in %,d ms (%,d/s), %,d MB of heap, %d bytes per message%n",
+                index.size(), buildMs, index.size() * 1000L / Math.max(1, buildMs), heap >> 20,
+                heap / index.size());
+
+        List<MessageCursor> first = index.search("user7", Set.of(word(3)), Set.of(), null, PAGE);
+        secondPage = first.get(first.size() - 1);
+    }
+
+    @Benchmark
+    public List<MessageCursor> rareTerm() {
+        return index.search("user7", Set.of(word(VOCABULARY - 7)), Set.of(), null, PAGE);
+    }
+
+    @Benchmark
+    public List<MessageCursor> midTerm() {
+        return index.search("user7", Set.of(word(2000)), Set.of(), null, PAGE);
+    }
+
+    @Benchmark
+    public List<MessageCursor> commonTerm() {
+        return index.search("user7", Set.of(word(3)), Set.of(), null, PAGE);
+    }
+
+    @Benchmark
+    public List<MessageCursor> commonTermNextPage() {
+        return index.search("user7", Set.of(word(3)), Set.of(), secondPage, PAGE);
+    }
+
+    @Benchmark
+    public List<MessageCursor> eitherOfTwoTerms() {
+        return index.search("user7", Set.of(word(40), word(900)), Set.of(), null, PAGE);
+    }
+
+    @Benchmark
+    public List<MessageCursor> commonTermExcludingAnother() {
+        return index.search("user7", Set.of(word(3)), Set.of(word(5)), null, PAGE);
+    }
+
+    // Batches of 1,000 in _id order, like the startup load reads them
+    private void seed() {
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Message> batch = new ArrayList<>(1000);
+        for (int i = 0; i < corpusSize; i++) {
+            LocalDateTime createdAt = start.plusSeconds(i * 10L);
+            StringBuilder content = new StringBuilder();
+            for (int w = 0; w < WORDS_PER_MESSAGE; w++) {
+                content.append(zipfWord(random)).append(' ');
+            }
+            Message message = new Message();
+            message.setId(new ObjectId(Date.from(createdAt.atZone(ZoneId.systemDefault()).toInstant())).toHexString());
+            message.setSenderId("user" + random.nextInt(USERS));
+            message.setReceiverId("user" + random.nextInt(USERS));
+            message.setSubject(zipfWord(random) + " " + zipfWord(random));
+            message.setContent(content.toString());
+            message.setCreatedAt(createdAt);
+            batch.add(message);
+            if (batch.size() == 1000) {
+                index.add(batch);
+                batch.clear();
+            }
+        }
+        index.add(batch);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    // Rank ~ 1/x: low indexes are very frequent, the tail is rare
+    private static String zipfWord(SplittableRandom random) {
+        double u = random.nextDouble();
+        return word((int) Math.min(VOCABULARY - 1, Math.floor(Math.pow(VOCABULARY, u)) - 1));
+    }
+
+    private static String word(int rank) {
+        return "w" + Integer.toString(rank, 36) + "x";
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().parent(new CommandLineOptions(args))
+                .include(MessageSearchBenchmark.class.getSimpleName()).build()).run();
+    }
+}
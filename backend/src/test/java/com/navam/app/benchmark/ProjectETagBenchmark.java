@@ -0,0 +1,144 @@
+package com.navam.app.benchmark;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.navam.app.controller.ProjectController;
+import com.navam.app.model.Project;
+import com.navam.app.model.ProjectTask;
+import com.navam.app.repository.ListQueryExecutor;
+import com.navam.app.repository.ProjectRepository;
+import com.navam.app.repository.ProjectRepositoryImpl;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Repeated dashboard loads of one project (with its tasks) and of the admin project list: a
+ * plain GET that loads and serializes everything against a conditional GET that matches the
+ * previous ETag and is answered 304 from the version probe. Response sizes are printed once
+ * per trial. Needs a running MongoDB: set -Dbench.mongoUri (default mongodb://localhost:27017).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProjectETagBenchmark {
+
+    @Param({"100", "2000"})
+    public int taskCount;
+
+    private static final int PROJECTS = 200;
+
+    private MongoClient client;
+    private MockMvc mockMvc;
+    private String projectId;
+    private String projectETag;
+    private String listETag;
+
+    @Setup
+    public void setUp() throws Exception {
+        client = MongoClients.create(System.getProperty("bench.mongoUri", "mongodb://localhost:27017"));
+        MongoTemplate mongoTemplate = new MongoTemplate(client, "navam_bench");
+        mongoTemplate.dropCollection(Project.class);
+        for (int p = 0; p < PROJECTS; p++) {
+            Project project = new Project();
+            project.setName("Benchmark " + p);
+            project.setDescription("A project description of a realistic length for a dashboard card.");
+            project.setStatus("Active");
+            project.setTasks(new ArrayList<>(taskCount));
+            for (int i = 0; i < taskCount; i++) {
+                project.getTasks().add(new ProjectTask("task-" + i, "Task " + i, "Pending", "Admin",
+                        LocalDateTime.now().plusDays(7), false, null));
+            }
+            project.setCreatedAt(LocalDateTime.now());
+            project.setUpdatedAt(LocalDateTime.now());
+            mongoTemplate.save(project);
+            projectId = project.getId();
+        }
+
+        ProjectRepositoryImpl fragment = new ProjectRepositoryImpl();
+        ReflectionTestUtils.setField(fragment, "mongoTemplate", mongoTemplate);
+        ProjectRepository repository = new MongoRepositoryFactory(mongoTemplate).getRepository(
+                ProjectRepository.class, RepositoryComposition.RepositoryFragments.just(fragment));
+        ListQueryExecutor listQueryExecutor = new ListQueryExecutor();
+        ReflectionTestUtils.setField(listQueryExecutor, "mongoTemplate", mongoTemplate);
+        ProjectController controller = new ProjectController();
+        ReflectionTestUtils.setField(controller, "projectRepository", repository);
+        ReflectionTestUtils.setField(controller, "listQueryExecutor", listQueryExecutor);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        MockHttpServletResponse project = perform(projectRequest());
+        MockHttpServletResponse list = perform(listRequest());
+        projectETag = project.getHeader(HttpHeaders.ETAG);
+        listETag = list.getHeader(HttpHeaders.ETAG);
+        MockHttpServletResponse projectRevalidated =
+                perform(projectRequest().header(HttpHeaders.IF_NONE_MATCH, projectETag));
+        MockHttpServletResponse listRevalidated = perform(listRequest().header(HttpHeaders.IF_NONE_MATCH, listETag));
+        System.out.printf("%nProject: %d bytes (%d), revalidated %d bytes (%d)%n",
+                project.getContentAsByteArray().length, project.getStatus(),
+                projectRevalidated.getContentAsByteArray().length, projectRevalidated.getStatus());
+        System.out.printf("List: %d bytes (%d), revalidated %d bytes (%d)%n",
+                list.getContentAsByteArray().length, list.getStatus(),
+                listRevalidated.getContentAsByteArray().length, listRevalidated.getStatus());
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+    }
+
+    private MockHttpServletRequestBuilder projectRequest() {
+        return get("/api/projects/{id}", projectId).param("include", "tasks");
+    }
+
+    private static MockHttpServletRequestBuilder listRequest() {
+        return get("/api/projects/all").param("limit", "200");
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+
+    @Benchmark
+    public int projectFullLoad() throws Exception {
+        return perform(projectRequest()).getContentAsByteArray().length;
+    }
+
+    @Benchmark
+    public int projectRevalidated() throws Exception {
+        return perform(projectRequest().header(HttpHeaders.IF_NONE_MATCH, projectETag)).getStatus();
+    }
+
+    @Benchmark
+    public int listFullLoad() throws Exception {
+        return perform(listRequest()).getContentAsByteArray().length;
+    }
+
+    @Benchmark
+    public int listRevalidated() throws Exception {
+        return perform(listRequest().header(HttpHeaders.IF_NONE_MATCH, listETag)).getStatus();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().parent(new CommandLineOptions(args))
+                .include(ProjectETagBenchmark.class.getSimpleName()).build()).run();
+    }
+}
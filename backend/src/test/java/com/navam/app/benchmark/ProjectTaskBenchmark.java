@@ -0,0 +1,110 @@
+package com.navam.app.benchmark;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.navam.app.model.Project;
+import com.navam.app.model.ProjectTask;
+import com.navam.app.repository.ProjectRepositoryImpl;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adding and completing a task on a project that already holds taskCount tasks: loading and
+ * saving the whole project (the old controller code) against the in-place $push / arrayFilter
+ * updates. Needs a running MongoDB: set -Dbench.mongoUri (default mongodb://localhost:27017).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProjectTaskBenchmark {
+
+    @Param({"100", "2000", "10000"})
+    public int taskCount;
+
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private ProjectRepositoryImpl repository;
+    private String projectId;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        client = MongoClients.create(System.getProperty("bench.mongoUri", "mongodb://localhost:27017"));
+        mongoTemplate = new MongoTemplate(client, "navam_bench");
+        repository = new ProjectRepositoryImpl();
+        ReflectionTestUtils.setField(repository, "mongoTemplate", mongoTemplate);
+    }
+
+    // Start every iteration from the same size so appends do not skew later iterations
+    @Setup(Level.Iteration)
+    public void resetProject() {
+        mongoTemplate.dropCollection(Project.class);
+        Project project = new Project();
+        project.setName("Benchmark");
+        project.setTasks(new ArrayList<>(taskCount));
+        for (int i = 0; i < taskCount; i++) {
+            project.getTasks().add(task("task-" + i));
+        }
+        mongoTemplate.save(project);
+        projectId = project.getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+    }
+
+    @Benchmark
+    public Project addTaskReadModifyWrite() {
+        Project project = mongoTemplate.findById(projectId, Project.class);
+        project.getTasks().add(task(UUID.randomUUID().toString()));
+        project.setUpdatedAt(LocalDateTime.now());
+        return mongoTemplate.save(project);
+    }
+
+    @Benchmark
+    public Project addTaskInPlace() {
+        return repository.pushTask(projectId, null, task(UUID.randomUUID().toString()));
+    }
+
+    @Benchmark
+    public Project completeTaskReadModifyWrite() {
+        String taskId = "task-" + (next++ % taskCount);
+        Project project = mongoTemplate.findById(projectId, Project.class);
+        for (ProjectTask task : project.getTasks()) {
+            if (task.getId().equals(taskId)) {
+                task.setStatus("Completed");
+                task.setCompleted(true);
+                break;
+            }
+        }
+        project.setUpdatedAt(LocalDateTime.now());
+        return mongoTemplate.save(project);
+    }
+
+    @Benchmark
+    public Project completeTaskInPlace() {
+        return repository.updateTaskStatus(projectId, "task-" + (next++ % taskCount), "Completed", true);
+    }
+
+    private static ProjectTask task(String id) {
+        return new ProjectTask(id, "Task " + id, "Pending", "Admin", LocalDateTime.now().plusDays(7), false, null);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().parent(new CommandLineOptions(args))
+                .include(ProjectTaskBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,58 @@
+package com.navam.app.benchmark;
+
+import com.navam.app.security.RateLimiter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of RateLimiter.tryAcquire under contention: 16 threads hammering one hot key
+ * (a single flooding client) and spread over 10k keys (many distinct clients).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class RateLimiterBenchmark {
+
+    private static final int KEYS = 10_000;
+
+    private RateLimiter limiter;
+    private String[] keys;
+
+    @Setup
+    public void setUp() {
+        limiter = new RateLimiter(5, TimeUnit.MINUTES.toNanos(1), 100_000);
+        keys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = "ip:10.0." + (i / 256) + "." + (i % 256);
+        }
+    }
+
+    @Benchmark
+    public long hotKey() {
+        return limiter.tryAcquire("ip:10.0.0.1");
+    }
+
+    @Benchmark
+    public long manyKeys() {
+        return limiter.tryAcquire(keys[ThreadLocalRandom.current().nextInt(KEYS)]);
+    }
+
+    @Benchmark
+    public int baselineRandomKey() {
+        return keys[ThreadLocalRandom.current().nextInt(KEYS)].length();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().parent(new CommandLineOptions(args))
+                .include(RateLimiterBenchmark.class.getSimpleName()).build()).run();
+    }
+}
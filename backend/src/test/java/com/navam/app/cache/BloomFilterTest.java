@@ -0,0 +1,40 @@
+package com.navam.app.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void addedValues_AreAlwaysFound() {
+        BloomFilter filter = new BloomFilter(1000, 0.001);
+        String[] ids = new String[1000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = UUID.randomUUID().toString();
+            filter.add(ids[i]);
+        }
+
+        for (String id : ids) {
+            assertTrue(filter.mightContain(id));
+        }
+    }
+
+    @Test
+    void falsePositiveRate_StaysNearTarget() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.add(UUID.randomUUID().toString());
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100000; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2000, "false positives: " + falsePositives);
+    }
+}
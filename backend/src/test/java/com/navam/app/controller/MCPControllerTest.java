@@ -1,5 +1,6 @@
 package com.navam.app.controller;
 
+import com.navam.app.event.ProjectChangedEvent;
 import com.navam.app.model.Project;
 import com.navam.app.model.ProjectTask;
 import com.navam.app.repository.ProjectRepository;
@@ -10,6 +11,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -33,6 +35,9 @@ class MCPControllerTest {
     @Mock
     private GeminiService geminiService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @Mock
     private SecurityContext securityContext;
 
@@ -71,13 +76,10 @@ class MCPControllerTest {
         String projectId = "proj1";
         String taskDesc = "New Task";
 
-        Project project = new Project();
-        project.setId(projectId);
-        project.setTasks(new ArrayList<>());
-        project.setClientId("client1"); // Ensure client ID is set for security check
-
-        when(projectRepository.findById(projectId)).thenReturn(Optional.of(project));
-        when(projectRepository.save(any(Project.class))).thenReturn(project);
+        Project owner = new Project();
+        owner.setId(projectId);
+        owner.setClientId("client1");
+        when(projectRepository.pushTask(eq(projectId), isNull(), any(ProjectTask.class))).thenReturn(owner);
 
         Map<String, Object> request = new HashMap<>();
         request.put("name", "create_task");
@@ -87,14 +89,33 @@ class MCPControllerTest {
         request.put("arguments", args);
 
         ResponseEntity<?> response = mcpController.callTool(request);
-        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(200, response.getStatusCode().value());
 
-        verify(projectRepository, times(1)).save(project);
-        // We can't easily verify the task was added to the list because we are mocking
-        // save,
-        // but we can verify the response contains the task.
+        // Admins are not scoped to a client; the task is appended without loading the project
+        verify(projectRepository, times(1)).pushTask(eq(projectId), isNull(), any(ProjectTask.class));
+        verify(projectRepository, never()).findById(projectId);
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof ProjectChangedEvent changed
+                && "client1".equals(changed.getClientId())));
         Map<String, Object> responseBody = (Map<String, Object>) response.getBody();
-        assertNotNull(responseBody.get("task"));
+        ProjectTask task = (ProjectTask) responseBody.get("task");
+        assertEquals(taskDesc, task.getTitle());
+    }
+
+    @Test
+    void testCallCreateTask_Client_NotOwner() {
+        mockUser("client1", "ROLE_CLIENT");
+        String projectId = "proj1";
+
+        when(projectRepository.pushTask(eq(projectId), eq("client1"), any(ProjectTask.class))).thenReturn(null);
+        when(projectRepository.existsById(projectId)).thenReturn(true);
+
+        Map<String, Object> request = new HashMap<>();
+        request.put("name", "create_task");
+        request.put("arguments", Map.of("projectId", projectId, "taskDescription", "Sneaky task"));
+
+        ResponseEntity<?> response = mcpController.callTool(request);
+        assertEquals(403, response.getStatusCodeValue());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -104,13 +125,12 @@ class MCPControllerTest {
         String projectId = "proj1";
         String newStatus = "Completed";
 
-        Project project = new Project();
-        project.setId(projectId);
-        project.setClientId(clientId);
-        project.setStatus("In Progress");
+        Project previous = new Project();
+        previous.setId(projectId);
+        previous.setClientId(clientId);
+        previous.setStatus("In Progress");
 
-        when(projectRepository.findById(projectId)).thenReturn(Optional.of(project));
-        when(projectRepository.save(any(Project.class))).thenReturn(project);
+        when(projectRepository.updateStatus(projectId, clientId, newStatus)).thenReturn(previous);
 
         Map<String, Object> request = new HashMap<>();
         request.put("name", "update_project_status");
@@ -121,7 +141,10 @@ class MCPControllerTest {
 
         ResponseEntity<?> response = mcpController.callTool(request);
         assertEquals(200, response.getStatusCodeValue());
-        assertEquals(newStatus, project.getStatus());
+        // Written in place; the stored document is never read back and saved whole
+        verify(projectRepository, never()).save(any(Project.class));
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof ProjectChangedEvent changed
+                && "In Progress".equals(changed.getPreviousStatus()) && newStatus.equals(changed.getStatus())));
     }
 
     @Test
@@ -129,11 +152,9 @@ class MCPControllerTest {
         mockUser("client1", "ROLE_CLIENT");
         String projectId = "proj1";
 
-        Project project = new Project();
-        project.setId(projectId);
-        project.setClientId("otherClient"); // Different owner
-
-        when(projectRepository.findById(projectId)).thenReturn(Optional.of(project));
+        // Owned by another client: the scoped update matches nothing, but the project exists
+        when(projectRepository.updateStatus(projectId, "client1", "Completed")).thenReturn(null);
+        when(projectRepository.existsById(projectId)).thenReturn(true);
 
         Map<String, Object> request = new HashMap<>();
         request.put("name", "update_project_status");
@@ -143,6 +164,6 @@ class MCPControllerTest {
         request.put("arguments", args);
 
         ResponseEntity<?> response = mcpController.callTool(request);
-        assertEquals(403, response.getStatusCodeValue());
+        assertEquals(403, response.getStatusCode().value());
     }
 }
@@ -0,0 +1,287 @@
+package com.navam.app.controller;
+
+import com.navam.app.dto.InboxEntry;
+import com.navam.app.dto.MessagePage;
+import com.navam.app.dto.MessageSearchPage;
+import com.navam.app.dto.MessageSendResult;
+import com.navam.app.model.Message;
+import com.navam.app.model.User;
+import com.navam.app.repository.MessageCursor;
+import com.navam.app.repository.MessageRepository;
+import com.navam.app.repository.MessageRepositoryImpl;
+import com.navam.app.repository.UserRepository;
+import com.navam.app.security.UserDetailsImpl;
+import com.navam.app.service.MessageCommitter;
+import com.navam.app.service.MessageSearchIndex;
+import com.navam.app.service.UnreadCounterService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MessageControllerTest {
+
+    @InjectMocks
+    private MessageController messageController;
+
+    @Mock
+    private MessageRepository messageRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private MessageCommitter messageCommitter;
+
+    @Mock
+    private UnreadCounterService unreadCounterService;
+
+    @Mock
+    private MessageSearchIndex messageSearchIndex;
+
+    @Mock
+    private SecurityContext securityContext;
+
+    @Mock
+    private Authentication authentication;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        SecurityContextHolder.setContext(securityContext);
+        UserDetailsImpl userDetails = new UserDetailsImpl("me", "testuser", "test@example.com", "Test User",
+                "password", Collections.singletonList(new SimpleGrantedAuthority("ROLE_CLIENT")));
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getPrincipal()).thenReturn(userDetails);
+    }
+
+    private static List<Message> messages(int count) {
+        List<Message> messages = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.of(2026, 1, 1, 12, 0);
+        for (int i = 0; i < count; i++) {
+            Message message = new Message();
+            message.setId("m" + i);
+            message.setCreatedAt(now.minusMinutes(i));
+            messages.add(message);
+        }
+        return messages;
+    }
+
+    @Test
+    void conversationPage_ReturnsCursorWhenMoreExist() {
+        when(messageRepository.findConversationPage(eq("me"), eq("other"), isNull(), isNull(), eq(2)))
+                .thenReturn(messages(3));
+
+        MessagePage page = messageController.getConversationPage("other", null, null, 2);
+
+        assertEquals(2, page.getMessages().size());
+        assertTrue(page.isHasMore());
+        MessageCursor cursor = MessageCursor.decode(page.getNextCursor());
+        assertEquals("m1", cursor.getId());
+        assertEquals(page.getMessages().get(1).getCreatedAt(), cursor.getCreatedAt());
+    }
+
+    @Test
+    void conversationPage_LastPageHasNoCursor() {
+        when(messageRepository.findConversationPage(eq("me"), eq("other"), any(), isNull(), eq(2)))
+                .thenReturn(messages(1));
+
+        String before = new MessageCursor(LocalDateTime.of(2026, 1, 2, 0, 0), "m9").encode();
+        MessagePage page = messageController.getConversationPage("other", before, null, 2);
+
+        assertEquals(1, page.getMessages().size());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void conversationPage_PagesForwardWithoutSkippingMessages() {
+        // The real repository over a stored conversation of five messages, oldest first
+        List<Message> stored = messages(5);
+        stored.sort(Comparator.comparing(Message::getCreatedAt).thenComparing(Message::getId));
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        MessageRepositoryImpl repository = new MessageRepositoryImpl();
+        ReflectionTestUtils.setField(repository, "mongoTemplate", mongoTemplate);
+        when(messageRepository.findConversationPage(eq("me"), eq("other"), isNull(), any(), anyInt()))
+                .thenAnswer(invocation -> {
+                    MessageCursor after = invocation.getArgument(3);
+                    int pageSize = invocation.getArgument(4);
+                    when(mongoTemplate.find(any(Query.class), eq(Message.class))).thenReturn(stored.stream()
+                            .filter(m -> m.getCreatedAt().isAfter(after.getCreatedAt())
+                                    || m.getCreatedAt().isEqual(after.getCreatedAt())
+                                    && m.getId().compareTo(after.getId()) > 0)
+                            .limit(pageSize + 1)
+                            .collect(Collectors.toList()));
+                    return repository.findConversationPage("me", "other", null, after, pageSize);
+                });
+
+        List<String> seen = new ArrayList<>();
+        String cursor = new MessageCursor(stored.get(0).getCreatedAt().minusMinutes(1), "m").encode();
+        MessagePage page;
+        do {
+            page = messageController.getConversationPage("other", null, cursor, 2);
+            List<String> ids = page.getMessages().stream().map(Message::getId).toList();
+            seen.addAll(0, ids); // Each page is newest first
+            cursor = page.getNextCursor();
+        } while (page.isHasMore());
+
+        List<String> newestFirst = stored.stream().map(Message::getId).collect(Collectors.toList());
+        Collections.reverse(newestFirst);
+        assertEquals(newestFirst, seen);
+    }
+
+    @Test
+    void conversationPage_RejectsBadCursor() {
+        assertThrows(IllegalArgumentException.class,
+                () -> messageController.getConversationPage("other", "not-a-cursor", null, 10));
+    }
+
+    @Test
+    void sendMessage_StampsSenderAndHandsToCommitter() {
+        Message message = new Message();
+        message.setId("someone-elses-message");
+        message.setReceiverId("other");
+        message.setContent("hi");
+        when(messageCommitter.send(message)).thenReturn(new MessageCommitter.Sent(new Message(), true));
+
+        messageController.sendMessage(message);
+
+        assertNull(message.getId());
+        assertEquals("me", message.getSenderId());
+        assertNotNull(message.getCreatedAt());
+        verify(messageCommitter).send(message);
+    }
+
+    @Test
+    void sendMessage_ReturnsTheIdAndWhetherItIsStoredOrQueued() {
+        Message stored = new Message();
+        stored.setId("65f0c0ffee0000000000000a");
+        Message queued = new Message();
+        queued.setId("65f0c0ffee0000000000000b");
+        when(messageCommitter.send(any(Message.class)))
+                .thenReturn(new MessageCommitter.Sent(stored, true))
+                .thenReturn(new MessageCommitter.Sent(queued, false));
+
+        ResponseEntity<?> first = messageController.sendMessage(new Message());
+        ResponseEntity<?> second = messageController.sendMessage(new Message());
+
+        assertEquals(200, first.getStatusCode().value());
+        assertEquals(new MessageSendResult("65f0c0ffee0000000000000a", "stored"), first.getBody());
+        assertEquals(new MessageSendResult("65f0c0ffee0000000000000b", "queued"), second.getBody());
+    }
+
+    @Test
+    void unreadCounts_ReturnsCountsAndTotal() {
+        when(unreadCounterService.getCounts("me")).thenReturn(Map.of("a", 2L, "b", 3L));
+
+        Map<String, Object> result = messageController.getUnreadCounts();
+
+        assertEquals(5L, result.get("total"));
+        assertEquals(Map.of("a", 2L, "b", 3L), result.get("counts"));
+    }
+
+    @Test
+    void markConversationRead_PassesDecodedCursor() {
+        MessageCursor upTo = new MessageCursor(LocalDateTime.of(2026, 1, 1, 12, 0), "m3");
+        when(unreadCounterService.markRead(eq("me"), eq("other"), any())).thenReturn(4L);
+
+        Map<String, Object> result = messageController.markConversationRead("other", upTo.encode());
+
+        assertEquals(4L, result.get("marked"));
+        verify(unreadCounterService).markRead(eq("me"), eq("other"),
+                argThat(cursor -> "m3".equals(cursor.getId()) && upTo.getCreatedAt().equals(cursor.getCreatedAt())));
+    }
+
+    @Test
+    void inbox_FillsNamesAndUnreadCounts() {
+        InboxEntry withAdmin = new InboxEntry("admin1", null, "m2", "admin1", "Kickoff", "Welcome",
+                "NORMAL", LocalDateTime.of(2026, 1, 2, 9, 0), 0);
+        InboxEntry withOther = new InboxEntry("other", null, "m1", "me", "Invoice", "Attached",
+                "HIGH", LocalDateTime.of(2026, 1, 1, 9, 0), 0);
+        when(messageRepository.findInbox("me", 100)).thenReturn(new ArrayList<>(List.of(withAdmin, withOther)));
+        User admin = new User();
+        admin.setId("admin1");
+        admin.setUsername("admin");
+        admin.setFullName("Site Admin");
+        User other = new User();
+        other.setId("other");
+        other.setUsername("other");
+        when(userRepository.findSummariesByIdIn(List.of("admin1", "other"))).thenReturn(List.of(admin, other));
+        when(unreadCounterService.getCounts("me")).thenReturn(Map.of("admin1", 3L));
+
+        List<InboxEntry> inbox = messageController.getInbox(100);
+
+        assertEquals(List.of("admin1", "other"), inbox.stream().map(InboxEntry::getCounterpartId).toList());
+        assertEquals("Site Admin", inbox.get(0).getCounterpartName());
+        assertEquals(3L, inbox.get(0).getUnreadCount());
+        assertEquals("other", inbox.get(1).getCounterpartName());
+        assertEquals(0L, inbox.get(1).getUnreadCount());
+    }
+
+    @Test
+    void search_ReturnsHighlightedHitsAndCursor() {
+        List<Message> found = messages(3);
+        found.forEach(message -> {
+            message.setSubject("Invoice " + message.getId());
+            message.setContent("Please pay the attached invoice.");
+        });
+        when(messageSearchIndex.search(eq("me"), eq(Set.of("invoice")), eq(Set.of()), isNull(), eq(3)))
+                .thenReturn(found.stream().map(MessageCursor::of).collect(Collectors.toList()));
+        when(messageRepository.findAllById(List.of("m0", "m1"))).thenReturn(found.subList(0, 2));
+
+        MessageSearchPage page = messageController.searchMessages("invoices", null, 2);
+
+        assertEquals(2, page.getHits().size());
+        assertTrue(page.isHasMore());
+        assertEquals("m1", MessageCursor.decode(page.getNextCursor()).getId());
+        assertArrayEquals(new int[] { 0, 7 }, page.getHits().get(0).getSubjectHighlights().get(0));
+        assertArrayEquals(new int[] { 24, 31 }, page.getHits().get(0).getSnippetHighlights().get(0));
+    }
+
+    @Test
+    void search_KeepsIndexOrderAndDropsMessagesDeletedSinceIndexed() {
+        List<Message> found = messages(3);
+        found.forEach(message -> message.setContent("rare"));
+        MessageCursor before = new MessageCursor(LocalDateTime.of(2026, 2, 1, 8, 0), "m9");
+        when(messageSearchIndex.search(eq("me"), eq(Set.of("rare")), eq(Set.of("draft")),
+                argThat(cursor -> "m9".equals(cursor.getId())), eq(21)))
+                .thenReturn(found.stream().map(MessageCursor::of).collect(Collectors.toList()));
+        when(messageRepository.findAllById(List.of("m0", "m1", "m2")))
+                .thenReturn(List.of(found.get(2), found.get(0)));
+
+        MessageSearchPage page = messageController.searchMessages("rare -draft", before.encode(), 20);
+
+        assertEquals(List.of("m0", "m2"), page.getHits().stream().map(hit -> hit.getMessage().getId())
+                .collect(Collectors.toList()));
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void search_RejectsBlankQuery() {
+        assertThrows(IllegalArgumentException.class, () -> messageController.searchMessages("  ", null, 20));
+        assertThrows(IllegalArgumentException.class, () -> messageController.searchMessages("-draft", null, 20));
+    }
+}
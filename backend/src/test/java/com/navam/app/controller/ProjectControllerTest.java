@@ -0,0 +1,256 @@
+package com.navam.app.controller;
+
+import com.navam.app.dto.ErrorResponse;
+import com.navam.app.dto.ListPage;
+import com.navam.app.dto.ProjectDetail;
+import com.navam.app.dto.TaskBatchRequest;
+import com.navam.app.dto.TaskBatchResult;
+import com.navam.app.dto.TaskOperation;
+import com.navam.app.dto.TaskSummary;
+import com.navam.app.event.ProjectChangedEvent;
+import com.navam.app.model.Project;
+import com.navam.app.model.ProjectTask;
+import com.navam.app.realtime.ProjectEventHub;
+import com.navam.app.repository.ListQueryExecutor;
+import com.navam.app.repository.ListStamp;
+import com.navam.app.repository.ProjectRepository;
+import com.navam.app.security.UserDetailsImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ProjectControllerTest {
+
+    @InjectMocks
+    private ProjectController projectController;
+
+    @Mock
+    private ProjectRepository projectRepository;
+
+    @Mock
+    private ListQueryExecutor listQueryExecutor;
+
+    @Mock
+    private ProjectEventHub projectEventHub;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(projectController, "taskBatchMax", 10);
+        response = new MockHttpServletResponse();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private ServletWebRequest get(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/projects");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(request, response);
+    }
+
+    private static Project project(long version, LocalDateTime updatedAt) {
+        Project project = new Project();
+        project.setId("p1");
+        project.setVersion(version);
+        project.setUpdatedAt(updatedAt);
+        return project;
+    }
+
+    @Test
+    void unchangedProjectIsAnsweredFromItsVersionAlone() {
+        LocalDateTime updatedAt = LocalDateTime.of(2026, 5, 1, 9, 30);
+        when(projectRepository.findVersion("p1")).thenReturn(project(3, updatedAt));
+        String etag = ProjectController.projectETag(project(3, updatedAt), "detail");
+
+        ResponseEntity<?> result = projectController.getProjectById("p1", null, get(etag));
+
+        assertNull(result);
+        assertEquals(304, response.getStatus());
+        verify(projectRepository, never()).findWithoutTasks(any());
+        verify(projectRepository, never()).summarizeTasks(any());
+    }
+
+    @Test
+    void changedProjectIsLoadedWithItsNewTag() {
+        LocalDateTime updatedAt = LocalDateTime.of(2026, 5, 1, 9, 30);
+        when(projectRepository.findVersion("p1")).thenReturn(project(4, updatedAt));
+        when(projectRepository.findWithoutTasks("p1")).thenReturn(project(4, updatedAt));
+        when(projectRepository.summarizeTasks("p1")).thenReturn(new TaskSummary(0, Map.of()));
+        String stale = ProjectController.projectETag(project(3, updatedAt), "detail");
+
+        ResponseEntity<?> result = projectController.getProjectById("p1", null, get(stale));
+
+        assertEquals(200, result.getStatusCode().value());
+        assertInstanceOf(ProjectDetail.class, result.getBody());
+        assertEquals(ProjectController.projectETag(project(4, updatedAt), "detail"), result.getHeaders().getETag());
+        assertEquals("no-cache, private", result.getHeaders().getCacheControl());
+        // The full project is a different representation and never matches the detail tag
+        assertNotEquals(result.getHeaders().getETag(), ProjectController.projectETag(project(4, updatedAt), "tasks"));
+    }
+
+    @Test
+    void unconditionalRequestSkipsTheProbe() {
+        when(projectRepository.findWithoutTasks("p1")).thenReturn(project(1, LocalDateTime.now()));
+
+        projectController.getProjectById("p1", null, get(null));
+
+        verify(projectRepository, never()).findVersion(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void unchangedListIsAnsweredFromTheStampProbe() {
+        Date latest = new Date(1_700_000_000_000L);
+        Map<String, String> params = Map.of("status", "Active");
+        when(listQueryExecutor.stamp(any(), eq(params))).thenReturn(new ListStamp(12, latest));
+        String etag = ProjectController.listETag(new ListStamp(12, latest), "all", new TreeMap<>(params));
+
+        assertNull(projectController.getAllProjects(params, get(etag)));
+        assertEquals(304, response.getStatus());
+        verify(listQueryExecutor, never()).find(any(), any());
+
+        // Another matching project or a newer write changes the tag
+        assertNotEquals(etag, ProjectController.listETag(new ListStamp(13, latest), "all", params));
+        assertNotEquals(etag, ProjectController.listETag(new ListStamp(12, new Date(latest.getTime() + 1)), "all",
+                params));
+        when(listQueryExecutor.find(any(), eq(params))).thenReturn(new ListPage<>(List.of(), null, false));
+        response = new MockHttpServletResponse();
+        ResponseEntity<ListPage<Project>> fresh = projectController.getAllProjects(params, get("W/\"stale\""));
+        assertEquals(etag, fresh.getHeaders().getETag());
+    }
+
+    @Test
+    void unconditionalMyProjectsTagsTheRowsWithoutTheProbe() {
+        UserDetailsImpl client = new UserDetailsImpl("client1", "client1", "c1@example.com", "Client One",
+                "password", List.of(new SimpleGrantedAuthority("ROLE_CLIENT")));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(client, null, client.getAuthorities()));
+        LocalDateTime latest = LocalDateTime.of(2026, 5, 1, 9, 30);
+        List<Project> projects = List.of(project(1, latest.minusDays(2)), project(2, latest));
+        when(projectRepository.findByClientId("client1")).thenReturn(projects);
+
+        ResponseEntity<List<Project>> result = projectController.getMyProjects(get(null));
+
+        verify(listQueryExecutor, never()).stamp(any(), any(), any());
+        // The tag handed out matches what the probe reports for the same rows next time
+        ListStamp probed = new ListStamp(2, Date.from(latest.atZone(ZoneId.systemDefault()).toInstant()));
+        assertEquals(ProjectController.listETag(probed, "my-projects", "client1"), result.getHeaders().getETag());
+        when(listQueryExecutor.stamp(eq(Project.class), any(), eq("updatedAt"))).thenReturn(probed);
+        response = new MockHttpServletResponse();
+        assertNull(projectController.getMyProjects(get(result.getHeaders().getETag())));
+        assertEquals(304, response.getStatus());
+        verify(projectRepository, times(1)).findByClientId("client1");
+    }
+
+    @Test
+    void eventStreamIsOnlyOpenedForTheProjectOwner() {
+        UserDetailsImpl client = new UserDetailsImpl("client2", "client2", "c2@example.com", "Client Two",
+                "password", List.of(new SimpleGrantedAuthority("ROLE_CLIENT")));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(client, null, client.getAuthorities()));
+        Project project = project(1, LocalDateTime.now());
+        project.setClientId("client1");
+        when(projectRepository.findVersion("p1")).thenReturn(project);
+
+        assertEquals(403, projectController.streamEvents("p1", null).getStatusCode().value());
+        assertEquals(404, projectController.streamEvents("missing", null).getStatusCode().value());
+        verify(projectEventHub, never()).subscribe(any(), any(), any());
+    }
+
+    @Test
+    void taskBatchReportsEveryOperationAndPublishesTheChanges() {
+        Project before = project(3, LocalDateTime.now());
+        before.setClientId("client1");
+        before.setTasks(List.of(new ProjectTask("t1", "Design", "Pending", "Admin", null, false, null),
+                new ProjectTask("t2", "Old", "Pending", "Admin", null, false, null)));
+        when(projectRepository.applyTaskBatch(eq("p1"), eq(3L), anyList(), any())).thenReturn(before);
+        TaskBatchRequest request = new TaskBatchRequest(3L, List.of(
+                new TaskOperation(TaskOperation.CREATE, null, "Build", null, null, null, null),
+                new TaskOperation(TaskOperation.UPDATE, "t1", null, "Completed", null, null, true),
+                new TaskOperation(TaskOperation.DELETE, "t2", null, null, null, null, null),
+                new TaskOperation(TaskOperation.DELETE, "gone", null, null, null, null, null)));
+
+        ResponseEntity<?> result = projectController.applyTaskBatch("p1", request);
+
+        TaskBatchResult body = (TaskBatchResult) result.getBody();
+        assertEquals(4, body.getVersion());
+        assertEquals(List.of("created", "updated", "deleted", "not_found"),
+                body.getResults().stream().map(TaskBatchResult.Outcome::getResult).toList());
+        assertNotNull(body.getResults().get(0).getTaskId());
+        assertEquals("Pending", request.getOperations().get(0).getStatus());
+
+        ArgumentCaptor<ProjectChangedEvent> events = ArgumentCaptor.forClass(ProjectChangedEvent.class);
+        verify(eventPublisher, times(3)).publishEvent(events.capture());
+        ProjectTask completed = events.getAllValues().get(1).getTask();
+        assertEquals("Design", completed.getTitle());
+        assertNotNull(completed.getCompletedAt());
+        // Removals carry no task, which tells stream subscribers to reload
+        assertNull(events.getAllValues().get(2).getTask());
+    }
+
+    @Test
+    void taskBatchOnAStaleVersionConflictsWithoutEvents() {
+        when(projectRepository.applyTaskBatch(eq("p1"), eq(2L), anyList(), any())).thenReturn(null);
+        when(projectRepository.findVersion("p1")).thenReturn(project(5, LocalDateTime.now()));
+        TaskBatchRequest request = new TaskBatchRequest(2L, List.of(
+                new TaskOperation(TaskOperation.CREATE, null, "Build", null, null, null, null)));
+
+        ResponseEntity<?> result = projectController.applyTaskBatch("p1", request);
+
+        assertEquals(409, result.getStatusCode().value());
+        assertTrue(((ErrorResponse) result.getBody()).getMessage().contains("now at 5"));
+        assertEquals(404, projectController.applyTaskBatch("missing", request).getStatusCode().value());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void invalidTaskBatchIsRejectedBeforeAnyWrite() {
+        TaskOperation update = new TaskOperation(TaskOperation.UPDATE, "t1", null, "Done", null, null, null);
+        assertThrows(IllegalArgumentException.class, () -> projectController.applyTaskBatch("p1",
+                new TaskBatchRequest(null, List.of(update, new TaskOperation(TaskOperation.DELETE, "t1", null,
+                        null, null, null, null)))));
+        assertThrows(IllegalArgumentException.class, () -> projectController.applyTaskBatch("p1",
+                new TaskBatchRequest(null, List.of(new TaskOperation("move", "t1", null, null, null, null, null)))));
+        assertThrows(IllegalArgumentException.class, () -> projectController.applyTaskBatch("p1",
+                new TaskBatchRequest(null, List.of(new TaskOperation(TaskOperation.CREATE, null, " ", null, null,
+                        null, null)))));
+        assertThrows(IllegalArgumentException.class, () -> projectController.applyTaskBatch("p1",
+                new TaskBatchRequest(null, List.of())));
+        verify(projectRepository, never()).applyTaskBatch(any(), any(), any(), any());
+    }
+}
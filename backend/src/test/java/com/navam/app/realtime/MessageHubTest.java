@@ -0,0 +1,131 @@
+package com.navam.app.realtime;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageHubTest {
+
+    private MessageHub hub;
+    private ExecutorService sender;
+
+    @BeforeEach
+    void setUp() {
+        hub = new MessageHub();
+        ReflectionTestUtils.setField(hub, "objectMapper", new ObjectMapper());
+        sender = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sender.shutdownNow();
+    }
+
+    /** Simulated connection that records frames and can be made to stall. */
+    private class FakeConnection extends QueuedSubscriber {
+        final String userId;
+        final ConcurrentLinkedQueue<String> received = new ConcurrentLinkedQueue<>();
+        final CountDownLatch stall;
+        CountDownLatch expected;
+
+        FakeConnection(String userId, int capacity, int expectedFrames, CountDownLatch stall) {
+            super(capacity, sender);
+            this.userId = userId;
+            this.expected = new CountDownLatch(expectedFrames);
+            this.stall = stall;
+        }
+
+        @Override
+        protected void deliver(String payload) throws IOException {
+            if (stall != null) {
+                try {
+                    stall.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+            received.add(payload);
+            expected.countDown();
+        }
+
+        @Override
+        protected void onClose() {
+            hub.unsubscribe(userId, this);
+        }
+    }
+
+    @Test
+    void fansOutToEveryConnectionOfTheUser() throws Exception {
+        int users = 200;
+        int tabsPerUser = 10;
+        int messagesPerUser = 5;
+        List<FakeConnection> connections = new ArrayList<>();
+        for (int u = 0; u < users; u++) {
+            for (int t = 0; t < tabsPerUser; t++) {
+                FakeConnection connection = new FakeConnection("user" + u, 16, messagesPerUser, null);
+                connections.add(connection);
+                hub.subscribe(connection.userId, connection);
+            }
+        }
+        assertEquals(users * tabsPerUser, hub.getConnectionCount());
+
+        for (int m = 0; m < messagesPerUser; m++) {
+            for (int u = 0; u < users; u++) {
+                assertEquals(tabsPerUser, hub.publish("user" + u, "message", Map.of("seq", m)));
+            }
+        }
+
+        for (FakeConnection connection : connections) {
+            assertTrue(connection.expected.await(5, TimeUnit.SECONDS));
+            // Frames of one connection arrive in publish order
+            List<String> frames = new ArrayList<>(connection.received);
+            for (int m = 0; m < messagesPerUser; m++) {
+                assertEquals("{\"type\":\"message\",\"data\":{\"seq\":" + m + "}}", frames.get(m));
+            }
+        }
+        assertEquals(0, hub.getDroppedCount());
+    }
+
+    @Test
+    void slowConsumerIsClosedWithoutBlockingOthers() throws Exception {
+        CountDownLatch stall = new CountDownLatch(1);
+        FakeConnection slow = new FakeConnection("u1", 2, 0, stall);
+        FakeConnection fast = new FakeConnection("u1", 16, 5, null);
+        hub.subscribe("u1", slow);
+        hub.subscribe("u1", fast);
+
+        for (int i = 0; i < 5; i++) {
+            hub.publish("u1", "message", Map.of("seq", i));
+        }
+
+        assertTrue(fast.expected.await(5, TimeUnit.SECONDS));
+        assertTrue(slow.isClosed());
+        assertEquals(1, hub.getDroppedCount());
+        assertEquals(1, hub.getConnectionCount());
+        stall.countDown();
+    }
+
+    @Test
+    void unsubscribeRemovesEmptyUsers() {
+        FakeConnection connection = new FakeConnection("u1", 4, 0, null);
+        hub.subscribe("u1", connection);
+        connection.close();
+
+        assertEquals(0, hub.getConnectionCount());
+        assertEquals(0, hub.publish("u1", "message", Map.of()));
+    }
+}
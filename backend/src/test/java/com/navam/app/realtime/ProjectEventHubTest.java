@@ -0,0 +1,160 @@
+package com.navam.app.realtime;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.navam.app.event.ProjectChangedEvent;
+import com.navam.app.model.ProjectTask;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectEventHubTest {
+
+    private ProjectEventHub hub;
+
+    @BeforeEach
+    void setUp() {
+        hub = new ProjectEventHub();
+        ReflectionTestUtils.setField(hub, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(hub, "bufferSize", 3);
+        ReflectionTestUtils.setField(hub, "retentionMs", 0L);
+    }
+
+    /** Records frames synchronously; refuses them once full. */
+    private class FakeStream implements Subscriber {
+        final String projectId;
+        final List<String> frames = new ArrayList<>();
+        final int capacity;
+        boolean closed;
+
+        FakeStream(String projectId, int capacity) {
+            this.projectId = projectId;
+            this.capacity = capacity;
+        }
+
+        @Override
+        public boolean offer(String payload) {
+            if (closed || frames.size() >= capacity) {
+                return false;
+            }
+            frames.add(payload);
+            return true;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            hub.unsubscribe(projectId, this);
+        }
+
+        String lastId() {
+            for (int i = frames.size() - 1; i >= 0; i--) {
+                if (frames.get(i).startsWith("id: ")) {
+                    return frames.get(i).substring(4, frames.get(i).indexOf('\n'));
+                }
+            }
+            return null;
+        }
+
+        List<String> events() {
+            return frames.stream().filter(frame -> frame.contains("event: "))
+                    .map(frame -> frame.substring(frame.indexOf("event: ") + 7, frame.indexOf('\n', frame.indexOf("event: "))))
+                    .toList();
+        }
+    }
+
+    @Test
+    void freshStreamGetsReadyThenLiveDeltasInOrder() {
+        FakeStream stream = new FakeStream("p1", 100);
+        hub.subscribe("p1", null, stream);
+        ProjectTask task = new ProjectTask();
+        task.setId("t1");
+        task.setStatus("Done");
+
+        hub.onProjectChanged(new ProjectChangedEvent("p1", "c1", ProjectChangedEvent.Type.TASKS_CHANGED, task));
+        hub.onProjectChanged(new ProjectChangedEvent("p1", "c1", ProjectChangedEvent.Type.UPDATED, "Active",
+                "Completed", "Web"));
+        hub.onProjectChanged(new ProjectChangedEvent("p2", "c1", ProjectChangedEvent.Type.TASKS_CHANGED, task));
+
+        assertEquals(List.of("ready", "task", "status"), stream.events());
+        assertTrue(stream.frames.get(1).contains("\"id\":\"t1\""));
+        assertTrue(stream.frames.get(2).endsWith("data: {\"status\":\"Completed\"}\n\n"));
+    }
+
+    @Test
+    void reconnectReplaysWhatItMissedFromTheBuffer() {
+        FakeStream first = new FakeStream("p1", 100);
+        hub.subscribe("p1", null, first);
+        hub.publish("p1", "status", Map.of("status", "A"));
+        String seen = first.lastId();
+        first.close();
+
+        hub.publish("p1", "status", Map.of("status", "B"));
+        hub.publish("p1", "status", Map.of("status", "C"));
+        FakeStream resumed = new FakeStream("p1", 100);
+        hub.subscribe("p1", seen, resumed);
+
+        assertEquals(2, resumed.frames.size());
+        assertTrue(resumed.frames.get(0).contains("\"B\""));
+        assertTrue(resumed.frames.get(1).contains("\"C\""));
+        assertEquals(1, hub.getSubscriberCount());
+    }
+
+    @Test
+    void unresolvableIdsGetAReset() {
+        FakeStream first = new FakeStream("p1", 100);
+        hub.subscribe("p1", null, first);
+        String seen = first.lastId();
+        for (int i = 0; i < 4; i++) {
+            hub.publish("p1", "status", Map.of("status", "S" + i));
+        }
+
+        // Older than the buffer, from another process start, or garbage
+        for (String lastEventId : List.of(seen, "0-1", "nonsense")) {
+            FakeStream late = new FakeStream("p1", 100);
+            hub.subscribe("p1", lastEventId, late);
+            assertEquals(List.of("reset"), late.events());
+            // The reset carries the current position, which resumes cleanly
+            FakeStream again = new FakeStream("p1", 100);
+            hub.subscribe("p1", late.lastId(), again);
+            assertTrue(again.frames.isEmpty());
+        }
+    }
+
+    @Test
+    void idsFromAForgottenChannelDoNotResumeAgainstItsReplacement() {
+        FakeStream first = new FakeStream("p1", 100);
+        hub.subscribe("p1", null, first);
+        String seen = first.lastId();
+        first.close();
+        hub.heartbeat(); // Retention 0: the idle channel is dropped
+
+        FakeStream later = new FakeStream("p1", 100);
+        hub.subscribe("p1", seen, later);
+
+        assertEquals(List.of("reset"), later.events());
+    }
+
+    @Test
+    void slowStreamIsDroppedWithoutAffectingOthers() {
+        FakeStream slow = new FakeStream("p1", 2);
+        FakeStream fast = new FakeStream("p1", 100);
+        hub.subscribe("p1", null, slow);
+        hub.subscribe("p1", null, fast);
+
+        for (int i = 0; i < 3; i++) {
+            hub.publish("p1", "status", Map.of("status", "S" + i));
+        }
+        hub.heartbeat();
+
+        assertTrue(slow.closed);
+        assertEquals(1, hub.getDroppedCount());
+        assertEquals(5, fast.frames.size()); // ready, three deltas, keepalive
+        assertEquals(ProjectEventHub.KEEPALIVE, fast.frames.get(4));
+    }
+}
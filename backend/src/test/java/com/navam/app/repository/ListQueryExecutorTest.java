@@ -0,0 +1,175 @@
+package com.navam.app.repository;
+
+import com.navam.app.dto.ListPage;
+import com.navam.app.model.ServiceRequest;
+import com.navam.app.model.enums.RequestStatus;
+import com.navam.app.model.enums.ServiceType;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ListQueryExecutorTest {
+
+    private static final ListSpec<ServiceRequest> REQUESTS = ListSpec.of(ServiceRequest.class)
+            .filter("status", RequestStatus::valueOf)
+            .filter("serviceType", ServiceType::fromString)
+            .filter("clientId")
+            .range("createdAt")
+            .sort("createdAt")
+            .fields("id", "fullName", "email", "status", "createdAt", "description")
+            .defaultFields("id", "fullName", "status")
+            .limits(2, 100)
+            .build();
+
+    @InjectMocks
+    private ListQueryExecutor executor;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.afterPropertiesSet();
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+    }
+
+    @Test
+    void buildsFilteredSortedProjectedQueryAndNextCursor() {
+        when(mongoTemplate.find(any(Query.class), eq(ServiceRequest.class))).thenReturn(new ArrayList<>(List.of(
+                request("r3", LocalDateTime.of(2025, 3, 3, 10, 0)),
+                request("r2", LocalDateTime.of(2025, 3, 2, 10, 0)),
+                request("r1", LocalDateTime.of(2025, 3, 1, 10, 0)))));
+
+        ListPage<ServiceRequest> page = executor.find(REQUESTS, Map.of(
+                "status", "PENDING,APPROVED",
+                "serviceType", "Web Development",
+                "createdAtFrom", "2025-01-01"));
+
+        assertEquals(List.of("r3", "r2"), page.getItems().stream().map(ServiceRequest::getId).toList());
+        assertTrue(page.isHasMore());
+        KeysetCursor cursor = KeysetCursor.decode(page.getNextCursor());
+        assertEquals("2025-03-02T10:00", cursor.getValue());
+        assertEquals("r2", cursor.getId());
+
+        Query query = captureQuery();
+        assertEquals(3, query.getLimit());
+        assertEquals(new Document("createdAt", -1).append("id", -1), query.getSortObject());
+        assertEquals(new Document("id", 1).append("fullName", 1).append("status", 1).append("createdAt", 1),
+                query.getFieldsObject());
+        List<Document> and = query.getQueryObject().getList("$and", Document.class);
+        assertTrue(and.contains(new Document("status",
+                new Document("$in", List.of(RequestStatus.PENDING, RequestStatus.APPROVED)))));
+        assertTrue(and.contains(new Document("serviceType", ServiceType.WEB_DEVELOPMENT)));
+        assertTrue(and.contains(new Document("createdAt",
+                new Document("$gte", LocalDateTime.of(2025, 1, 1, 0, 0)))));
+    }
+
+    @Test
+    void cursorContinuesAfterTheLastItem() {
+        when(mongoTemplate.find(any(Query.class), eq(ServiceRequest.class))).thenReturn(new ArrayList<>());
+        String token = new KeysetCursor("2025-03-02T10:00", "r2").encode();
+
+        ListPage<ServiceRequest> page = executor.find(REQUESTS, Map.of("cursor", token, "sort", "createdAt",
+                "fields", "email"));
+
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+        Query query = captureQuery();
+        LocalDateTime last = LocalDateTime.of(2025, 3, 2, 10, 0);
+        assertEquals(new Document("$or", List.of(
+                new Document("createdAt", new Document("$gt", last)),
+                new Document("createdAt", last).append("id", new Document("$gt", "r2")))),
+                query.getQueryObject().getList("$and", Document.class).get(0));
+        assertEquals(new Document("email", 1).append("id", 1).append("createdAt", 1), query.getFieldsObject());
+    }
+
+    @Test
+    void missingSortValuesKeepTheirPlaceInBothDirections() {
+        assertEquals(new Document("createdAt", null).append("id", new Document("$lt", "r1")),
+                ListQueryExecutor.after("createdAt", null, "r1", true).getCriteriaObject());
+        assertEquals(new Document("$or", List.of(
+                new Document("createdAt", new Document("$ne", null)),
+                new Document("createdAt", null).append("id", new Document("$gt", "r1")))),
+                ListQueryExecutor.after("createdAt", null, "r1", false).getCriteriaObject());
+        // Descending, documents without a value come after every dated one
+        assertTrue(ListQueryExecutor.after("createdAt", "x", "r1", true).getCriteriaObject()
+                .getList("$or", Document.class).contains(new Document("createdAt", null)));
+    }
+
+    @Test
+    void rejectsAnythingOutsideTheWhitelist() {
+        assertThrows(IllegalArgumentException.class, () -> executor.find(REQUESTS, Map.of("phoneNumber", "1")));
+        assertThrows(IllegalArgumentException.class, () -> executor.find(REQUESTS, Map.of("sort", "-email")));
+        assertThrows(IllegalArgumentException.class, () -> executor.find(REQUESTS, Map.of("fields", "phoneNumber")));
+        assertThrows(IllegalArgumentException.class, () -> executor.find(REQUESTS, Map.of("status", "LOST")));
+        assertThrows(IllegalArgumentException.class, () -> executor.find(REQUESTS, Map.of("cursor", "%%%")));
+        verify(mongoTemplate, never()).find(any(Query.class), eq(ServiceRequest.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void stampCountsAndDatesEverythingTheFiltersMatchIgnoringPaging() {
+        ListSpec<ServiceRequest> stamped = ListSpec.of(ServiceRequest.class)
+                .filter("status", RequestStatus::valueOf)
+                .sort("createdAt")
+                .lastModified("createdAt")
+                .build();
+        Date latest = new Date();
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(new Document("_id", null).append("count", 7)
+                        .append("latest", latest)), new Document()));
+
+        ListStamp stamp = executor.stamp(stamped, Map.of("status", "PENDING", "limit", "10",
+                "cursor", new KeysetCursor(null, "r1").encode()));
+
+        assertEquals(new ListStamp(7, latest), stamp);
+        ArgumentCaptor<TypedAggregation<?>> aggregation = ArgumentCaptor.forClass(TypedAggregation.class);
+        verify(mongoTemplate).aggregate(aggregation.capture(), eq(Document.class));
+        List<Document> pipeline = aggregation.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+        assertEquals(new Document("$match", new Document("$and", List.of(new Document("status", RequestStatus.PENDING)))),
+                pipeline.get(0));
+        assertEquals(new Document("_id", null).append("count", new Document("$sum", 1))
+                .append("latest", new Document("$max", "$createdAt")), pipeline.get(1).get("$group"));
+        assertThrows(IllegalStateException.class, () -> executor.stamp(REQUESTS, Map.of()));
+    }
+
+    private Query captureQuery() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(ServiceRequest.class));
+        return query.getValue();
+    }
+
+    private static ServiceRequest request(String id, LocalDateTime createdAt) {
+        ServiceRequest request = new ServiceRequest();
+        request.setId(id);
+        request.setCreatedAt(createdAt);
+        return request;
+    }
+}
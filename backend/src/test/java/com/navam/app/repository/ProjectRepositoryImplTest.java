@@ -0,0 +1,371 @@
+package com.navam.app.repository;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.navam.app.dto.ClientStats;
+import com.navam.app.dto.TaskOperation;
+import com.navam.app.dto.TaskPage;
+import com.navam.app.dto.TaskSummary;
+import com.navam.app.model.Project;
+import com.navam.app.model.ProjectTask;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.TypeBasedAggregationOperationContext;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ProjectRepositoryImplTest {
+
+    @InjectMocks
+    private ProjectRepositoryImpl repository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void pushTaskAppendsInPlaceScopedToClient() {
+        Project owner = new Project();
+        owner.setClientId("client1");
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(Project.class))).thenReturn(owner);
+        ProjectTask task = task("t1");
+
+        assertSame(owner, repository.pushTask("p1", "client1", task));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), eq(Project.class));
+        assertEquals(new Document("id", "p1").append("clientId", "client1"), query.getValue().getQueryObject());
+        assertEquals(new Document("clientId", 1), query.getValue().getFieldsObject());
+        Document applied = update.getValue().getUpdateObject();
+        assertSame(task, applied.get("$push", Document.class).get("tasks"));
+        assertTrue(applied.containsKey("$currentDate"));
+        assertEquals(1, applied.get("$inc", Document.class).get("version"));
+        verify(mongoTemplate, never()).findById(any(), eq(Project.class));
+    }
+
+    @Test
+    void updateStatusSetsInPlaceScopedToClientAndBumpsVersion() {
+        Project previous = new Project();
+        previous.setStatus("Active");
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Project.class))).thenReturn(previous);
+
+        assertSame(previous, repository.updateStatus("p1", "client1", "Completed"));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), options.capture(), eq(Project.class));
+        assertEquals(new Document("id", "p1").append("clientId", "client1"), query.getValue().getQueryObject());
+        assertFalse(query.getValue().getFieldsObject().containsKey("tasks"));
+        assertFalse(options.getValue().isReturnNew());
+        Document applied = update.getValue().getUpdateObject();
+        assertEquals(new Document("status", "Completed"), applied.get("$set", Document.class));
+        assertTrue(applied.get("$min", Document.class).containsKey("completedAt"));
+        assertTrue(applied.containsKey("$currentDate"));
+        assertEquals(1, applied.get("$inc", Document.class).get("version"));
+    }
+
+    @Test
+    void updateTaskStatusSetsTheMatchingElementAndReturnsOnlyIt() {
+        ProjectTask stored = task("t2");
+        stored.setStatus("Completed");
+        stored.setCompleted(true);
+        Project returned = new Project();
+        returned.setClientId("client1");
+        returned.setTasks(List.of(stored));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Project.class))).thenReturn(returned);
+
+        Project updated = repository.updateTaskStatus("p1", "t2", "Completed", true);
+        assertEquals("client1", updated.getClientId());
+        assertSame(stored, updated.getTasks().get(0));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), options.capture(), eq(Project.class));
+        assertTrue(options.getValue().isReturnNew());
+        assertTrue(query.getValue().getFieldsObject().containsKey("tasks"));
+        assertTrue(query.getValue().getFieldsObject().containsKey("clientId"));
+
+        Update applied = update.getValue();
+        Document set = applied.getUpdateObject().get("$set", Document.class);
+        assertEquals("Completed", set.get("tasks.$[t].status"));
+        assertEquals(true, set.get("tasks.$[t].completed"));
+        // Only the first completion is stamped
+        assertTrue(applied.getUpdateObject().get("$min", Document.class).containsKey("tasks.$[t].completedAt"));
+        assertEquals(List.of(new Document("t._id", "t2")), applied.getArrayFilters().stream()
+                .map(filter -> filter.asDocument()).collect(Collectors.toList()));
+    }
+
+    @Test
+    void taskBatchIsOneVersionGuardedPipelineUpdate() {
+        when(mongoTemplate.getConverter()).thenReturn(converter());
+        Project before = new Project();
+        when(mongoTemplate.findAndModify(any(Query.class), any(AggregationUpdate.class), any(FindAndModifyOptions.class),
+                eq(Project.class))).thenReturn(before);
+        TaskOperation create = new TaskOperation(TaskOperation.CREATE, "t9", "$title", "Pending", null, null, null);
+        TaskOperation complete = new TaskOperation(TaskOperation.UPDATE, "t1", null, "Completed", null, null, true);
+        TaskOperation delete = new TaskOperation(TaskOperation.DELETE, "t2", null, null, null, null, null);
+
+        assertSame(before, repository.applyTaskBatch("p1", 4L, List.of(create, complete, delete),
+                LocalDateTime.of(2026, 5, 1, 9, 30)));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<AggregationUpdate> update = ArgumentCaptor.forClass(AggregationUpdate.class);
+        ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), options.capture(), eq(Project.class));
+        assertEquals(new Document("id", "p1").append("version", 4L), query.getValue().getQueryObject());
+        assertFalse(options.getValue().isReturnNew());
+
+        List<Document> pipeline = update.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+        assertEquals(1, pipeline.size());
+        Document set = pipeline.get(0).get("$set", Document.class);
+        List<?> parts = set.get("tasks", Document.class).getList("$concatArrays", Object.class);
+        Document map = ((Document) parts.get(0)).get("$map", Document.class);
+        Document filter = map.get("input", Document.class).get("$filter", Document.class);
+        assertEquals(new Document("$not", List.of(new Document("$in", List.of("$$t._id",
+                new Document("$literal", List.of("t2")))))), filter.get("cond"));
+        Document branch = (Document) map.get("in", Document.class).get("$switch", Document.class)
+                .getList("branches", Document.class).get(0);
+        assertEquals(new Document("$eq", List.of("$$t._id", new Document("$literal", "t1"))), branch.get("case"));
+        List<?> merged = branch.get("then", Document.class).getList("$mergeObjects", Object.class);
+        assertEquals(new Document("$literal", new Document("status", "Completed").append("completed", true)),
+                merged.get(1));
+        assertTrue(((Document) merged.get(2)).containsKey("completedAt"));
+        // New tasks are stored as mapped documents and never read as expressions
+        Document created = (Document) ((Document) parts.get(1)).getList("$literal", Object.class).get(0);
+        assertEquals("t9", created.get("_id"));
+        assertEquals("$title", created.get("title"));
+        assertTrue(set.containsKey("version"));
+    }
+
+    @Test
+    void taskBatchAtVersionZeroAlsoMatchesUnversionedProjects() {
+        when(mongoTemplate.getConverter()).thenReturn(converter());
+
+        assertNull(repository.applyTaskBatch("p1", 0L, List.of(new TaskOperation(TaskOperation.DELETE, "t1",
+                null, null, null, null, null)), LocalDateTime.now()));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findAndModify(query.capture(), any(AggregationUpdate.class),
+                any(FindAndModifyOptions.class), eq(Project.class));
+        assertEquals(new Document("id", "p1").append("$or", List.of(new Document("version", 0L),
+                new Document("version", new Document("$exists", false)))), query.getValue().getQueryObject());
+    }
+
+    private static MappingMongoConverter converter() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+
+    @Test
+    void updateTaskStatusReturnsNullWhenNothingMatched() {
+        assertNull(repository.updateTaskStatus("p1", "missing", "Completed", true));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void findTasksFiltersAndSlicesInTheProjection() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.afterPropertiesSet();
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        Document row = new Document("total", 3).append("tasks", List.of(
+                new Document("_id", "t3").append("title", "Third").append("status", "Pending")));
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(row), new Document()));
+
+        TaskPage page = repository.findTasks("p1", "Pending", "Client", 2, 1);
+
+        assertEquals(3, page.getTotal());
+        assertEquals("t3", page.getTasks().get(0).getId());
+        assertFalse(page.isHasMore());
+
+        ArgumentCaptor<TypedAggregation<Project>> aggregation = ArgumentCaptor.forClass(TypedAggregation.class);
+        verify(mongoTemplate).aggregate(aggregation.capture(), eq(Document.class));
+        List<Document> pipeline = aggregation.getValue().toPipeline(new TypeBasedAggregationOperationContext(
+                Project.class, mappingContext, new QueryMapper(converter)));
+        Document filter = pipeline.get(1).get("$project", Document.class).get("matching", Document.class)
+                .get("$filter", Document.class);
+        assertEquals(new Document("$and", List.of(
+                new Document("$eq", List.of("$$task.status", "Pending")),
+                new Document("$eq", List.of("$$task.assignee", "Client")))), filter.get("cond"));
+        assertEquals(List.of("$matching", 2, 1), pipeline.get(2).get("$project", Document.class)
+                .get("tasks", Document.class).get("$slice"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void findTasksReturnsNullForUnknownProject() {
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+
+        assertNull(repository.findTasks("missing", null, null, 0, 50));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void summarizeTasksCountsPerStatus() {
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(
+                        new Document("_id", "Completed").append("count", 4),
+                        new Document("_id", "Pending").append("count", 6)), new Document()));
+
+        TaskSummary summary = repository.summarizeTasks("p1");
+
+        assertEquals(10, summary.getTotal());
+        assertEquals(Map.of("Completed", 4L, "Pending", 6L), summary.getByStatus());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void clientStatsCountsProjectsAndTasksInOneAggregation() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.afterPropertiesSet();
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(
+                        new Document("_id", "Active").append("projects", 2).append("tasks", 7)
+                                .append("pending", 5).append("overdue", 2),
+                        new Document("_id", "Completed").append("projects", 1).append("tasks", 3)
+                                .append("pending", 0).append("overdue", 0)), new Document()));
+        Date now = new Date();
+
+        ClientStats stats = repository.clientStats("client1", now);
+
+        assertEquals(3, stats.getTotalProjects());
+        assertEquals(2, stats.getActiveProjects());
+        assertEquals(1, stats.getCompletedProjects());
+        assertEquals(0, stats.getPendingProjects());
+        assertEquals(5, stats.getPendingTasks());
+        assertEquals(5, stats.getCompletedTasks());
+        assertEquals(2, stats.getOverdueTasks());
+
+        ArgumentCaptor<TypedAggregation<Project>> aggregation = ArgumentCaptor.forClass(TypedAggregation.class);
+        verify(mongoTemplate, times(1)).aggregate(aggregation.capture(), eq(Document.class));
+        List<Document> pipeline = aggregation.getValue().toPipeline(new TypeBasedAggregationOperationContext(
+                Project.class, mappingContext, new QueryMapper(converter)));
+        assertEquals(new Document("$match", new Document("clientId", "client1")), pipeline.get(0));
+        Document overdue = pipeline.get(1).get("$project", Document.class).get("overdue", Document.class)
+                .get("$size", Document.class).get("$filter", Document.class);
+        List<Document> conditions = overdue.get("cond", Document.class).getList("$and", Document.class);
+        assertEquals(new Document("$lt", List.of("$$task.dueDate", now)), conditions.get(2));
+        assertTrue(pipeline.get(2).get("$group", Document.class).containsKey("pending"));
+    }
+
+    /**
+     * Concurrent pushes and status changes against a real server: every write must survive.
+     * Run with -Dtest.mongoUri=mongodb://localhost:27017.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "test.mongoUri", matches = ".+")
+    void concurrentTaskEditsAreNotLost() throws Exception {
+        int threads = 8;
+        int perThread = 100;
+        int seeded = 400;
+        try (MongoClient client = MongoClients.create(System.getProperty("test.mongoUri"))) {
+            MongoTemplate template = new MongoTemplate(client, "navam_test");
+            ProjectRepositoryImpl live = new ProjectRepositoryImpl();
+            ReflectionTestUtils.setField(live, "mongoTemplate", template);
+
+            Project project = new Project();
+            project.setName("Concurrency " + UUID.randomUUID());
+            project.setTasks(new ArrayList<>());
+            for (int i = 0; i < seeded; i++) {
+                project.getTasks().add(task("seed-" + i));
+            }
+            template.save(project);
+
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            try {
+                for (int t = 0; t < threads; t++) {
+                    int thread = t;
+                    futures.add(pool.submit(() -> {
+                        start.await();
+                        for (int i = 0; i < perThread; i++) {
+                            assertNotNull(live.pushTask(project.getId(), null, task("new-" + thread + "-" + i)));
+                            // Each thread completes its own slice of the seeded tasks
+                            String seededId = "seed-" + (thread * (seeded / threads) + i % (seeded / threads));
+                            assertNotNull(live.updateTaskStatus(project.getId(), seededId, "Completed", true));
+                        }
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+
+            Project reloaded = template.findById(project.getId(), Project.class);
+            template.remove(reloaded);
+            assertEquals(seeded + threads * perThread, reloaded.getTasks().size());
+            Map<String, ProjectTask> byId = reloaded.getTasks().stream()
+                    .collect(Collectors.toMap(ProjectTask::getId, task -> task));
+            for (int i = 0; i < seeded; i++) {
+                assertTrue(byId.get("seed-" + i).isCompleted(), "seed-" + i);
+            }
+            assertEquals(2L * threads * perThread, reloaded.getVersion());
+            assertNotNull(reloaded.getUpdatedAt());
+        }
+    }
+
+    private static ProjectTask task(String id) {
+        ProjectTask task = new ProjectTask();
+        task.setId(id);
+        task.setTitle("Task " + id);
+        task.setStatus("Pending");
+        task.setAssignee("Admin");
+        return task;
+    }
+}
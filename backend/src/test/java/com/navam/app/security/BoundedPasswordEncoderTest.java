@@ -0,0 +1,102 @@
+package com.navam.app.security;
+
+import com.navam.app.exception.ServiceBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BoundedPasswordEncoderTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch started = new CountDownLatch(1);
+
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (encoder != null) {
+            encoder.shutdown();
+        }
+    }
+
+    @Test
+    void encodeAndMatch_RunOnPool() {
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 2, 4, 5000);
+
+        String hash = encoder.encode("secret");
+
+        assertTrue(encoder.matches("secret", hash));
+        assertFalse(encoder.matches("wrong", hash));
+    }
+
+    @Test
+    void saturatedPool_RejectsFast() throws Exception {
+        encoder = new BoundedPasswordEncoder(blockingEncoder(), 1, 1, 5000);
+
+        CompletableFuture.runAsync(() -> encoder.encode("running"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture.runAsync(() -> encoder.encode("queued"));
+        Thread.sleep(100);
+
+        long start = System.nanoTime();
+        ServiceBusyException ex = assertThrows(ServiceBusyException.class, () -> encoder.encode("rejected"));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(1, ex.getRetryAfterSeconds());
+    }
+
+    @Test
+    void upgradeEncoding_FlagsLowerCost() {
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(5), 1, 1, 5000);
+
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("secret")));
+    }
+
+    private PasswordEncoder blockingEncoder() {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return rawPassword.toString().equals(encodedPassword);
+            }
+        };
+    }
+
+    @Test
+    void settleStrength_KeepsTheHighestCostCalibratedSoFar() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(Document.class), eq("settings")))
+                .thenReturn(new Document("_id", "bcrypt").append("strength", 12));
+
+        assertEquals(12, BoundedPasswordEncoder.settleStrength(mongoTemplate, 11));
+        verify(mongoTemplate).findAndModify(any(Query.class),
+                argThat((UpdateDefinition update) -> update.getUpdateObject().toJson().contains("\"$max\"")),
+                any(FindAndModifyOptions.class), eq(Document.class), eq("settings"));
+    }
+}
@@ -0,0 +1,63 @@
+package com.navam.app.security;
+
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilsTest {
+
+    private JwtUtils jwtUtils;
+
+    private final UserDetailsImpl user = new UserDetailsImpl("u1", "testuser", "test@example.com", "Test User",
+            "password", List.of(new SimpleGrantedAuthority("ROLE_CLIENT")), 3L);
+
+    @BeforeEach
+    void setUp() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "navamSecretKeyForJwtTokenGenerationShouldBeLongEnough");
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 60000);
+        ReflectionTestUtils.setField(jwtUtils, "jwtVerifiedCacheSize", 16);
+        jwtUtils.init();
+    }
+
+    @Test
+    void parseValidatedClaims_ReturnsSubjectAndVersion() {
+        Claims claims = jwtUtils.parseValidatedClaims(jwtUtils.generateJwtToken(user));
+
+        assertNotNull(claims);
+        assertEquals("testuser", claims.getSubject());
+        assertEquals(3L, jwtUtils.getTokenVersion(claims));
+        assertNull(jwtUtils.getEmbeddedPrincipal(claims));
+    }
+
+    @Test
+    void parseValidatedClaims_RejectsTamperedToken() {
+        String token = jwtUtils.generateJwtToken(user);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertNull(jwtUtils.parseValidatedClaims(tampered));
+        assertFalse(jwtUtils.validateJwtToken("not-a-token"));
+    }
+
+    @Test
+    void embeddedClaims_RebuildPrincipalWithoutLookup() {
+        ReflectionTestUtils.setField(jwtUtils, "jwtEmbedClaims", true);
+
+        Claims claims = jwtUtils.parseValidatedClaims(jwtUtils.generateJwtToken(user));
+        UserDetailsImpl principal = jwtUtils.getEmbeddedPrincipal(claims);
+
+        assertNotNull(principal);
+        assertEquals("u1", principal.getId());
+        assertEquals("test@example.com", principal.getEmail());
+        assertEquals("Test User", principal.getFullName());
+        assertNull(principal.getPassword());
+        assertEquals(3L, principal.getTokenVersion());
+        assertTrue(principal.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_CLIENT")));
+    }
+}
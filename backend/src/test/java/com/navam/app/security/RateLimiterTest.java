@@ -0,0 +1,58 @@
+package com.navam.app.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    private static final long MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    @Test
+    void allowsBurstThenRejectsWithWait() {
+        RateLimiter limiter = new RateLimiter(3, MINUTE, 100);
+
+        assertEquals(0, limiter.tryAcquire("ip:1"));
+        assertEquals(0, limiter.tryAcquire("ip:1"));
+        assertEquals(0, limiter.tryAcquire("ip:1"));
+
+        long wait = limiter.tryAcquire("ip:1");
+        assertTrue(wait > 0 && wait <= TimeUnit.SECONDS.toNanos(20), "wait was " + wait);
+        assertEquals(0, limiter.tryAcquire("ip:2"));
+    }
+
+    @Test
+    void concurrentCallers_NeverExceedCapacity() throws Exception {
+        RateLimiter limiter = new RateLimiter(50, MINUTE, 100);
+        AtomicInteger allowed = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        for (int i = 0; i < 1000; i++) {
+            pool.submit(() -> {
+                if (limiter.tryAcquire("ip:shared") == 0) {
+                    allowed.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(50, allowed.get());
+    }
+
+    @Test
+    void keyCount_StaysBounded() throws Exception {
+        RateLimiter limiter = new RateLimiter(1, TimeUnit.MILLISECONDS.toNanos(1), 10);
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire("ip:" + i);
+        }
+        Thread.sleep(1100); // buckets refill and the sweep interval passes
+
+        assertEquals(0, limiter.tryAcquire("ip:new"));
+        assertTrue(limiter.size() <= 10);
+    }
+}
@@ -0,0 +1,70 @@
+package com.navam.app.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TokenAuthenticationServiceTest {
+
+    @InjectMocks
+    private TokenAuthenticationService tokenAuthenticationService;
+
+    @Mock
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Mock
+    private TokenVersionService tokenVersionService;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    private final JwtUtils jwtUtils = new JwtUtils();
+
+    // The attacker registered with the victim's email as username
+    private final UserDetailsImpl attacker = principal("2", "victim@example.com", "attacker@example.com");
+    private final UserDetailsImpl victim = principal("1", "victim", "victim@example.com");
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "navamSecretKeyForJwtTokenGenerationShouldBeLongEnough");
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 60000);
+        ReflectionTestUtils.setField(jwtUtils, "jwtVerifiedCacheSize", 16);
+        jwtUtils.init();
+        ReflectionTestUtils.setField(tokenAuthenticationService, "jwtUtils", jwtUtils);
+        when(tokenVersionService.isCurrent(anyString(), anyLong())).thenReturn(true);
+    }
+
+    private static UserDetailsImpl principal(String id, String username, String email) {
+        return new UserDetailsImpl(id, username, email, "Name", null,
+                List.of(new SimpleGrantedAuthority("ROLE_CLIENT")), 0L);
+    }
+
+    @Test
+    void principalIsResolvedByTheTokensUserIdNotItsSubject() {
+        when(userDetailsService.loadPrincipal("2")).thenReturn(attacker);
+
+        UserDetailsImpl resolved = tokenAuthenticationService.authenticate(jwtUtils.generateJwtToken(attacker));
+
+        assertEquals("2", resolved.getId());
+        verify(userDetailsService, never()).loadPrincipalByLogin(any());
+    }
+
+    @Test
+    void principalOfAnotherUserIsRejected() {
+        when(userDetailsService.loadPrincipal("2")).thenReturn(victim);
+
+        assertNull(tokenAuthenticationService.authenticate(jwtUtils.generateJwtToken(attacker)));
+        verify(tokenVersionService, never()).isCurrent(eq("1"), anyLong());
+    }
+}
@@ -0,0 +1,100 @@
+package com.navam.app.security;
+
+import com.navam.app.event.UserChangedEvent;
+import com.navam.app.model.User;
+import com.navam.app.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserDetailsServiceImplTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private UserDetailsServiceImpl userDetailsService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userDetailsService, "userCacheSize", 100);
+        ReflectionTestUtils.setField(userDetailsService, "userCacheTtlMs", 60000L);
+        userDetailsService.init();
+
+        user = new User("testuser", "test@example.com", null, "Test User", "Test Corp");
+        user.setId("1");
+        user.setRoles(Set.of("ROLE_CLIENT"));
+    }
+
+    @Test
+    void loadPrincipal_CachesById() {
+        when(userRepository.findPrincipalById("1")).thenReturn(Optional.of(user));
+
+        UserDetailsImpl first = userDetailsService.loadPrincipal("1");
+        UserDetailsImpl second = userDetailsService.loadPrincipal("1");
+
+        assertSame(first, second);
+        verify(userRepository, times(1)).findPrincipalById(anyString());
+        assertEquals(1, userDetailsService.getCacheStats().getHits());
+    }
+
+    @Test
+    void loadPrincipalByLogin_PrefersUsernameMatch() {
+        User other = new User("someone", "testuser", null, "Other", "Other Corp");
+        other.setId("2");
+        other.setRoles(Set.of("ROLE_CLIENT"));
+        when(userRepository.findPrincipalsByLogin("testuser", "testuser")).thenReturn(List.of(other, user));
+
+        assertEquals("1", userDetailsService.loadPrincipalByLogin("testuser").getId());
+    }
+
+    @Test
+    void loadPrincipal_SharedLoginStringNeverResolvesToAnotherUser() {
+        // The victim's email is the attacker's username
+        User attacker = new User("test@example.com", "attacker@example.com", null, "Attacker", "Evil Corp");
+        attacker.setId("2");
+        attacker.setRoles(Set.of("ROLE_CLIENT"));
+        when(userRepository.findPrincipalById("1")).thenReturn(Optional.of(user));
+        when(userRepository.findPrincipalById("2")).thenReturn(Optional.of(attacker));
+
+        userDetailsService.loadPrincipal("1");
+
+        assertEquals("2", userDetailsService.loadPrincipal("2").getId());
+    }
+
+    @Test
+    void userChangedEvent_InvalidatesCachedEntries() {
+        when(userRepository.findPrincipalById("1")).thenReturn(Optional.of(user));
+        userDetailsService.loadPrincipal("1");
+
+        userDetailsService.onUserChanged(new UserChangedEvent("1", null, null, UserChangedEvent.Type.UPDATED));
+        userDetailsService.loadPrincipal("1");
+
+        verify(userRepository, times(2)).findPrincipalById("1");
+    }
+
+    @Test
+    void loadPrincipal_UnknownUser() {
+        when(userRepository.findPrincipalById("ghost")).thenReturn(Optional.empty());
+        when(userRepository.findPrincipalsByLogin("ghost", "ghost")).thenReturn(Collections.emptyList());
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadPrincipal("ghost"));
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadPrincipalByLogin("ghost"));
+    }
+}
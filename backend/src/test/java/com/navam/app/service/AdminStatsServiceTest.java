@@ -0,0 +1,152 @@
+package com.navam.app.service;
+
+import com.mongodb.client.result.UpdateResult;
+import com.navam.app.event.ProjectChangedEvent;
+import com.navam.app.event.ServiceRequestChangedEvent;
+import com.navam.app.event.UserChangedEvent;
+import com.navam.app.model.AdminStats;
+import com.navam.app.model.Project;
+import com.navam.app.model.ServiceRequest;
+import com.navam.app.model.User;
+import com.navam.app.model.enums.RequestStatus;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.TypeBasedAggregationOperationContext;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AdminStatsServiceTest {
+
+    @InjectMocks
+    private AdminStatsService adminStatsService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(AdminStats.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+    }
+
+    private Document applied() {
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(AdminStats.class));
+        return update.getValue().getUpdateObject().get("$inc", Document.class);
+    }
+
+    @Test
+    void createdClientIncrementsUsersRolesAndClients() {
+        adminStatsService.onUserChanged(new UserChangedEvent("u1", "alice", "alice@example.com",
+                UserChangedEvent.Type.CREATED, Set.of("ROLE_CLIENT")));
+
+        assertEquals(new Document("totalUsers", 1L).append("usersByRole.ROLE_CLIENT", 1L).append("totalClients", 1L),
+                applied());
+    }
+
+    @Test
+    void profileUpdatesLeaveTheStatsAlone() {
+        adminStatsService.onUserChanged(new UserChangedEvent("u1", "alice", null, UserChangedEvent.Type.UPDATED));
+
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void projectStatusChangeMovesOneCountBetweenStatuses() {
+        adminStatsService.onProjectChanged(new ProjectChangedEvent("p1", "c1", ProjectChangedEvent.Type.UPDATED,
+                "Active", "Completed", "SEO"));
+
+        assertEquals(new Document("projectsByStatus.Active", -1).append("projectsByStatus.Completed", 1), applied());
+    }
+
+    @Test
+    void newRequestCountsUnderItsStatusAndKeysAreSafeFieldNames() {
+        adminStatsService.onServiceRequestChanged(new ServiceRequestChangedEvent("r1", null,
+                ServiceRequestChangedEvent.Type.CREATED, null, RequestStatus.PENDING, null, null));
+
+        assertEquals(new Document("totalRequests", 1).append("requestsByStatus.PENDING", 1), applied());
+        assertEquals("Web 2_0", AdminStatsService.key("Web 2.0"));
+        assertEquals("None", AdminStatsService.key(null));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reconcileRebuildsTheDocumentFromOneAggregationPerCollection() {
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class))).thenAnswer(invocation -> {
+            Class<?> type = ((TypedAggregation<?>) invocation.getArgument(0)).getInputType();
+            Document result;
+            if (type == User.class) {
+                result = new Document("total", List.of(new Document("count", 5)))
+                        .append("clients", List.of(new Document("count", 3)))
+                        .append("byRole", List.of(new Document("_id", "ROLE_CLIENT").append("count", 3),
+                                new Document("_id", "ROLE_ADMIN").append("count", 2)));
+            } else if (type == Project.class) {
+                result = new Document("total", List.of(new Document("count", 4)))
+                        .append("byStatus", List.of(new Document("_id", "Active").append("count", 4)))
+                        .append("byServiceType", List.of(new Document("_id", null).append("count", 4)))
+                        .append("overdue", List.of());
+            } else {
+                return new AggregationResults<>(List.of(new Document("_id", "PENDING").append("count", 2),
+                        new Document("_id", "APPROVED").append("count", 1)), new Document());
+            }
+            return new AggregationResults<>(List.of(result), new Document());
+        });
+
+        AdminStats stats = adminStatsService.reconcile();
+
+        assertEquals(5, stats.getTotalUsers());
+        assertEquals(3, stats.getTotalClients());
+        assertEquals(Map.of("ROLE_CLIENT", 3L, "ROLE_ADMIN", 2L), stats.getUsersByRole());
+        assertEquals(4, stats.getTotalProjects());
+        assertEquals(Map.of("None", 4L), stats.getProjectsByServiceType());
+        assertEquals(0, stats.getOverdueTasks());
+        assertEquals(3, stats.getTotalRequests());
+        verify(mongoTemplate).save(stats);
+
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.afterPropertiesSet();
+        ArgumentCaptor<TypedAggregation<?>> aggregations = ArgumentCaptor.forClass(TypedAggregation.class);
+        verify(mongoTemplate, times(3)).aggregate(aggregations.capture(), eq(Document.class));
+        TypedAggregation<?> projects = aggregations.getAllValues().get(1);
+        List<Document> pipeline = projects.toPipeline(new TypeBasedAggregationOperationContext(
+                projects.getInputType(), mappingContext, new QueryMapper(converter)));
+        List<Document> overdue = pipeline.get(0).get("$facet", Document.class).getList("overdue", Document.class);
+        assertEquals(new Document("$unwind", "$tasks"), overdue.get(0));
+        assertTrue(overdue.get(1).get("$match", Document.class).containsKey("tasks.dueDate"));
+    }
+
+    @Test
+    void missingDocumentIsBuiltOnFirstRead() {
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+
+        AdminStats stats = adminStatsService.getStats();
+
+        assertEquals(AdminStats.ID, stats.getId());
+        verify(mongoTemplate).save(stats);
+    }
+}
@@ -0,0 +1,115 @@
+package com.navam.app.service;
+
+import com.navam.app.model.AnalyticsBackfillJob;
+import com.navam.app.model.Project;
+import com.navam.app.model.ServiceRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AnalyticsBackfillServiceTest {
+
+    @InjectMocks
+    private AnalyticsBackfillService service;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private AnalyticsService analyticsService;
+
+    // Stands in for the analytics_backfill_jobs collection
+    private final AtomicReference<AnalyticsBackfillJob> stored = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(service, "windowDays", 10);
+        ReflectionTestUtils.setField(service, "throttleMs", 0L);
+        service.init();
+
+        when(mongoTemplate.save(any(AnalyticsBackfillJob.class))).thenAnswer(invocation -> {
+            stored.set(copy(invocation.getArgument(0)));
+            return invocation.getArgument(0);
+        });
+        when(mongoTemplate.findById(AnalyticsBackfillJob.ID, AnalyticsBackfillJob.class))
+                .thenAnswer(invocation -> stored.get() == null ? null : copy(stored.get()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    private static AnalyticsBackfillJob copy(AnalyticsBackfillJob job) {
+        return new AnalyticsBackfillJob(job.getId(), job.getStatus(), job.getFrom(), job.getTo(), job.getNext(),
+                job.getDaysDone(), job.getAttempts(), job.getError(), job.getCreatedAt(), job.getUpdatedAt());
+    }
+
+    @Test
+    void startsAtTheOldestDocumentAndWalksToTodayInWindows() {
+        LocalDate today = LocalDate.now();
+        ServiceRequest oldest = new ServiceRequest();
+        oldest.setCreatedAt(today.minusDays(24).atTime(9, 0));
+        Project project = new Project();
+        project.setCreatedAt(today.minusDays(3).atStartOfDay());
+        when(mongoTemplate.findOne(any(Query.class), eq(ServiceRequest.class))).thenReturn(oldest);
+        when(mongoTemplate.findOne(any(Query.class), eq(Project.class))).thenReturn(project);
+
+        service.start();
+
+        verify(analyticsService, timeout(5000)).rebuild(today.minusDays(4), today.plusDays(1));
+        verify(analyticsService).rebuild(today.minusDays(24), today.minusDays(14));
+        verify(analyticsService).rebuild(today.minusDays(14), today.minusDays(4));
+        await(() -> stored.get().getStatus() == AnalyticsBackfillJob.Status.COMPLETED);
+        assertEquals(25, stored.get().getDaysDone());
+        assertEquals(today.plusDays(1), stored.get().getNext());
+    }
+
+    @Test
+    void failedWindowIsRecordedAndTheRunResumesFromIt() {
+        LocalDate from = LocalDate.of(2026, 1, 1);
+        LocalDateTime now = LocalDateTime.now();
+        stored.set(new AnalyticsBackfillJob(AnalyticsBackfillJob.ID, AnalyticsBackfillJob.Status.RUNNING, from,
+                from.plusDays(19), from.plusDays(10), 10, 1, null, now, now));
+        doThrow(new IllegalStateException("boom")).when(analyticsService).rebuild(from.plusDays(10), from.plusDays(20));
+
+        service.run();
+
+        assertEquals(AnalyticsBackfillJob.Status.FAILED, stored.get().getStatus());
+        assertEquals(from.plusDays(10), stored.get().getNext());
+        assertEquals("boom", stored.get().getError());
+        verify(analyticsService, never()).rebuild(eq(from), any());
+
+        doNothing().when(analyticsService).rebuild(any(), any());
+        stored.get().setStatus(AnalyticsBackfillJob.Status.QUEUED);
+        service.run();
+
+        assertEquals(AnalyticsBackfillJob.Status.COMPLETED, stored.get().getStatus());
+        assertEquals(20, stored.get().getDaysDone());
+        assertEquals(3, stored.get().getAttempts());
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out");
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.navam.app.service;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.navam.app.dto.AnalyticsReport;
+import com.navam.app.event.ProjectChangedEvent;
+import com.navam.app.event.ServiceRequestChangedEvent;
+import com.navam.app.model.AnalyticsBucket;
+import com.navam.app.model.Project;
+import com.navam.app.model.ProjectTask;
+import com.navam.app.model.enums.RequestStatus;
+import com.navam.app.model.enums.ServiceType;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.TypeBasedAggregationOperationContext;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AnalyticsServiceTest {
+
+    @InjectMocks
+    private AnalyticsService analyticsService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(analyticsService, "maxDays", 400);
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+    }
+
+    private static AnalyticsBucket bucket(String day, long started, long tasks, Map<String, Map<String, Long>> requests) {
+        return new AnalyticsBucket(day, requests, started, 0, tasks, null);
+    }
+
+    @Test
+    void reportFoldsDaysIntoWeeksAndKeepsEmptyWeeks() {
+        when(mongoTemplate.find(any(Query.class), eq(AnalyticsBucket.class))).thenReturn(List.of(
+                bucket("2026-03-02", 1, 2, Map.of("WEB_DEVELOPMENT", Map.of("PENDING", 1L))),
+                bucket("2026-03-08", 0, 3, Map.of("WEB_DEVELOPMENT", Map.of("PENDING", 2L, "APPROVED", 1L))),
+                bucket("2026-03-17", 2, 0, Map.of())));
+
+        AnalyticsReport report = analyticsService.report(LocalDate.of(2026, 3, 4), LocalDate.of(2026, 3, 18),
+                AnalyticsReport.Granularity.WEEK);
+
+        // Weeks start on Monday: 2 March, 9 March (empty) and 16 March
+        assertEquals(List.of(LocalDate.of(2026, 3, 2), LocalDate.of(2026, 3, 9), LocalDate.of(2026, 3, 16)),
+                report.getPeriods().stream().map(AnalyticsReport.Period::getStart).toList());
+        AnalyticsReport.Period first = report.getPeriods().get(0);
+        assertEquals(Map.of("WEB_DEVELOPMENT", Map.of("PENDING", 3L, "APPROVED", 1L)), first.getRequests());
+        assertEquals(1, first.getProjectsStarted());
+        assertEquals(5, first.getTasksCompleted());
+        assertEquals(0, report.getPeriods().get(1).getTasksCompleted());
+        assertEquals(2, report.getPeriods().get(2).getProjectsStarted());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(AnalyticsBucket.class));
+        assertEquals(new Document("id", new Document("$gte", "2026-03-04").append("$lte", "2026-03-18")),
+                query.getValue().getQueryObject());
+    }
+
+    @Test
+    void reportRejectsInvertedAndOverlongRanges() {
+        assertThrows(IllegalArgumentException.class, () -> analyticsService.report(LocalDate.of(2026, 2, 1),
+                LocalDate.of(2026, 1, 1), AnalyticsReport.Granularity.DAY));
+        assertThrows(IllegalArgumentException.class, () -> analyticsService.report(LocalDate.of(2020, 1, 1),
+                LocalDate.of(2026, 1, 1), AnalyticsReport.Granularity.MONTH));
+        verify(mongoTemplate, never()).find(any(Query.class), eq(AnalyticsBucket.class));
+    }
+
+    @Test
+    void requestStatusChangeMovesTheCountWithinTheDayItCameIn() {
+        analyticsService.onServiceRequestChanged(new ServiceRequestChangedEvent("r1", null,
+                ServiceRequestChangedEvent.Type.UPDATED, RequestStatus.PENDING, RequestStatus.APPROVED,
+                ServiceType.WEB_DEVELOPMENT, LocalDateTime.of(2026, 1, 15, 23, 0)));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(query.capture(), update.capture(), eq(AnalyticsBucket.class));
+        assertEquals(new Document("id", "2026-01-15"), query.getValue().getQueryObject());
+        assertEquals(new Document("requests.WEB_DEVELOPMENT.PENDING", -1).append("requests.WEB_DEVELOPMENT.APPROVED", 1),
+                update.getValue().getUpdateObject().get("$inc", Document.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void completedTaskRecountsItsDayFromTheIndex() {
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()))
+                .thenReturn(new AggregationResults<>(List.of(new Document("_id", "2026-01-15").append("count", 4)),
+                        new Document()));
+        ProjectTask task = new ProjectTask("t1", "Ship", "Completed", "Admin", null, true,
+                LocalDateTime.of(2026, 1, 15, 10, 0));
+
+        analyticsService.onProjectChanged(new ProjectChangedEvent("p1", "c1",
+                ProjectChangedEvent.Type.TASKS_CHANGED, task));
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(any(Query.class), update.capture(), eq(AnalyticsBucket.class));
+        Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertEquals(0L, set.get("projectsCompleted"));
+        assertEquals(4L, set.get("tasksCompleted"));
+
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.afterPropertiesSet();
+        LocalDateTime start = LocalDateTime.of(2026, 1, 15, 0, 0);
+        List<Document> pipeline = analyticsService.tasksCompletedPerDayAggregation(start, start.plusDays(1))
+                .toPipeline(new TypeBasedAggregationOperationContext(Project.class, mappingContext,
+                        new QueryMapper(converter)));
+        Document range = new Document("$gte", date(start)).append("$lt", date(start.plusDays(1)));
+        assertEquals(new Document("$match", new Document("tasks.completedAt", range)), pipeline.get(0));
+        assertEquals(new Document("$unwind", "$tasks"), pipeline.get(1));
+        assertEquals(new Document("$match", new Document("tasks.completedAt", range)), pipeline.get(2));
+    }
+
+    private static Date date(LocalDateTime time) {
+        return Date.from(time.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    @Test
+    void reopenedTasksAndPlainUpdatesLeaveTheBucketsAlone() {
+        analyticsService.onProjectChanged(new ProjectChangedEvent("p1", "c1",
+                ProjectChangedEvent.Type.TASKS_CHANGED, new ProjectTask()));
+        analyticsService.onProjectChanged(new ProjectChangedEvent("p1", "c1", ProjectChangedEvent.Type.UPDATED,
+                "Completed", "Completed", "SEO"));
+
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuildReplacesEveryDayOfTheWindow() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AnalyticsBucket.class)).thenReturn(bulkOperations);
+        LocalDateTime seenAt = LocalDateTime.of(2026, 1, 1, 23, 0);
+        when(mongoTemplate.find(any(Query.class), eq(AnalyticsBucket.class)))
+                .thenReturn(List.of(new AnalyticsBucket("2026-01-01", null, 0, 0, 0, seenAt)))
+                .thenReturn(List.of());
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(new Document("_id", new Document("day", "2026-01-02")
+                        .append("serviceType", "SEO").append("status", "PENDING")).append("count", 2)), new Document()))
+                .thenReturn(new AggregationResults<>(List.of(new Document("_id", "2026-01-01").append("count", 1)),
+                        new Document()))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+
+        analyticsService.rebuild(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 4));
+
+        // The existing bucket is replaced only if no event wrote to it meanwhile; the others are new
+        ArgumentCaptor<Query> filter = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<AnalyticsBucket> replaced = ArgumentCaptor.forClass(AnalyticsBucket.class);
+        verify(bulkOperations).replaceOne(filter.capture(), replaced.capture(), any(FindAndReplaceOptions.class));
+        assertEquals(new Document("id", "2026-01-01").append("updatedAt", seenAt),
+                filter.getValue().getQueryObject());
+        assertEquals(1, replaced.getValue().getProjectsStarted());
+        ArgumentCaptor<List<AnalyticsBucket>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(bulkOperations).insert(inserted.capture());
+        List<AnalyticsBucket> buckets = new ArrayList<>(inserted.getValue());
+        assertEquals(List.of("2026-01-02", "2026-01-03"), buckets.stream().map(AnalyticsBucket::getId).toList());
+        assertEquals(Map.of("SEO", Map.of("PENDING", 2L)), buckets.get(0).getRequests());
+        assertEquals(0, buckets.get(1).getProjectsStarted());
+        verify(bulkOperations).execute();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuildCountsAgainTheDaysAnEventWroteToMeanwhile() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AnalyticsBucket.class)).thenReturn(bulkOperations);
+        LocalDateTime bumpedAt = LocalDateTime.of(2026, 1, 2, 9, 0);
+        when(mongoTemplate.find(any(Query.class), eq(AnalyticsBucket.class)))
+                .thenReturn(List.of())
+                // A request event upserted 01-02 between the count and the insert
+                .thenReturn(List.of(new AnalyticsBucket("2026-01-02", null, 0, 0, 0, bumpedAt)))
+                .thenReturn(List.of(new AnalyticsBucket("2026-01-02", null, 0, 0, 0, bumpedAt)))
+                .thenReturn(List.of());
+        BulkOperationException collision = mock(BulkOperationException.class);
+        when(collision.getErrors()).thenReturn(List.of(new BulkWriteError(11000, "dup key", new BsonDocument(), 1)));
+        when(bulkOperations.execute()).thenThrow(collision).thenReturn(null);
+
+        analyticsService.rebuild(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 3));
+
+        ArgumentCaptor<Query> filter = ArgumentCaptor.forClass(Query.class);
+        verify(bulkOperations).replaceOne(filter.capture(), any(AnalyticsBucket.class), any(FindAndReplaceOptions.class));
+        assertEquals(new Document("id", "2026-01-02").append("updatedAt", bumpedAt),
+                filter.getValue().getQueryObject());
+        verify(bulkOperations, times(2)).execute();
+        verify(mongoTemplate, times(4)).find(any(Query.class), eq(AnalyticsBucket.class));
+    }
+}
@@ -12,6 +12,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -41,6 +43,9 @@ public class AuthServiceTest {
     @Mock
     private JwtUtils jwtUtils;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private AuthService authService;
 
@@ -101,6 +106,20 @@ public class AuthServiceTest {
         verify(userRepository, times(1)).save(any(User.class));
     }
 
+    @Test
+    void registerUser_EmailIsCheckedAndStoredNormalized() {
+        signupRequest.setEmail(" NewUser@Example.COM ");
+        when(userRepository.existsByUsername(anyString())).thenReturn(false);
+        when(userRepository.existsByEmail(anyString())).thenReturn(false);
+        when(encoder.encode(anyString())).thenReturn("encodedPassword");
+        when(userRepository.save(any(User.class))).thenReturn(user);
+
+        authService.registerUser(signupRequest);
+
+        verify(userRepository).existsByEmail("newuser@example.com");
+        verify(userRepository).save(argThat(saved -> "newuser@example.com".equals(saved.getEmail())));
+    }
+
     @Test
     void registerUser_UsernameTaken() {
         when(userRepository.existsByUsername(anyString())).thenReturn(true);
@@ -125,4 +144,34 @@ public class AuthServiceTest {
         assertEquals("Error: Email is already in use!", exception.getMessage());
         verify(userRepository, never()).save(any(User.class));
     }
+
+    @Test
+    void registerUser_UsernameEqualToAnotherUsersEmail() {
+        signupRequest.setUsername("test@example.com");
+        when(userRepository.existsByUsername("test@example.com")).thenReturn(false);
+        when(userRepository.existsByEmail("newuser@example.com")).thenReturn(false);
+        when(userRepository.existsByEmail("test@example.com")).thenReturn(true);
+
+        Exception exception = assertThrows(RuntimeException.class, () -> {
+            authService.registerUser(signupRequest);
+        });
+
+        assertEquals("Error: Username is already taken!", exception.getMessage());
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void registerUser_ConcurrentSignupHitsUniqueIndex() {
+        when(userRepository.existsByUsername(anyString())).thenReturn(false);
+        when(userRepository.existsByEmail(anyString())).thenReturn(false);
+        when(encoder.encode(anyString())).thenReturn("encodedPassword");
+        when(userRepository.save(any(User.class))).thenThrow(new DuplicateKeyException("E11000 duplicate key"));
+
+        Exception exception = assertThrows(RuntimeException.class, () -> {
+            authService.registerUser(signupRequest);
+        });
+
+        assertEquals("Error: Username or email is already in use!", exception.getMessage());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
 }
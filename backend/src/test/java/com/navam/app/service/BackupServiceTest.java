@@ -0,0 +1,148 @@
+package com.navam.app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.InsertManyOptions;
+import com.navam.app.model.ImportCheckpoint;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BackupServiceTest {
+
+    @InjectMocks
+    private BackupService backupService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private UserDirectory userDirectory;
+
+    @Mock
+    private ClientStatsService clientStatsService;
+
+    @Mock
+    private AdminStatsService adminStatsService;
+
+    @Mock
+    private AnalyticsBackfillService analyticsBackfillService;
+
+    @Mock
+    private MessageSearchIndex messageSearchIndex;
+
+    @Mock
+    private MongoCollection<Document> users;
+
+    @Mock
+    private FindIterable<Document> findIterable;
+
+    @Mock
+    private MongoCursor<Document> cursor;
+
+    private final Document user = new Document("_id", new ObjectId())
+            .append("username", "alice")
+            .append("roles", List.of("ROLE_CLIENT"))
+            .append("tokenVersion", 3L)
+            .append("createdAt", new Date(1_700_000_000_000L))
+            .append("profile", new Document("companyName", "Acme"));
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(backupService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(backupService, "batchSize", 2);
+        when(mongoTemplate.getCollection("users")).thenReturn(users);
+    }
+
+    private String exportUsers() throws Exception {
+        when(users.find()).thenReturn(findIterable);
+        when(findIterable.batchSize(anyInt())).thenReturn(findIterable);
+        when(findIterable.projection(any(Bson.class))).thenReturn(findIterable);
+        when(findIterable.iterator()).thenReturn(cursor);
+        when(cursor.hasNext()).thenReturn(true, false);
+        when(cursor.next()).thenReturn(user);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        backupService.export(out, List.of("users"), false);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void exportWritesOneExtendedJsonLinePerDocumentWithoutPasswords() throws Exception {
+        String ndjson = exportUsers();
+
+        assertTrue(ndjson.endsWith("\n"));
+        assertEquals(1, ndjson.split("\n").length);
+        Document envelope = Document.parse(ndjson.trim());
+        assertEquals("users", envelope.getString("c"));
+        assertEquals(user, envelope.get("d", Document.class));
+        verify(findIterable).projection(any(Bson.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importRestoresTypesFromGzipAndCheckpoints() throws Exception {
+        String line = exportUsers();
+        ByteArrayOutputStream gz = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(gz)) {
+            gzip.write((line + line.replace("alice", "bob")).getBytes(StandardCharsets.UTF_8));
+        }
+
+        ImportCheckpoint result = backupService.importStream(new ByteArrayInputStream(gz.toByteArray()), "job-1");
+
+        ArgumentCaptor<List<Document>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(users).insertMany(inserted.capture(), any(InsertManyOptions.class));
+        assertEquals(user, inserted.getValue().get(0));
+        assertEquals(2, result.getInserted());
+        assertEquals(2, result.getCommittedLines());
+        assertTrue(result.isCompleted());
+        verify(userDirectory).invalidate();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importResumesAfterCommittedLines() throws Exception {
+        String line = exportUsers();
+        when(mongoTemplate.findById("job-2", ImportCheckpoint.class))
+                .thenReturn(new ImportCheckpoint("job-2", 1, 1, 0, false, LocalDateTime.now()));
+
+        byte[] body = (line + line.replace("alice", "bob")).getBytes(StandardCharsets.UTF_8);
+        ImportCheckpoint result = backupService.importStream(new ByteArrayInputStream(body), "job-2");
+
+        ArgumentCaptor<List<Document>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(users).insertMany(inserted.capture(), any(InsertManyOptions.class));
+        assertEquals(Set.of("bob"), Set.of(inserted.getValue().get(0).getString("username")));
+        assertEquals(2, result.getInserted());
+    }
+
+    @Test
+    void importRejectsUnknownCollections() {
+        byte[] body = "{\"c\":\"revoked_tokens\",\"d\":{}}\n".getBytes(StandardCharsets.UTF_8);
+        assertThrows(IllegalArgumentException.class,
+                () -> backupService.importStream(new ByteArrayInputStream(body), null));
+    }
+}
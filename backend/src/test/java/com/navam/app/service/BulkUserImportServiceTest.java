@@ -0,0 +1,163 @@
+package com.navam.app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import com.navam.app.dto.BulkImportResult;
+import com.navam.app.dto.BulkImportRow;
+import com.navam.app.model.User;
+import jakarta.validation.Validation;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BulkUserImportServiceTest {
+
+    @InjectMocks
+    private BulkUserImportService service;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private UserDirectory userDirectory;
+
+    @Mock
+    private AdminStatsService adminStatsService;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(4);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(service, "validator",
+                Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(service, "chunkSize", 2);
+        ReflectionTestUtils.setField(service, "hashParallelism", 2);
+        ReflectionTestUtils.setField(service, "hashStrength", 4);
+        service.init();
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class)).thenReturn(bulkOperations);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    private BulkImportResult importCsv(String csv) throws Exception {
+        return service.importClients(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), false);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void csvRowsAreValidatedDeduplicatedHashedAndBulkInserted() throws Exception {
+        User existing = new User();
+        existing.setUsername("taken");
+        existing.setEmail("taken@example.com");
+        when(mongoTemplate.find(any(Query.class), eq(User.class))).thenReturn(List.of(existing), List.of());
+
+        BulkImportResult result = importCsv("""
+                username,email,password,fullName,companyName
+                alice,alice@example.com,secret123,Alice A,"Acme, Inc."
+                taken,new@example.com,secret123,Taken,Acme
+                bob,bob@example.com,,Bob B,Bobco
+                al,not-an-email,secret123,,Acme
+                alice2,ALICE@example.com,secret123,Alice Again,Acme
+                """);
+
+        assertEquals(5, result.getTotal());
+        assertEquals(2, result.getCreated());
+        assertEquals(2, result.getDuplicates());
+        assertEquals(1, result.getInvalid());
+
+        List<BulkImportRow> rows = result.getRows();
+        assertEquals(BulkImportRow.Status.CREATED, rows.get(0).getStatus());
+        assertNull(rows.get(0).getTemporaryPassword());
+        assertEquals(BulkImportRow.Status.DUPLICATE, rows.get(1).getStatus());
+        assertEquals(BulkImportRow.Status.CREATED, rows.get(2).getStatus());
+        assertEquals(16, rows.get(2).getTemporaryPassword().length());
+        assertEquals(BulkImportRow.Status.INVALID, rows.get(3).getStatus());
+        assertEquals(BulkImportRow.Status.DUPLICATE, rows.get(4).getStatus());
+
+        ArgumentCaptor<List<User>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(bulkOperations, times(2)).insert(inserted.capture());
+        User alice = inserted.getAllValues().get(0).get(0);
+        assertEquals("Acme, Inc.", alice.getCompanyName());
+        assertTrue(encoder.matches("secret123", alice.getPassword()));
+        // Hashed at the import cost, so the first login rehashes it at the normal one
+        assertTrue(new BCryptPasswordEncoder(10).upgradeEncoding(alice.getPassword()));
+        assertEquals(rows.get(0).getUserId(), alice.getId());
+        verify(mongoTemplate, times(2)).find(any(Query.class), eq(User.class));
+        verify(userDirectory).invalidate();
+        verify(adminStatsService).usersCreated(Set.of("ROLE_CLIENT"), 2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void emailsAreNormalizedAndIndexCollisionsReportedAsDuplicates() throws Exception {
+        when(mongoTemplate.find(any(Query.class), eq(User.class))).thenReturn(List.of());
+        BulkOperationException collision = mock(BulkOperationException.class);
+        when(collision.getErrors()).thenReturn(List.of(new BulkWriteError(11000, "dup key", new BsonDocument(), 1)));
+        when(bulkOperations.execute()).thenThrow(collision);
+
+        BulkImportResult result = importCsv("""
+                username,email,password,fullName,companyName
+                dave,Dave@Example.com,secret123,Dave,Acme
+                erin,erin@example.com,secret123,Erin,Acme
+                """);
+
+        ArgumentCaptor<Query> lookup = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(lookup.capture(), eq(User.class));
+        assertTrue(lookup.getValue().getQueryObject().toJson().contains("dave@example.com"));
+        ArgumentCaptor<List<User>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(bulkOperations).insert(inserted.capture());
+        assertEquals("dave@example.com", inserted.getValue().get(0).getEmail());
+        assertEquals(1, result.getCreated());
+        assertEquals(1, result.getDuplicates());
+        assertEquals(0, result.getFailed());
+        assertEquals(BulkImportRow.Status.DUPLICATE, result.getRows().get(1).getStatus());
+        verify(adminStatsService).usersCreated(Set.of("ROLE_CLIENT"), 1);
+    }
+
+    @Test
+    void ndjsonRowsAreAccepted() throws Exception {
+        when(mongoTemplate.find(any(Query.class), eq(User.class))).thenReturn(List.of());
+        String ndjson = "{\"username\":\"carol\",\"email\":\"carol@example.com\",\"password\":\"secret123\","
+                + "\"fullName\":\"Carol\",\"companyName\":\"C Co\"}\nnot json\n";
+
+        BulkImportResult result = service.importClients(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), true);
+
+        assertEquals(1, result.getCreated());
+        assertEquals(1, result.getInvalid());
+    }
+
+    @Test
+    void parsesQuotedCsvFields() {
+        assertEquals(List.of("a", "b, c", "say \"hi\"", ""),
+                BulkUserImportService.parseCsvLine("a,\"b, c\",\"say \"\"hi\"\"\","));
+    }
+}
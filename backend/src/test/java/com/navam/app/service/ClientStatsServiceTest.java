@@ -0,0 +1,74 @@
+package com.navam.app.service;
+
+import com.navam.app.dto.ClientStats;
+import com.navam.app.event.ProjectChangedEvent;
+import com.navam.app.event.UserChangedEvent;
+import com.navam.app.repository.ProjectRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ClientStatsServiceTest {
+
+    @InjectMocks
+    private ClientStatsService clientStatsService;
+
+    @Mock
+    private ProjectRepository projectRepository;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(clientStatsService, "cacheSize", 100);
+        ReflectionTestUtils.setField(clientStatsService, "ttlMs", 60_000L);
+        clientStatsService.init();
+        when(projectRepository.clientStats(anyString(), any(Date.class)))
+                .thenAnswer(invocation -> new ClientStats(1, 1, 0, 0, Map.of("Active", 1L), 2, 0, 0, 0));
+    }
+
+    @Test
+    void repeatedDashboardLoadsRunOneAggregation() {
+        ClientStats first = clientStatsService.getStats("client1");
+
+        assertSame(first, clientStatsService.getStats("client1"));
+        verify(projectRepository, times(1)).clientStats(eq("client1"), any(Date.class));
+    }
+
+    @Test
+    void projectWriteDropsOnlyTheOwnersSnapshot() {
+        clientStatsService.getStats("client1");
+        clientStatsService.getStats("client2");
+
+        clientStatsService.onProjectChanged(
+                new ProjectChangedEvent("p1", "client1", ProjectChangedEvent.Type.TASKS_CHANGED));
+        clientStatsService.getStats("client1");
+        clientStatsService.getStats("client2");
+
+        verify(projectRepository, times(2)).clientStats(eq("client1"), any(Date.class));
+        verify(projectRepository, times(1)).clientStats(eq("client2"), any(Date.class));
+    }
+
+    @Test
+    void unknownOwnerAndDeletedUserInvalidate() {
+        clientStatsService.getStats("client1");
+        clientStatsService.onProjectChanged(new ProjectChangedEvent(null, null, ProjectChangedEvent.Type.CREATED));
+        clientStatsService.getStats("client1");
+
+        clientStatsService.onUserChanged(new UserChangedEvent("client1", null, null, UserChangedEvent.Type.UPDATED));
+        clientStatsService.getStats("client1");
+        clientStatsService.onUserChanged(new UserChangedEvent("client1", null, null, UserChangedEvent.Type.DELETED));
+        clientStatsService.getStats("client1");
+
+        verify(projectRepository, times(3)).clientStats(eq("client1"), any(Date.class));
+    }
+}
@@ -0,0 +1,163 @@
+package com.navam.app.service;
+
+import com.navam.app.model.Message;
+import com.navam.app.realtime.MessageHub;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MessageCommitterTest {
+
+    @InjectMocks
+    private MessageCommitter committer;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private UnreadCounterService unreadCounterService;
+
+    @Mock
+    private MessageHub messageHub;
+
+    @Mock
+    private MessageSearchIndex messageSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(committer, "ack", "flush");
+        ReflectionTestUtils.setField(committer, "batchSize", 50);
+        ReflectionTestUtils.setField(committer, "flushMs", 20L);
+        ReflectionTestUtils.setField(committer, "queueCapacity", 1000);
+        ReflectionTestUtils.setField(committer, "ackTimeoutMs", 5000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        committer.shutdown();
+    }
+
+    private static Message message(int i) {
+        Message message = new Message();
+        message.setSenderId("s" + (i % 3));
+        message.setReceiverId("r" + (i % 5));
+        message.setContent("hello " + i);
+        return message;
+    }
+
+    private void enableWriteBehind(String ack) {
+        ReflectionTestUtils.setField(committer, "writeBehind", true);
+        ReflectionTestUtils.setField(committer, "ack", ack);
+        committer.start();
+    }
+
+    @Test
+    void synchronousMode_InsertsEachMessage() {
+        Message message = message(1);
+        when(mongoTemplate.insert(message)).thenReturn(message);
+
+        committer.send(message);
+
+        verify(mongoTemplate).insert(message);
+        verify(unreadCounterService).messagesSent(List.of(message));
+        verify(messageHub).publish("r1", "message", message);
+        verify(messageHub).publish("s1", "message", message);
+    }
+
+    @Test
+    void writeBehind_GroupsConcurrentSendsIntoBatches() throws Exception {
+        enableWriteBehind("flush");
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        List<Future<MessageCommitter.Sent>> results = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Message message = message(i);
+            results.add(pool.submit(() -> committer.send(message)));
+        }
+        for (Future<MessageCommitter.Sent> result : results) {
+            assertTrue(result.get().stored()); // Acknowledged only once written
+        }
+        pool.shutdown();
+
+        assertEquals(200, committer.getCommittedCount());
+        assertTrue(committer.getBatchCount() < 200, "batches: " + committer.getBatchCount());
+        verify(mongoTemplate, atLeastOnce()).insert(anyCollection(), eq(Message.class));
+        verify(mongoTemplate, never()).insert(any(Message.class));
+        verify(messageHub, times(400)).publish(anyString(), eq("message"), any());
+    }
+
+    @Test
+    void writeBehind_ShutdownDrainsQueuedMessages() {
+        enableWriteBehind("enqueue");
+        for (int i = 0; i < 120; i++) {
+            committer.send(message(i));
+        }
+
+        committer.shutdown();
+
+        assertEquals(120, committer.getCommittedCount());
+    }
+
+    @Test
+    void writeBehind_FailedBatchIsRetriedPerMessage() {
+        enableWriteBehind("flush");
+        when(mongoTemplate.insert(anyCollection(), eq(Message.class))).thenThrow(new RuntimeException("dup key"));
+        Message bad = message(1);
+        when(mongoTemplate.insert(bad)).thenThrow(new RuntimeException("dup key"));
+
+        assertThrows(IllegalStateException.class, () -> committer.send(bad));
+        committer.send(message(2));
+
+        verify(unreadCounterService, never()).messagesSent(argThat(messages -> messages.contains(bad)));
+    }
+
+    @Test
+    void writeBehind_MessagesStoredBeforeABatchFailedCountAsStored() {
+        enableWriteBehind("flush");
+        when(mongoTemplate.insert(anyCollection(), eq(Message.class))).thenThrow(new RuntimeException("socket closed"));
+        Message stored = message(1);
+        when(mongoTemplate.insert(stored)).thenThrow(new DuplicateKeyException("E11000 duplicate key"));
+
+        MessageCommitter.Sent sent = committer.send(stored);
+
+        assertSame(stored, sent.message());
+        assertTrue(sent.stored());
+
+        verify(unreadCounterService).messagesSent(argThat(messages -> messages.contains(stored)));
+        verify(messageHub).publish("r1", "message", stored);
+    }
+
+    @Test
+    void writeBehind_SlowFlushIsAcknowledgedAsQueued() {
+        ReflectionTestUtils.setField(committer, "ackTimeoutMs", 50L);
+        enableWriteBehind("flush");
+        when(mongoTemplate.insert(anyCollection(), eq(Message.class))).thenAnswer(invocation -> {
+            Thread.sleep(300);
+            return invocation.getArgument(0);
+        });
+
+        MessageCommitter.Sent queued = committer.send(message(1));
+        Message sent = queued.message();
+
+        assertFalse(queued.stored());
+        assertNotNull(sent.getId()); // The id the message is stored under once the write finishes
+        verify(mongoTemplate, timeout(5000)).insert(anyCollection(), eq(Message.class));
+        verify(unreadCounterService, timeout(5000)).messagesSent(argThat(messages -> messages.contains(sent)));
+    }
+}
@@ -0,0 +1,38 @@
+package com.navam.app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageHighlighterTest {
+
+    @Test
+    void termsSkipNegationsAndSplitPhrases() {
+        assertEquals(Set.of("invoice", "due", "date"), MessageHighlighter.terms("invoices \"due date\" -draft"));
+        assertEquals(Set.of("draft"), MessageHighlighter.excludedTerms("invoices \"due date\" -drafts"));
+    }
+
+    @Test
+    void findMatchesInflectedWords() {
+        Set<String> terms = MessageHighlighter.terms("invoice");
+        List<int[]> ranges = MessageHighlighter.find("Invoices sent; the invoice is attached.", terms);
+
+        assertEquals(2, ranges.size());
+        assertArrayEquals(new int[] { 0, 8 }, ranges.get(0));
+        assertArrayEquals(new int[] { 19, 26 }, ranges.get(1));
+    }
+
+    @Test
+    void snippetCentersOnFirstMatchAndShiftsRanges() {
+        String text = "word ".repeat(60) + "the deadline moved to Friday " + "filler ".repeat(60);
+        MessageHighlighter.Snippet snippet = MessageHighlighter.snippet(text, MessageHighlighter.terms("deadline"), 100);
+
+        assertEquals(100, snippet.text().length());
+        assertEquals(1, snippet.highlights().size());
+        int[] range = snippet.highlights().get(0);
+        assertEquals("deadline", snippet.text().substring(range[0], range[1]));
+    }
+}
@@ -0,0 +1,124 @@
+package com.navam.app.service;
+
+import com.navam.app.exception.ServiceBusyException;
+import com.navam.app.model.Message;
+import com.navam.app.repository.MessageCursor;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageSearchIndexTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private MessageSearchIndex index;
+    private final List<Message> stored = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        index = new MessageSearchIndex();
+        ReflectionTestUtils.setField(index, "ready", true);
+    }
+
+    // Message i is sent i minutes after START, so a higher i is newer
+    private Message message(int i, String senderId, String receiverId, String content) {
+        Message message = new Message();
+        message.setId(new ObjectId(new Date(1_700_000_000_000L + i * 1000L)).toHexString());
+        message.setSenderId(senderId);
+        message.setReceiverId(receiverId);
+        message.setSubject("Note");
+        message.setContent(content);
+        message.setCreatedAt(START.plusMinutes(i));
+        stored.add(message);
+        return message;
+    }
+
+    private List<String> ids(List<MessageCursor> found) {
+        return found.stream().map(MessageCursor::getId).collect(Collectors.toList());
+    }
+
+    private String id(int i) {
+        return stored.get(i).getId();
+    }
+
+    @Test
+    void searchReturnsTheUsersMatchesNewestFirst() {
+        index.add(List.of(
+                message(0, "me", "other", "the invoice is attached"),
+                message(1, "other", "me", "invoices are overdue"),
+                message(2, "other", "someone", "another invoice"),
+                message(3, "me", "other", "lunch tomorrow?")));
+
+        List<MessageCursor> found = index.search("me", MessageHighlighter.terms("invoice"), Set.of(), null, 10);
+
+        assertEquals(List.of(id(1), id(0)), ids(found));
+        assertEquals(START.plusMinutes(1), found.get(0).getCreatedAt());
+    }
+
+    @Test
+    void searchPagesOnFromTheCursor() {
+        List<Message> messages = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            messages.add(message(i, "me", "other", "report " + i));
+        }
+        index.add(messages);
+
+        List<MessageCursor> first = index.search("me", Set.of("report"), Set.of(), null, 2);
+        List<MessageCursor> second = index.search("me", Set.of("report"), Set.of(), first.get(1), 2);
+
+        assertEquals(List.of(id(4), id(3)), ids(first));
+        assertEquals(List.of(id(2), id(1)), ids(second));
+    }
+
+    @Test
+    void searchMatchesAnyTermAndLeavesOutExcludedOnes() {
+        index.add(List.of(
+                message(0, "me", "other", "budget draft"),
+                message(1, "me", "other", "final budget"),
+                message(2, "me", "other", "schedule")));
+
+        assertEquals(List.of(id(2), id(1), id(0)),
+                ids(index.search("me", MessageHighlighter.terms("budget schedule"), Set.of(), null, 10)));
+        assertEquals(List.of(id(1)), ids(index.search("me", Set.of("budget"), Set.of("draft"), null, 10)));
+    }
+
+    @Test
+    void messagesAddedOutOfOrderOrTwiceAreIndexedOnceInOrder() {
+        Message older = message(0, "me", "other", "contract");
+        Message newer = message(1, "me", "other", "contract");
+        index.add(List.of(newer));
+        index.add(List.of(older, newer));
+
+        assertEquals(2, index.size());
+        assertEquals(List.of(id(1), id(0)), ids(index.search("me", Set.of("contract"), Set.of(), null, 10)));
+    }
+
+    @Test
+    void deletedUsersMessagesAreNoLongerFound() {
+        index.add(List.of(
+                message(0, "me", "gone", "contract"),
+                message(1, "me", "other", "contract")));
+
+        index.userDeleted("gone");
+
+        assertEquals(List.of(id(1)), ids(index.search("me", Set.of("contract"), Set.of(), null, 10)));
+        assertTrue(index.search("gone", Set.of("contract"), Set.of(), null, 10).isEmpty());
+    }
+
+    @Test
+    void searchIsRefusedUntilTheIndexIsLoaded() {
+        ReflectionTestUtils.setField(index, "ready", false);
+
+        assertThrows(ServiceBusyException.class, () -> index.search("me", Set.of("contract"), Set.of(), null, 10));
+    }
+}
@@ -0,0 +1,96 @@
+package com.navam.app.service;
+
+import com.mongodb.client.result.UpdateResult;
+import com.navam.app.model.Message;
+import com.navam.app.model.UnreadCounter;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UnreadCounterServiceTest {
+
+    @InjectMocks
+    private UnreadCounterService unreadCounterService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    // The receiver's counter document, updated the way Mongo applies $inc and $unset
+    private final Map<String, Long> counts = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mongoTemplate.upsert(any(Query.class), any(UpdateDefinition.class), eq(UnreadCounter.class)))
+                .thenAnswer(invocation -> apply(invocation.getArgument(1)));
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(UnreadCounter.class)))
+                .thenAnswer(invocation -> apply(invocation.getArgument(1)));
+        when(mongoTemplate.findById("me", UnreadCounter.class))
+                .thenAnswer(invocation -> new UnreadCounter("me", new HashMap<>(counts)));
+    }
+
+    private UpdateResult apply(UpdateDefinition update) {
+        Document changes = update.getUpdateObject();
+        Document inc = changes.get("$inc", Document.class);
+        if (inc != null) {
+            inc.forEach((field, amount) -> counts.merge(counterpart(field), ((Number) amount).longValue(), Long::sum));
+        }
+        Document unset = changes.get("$unset", Document.class);
+        if (unset != null) {
+            unset.keySet().forEach(field -> counts.remove(counterpart(field)));
+        }
+        return UpdateResult.acknowledged(1, 1L, null);
+    }
+
+    private static String counterpart(String field) {
+        return field.substring("counts.".length());
+    }
+
+    private static Message message(String senderId, String receiverId) {
+        Message message = new Message();
+        message.setSenderId(senderId);
+        message.setReceiverId(receiverId);
+        return message;
+    }
+
+    @Test
+    void messageReadBeforeItsIncrementLandsLeavesNothingUnread() {
+        // The message is stored, and read, before the committer gets to count it
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Message.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        assertEquals(1, unreadCounterService.markRead("me", "other", null));
+        assertTrue(unreadCounterService.getCounts("me").isEmpty());
+
+        unreadCounterService.messageSent(message("other", "me"));
+
+        assertEquals(0L, counts.get("other"));
+        assertTrue(unreadCounterService.getCounts("me").isEmpty());
+    }
+
+    @Test
+    void sentMessagesAreCountedPerSenderAndReadOnesTakenOff() {
+        unreadCounterService.messageSent(message("other", "me"));
+        unreadCounterService.messageSent(message("other", "me"));
+        unreadCounterService.messageSent(message("third", "me"));
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Message.class)))
+                .thenReturn(UpdateResult.acknowledged(2, 2L, null));
+
+        unreadCounterService.markRead("me", "other", null);
+
+        assertEquals(Map.of("third", 1L), unreadCounterService.getCounts("me"));
+    }
+}
@@ -0,0 +1,161 @@
+package com.navam.app.service;
+
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import com.navam.app.event.ProjectChangedEvent;
+import com.navam.app.model.User;
+import com.navam.app.model.UserDeletionJob;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UserDeletionServiceTest {
+
+    @InjectMocks
+    private UserDeletionService service;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private UnreadCounterService unreadCounterService;
+
+    @Mock
+    private MessageSearchIndex messageSearchIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    // Stands in for the user_deletion_jobs collection
+    private final AtomicReference<UserDeletionJob> stored = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+        ReflectionTestUtils.setField(service, "throttleMs", 0L);
+        service.init();
+
+        when(mongoTemplate.save(any(UserDeletionJob.class))).thenAnswer(invocation -> {
+            stored.set(copy(invocation.getArgument(0)));
+            return invocation.getArgument(0);
+        });
+        when(mongoTemplate.findById(eq("u1"), eq(UserDeletionJob.class)))
+                .thenAnswer(invocation -> stored.get() == null ? null : copy(stored.get()));
+        when(mongoTemplate.remove(any(Query.class), anyString()))
+                .thenAnswer(invocation -> DeleteResult.acknowledged(idsIn(invocation.getArgument(0))));
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), anyString()))
+                .thenAnswer(invocation -> {
+                    long ids = idsIn(invocation.getArgument(0));
+                    return UpdateResult.acknowledged(ids, ids, null);
+                });
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void removesProjectsAndMessagesAndAnonymizesRequestsInBatches() {
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("projects")))
+                .thenReturn(ids(2), ids(1));
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("service_requests")))
+                .thenReturn(ids(1));
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("messages")))
+                .thenReturn(ids(2), ids(2), List.of());
+        stored.set(queuedJob(UserDeletionJob.Phase.PROJECTS));
+
+        service.run("u1");
+
+        UserDeletionJob job = stored.get();
+        assertEquals(UserDeletionJob.Status.COMPLETED, job.getStatus());
+        assertEquals(UserDeletionJob.Phase.DONE, job.getPhase());
+        assertEquals(3, job.getProjectsDeleted());
+        assertEquals(1, job.getRequestsAnonymized());
+        assertEquals(4, job.getMessagesDeleted());
+        assertEquals(1, job.getAttempts());
+        verify(mongoTemplate, times(3)).find(any(Query.class), eq(Document.class), eq("messages"));
+        verify(mongoTemplate).updateMulti(any(Query.class), any(Update.class), eq("service_requests"));
+        verify(unreadCounterService).userDeleted("u1");
+        verify(messageSearchIndex).userDeleted("u1");
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof ProjectChangedEvent changed
+                && changed.getType() == ProjectChangedEvent.Type.DELETED && "u1".equals(changed.getClientId())));
+    }
+
+    @Test
+    void failedJobKeepsItsPhaseAndResumesFromIt() {
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("messages")))
+                .thenThrow(new IllegalStateException("connection reset"))
+                .thenReturn(ids(1));
+        stored.set(queuedJob(UserDeletionJob.Phase.MESSAGES));
+
+        service.run("u1");
+        assertEquals(UserDeletionJob.Status.FAILED, stored.get().getStatus());
+        assertEquals(UserDeletionJob.Phase.MESSAGES, stored.get().getPhase());
+        assertEquals("connection reset", stored.get().getError());
+
+        stored.get().setStatus(UserDeletionJob.Status.QUEUED);
+        service.run("u1");
+        assertEquals(UserDeletionJob.Status.COMPLETED, stored.get().getStatus());
+        assertEquals(1, stored.get().getMessagesDeleted());
+        assertEquals(2, stored.get().getAttempts());
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Document.class), eq("projects"));
+    }
+
+    @Test
+    void startSavesQueuedJobForTheUser() {
+        User user = new User("jane", "jane@example.com", "hash", "Jane", "Acme");
+        user.setId("u1");
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), anyString())).thenReturn(List.of());
+
+        UserDeletionJob job = service.start(user);
+
+        assertEquals("u1", job.getId());
+        assertEquals("jane@example.com", job.getEmail());
+        assertEquals(UserDeletionJob.Phase.PROJECTS, job.getPhase());
+        verify(unreadCounterService, timeout(2000)).userDeleted("u1");
+        verify(mongoTemplate, timeout(2000).atLeast(4)).save(any(UserDeletionJob.class));
+    }
+
+    private static UserDeletionJob queuedJob(UserDeletionJob.Phase phase) {
+        UserDeletionJob job = new UserDeletionJob();
+        job.setId("u1");
+        job.setEmail("jane@example.com");
+        job.setStatus(UserDeletionJob.Status.QUEUED);
+        job.setPhase(phase);
+        return job;
+    }
+
+    private static UserDeletionJob copy(UserDeletionJob job) {
+        return new UserDeletionJob(job.getId(), job.getUsername(), job.getEmail(), job.getStatus(), job.getPhase(),
+                job.getProjectsDeleted(), job.getRequestsAnonymized(), job.getMessagesDeleted(), job.getAttempts(),
+                job.getError(), job.getCreatedAt(), job.getUpdatedAt());
+    }
+
+    private static List<Document> ids(int count) {
+        return java.util.stream.Stream.generate(() -> new Document("_id", new ObjectId()))
+                .limit(count).toList();
+    }
+
+    private static long idsIn(Query query) {
+        return ((Document) query.getQueryObject().get("_id")).getList("$in", Object.class).size();
+    }
+}
@@ -0,0 +1,71 @@
+package com.navam.app.service;
+
+import com.navam.app.event.UserChangedEvent;
+import com.navam.app.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UserDirectoryTest {
+
+    @InjectMocks
+    private UserDirectory userDirectory;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(userDirectory, "ttlMs", 60_000L);
+    }
+
+    private static User user(String id, String... roles) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(id);
+        user.setRoles(Set.of(roles));
+        return user;
+    }
+
+    @Test
+    void splitsClientsAndAdminsFromOneProjectedQuery() {
+        when(mongoTemplate.find(any(Query.class), eq(User.class))).thenReturn(List.of(
+                user("alice", "ROLE_CLIENT"), user("legacy", "client"), user("root", "ROLE_ADMIN", "ROLE_USER")));
+
+        assertEquals(List.of("alice", "legacy"), userDirectory.getClients().stream().map(User::getId).toList());
+        assertEquals(List.of("root"), userDirectory.getAdmins().stream().map(User::getId).toList());
+
+        verify(mongoTemplate, times(1)).find(argThat(query -> {
+            assertFalse(query.getFieldsObject().containsKey("password"));
+            return query.getQueryObject().containsKey("roles");
+        }), eq(User.class));
+    }
+
+    @Test
+    void userChangeReloadsSnapshot() {
+        when(mongoTemplate.find(any(Query.class), eq(User.class)))
+                .thenReturn(List.of(user("alice", "ROLE_CLIENT")))
+                .thenReturn(List.of(user("alice", "ROLE_CLIENT"), user("bob", "ROLE_CLIENT")));
+
+        assertEquals(1, userDirectory.getClients().size());
+        assertEquals(1, userDirectory.getClients().size());
+
+        userDirectory.onUserChanged(new UserChangedEvent("bob", "bob", "bob@example.com", UserChangedEvent.Type.CREATED));
+
+        assertEquals(2, userDirectory.getClients().size());
+        verify(mongoTemplate, times(2)).find(any(Query.class), eq(User.class));
+    }
+}
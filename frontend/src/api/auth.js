@@ -14,7 +14,13 @@ export const register = async (userData) => {
     return response.data;
 };
 
-export const logout = () => {
+export const logout = async () => {
+    // Revoke the token server-side; sign out locally even if that fails
+    try {
+        await api.post('/auth/logout');
+    } catch (error) {
+        console.error("Error revoking session", error);
+    }
     localStorage.removeItem('token');
     localStorage.removeItem('user');
     window.location.href = '/login';
@@ -37,5 +43,9 @@ export const updateProfile = async (userData) => {
 
 export const changePassword = async (passwordData) => {
     const response = await api.put('/users/password', passwordData);
+    // Changing the password revokes older tokens, so keep the fresh one
+    if (response.data.token) {
+        localStorage.setItem('token', response.data.token);
+    }
     return response.data;
 };
@@ -52,9 +52,23 @@ export const getAdminStats = async () => {
     }
 };
 
-export const getAllClients = async () => {
+// Time-bucketed analytics: { periods: [{ start, requests: { serviceType: { status: count } },
+// projectsStarted, projectsCompleted, tasksCompleted }] }. granularity is day, week or month.
+export const getAnalyticsRollups = async ({ from, to, granularity = 'week' } = {}) => {
     try {
-        const response = await api.get('/users/clients');
+        const response = await api.get('/analytics/rollups', { params: { from, to, granularity } });
+        return response.data;
+    } catch (error) {
+        console.error("Error fetching analytics rollups", error);
+        throw error;
+    }
+};
+
+// Admin lists are keyset-paged: each call returns { items, nextCursor, hasMore };
+// pass nextCursor back as "cursor" for the next page
+export const getAllClients = async (params = {}) => {
+    try {
+        const response = await api.get('/users/clients', { params });
         return response.data;
     } catch (error) {
         console.error("Error fetching all clients", error);
@@ -72,9 +86,9 @@ export const getProjects = async () => {
     }
 };
 
-export const getAllProjects = async () => {
+export const getAllProjects = async (params = {}) => {
     try {
-        const response = await api.get('/projects/all');
+        const response = await api.get('/projects/all', { params });
         return response.data;
     } catch (error) {
         console.error("Error fetching all projects", error);
@@ -82,9 +96,9 @@ export const getAllProjects = async () => {
     }
 };
 
-export const getServiceRequests = async () => {
+export const getServiceRequests = async (params = {}) => {
     try {
-        const response = await api.get('/requests/all');
+        const response = await api.get('/requests/all', { params });
         return response.data;
     } catch (error) {
         console.error("Error fetching service requests", error);
@@ -112,6 +126,18 @@ export const getProjectById = async (id) => {
     }
 };
 
+export const getProjectTasks = async (projectId, { status, assignee, offset = 0, limit = 50 } = {}) => {
+    try {
+        const response = await api.get(`/projects/${projectId}/tasks`, {
+            params: { status, assignee, offset, limit }
+        });
+        return response.data;
+    } catch (error) {
+        console.error("Error fetching project tasks", error);
+        throw error;
+    }
+};
+
 export const addTask = async (projectId, task) => {
     try {
         const response = await api.post(`/projects/${projectId}/tasks`, task);
@@ -132,6 +158,18 @@ export const updateTask = async (projectId, taskId, taskUpdate) => {
     }
 };
 
+// body: { version?, operations: [{ op: 'create'|'update'|'delete', taskId?, title?, status?, assignee?,
+// dueDate?, completed? }] }. Applied atomically; a stale version fails with 409 and nothing written.
+export const batchTasks = async (projectId, body) => {
+    try {
+        const response = await api.post(`/projects/${projectId}/tasks/batch`, body);
+        return response.data;
+    } catch (error) {
+        console.error("Error applying task batch", error);
+        throw error;
+    }
+};
+
 export const updateRequestStatus = async (id, status) => {
     try {
         const response = await api.put(`/requests/${id}/status`, { status });
@@ -162,6 +200,56 @@ export const getMessages = async (userId) => {
     }
 };
 
+export const getMessagePage = async (userId, before, limit = 50) => {
+    try {
+        const response = await api.get(`/messages/conversation/${userId}/page`, { params: { before, limit } });
+        return response.data;
+    } catch (error) {
+        console.error("Error fetching message page", error);
+        throw error;
+    }
+};
+
+export const getInbox = async (limit = 100) => {
+    try {
+        const response = await api.get('/messages/inbox', { params: { limit } });
+        return response.data;
+    } catch (error) {
+        console.error("Error fetching inbox", error);
+        throw error;
+    }
+};
+
+export const searchMessages = async (q, before, limit = 20) => {
+    try {
+        const response = await api.get('/messages/search', { params: { q, before, limit } });
+        return response.data;
+    } catch (error) {
+        console.error("Error searching messages", error);
+        throw error;
+    }
+};
+
+export const getUnreadCounts = async () => {
+    try {
+        const response = await api.get('/messages/unread');
+        return response.data;
+    } catch (error) {
+        console.error("Error fetching unread counts", error);
+        throw error;
+    }
+};
+
+export const markConversationRead = async (userId, upTo) => {
+    try {
+        const response = await api.post(`/messages/conversation/${userId}/read`, null, { params: { upTo } });
+        return response.data;
+    } catch (error) {
+        console.error("Error marking conversation read", error);
+        throw error;
+    }
+};
+
 export const sendMessage = async (receiverId, content, subject, priority) => {
     try {
         const response = await api.post('/messages/send', { receiverId, content, subject, priority });
@@ -0,0 +1,119 @@
+// WebSocket push channel for real-time events (new messages).
+// The token goes in the query string because browsers cannot set headers on a WebSocket.
+const socketUrl = () => {
+    const base = new URL(import.meta.env.VITE_API_URL, window.location.origin);
+    const protocol = base.protocol === 'https:' ? 'wss:' : 'ws:';
+    const token = localStorage.getItem('token');
+    return `${protocol}//${base.host}/ws/messages?token=${encodeURIComponent(token)}`;
+};
+
+// Calls onEvent(type, data) for every pushed event and reconnects with backoff.
+// Returns a function that closes the connection for good.
+export const subscribeToEvents = (onEvent) => {
+    let socket = null;
+    let retryDelay = 1000;
+    let retryTimer = null;
+    let stopped = false;
+
+    const connect = () => {
+        if (stopped || !localStorage.getItem('token')) return;
+        socket = new WebSocket(socketUrl());
+        socket.onopen = () => {
+            retryDelay = 1000;
+        };
+        socket.onmessage = (event) => {
+            try {
+                const { type, data } = JSON.parse(event.data);
+                onEvent(type, data);
+            } catch (error) {
+                console.error("Error handling realtime event", error);
+            }
+        };
+        socket.onclose = () => {
+            if (stopped) return;
+            retryTimer = setTimeout(connect, retryDelay);
+            retryDelay = Math.min(retryDelay * 2, 30000);
+        };
+    };
+
+    connect();
+    return () => {
+        stopped = true;
+        clearTimeout(retryTimer);
+        if (socket) socket.close();
+    };
+};
+
+// Server-sent events of one project: 'task' with the added or updated task, 'status' with the
+// new project status, and 'reset' when the missed events are gone and the project must be reloaded.
+// Read with fetch because EventSource cannot send the Authorization header; a reconnect sends
+// Last-Event-ID so the server replays what was missed. Returns a function that stops the stream.
+export const subscribeToProject = (projectId, onEvent) => {
+    let lastEventId = null;
+    let controller = null;
+    let retryDelay = 1000;
+    let retryTimer = null;
+    let stopped = false;
+
+    const dispatch = (frame) => {
+        let type = 'message';
+        const data = [];
+        for (const line of frame.split('\n')) {
+            if (!line || line.startsWith(':')) continue; // Keepalive comments
+            const colon = line.indexOf(':');
+            const field = colon < 0 ? line : line.slice(0, colon);
+            const value = colon < 0 ? '' : line.slice(colon + 1).replace(/^ /, '');
+            if (field === 'id') lastEventId = value;
+            else if (field === 'event') type = value;
+            else if (field === 'data') data.push(value);
+        }
+        if (data.length === 0) return;
+        try {
+            onEvent(type, JSON.parse(data.join('\n')));
+        } catch (error) {
+            console.error("Error handling project event", error);
+        }
+    };
+
+    const connect = async () => {
+        const token = localStorage.getItem('token');
+        if (stopped || !token) return;
+        controller = new AbortController();
+        const headers = { Authorization: `Bearer ${token}`, Accept: 'text/event-stream' };
+        if (lastEventId) headers['Last-Event-ID'] = lastEventId;
+        try {
+            const response = await fetch(`${import.meta.env.VITE_API_URL}/projects/${projectId}/events`,
+                { headers, signal: controller.signal });
+            // Not signed in, not allowed or no such project: retrying will not help
+            if ([401, 403, 404].includes(response.status)) return;
+            if (!response.ok) throw new Error(`Event stream failed with ${response.status}`);
+            retryDelay = 1000;
+            const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+            let buffer = '';
+            for (;;) {
+                const { value, done } = await reader.read();
+                if (done) break;
+                buffer += value;
+                let end;
+                while ((end = buffer.indexOf('\n\n')) >= 0) {
+                    dispatch(buffer.slice(0, end));
+                    buffer = buffer.slice(end + 2);
+                }
+            }
+        } catch (error) {
+            if (stopped) return;
+            console.error("Project event stream interrupted", error);
+        }
+        if (stopped) return;
+        // The server ends streams after a while; reconnect and resume
+        retryTimer = setTimeout(connect, retryDelay);
+        retryDelay = Math.min(retryDelay * 2, 30000);
+    };
+
+    connect();
+    return () => {
+        stopped = true;
+        clearTimeout(retryTimer);
+        if (controller) controller.abort();
+    };
+};
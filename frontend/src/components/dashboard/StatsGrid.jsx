@@ -1,5 +1,5 @@
 import React from 'react';
-import { Users, DollarSign, Activity, Briefcase } from 'lucide-react';
+import { Users, Inbox, AlertCircle, Briefcase } from 'lucide-react';
 
 const StatCard = ({ title, value, icon: Icon, trend, color }) => (
     <div className="glass-card p-6 relative overflow-hidden group">
@@ -26,10 +26,10 @@ const StatCard = ({ title, value, icon: Icon, trend, color }) => (
 const StatsGrid = ({ stats }) => {
     return (
         <div className="grid grid-cols-1 md:grid-cols-2 lg:grid-cols-4 gap-6 mb-8">
-            <StatCard title="Total Clients" value={stats.totalClients} icon={Users} color="bg-secondary" trend="+12%" />
-            <StatCard title="Active Projects" value={stats.activeProjects} icon={Briefcase} color="bg-primary" trend="+5 new" />
-            <StatCard title="Revenue (MoM)" value={stats.revenue} icon={DollarSign} color="bg-green-400" trend="+8.2%" />
-            <StatCard title="System Health" value={stats.systemHealth} icon={Activity} color="bg-accent" />
+            <StatCard title="Total Clients" value={stats.totalClients ?? 0} icon={Users} color="bg-secondary" />
+            <StatCard title="Active Projects" value={stats.projectsByStatus?.Active ?? 0} icon={Briefcase} color="bg-primary" />
+            <StatCard title="Pending Requests" value={stats.requestsByStatus?.PENDING ?? 0} icon={Inbox} color="bg-green-400" />
+            <StatCard title="Overdue Tasks" value={stats.overdueTasks ?? 0} icon={AlertCircle} color="bg-accent" />
         </div>
     );
 };
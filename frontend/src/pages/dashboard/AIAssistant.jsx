@@ -17,7 +17,7 @@ const AIAssistant = ({ role }) => {
             try {
                 const data = role === 'client'
                     ? await getClientProjects()
-                    : await getAllProjects();
+                    : (await getAllProjects({ fields: 'name', limit: 200 })).items;
                 setProjects(data);
                 if (data.length > 0) setSelectedProject(data[0].id);
             } catch (error) {
@@ -18,11 +18,12 @@ const AdminDashboard = () => {
     const navigate = useNavigate();
     const [stats, setStats] = useState({
         totalClients: 0,
-        activeProjects: 0,
-        revenue: '$0',
-        systemHealth: '0%'
+        projectsByStatus: {},
+        requestsByStatus: {},
+        overdueTasks: 0
     });
     const [requests, setRequests] = useState([]);
+    const [requestsCursor, setRequestsCursor] = useState(null);
     const [projects, setProjects] = useState([]);
     const [loading, setLoading] = useState(true);
     const [showCreateModal, setShowCreateModal] = useState(false);
@@ -65,23 +66,14 @@ const AdminDashboard = () => {
     useEffect(() => {
         const fetchData = async () => {
             try {
-                // Fetch real requests
-                const requestsData = await getServiceRequests();
-                setRequests(requestsData);
-
-                // Fetch all projects
+                // Fetch the newest projects
                 const projectsData = await getAllProjects();
-                console.log("Projects fetched:", projectsData);
-                setProjects(projectsData);
+                setProjects(projectsData.items);
 
                 // Fetch real stats
                 const statsData = await getAdminStats();
                 setStats(statsData);
 
-                // Fetch clients for duplicate check
-                const clientsData = await getAllClients();
-                setClients(clientsData);
-
                 setError(null);
                 setLoading(false);
             } catch (error) {
@@ -94,6 +86,36 @@ const AdminDashboard = () => {
         fetchData();
     }, []);
 
+    // Status, service and sort are applied by the server; search only narrows the loaded page
+    const requestParams = () => ({
+        status: statusFilter !== 'All' ? statusFilter : undefined,
+        serviceType: serviceFilter !== 'All' ? serviceFilter : undefined,
+        sort: sortOrder === 'Newest' ? '-createdAt' : 'createdAt'
+    });
+
+    const loadRequests = async () => {
+        const page = await getServiceRequests(requestParams());
+        setRequests(page.items);
+        setRequestsCursor(page.nextCursor);
+    };
+
+    const loadMoreRequests = async () => {
+        try {
+            const page = await getServiceRequests({ ...requestParams(), cursor: requestsCursor });
+            setRequests(prev => [...prev, ...page.items]);
+            setRequestsCursor(page.nextCursor);
+        } catch (error) {
+            console.error('Error loading more requests:', error);
+        }
+    };
+
+    useEffect(() => {
+        loadRequests().catch(error => {
+            console.error('Error fetching requests:', error);
+            setError("Failed to load data. Please try refreshing.");
+        });
+    }, [statusFilter, serviceFilter, sortOrder]);
+
     const handleViewDetails = (request) => {
         setSelectedRequest(request);
         setShowDetailsModal(true);
@@ -121,8 +143,7 @@ const AdminDashboard = () => {
                 try {
                     await updateRequestStatus(request.id, 'APPROVED');
                     // Refresh requests
-                    const requestsData = await getServiceRequests();
-                    setRequests(requestsData);
+                    await loadRequests();
                     alert("Request approved successfully.");
                 } catch (err) {
                     console.error("Error approving request", err);
@@ -134,7 +155,10 @@ const AdminDashboard = () => {
 
         // Handle New Client / New Project Requests
         // Check if client already exists
-        const existingClient = clients.find(c => c.email === request.email);
+        const matchingClients = request.email
+            ? (await getAllClients({ email: request.email, limit: 1 })).items
+            : [];
+        const existingClient = matchingClients[0];
         if (existingClient) {
             // Client exists, open Create Project modal instead
             setProjectForm({
@@ -207,18 +231,13 @@ const AdminDashboard = () => {
 
                 await updateRequestStatus(selectedRequest.id, 'APPROVED');
                 // Refresh requests
-                const requestsData = await getServiceRequests();
-                setRequests(requestsData);
+                await loadRequests();
 
                 // Refresh projects
                 const projectsData = await getAllProjects();
-                setProjects(projectsData);
+                setProjects(projectsData.items);
             }
 
-            // Refresh clients list to ensure duplicate check works for next time
-            const clientsData = await getAllClients();
-            setClients(clientsData);
-
             setShowCreateModal(false);
             alert("Client account created successfully!");
         } catch (err) {
@@ -231,9 +250,8 @@ const AdminDashboard = () => {
     const handleCreateProject = async () => {
         try {
             console.log("Fetching clients for project creation...");
-            const clientsData = await getAllClients();
-            console.log("Clients fetched:", clientsData);
-            setClients(clientsData);
+            const clientsData = await getAllClients({ fields: 'username,email', limit: 200 });
+            setClients(clientsData.items);
             setShowProjectModal(true);
         } catch (error) {
             console.error("Error fetching clients", error);
@@ -256,14 +274,13 @@ const AdminDashboard = () => {
             const statsData = await getAdminStats();
             setStats(statsData);
             const projectsData = await getAllProjects();
-            setProjects(projectsData);
+            setProjects(projectsData.items);
 
             // If this was from a service request, update its status
             if (selectedRequest) {
                 await updateRequestStatus(selectedRequest.id, 'APPROVED');
                 // Refresh requests
-                const requestsData = await getServiceRequests();
-                setRequests(requestsData);
+                await loadRequests();
                 setSelectedRequest(null); // Clear selected request
             }
         } catch (error) {
@@ -274,22 +291,12 @@ const AdminDashboard = () => {
 
     // Optimized filtering and sorting using useMemo
     const filteredRequests = useMemo(() => {
-        return requests
-            .filter(req => {
-                const matchesStatus = statusFilter === 'All' || req.status === statusFilter;
-                const matchesService = serviceFilter === 'All' || req.serviceType === serviceFilter;
-                const matchesSearch =
-                    (req.fullName && req.fullName.toLowerCase().includes(searchTerm.toLowerCase())) ||
-                    (req.companyName && req.companyName.toLowerCase().includes(searchTerm.toLowerCase())) ||
-                    (req.email && req.email.toLowerCase().includes(searchTerm.toLowerCase()));
-                return matchesStatus && matchesService && matchesSearch;
-            })
-            .sort((a, b) => {
-                const dateA = new Date(a.createdAt || 0);
-                const dateB = new Date(b.createdAt || 0);
-                return sortOrder === 'Newest' ? dateB - dateA : dateA - dateB;
-            });
-    }, [requests, statusFilter, serviceFilter, searchTerm, sortOrder]);
+        const term = searchTerm.toLowerCase();
+        return requests.filter(req =>
+            (req.fullName && req.fullName.toLowerCase().includes(term)) ||
+            (req.companyName && req.companyName.toLowerCase().includes(term)) ||
+            (req.email && req.email.toLowerCase().includes(term)));
+    }, [requests, searchTerm]);
 
     if (loading) {
         return (
@@ -344,6 +351,11 @@ const AdminDashboard = () => {
                 onViewDetails={handleViewDetails}
                 onApprove={handleApproveRequest}
             />
+            {requestsCursor && (
+                <div className="mt-4 flex justify-center">
+                    <Button variant="ghost" onClick={loadMoreRequests}>Load more requests</Button>
+                </div>
+            )}
 
             {/* View Details Modal - Kept inline for simplicity as it's small, or could be extracted too */}
             {showDetailsModal && selectedRequest && (
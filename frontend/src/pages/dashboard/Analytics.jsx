@@ -1,23 +1,67 @@
 import React, { useState, useEffect } from 'react';
-import { TrendingUp, Users, Briefcase, DollarSign, Activity } from 'lucide-react';
+import { TrendingUp, Users, Briefcase, Inbox, AlertCircle, CheckCircle } from 'lucide-react';
 import DashboardLayout from '../../components/layout/DashboardLayout';
 import StatCard from '../../components/dashboard/StatCard';
-import { getAdminStats } from '../../api/dashboard';
+import { getAdminStats, getAnalyticsRollups } from '../../api/dashboard';
+
+const MONTHS = ['Jan', 'Feb', 'Mar', 'Apr', 'May', 'Jun', 'Jul', 'Aug', 'Sep', 'Oct', 'Nov', 'Dec'];
+
+const requestTotal = (period) => Object.values(period.requests || {})
+    .reduce((sum, byStatus) => sum + Object.values(byStatus).reduce((a, b) => a + b, 0), 0);
+
+const requestBreakdown = (period) => Object.entries(period.requests || {})
+    .map(([type, byStatus]) => `${type}: ${Object.entries(byStatus).map(([s, n]) => `${n} ${s}`).join(', ')}`)
+    .join('\n');
+
+// Bars scaled to the largest value; labels are the period starts
+const BarChart = ({ periods, value, color, label, title }) => {
+    const max = Math.max(1, ...periods.map(value));
+    return (
+        <>
+            <div className="h-64 flex items-end justify-between gap-1">
+                {periods.map((period) => (
+                    <div key={period.start} className="w-full h-full bg-white/5 rounded-t-lg relative group" title={title?.(period)}>
+                        <div
+                            className={`absolute bottom-0 left-0 right-0 ${color} rounded-t-lg transition-all duration-500`}
+                            style={{ height: `${(value(period) / max) * 100}%` }}
+                        ></div>
+                        <div className="absolute -top-8 left-1/2 -translate-x-1/2 bg-black/80 text-white text-xs px-2 py-1 rounded opacity-0 group-hover:opacity-100 transition-opacity">
+                            {value(period)}
+                        </div>
+                    </div>
+                ))}
+            </div>
+            <div className="flex justify-between mt-4 text-xs text-text-muted">
+                {periods.filter((_, index) => index % Math.ceil(periods.length / 12) === 0).map((period) => (
+                    <span key={period.start}>{label(period)}</span>
+                ))}
+            </div>
+        </>
+    );
+};
 
 const Analytics = () => {
     const [stats, setStats] = useState({
         totalClients: 0,
-        activeProjects: 0,
-        revenue: '$0',
-        systemHealth: '0%'
+        projectsByStatus: {},
+        requestsByStatus: {},
+        overdueTasks: 0
     });
+    const [weekly, setWeekly] = useState([]);
+    const [monthly, setMonthly] = useState([]);
     const [loading, setLoading] = useState(true);
 
     useEffect(() => {
         const fetchStats = async () => {
             try {
-                const data = await getAdminStats();
+                const [data, weeks, months] = await Promise.all([
+                    getAdminStats(),
+                    getAnalyticsRollups({ granularity: 'week' }),
+                    getAnalyticsRollups({ granularity: 'month' })
+                ]);
                 setStats(data);
+                setWeekly(weeks.periods);
+                setMonthly(months.periods);
                 setLoading(false);
             } catch (error) {
                 console.error("Error fetching analytics:", error);
@@ -37,9 +81,8 @@ const Analytics = () => {
         );
     }
 
-    // Mock data for charts since we don't have a charting library
-    const revenueData = [40, 60, 45, 70, 65, 85, 80, 95, 85, 100, 90, 105];
-    const userGrowthData = [20, 30, 35, 40, 45, 50, 55, 60, 65, 70, 75, 80];
+    const weekLabel = (period) => period.start.slice(5);
+    const monthLabel = (period) => MONTHS[Number(period.start.slice(5, 7)) - 1];
 
     return (
         <DashboardLayout role="admin">
@@ -51,96 +94,66 @@ const Analytics = () => {
             {/* Key Metrics */}
             <div className="grid grid-cols-1 md:grid-cols-2 lg:grid-cols-4 gap-6 mb-8">
                 <StatCard
-                    title="Total Revenue"
-                    value={stats.revenue}
-                    icon={DollarSign}
+                    title="Pending Requests"
+                    value={stats.requestsByStatus?.PENDING ?? 0}
+                    icon={Inbox}
                     color="bg-green-500"
-                    trend="+12.5% vs last month"
                 />
                 <StatCard
                     title="Active Projects"
-                    value={stats.activeProjects}
+                    value={stats.projectsByStatus?.Active ?? 0}
                     icon={Briefcase}
                     color="bg-primary"
-                    trend="+5 new this week"
                 />
                 <StatCard
                     title="Total Clients"
                     value={stats.totalClients}
                     icon={Users}
                     color="bg-blue-500"
-                    trend="+3 new this month"
                 />
                 <StatCard
-                    title="System Health"
-                    value={stats.systemHealth}
-                    icon={Activity}
+                    title="Overdue Tasks"
+                    value={stats.overdueTasks}
+                    icon={AlertCircle}
                     color="bg-purple-500"
-                    trend="Stable"
                 />
             </div>
 
             <div className="grid grid-cols-1 lg:grid-cols-2 gap-8 mb-8">
-                {/* Revenue Chart Placeholder */}
                 <div className="glass-card p-6">
-                    <div className="flex items-center justify-between mb-6">
-                        <h3 className="text-lg font-bold flex items-center gap-2">
-                            <TrendingUp className="w-5 h-5 text-green-500" />
-                            Revenue Growth
-                        </h3>
-                        <select className="bg-white/5 border border-white/10 rounded-lg px-3 py-1 text-xs text-text-muted">
-                            <option>Last 12 Months</option>
-                            <option>Last 6 Months</option>
-                            <option>Last 30 Days</option>
-                        </select>
-                    </div>
-                    <div className="h-64 flex items-end justify-between gap-2">
-                        {revenueData.map((value, index) => (
-                            <div key={index} className="w-full bg-white/5 rounded-t-lg relative group hover:bg-green-500/20 transition-colors">
-                                <div
-                                    className="absolute bottom-0 left-0 right-0 bg-green-500/50 rounded-t-lg transition-all duration-500 group-hover:bg-green-500"
-                                    style={{ height: `${value}%` }}
-                                ></div>
-                                <div className="absolute -top-8 left-1/2 -translate-x-1/2 bg-black/80 text-white text-xs px-2 py-1 rounded opacity-0 group-hover:opacity-100 transition-opacity">
-                                    ${value}k
-                                </div>
-                            </div>
-                        ))}
-                    </div>
-                    <div className="flex justify-between mt-4 text-xs text-text-muted">
-                        <span>Jan</span><span>Feb</span><span>Mar</span><span>Apr</span><span>May</span><span>Jun</span>
-                        <span>Jul</span><span>Aug</span><span>Sep</span><span>Oct</span><span>Nov</span><span>Dec</span>
-                    </div>
+                    <h3 className="text-lg font-bold flex items-center gap-2 mb-6">
+                        <Inbox className="w-5 h-5 text-green-500" />
+                        Service Requests per Week
+                    </h3>
+                    <BarChart periods={weekly} value={requestTotal} color="bg-green-500/50" label={weekLabel}
+                        title={requestBreakdown} />
                 </div>
 
-                {/* User Growth Chart Placeholder */}
                 <div className="glass-card p-6">
-                    <div className="flex items-center justify-between mb-6">
-                        <h3 className="text-lg font-bold flex items-center gap-2">
-                            <Users className="w-5 h-5 text-blue-500" />
-                            Client Acquisition
-                        </h3>
-                        <select className="bg-white/5 border border-white/10 rounded-lg px-3 py-1 text-xs text-text-muted">
-                            <option>Last 12 Months</option>
-                        </select>
-                    </div>
-                    <div className="h-64 flex items-end justify-between gap-2">
-                        {userGrowthData.map((value, index) => (
-                            <div key={index} className="w-full bg-white/5 rounded-t-lg relative group hover:bg-blue-500/20 transition-colors">
-                                <div
-                                    className="absolute bottom-0 left-0 right-0 bg-blue-500/50 rounded-t-lg transition-all duration-500 group-hover:bg-blue-500"
-                                    style={{ height: `${value}%` }}
-                                ></div>
-                                <div className="absolute -top-8 left-1/2 -translate-x-1/2 bg-black/80 text-white text-xs px-2 py-1 rounded opacity-0 group-hover:opacity-100 transition-opacity">
-                                    {value}
-                                </div>
-                            </div>
-                        ))}
-                    </div>
-                    <div className="flex justify-between mt-4 text-xs text-text-muted">
-                        <span>Jan</span><span>Feb</span><span>Mar</span><span>Apr</span><span>May</span><span>Jun</span>
-                        <span>Jul</span><span>Aug</span><span>Sep</span><span>Oct</span><span>Nov</span><span>Dec</span>
-                    </div>
+                    <h3 className="text-lg font-bold flex items-center gap-2 mb-6">
+                        <CheckCircle className="w-5 h-5 text-purple-500" />
+                        Task Completion Velocity
+                    </h3>
+                    <BarChart periods={weekly} value={(period) => period.tasksCompleted} color="bg-purple-500/50"
+                        label={weekLabel} />
+                </div>
+
+                <div className="glass-card p-6">
+                    <h3 className="text-lg font-bold flex items-center gap-2 mb-6">
+                        <TrendingUp className="w-5 h-5 text-blue-500" />
+                        Projects Started per Month
+                    </h3>
+                    <BarChart periods={monthly} value={(period) => period.projectsStarted} color="bg-blue-500/50"
+                        label={monthLabel} />
+                </div>
+
+                <div className="glass-card p-6">
+                    <h3 className="text-lg font-bold flex items-center gap-2 mb-6">
+                        <Briefcase className="w-5 h-5 text-primary" />
+                        Projects Completed per Month
+                    </h3>
+                    <BarChart periods={monthly} value={(period) => period.projectsCompleted} color="bg-primary/50"
+                        label={monthLabel} />
                 </div>
             </div>
         </DashboardLayout>
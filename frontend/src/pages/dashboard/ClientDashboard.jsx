@@ -13,7 +13,7 @@ const ClientDashboard = () => {
         activeProjects: 0,
         pendingTasks: 0,
         completedProjects: 0,
-        needsReview: 0
+        overdueTasks: 0
     });
     const [projects, setProjects] = useState([]);
     const [loading, setLoading] = useState(true);
@@ -76,8 +76,8 @@ const ClientDashboard = () => {
                     trend="+2 this week"
                 />
                 <StatCard
-                    title="Needs Review"
-                    value={stats.needsReview}
+                    title="Overdue Tasks"
+                    value={stats.overdueTasks}
                     icon={AlertCircle}
                     color="bg-red-500"
                 />
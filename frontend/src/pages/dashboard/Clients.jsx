@@ -8,6 +8,7 @@ import { register } from '../../api/auth';
 
 const Clients = () => {
     const [clients, setClients] = useState([]);
+    const [clientsCursor, setClientsCursor] = useState(null);
     const [loading, setLoading] = useState(true);
     const [searchTerm, setSearchTerm] = useState('');
     const [showCreateModal, setShowCreateModal] = useState(false);
@@ -27,8 +28,9 @@ const Clients = () => {
 
     const fetchClients = async () => {
         try {
-            const data = await getAllClients();
-            setClients(data);
+            const page = await getAllClients({ limit: 100 });
+            setClients(page.items);
+            setClientsCursor(page.nextCursor);
             setLoading(false);
         } catch (error) {
             console.error("Error fetching clients:", error);
@@ -36,6 +38,16 @@ const Clients = () => {
         }
     };
 
+    const loadMoreClients = async () => {
+        try {
+            const page = await getAllClients({ limit: 100, cursor: clientsCursor });
+            setClients(prev => [...prev, ...page.items]);
+            setClientsCursor(page.nextCursor);
+        } catch (error) {
+            console.error("Error fetching clients:", error);
+        }
+    };
+
     const handleCreateClient = () => {
         setClientForm({
             username: '',
@@ -176,6 +188,11 @@ const Clients = () => {
                         </tbody>
                     </table>
                 </div>
+                {clientsCursor && (
+                    <div className="mt-4 flex justify-center">
+                        <Button variant="ghost" onClick={loadMoreClients}>Load more clients</Button>
+                    </div>
+                )}
             </div>
 
             <CreateClientModal
@@ -1,66 +1,56 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import { Search, Mail, Star, AlertCircle, Plus, ChevronRight } from 'lucide-react';
 import DashboardLayout from '../../components/layout/DashboardLayout';
 import Button from '../../components/ui/Button';
 import ComposeMessageModal from '../../components/modals/ComposeMessageModal';
-import { getMessages, getContacts } from '../../api/dashboard';
+import { getMessages, getInbox, markConversationRead, searchMessages } from '../../api/dashboard';
 import { getCurrentUser } from '../../api/auth';
+import { subscribeToEvents } from '../../api/realtime';
+
+// Renders text with the [start, end) ranges returned by the search endpoint marked
+const Highlighted = ({ text, ranges }) => {
+    if (!text) return null;
+    const parts = [];
+    let last = 0;
+    (ranges || []).forEach(([start, end], idx) => {
+        if (start > last) parts.push(text.slice(last, start));
+        parts.push(<mark key={idx} className="bg-primary/30 text-white rounded px-0.5">{text.slice(start, end)}</mark>);
+        last = end;
+    });
+    parts.push(text.slice(last));
+    return <>{parts}</>;
+};
 
 const Messages = ({ role }) => {
     const [messages, setMessages] = useState([]);
-    const [contacts, setContacts] = useState([]);
     const [loading, setLoading] = useState(true);
     const [showCompose, setShowCompose] = useState(false);
     const [selectedThread, setSelectedThread] = useState(null);
+    const [searchQuery, setSearchQuery] = useState('');
+    const [searchResults, setSearchResults] = useState(null);
     const currentUser = getCurrentUser();
+    // Read from the realtime callback, which is registered once and would see stale state
+    const selectedThreadId = useRef(null);
+    const knownThreadIds = useRef(new Set());
 
-    // Mock grouping for now since backend returns flat list
-    // In a real app, backend should return threads
-    const processMessages = (flatMessages) => {
-        // Group by subject + other person
-        const threads = {};
-        flatMessages.forEach(msg => {
-            const otherId = msg.senderId === currentUser.id ? msg.receiverId : msg.senderId;
-            const key = `${otherId}-${msg.subject || 'No Subject'}`;
-
-            if (!threads[key]) {
-                threads[key] = {
-                    id: key,
-                    otherId,
-                    subject: msg.subject || '(No Subject)',
-                    priority: msg.priority || 'NORMAL',
-                    messages: [],
-                    lastMessage: null,
-                    updatedAt: null
-                };
-            }
-            threads[key].messages.push(msg);
-            // Update last message info
-            if (!threads[key].updatedAt || new Date(msg.createdAt) > new Date(threads[key].updatedAt)) {
-                threads[key].updatedAt = msg.createdAt;
-                threads[key].lastMessage = msg;
-            }
-        });
-        return Object.values(threads).sort((a, b) => new Date(b.updatedAt) - new Date(a.updatedAt));
-    };
+    // One thread per counterpart, built from an inbox row; messages are loaded when opened
+    const toThread = (entry) => ({
+        id: entry.counterpartId,
+        otherId: entry.counterpartId,
+        otherName: entry.counterpartName,
+        subject: entry.subject || '(No Subject)',
+        priority: entry.priority || 'NORMAL',
+        messages: null,
+        lastMessage: { content: entry.preview },
+        updatedAt: entry.lastMessageAt,
+        unreadCount: entry.unreadCount
+    });
 
     const fetchAllMessages = async () => {
         setLoading(true);
         try {
-            // Fetch contacts first to know who to fetch messages for
-            // This is inefficient but works for now without a dedicated "get all my threads" endpoint
-            const contactsData = await getContacts();
-            setContacts(contactsData);
-            let allMsgs = [];
-            for (const contact of contactsData) {
-                const msgs = await getMessages(contact.id);
-                allMsgs = [...allMsgs, ...msgs];
-            }
-            // Remove duplicates if any (though logic above shouldn't create them if API is clean)
-            // Filter unique by ID
-            allMsgs = Array.from(new Map(allMsgs.map(m => [m.id, m])).values());
-
-            setMessages(processMessages(allMsgs));
+            const inbox = await getInbox();
+            setMessages(inbox.map(toThread));
         } catch (error) {
             console.error("Error fetching messages", error);
         } finally {
@@ -68,14 +58,100 @@ const Messages = ({ role }) => {
         }
     };
 
+    // Folds a pushed message into its thread and moves the thread to the top
+    const applyIncoming = (message) => {
+        const otherId = message.senderId === currentUser.id ? message.receiverId : message.senderId;
+        const incoming = message.senderId !== currentUser.id;
+        const merge = (thread) => ({
+            ...thread,
+            subject: message.subject || thread.subject,
+            priority: message.priority || thread.priority,
+            lastMessage: { content: message.content },
+            updatedAt: message.createdAt,
+            messages: thread.messages && !thread.messages.some(m => m.id === message.id)
+                ? [...thread.messages, message] : thread.messages
+        });
+
+        if (!knownThreadIds.current.has(otherId)) {
+            // First message with someone new: reload the inbox for their name
+            fetchAllMessages();
+            return;
+        }
+        setMessages(prev => {
+            const existing = prev.find(t => t.id === otherId);
+            if (!existing) return prev;
+            const updated = merge(existing);
+            updated.unreadCount = incoming && selectedThreadId.current !== otherId
+                ? (existing.unreadCount || 0) + 1 : existing.unreadCount;
+            return [updated, ...prev.filter(t => t.id !== otherId)];
+        });
+        setSelectedThread(prev => prev && prev.id === otherId ? merge(prev) : prev);
+        if (incoming && selectedThreadId.current === otherId) {
+            markConversationRead(otherId).catch(() => {});
+        }
+    };
+
     useEffect(() => {
         fetchAllMessages();
+        // Messages pushed by the server are merged in place instead of refetching the inbox
+        return subscribeToEvents((type, message) => {
+            if (type === 'message') applyIncoming(message);
+        });
     }, []);
 
+    useEffect(() => {
+        knownThreadIds.current = new Set(messages.map(t => t.id));
+    }, [messages]);
+
+    const openThread = async (thread) => {
+        selectedThreadId.current = thread.id;
+        setSelectedThread(thread);
+        if (thread.unreadCount) {
+            setMessages(prev => prev.map(t => t.id === thread.id ? { ...t, unreadCount: 0 } : t));
+            markConversationRead(thread.otherId).catch(() => {});
+        }
+        try {
+            const conversation = await getMessages(thread.otherId);
+            if (selectedThreadId.current === thread.id) {
+                setSelectedThread(prev => ({ ...prev, messages: conversation }));
+            }
+        } catch (error) {
+            console.error("Error fetching conversation", error);
+        }
+    };
+
+    useEffect(() => {
+        const q = searchQuery.trim();
+        if (!q) {
+            setSearchResults(null);
+            return;
+        }
+        const timer = setTimeout(async () => {
+            try {
+                const page = await searchMessages(q);
+                setSearchResults(page.hits);
+            } catch (error) {
+                setSearchResults([]);
+            }
+        }, 300);
+        return () => clearTimeout(timer);
+    }, [searchQuery]);
+
+    const openSearchHit = (hit) => {
+        const otherId = hit.message.senderId === currentUser.id ? hit.message.receiverId : hit.message.senderId;
+        const thread = messages.find(t => t.id === otherId);
+        if (thread) openThread(thread);
+    };
+
+    const closeThread = () => {
+        selectedThreadId.current = null;
+        setSelectedThread(null);
+    };
+
     const getSenderName = (senderId) => {
         if (senderId === currentUser.id) return 'You';
-        const contact = contacts.find(c => c.id === senderId);
-        return contact ? (contact.fullName || contact.username) : 'Unknown Sender';
+        const thread = messages.find(t => t.otherId === senderId);
+        return thread?.otherName || 'Unknown Sender';
     };
 
     return (
@@ -98,12 +174,38 @@ const Messages = ({ role }) => {
                                 type="text"
                                 placeholder="Search messages..."
                                 className="w-full glass-input pl-10"
+                                value={searchQuery}
+                                onChange={(e) => setSearchQuery(e.target.value)}
                             />
                         </div>
                     </div>
 
                     <div className="flex-1 overflow-y-auto custom-scrollbar">
-                        {loading ? (
+                        {searchResults !== null ? (
+                            searchResults.length === 0 ? (
+                                <div className="p-8 text-center text-text-muted">No matching messages</div>
+                            ) : (
+                                searchResults.map(hit => (
+                                    <div
+                                        key={hit.message.id}
+                                        onClick={() => openSearchHit(hit)}
+                                        className="p-4 border-b border-white/5 hover:bg-white/5 cursor-pointer transition-colors"
+                                    >
+                                        <div className="flex justify-between items-start mb-1">
+                                            <h3 className="font-bold text-white truncate pr-2">
+                                                <Highlighted text={hit.message.subject || '(No Subject)'} ranges={hit.subjectHighlights} />
+                                            </h3>
+                                            <span className="text-xs text-text-muted whitespace-nowrap">
+                                                {new Date(hit.message.createdAt).toLocaleDateString()}
+                                            </span>
+                                        </div>
+                                        <p className="text-sm text-text-muted">
+                                            {getSenderName(hit.message.senderId)}: <Highlighted text={hit.snippet} ranges={hit.snippetHighlights} />
+                                        </p>
+                                    </div>
+                                ))
+                            )
+                        ) : loading ? (
                             <div className="p-8 text-center text-text-muted">Loading inbox...</div>
                         ) : messages.length === 0 ? (
                             <div className="p-8 text-center text-text-muted flex flex-col items-center">
@@ -114,7 +216,7 @@ const Messages = ({ role }) => {
                             messages.map(thread => (
                                 <div
                                     key={thread.id}
-                                    onClick={() => setSelectedThread(thread)}
+                                    onClick={() => openThread(thread)}
                                     className={`p-4 border-b border-white/5 hover:bg-white/5 cursor-pointer transition-colors ${selectedThread?.id === thread.id ? 'bg-white/5 border-l-2 border-l-primary' : 'border-l-2 border-l-transparent'
                                         }`}
                                 >
@@ -127,6 +229,11 @@ const Messages = ({ role }) => {
                                         </span>
                                     </div>
                                     <div className="flex justify-between items-center mb-2">
+                                        {thread.unreadCount > 0 && (
+                                            <span className="text-xs px-2 py-0.5 rounded-full bg-primary text-white">
+                                                {thread.unreadCount} new
+                                            </span>
+                                        )}
                                         <span className={`text-xs px-2 py-0.5 rounded ${thread.priority === 'HIGH' ? 'bg-red-400/10 text-red-400' :
                                             thread.priority === 'LOW' ? 'bg-white/10 text-text-muted' :
                                                 'bg-primary/10 text-primary'
@@ -151,7 +258,7 @@ const Messages = ({ role }) => {
                             <div className="p-6 border-b border-white/5 bg-white/5">
                                 <div className="flex justify-between items-start mb-4">
                                     <div className="flex items-center gap-2 lg:hidden mb-2">
-                                        <button onClick={() => setSelectedThread(null)} className="text-text-muted hover:text-white">
+                                        <button onClick={closeThread} className="text-text-muted hover:text-white">
                                             <ChevronRight className="w-5 h-5 rotate-180" />
                                         </button>
                                         <span className="text-sm text-text-muted">Back to Inbox</span>
@@ -169,7 +276,9 @@ const Messages = ({ role }) => {
 
                             {/* Messages */}
                             <div className="flex-1 overflow-y-auto p-6 space-y-8 custom-scrollbar">
-                                {selectedThread.messages.sort((a, b) => new Date(a.createdAt) - new Date(b.createdAt)).map((msg, idx) => {
+                                {!selectedThread.messages ? (
+                                    <div className="text-center text-text-muted">Loading conversation...</div>
+                                ) : [...selectedThread.messages].sort((a, b) => new Date(a.createdAt) - new Date(b.createdAt)).map((msg, idx) => {
                                     const isMe = msg.senderId === currentUser.id;
                                     return (
                                         <div key={idx} className={`flex flex-col ${isMe ? 'items-end' : 'items-start'}`}>
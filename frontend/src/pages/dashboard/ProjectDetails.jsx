@@ -1,4 +1,4 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import { useParams, useNavigate } from 'react-router-dom';
 import {
     Calendar,
@@ -14,7 +14,23 @@ import {
 import DashboardLayout from '../../components/layout/DashboardLayout';
 import Button from '../../components/ui/Button';
 import Input from '../../components/ui/Input';
-import { getProjectById, addTask, updateTask, generateTasks } from '../../api/dashboard';
+import { getProjectById, getProjectTasks, addTask, updateTask, batchTasks, generateTasks } from '../../api/dashboard';
+import { subscribeToProject } from '../../api/realtime';
+
+const TASK_PAGE_SIZE = 50;
+
+// Keeps the server-side task counts in step with a local add or status change
+const adjustSummary = (summary, fromStatus, toStatus) => {
+    const byStatus = { ...(summary?.byStatus || {}) };
+    let total = summary?.total || 0;
+    if (fromStatus) {
+        byStatus[fromStatus] = Math.max(0, (byStatus[fromStatus] || 0) - 1);
+    } else {
+        total += 1;
+    }
+    byStatus[toStatus] = (byStatus[toStatus] || 0) + 1;
+    return { total, byStatus };
+};
 
 const ProjectDetails = ({ role = 'client' }) => {
     const { id } = useParams();
@@ -22,9 +38,15 @@ const ProjectDetails = ({ role = 'client' }) => {
     const [project, setProject] = useState(null);
     const [loading, setLoading] = useState(true);
     const [error, setError] = useState(null);
+    const [tasks, setTasks] = useState([]);
+    const [hasMoreTasks, setHasMoreTasks] = useState(false);
+    const [loadingTasks, setLoadingTasks] = useState(false);
     const [showAddTask, setShowAddTask] = useState(false);
     const [newTask, setNewTask] = useState({ title: '', status: 'Pending' });
     const [generatingTasks, setGeneratingTasks] = useState(false);
+    // Last known status of every loaded task, so a change seen both locally and on the event stream counts once
+    const taskStatuses = useRef(new Map());
+    const hasMoreRef = useRef(false);
 
     const handleGenerateTasks = async () => {
         if (!project.description) {
@@ -35,13 +57,12 @@ const ProjectDetails = ({ role = 'client' }) => {
         try {
             const tasks = await generateTasks(project.description);
             if (tasks && tasks.length > 0) {
-                // Add tasks one by one (or could be batch if backend supported it)
-                for (const taskTitle of tasks) {
-                    await addTask(id, { title: taskTitle, status: 'Pending', completed: false });
-                }
+                // One write for the whole plan; appends do not depend on the current tasks, so no version is sent
+                await batchTasks(id, {
+                    operations: tasks.map(taskTitle => ({ op: 'create', title: taskTitle, status: 'Pending', completed: false }))
+                });
                 // Refresh project
-                const updatedProject = await getProjectById(id);
-                setProject(updatedProject);
+                await loadProject();
                 alert(`Successfully generated and added ${tasks.length} tasks!`);
             } else {
                 alert("AI could not generate tasks from the description.");
@@ -54,11 +75,56 @@ const ProjectDetails = ({ role = 'client' }) => {
         }
     };
 
+    // Project fields and task counts, plus the first page of tasks
+    const loadProject = async () => {
+        const [data, page] = await Promise.all([
+            getProjectById(id),
+            getProjectTasks(id, { limit: TASK_PAGE_SIZE })
+        ]);
+        taskStatuses.current = new Map(page.tasks.map(t => [t.id, t.status]));
+        hasMoreRef.current = page.hasMore;
+        setProject(data);
+        setTasks(page.tasks);
+        setHasMoreTasks(page.hasMore);
+    };
+
+    // Merges an added or updated task from a local write or the event stream
+    const applyTask = (task) => {
+        const known = taskStatuses.current.has(task.id);
+        const previousStatus = taskStatuses.current.get(task.id);
+        if (known && previousStatus === task.status) {
+            setTasks(prev => prev.map(t => (t.id === task.id ? task : t)));
+            return;
+        }
+        if (!known && hasMoreRef.current) {
+            // New, or on a page not loaded yet: only the server can tell, so refresh the counts
+            getProjectById(id).then(setProject).catch(err => console.error("Error refreshing project:", err));
+            return;
+        }
+        taskStatuses.current.set(task.id, task.status);
+        setTasks(prev => (known ? prev.map(t => (t.id === task.id ? task : t)) : [...prev, task]));
+        setProject(prev => ({ ...prev, taskSummary: adjustSummary(prev.taskSummary, previousStatus, task.status) }));
+    };
+
+    const loadMoreTasks = async () => {
+        setLoadingTasks(true);
+        try {
+            const page = await getProjectTasks(id, { offset: tasks.length, limit: TASK_PAGE_SIZE });
+            page.tasks.forEach(t => taskStatuses.current.set(t.id, t.status));
+            hasMoreRef.current = page.hasMore;
+            setTasks(prev => [...prev, ...page.tasks]);
+            setHasMoreTasks(page.hasMore);
+        } catch (err) {
+            console.error("Error loading tasks:", err);
+        } finally {
+            setLoadingTasks(false);
+        }
+    };
+
     useEffect(() => {
         const fetchProject = async () => {
             try {
-                const data = await getProjectById(id);
-                setProject(data);
+                await loadProject();
                 setLoading(false);
             } catch (err) {
                 console.error("Error fetching project details:", err);
@@ -69,14 +135,32 @@ const ProjectDetails = ({ role = 'client' }) => {
         fetchProject();
     }, [id]);
 
+    // Live task and status changes made by anyone else on this project
+    useEffect(() => {
+        return subscribeToProject(id, (type, data) => {
+            if (type === 'task') {
+                applyTask(data);
+            } else if (type === 'status') {
+                setProject(prev => (prev ? { ...prev, status: data.status } : prev));
+            } else if (type === 'reset' || type === 'reload') {
+                loadProject().catch(err => console.error("Error reloading project:", err));
+            }
+        });
+    }, [id]);
+
     const handleAddTask = async (e) => {
         e.preventDefault();
         try {
-            const updatedProject = await addTask(id, {
+            const task = await addTask(id, {
                 ...newTask,
                 completed: false
             });
-            setProject(updatedProject);
+            // New tasks go last; when later pages are not loaded yet it will show up with them
+            if (!hasMoreTasks) {
+                applyTask(task);
+            } else {
+                setProject(prev => ({ ...prev, taskSummary: adjustSummary(prev.taskSummary, null, task.status) }));
+            }
             setShowAddTask(false);
             setNewTask({ title: '', status: 'Pending' });
         } catch (err) {
@@ -90,11 +174,11 @@ const ProjectDetails = ({ role = 'client' }) => {
             const newStatus = currentStatus === 'Completed' ? 'Pending' : 'Completed';
             const isCompleted = newStatus === 'Completed';
 
-            const updatedProject = await updateTask(id, taskId, {
+            const task = await updateTask(id, taskId, {
                 status: newStatus,
                 completed: isCompleted
             });
-            setProject(updatedProject);
+            applyTask(task);
         } catch (err) {
             console.error("Error updating task:", err);
         }
@@ -126,9 +210,10 @@ const ProjectDetails = ({ role = 'client' }) => {
     }
 
     const calculateProgress = () => {
-        if (!project.tasks || project.tasks.length === 0) return project.progress || 0;
-        const completedTasks = project.tasks.filter(t => t.status === 'Completed').length;
-        return Math.round((completedTasks / project.tasks.length) * 100);
+        const summary = project.taskSummary;
+        if (!summary || summary.total === 0) return project.progress || 0;
+        const completedTasks = summary.byStatus?.Completed || 0;
+        return Math.round((completedTasks / summary.total) * 100);
     };
 
     const progress = calculateProgress();
@@ -225,9 +310,9 @@ const ProjectDetails = ({ role = 'client' }) => {
                     <div className="glass-card p-6">
                         <h3 className="text-lg font-bold mb-4">Tasks & Milestones</h3>
 
-                        {project.tasks && project.tasks.length > 0 ? (
+                        {tasks.length > 0 ? (
                             <div className="space-y-3">
-                                {project.tasks.map((task) => (
+                                {tasks.map((task) => (
                                     <div
                                         key={task.id}
                                         className={`p-4 rounded-xl border transition-all duration-200 flex items-center justify-between ${task.status === 'Completed'
@@ -255,6 +340,11 @@ const ProjectDetails = ({ role = 'client' }) => {
                                         </span>
                                     </div>
                                 ))}
+                                {hasMoreTasks && (
+                                    <Button variant="ghost" onClick={loadMoreTasks} disabled={loadingTasks} className="w-full">
+                                        {loadingTasks ? 'Loading...' : `Show more (${tasks.length} of ${project.taskSummary?.total ?? 0})`}
+                                    </Button>
+                                )}
                             </div>
                         ) : (
                             <div className="text-center py-8 text-text-muted bg-white/5 rounded-xl border border-dashed border-white/10">